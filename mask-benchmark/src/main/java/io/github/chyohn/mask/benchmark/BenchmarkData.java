@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import java.util.Random;
+
+/**
+ * 基准测试的输入数据，使用固定的随机种子生成，每次运行的数据相同
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class BenchmarkData {
+
+    /**
+     * 每组输入数据的个数，基准测试循环使用，避免JIT把固定输入的结果当作常量
+     */
+    static final int SIZE = 1024;
+
+    private static final long SEED = 20230601L;
+    private static final String DIGITS = "0123456789";
+    private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final String CHINESE = "的一是在不了有和人这中大为上个国我以要他时来用们生到作地于出就分对成会可主发年动同工也能下过子说产种面而方后多定行学法所民得经";
+    private static final String SURNAMES = "王李张刘陈杨黄赵吴周徐孙马朱胡郭何高林罗";
+    private static final String[] COMPOUND_SURNAMES = {"司马", "欧阳", "诸葛", "上官", "东方"};
+    private static final String[] DOMAINS = {"sina.com", "qq.com", "163.com", "gmail.com", "example.com.cn"};
+
+    private BenchmarkData() {
+    }
+
+    static Random random() {
+        return new Random(SEED);
+    }
+
+    /**
+     * @return 11位手机号
+     */
+    static String[] phones() {
+        Random random = random();
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = "1" + (3 + random.nextInt(7)) + digits(random, 9);
+        }
+        return values;
+    }
+
+    /**
+     * @return 邮箱，@左边4到16个字符
+     */
+    static String[] emails() {
+        Random random = random();
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = chars(random, LETTERS + DIGITS, 4 + random.nextInt(13)) + "@" + DOMAINS[random.nextInt(DOMAINS.length)];
+        }
+        return values;
+    }
+
+    /**
+     * @return 2到6个字的中文姓名，包括复姓
+     */
+    static String[] chineseNames() {
+        Random random = random();
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            String surname = random.nextInt(8) == 0
+                ? COMPOUND_SURNAMES[random.nextInt(COMPOUND_SURNAMES.length)]
+                : String.valueOf(SURNAMES.charAt(random.nextInt(SURNAMES.length())));
+            values[i] = surname + chars(random, CHINESE, 1 + random.nextInt(Math.max(1, 6 - surname.length())));
+        }
+        return values;
+    }
+
+    /**
+     * @param length 字符串长度
+     * @return 由数字、字母和中文组成的指定长度的字符串
+     */
+    static String[] mixed(int length) {
+        Random random = random();
+        String[] values = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = chars(random, DIGITS + LETTERS + CHINESE, length);
+        }
+        return values;
+    }
+
+    /**
+     * @param tokens    分隔后的元素个数
+     * @param delimiter 分隔符
+     * @return 由delimiter连接的tokens个元素，每个元素2到8个字符
+     */
+    static String[] delimited(int tokens, String delimiter) {
+        Random random = random();
+        String[] values = new String[SIZE];
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < SIZE; i++) {
+            builder.setLength(0);
+            for (int t = 0; t < tokens; t++) {
+                if (t > 0) {
+                    builder.append(delimiter);
+                }
+                builder.append(chars(random, LETTERS + DIGITS, 2 + random.nextInt(7)));
+            }
+            values[i] = builder.toString();
+        }
+        return values;
+    }
+
+    /**
+     * 生成类似日志的自由文本，包含中英文、数字、手机号和金额
+     *
+     * @param length 文本长度
+     * @param count  文本个数
+     * @return 自由文本
+     */
+    static String[] freeText(int length, int count) {
+        Random random = random();
+        String[] values = new String[count];
+        StringBuilder builder = new StringBuilder(length + 32);
+        for (int i = 0; i < count; i++) {
+            builder.setLength(0);
+            while (builder.length() < length) {
+                switch (random.nextInt(5)) {
+                    case 0:
+                        builder.append("用户").append(chars(random, CHINESE, 2)).append("的手机号是1")
+                            .append(3 + random.nextInt(7)).append(digits(random, 9));
+                        break;
+                    case 1:
+                        builder.append(" order=").append(digits(random, 12)).append(" amount=")
+                            .append(random.nextInt(100000)).append('.').append(digits(random, 2));
+                        break;
+                    case 2:
+                        builder.append(' ').append(chars(random, LETTERS, 3 + random.nextInt(8))).append(' ');
+                        break;
+                    default:
+                        builder.append(chars(random, CHINESE, 4 + random.nextInt(12))).append('，');
+                        break;
+                }
+            }
+            builder.setLength(length);
+            values[i] = builder.toString();
+        }
+        return values;
+    }
+
+    private static String digits(Random random, int length) {
+        return chars(random, DIGITS, length);
+    }
+
+    private static String chars(Random random, String alphabet, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * README中的组合处理器：邮箱和中文姓名。
+ * mode为none时使用原处理器，compile时使用{@link IMaskHandler#compile()}的结果，generate时使用{@link MaskHandlerFactory#generate(IMaskHandler)}的结果
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskCompositionBenchmark {
+
+    @Param({"none", "compile", "generate"})
+    public String mode;
+
+    private IMaskHandler emailGroup;
+    private IMaskHandler emailNested;
+    private IMaskHandler emailSeparated;
+    private IMaskHandler name;
+    private IMaskHandler phone;
+    private String[] emails;
+    private String[] names;
+    private String[] phones;
+    private int index;
+
+    @Setup
+    public void setup() {
+        // @左边部分只保留前1个字符
+        emailGroup = compile(MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1)));
+        // @左边保留1个字符并固定3个脱敏字符，@右边按.分隔后第一部分只展示1个脱敏字符
+        IMaskHandler right = MaskHandlerFactory.group(".")
+            .addHandler(MaskHandlerFactory.maskAll().setMaskLength(1).setMaskStr("^_^"));
+        emailNested = compile(MaskHandlerFactory.group("@")
+            .addHandler(MaskHandlerFactory.reserveLeft(1).setMaskLength(3), right));
+        emailSeparated = compile(MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1),
+            MaskHandlerFactory.maskLeft(1).setSeparator(".").setMaskStr("^_^")));
+        // 保留姓氏
+        name = compile(MaskHandlerFactory.sizeSelector()
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 2, 3)
+            .addHandler(MaskHandlerFactory.reserveLeft(2), 4));
+        phone = compile(MaskHandlerFactory.reserveOuter(3, 4));
+        emails = BenchmarkData.emails();
+        names = BenchmarkData.chineseNames();
+        phones = BenchmarkData.phones();
+    }
+
+    private IMaskHandler compile(IMaskHandler handler) {
+        switch (mode) {
+            case "compile":
+                return handler.compile();
+            case "generate":
+                return MaskHandlerFactory.generate(handler);
+            default:
+                return handler;
+        }
+    }
+
+    private int next() {
+        return index++ & (BenchmarkData.SIZE - 1);
+    }
+
+    @Benchmark
+    public String emailGroup() {
+        return emailGroup.handle(emails[next()]);
+    }
+
+    @Benchmark
+    public String emailNested() {
+        return emailNested.handle(emails[next()]);
+    }
+
+    @Benchmark
+    public String emailSeparated() {
+        return emailSeparated.handle(emails[next()]);
+    }
+
+    @Benchmark
+    public String chineseName() {
+        return name.handle(names[next()]);
+    }
+
+    @Benchmark
+    public String phone() {
+        return phone.handle(phones[next()]);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 处理器与配置JSON之间的转换耗时：toConfig、fromConfig、fromConfigCached以及完整的往返转换
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskConfigBenchmark {
+
+    /**
+     * simple：单个处理器；email：README中嵌套的邮箱处理器；name：README中的中文姓名处理器
+     */
+    @Param({"simple", "email", "name"})
+    public String shape;
+
+    private IMaskHandler handler;
+    private String config;
+
+    @Setup
+    public void setup() {
+        switch (shape) {
+            case "simple":
+                handler = MaskHandlerFactory.reserveOuter(3, 4);
+                break;
+            case "email":
+                IMaskHandler right = MaskHandlerFactory.group(".")
+                    .addHandler(MaskHandlerFactory.maskAll().setMaskLength(1).setMaskStr("^_^"));
+                handler = MaskHandlerFactory.group("@")
+                    .addHandler(MaskHandlerFactory.reserveLeft(1).setMaskLength(3), right);
+                break;
+            case "name":
+                handler = MaskHandlerFactory.sizeSelector()
+                    .addHandler(MaskHandlerFactory.reserveLeft(1), 2, 3)
+                    .addHandler(MaskHandlerFactory.reserveLeft(2), 4);
+                break;
+            default:
+                throw new IllegalArgumentException("未知的处理器：" + shape);
+        }
+        config = handler.toConfig();
+    }
+
+    @Benchmark
+    public String toConfig() {
+        return handler.toConfig();
+    }
+
+    @Benchmark
+    public IMaskHandler fromConfig() {
+        return MaskHandlerFactory.fromConfig(config);
+    }
+
+    @Benchmark
+    public IMaskHandler fromConfigCached() {
+        return MaskHandlerFactory.fromConfigCached(config);
+    }
+
+    @Benchmark
+    public IMaskHandler roundTrip() {
+        return MaskHandlerFactory.fromConfig(handler.toConfig());
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * {@link MaskHandlerFactory}中每个工厂方法创建的处理器对单个字符串脱敏的耗时。
+ * 输入长度：11（手机号）、18（身份证号）、64（地址、备注等较长的字段），内容由数字、字母和中文组成
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskFactoryBenchmark {
+
+    @Param({"maskAll", "maskAllFixed", "hideAll", "maskInner", "maskOuter", "maskMargin", "maskLeft", "maskRight",
+        "maskAppend", "maskMarginAppend", "maskLeftAppend", "maskRightAppend", "reserveOuter", "reserveInner",
+        "reserveMargin", "reserveLeft", "reserveRight", "maskNumber", "maskNumberStr", "maskLetter", "maskLetterStr",
+        "ignore"})
+    public String factory;
+
+    @Param({"11", "18", "64"})
+    public int length;
+
+    /**
+     * true：使用{@link IMaskHandler#compile()}编译后的处理器
+     */
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private IMaskHandler handler;
+    private String[] inputs;
+    private int index;
+
+    @Setup
+    public void setup() {
+        IMaskHandler created = create(factory);
+        handler = compiled ? created.compile() : created;
+        inputs = BenchmarkData.mixed(length);
+    }
+
+    static IMaskHandler create(String factory) {
+        switch (factory) {
+            case "maskAll":
+                return MaskHandlerFactory.maskAll();
+            case "maskAllFixed":
+                return MaskHandlerFactory.maskAll(4);
+            case "hideAll":
+                return MaskHandlerFactory.hideAll();
+            case "maskInner":
+                return MaskHandlerFactory.maskInner(3, 4);
+            case "maskOuter":
+                return MaskHandlerFactory.maskOuter(3, 4);
+            case "maskMargin":
+                return MaskHandlerFactory.maskMargin(3);
+            case "maskLeft":
+                return MaskHandlerFactory.maskLeft(3);
+            case "maskRight":
+                return MaskHandlerFactory.maskRight(4);
+            case "maskAppend":
+                return MaskHandlerFactory.maskAppend(3, 4);
+            case "maskMarginAppend":
+                return MaskHandlerFactory.maskMarginAppend(3);
+            case "maskLeftAppend":
+                return MaskHandlerFactory.maskLeftAppend(3);
+            case "maskRightAppend":
+                return MaskHandlerFactory.maskRightAppend(4);
+            case "reserveOuter":
+                return MaskHandlerFactory.reserveOuter(3, 4);
+            case "reserveInner":
+                return MaskHandlerFactory.reserveInner(3, 4);
+            case "reserveMargin":
+                return MaskHandlerFactory.reserveMargin(3);
+            case "reserveLeft":
+                return MaskHandlerFactory.reserveLeft(3);
+            case "reserveRight":
+                return MaskHandlerFactory.reserveRight(4);
+            case "maskNumber":
+                return MaskHandlerFactory.maskNumber();
+            case "maskNumberStr":
+                return MaskHandlerFactory.maskNumber("#");
+            case "maskLetter":
+                return MaskHandlerFactory.maskLetter();
+            case "maskLetterStr":
+                return MaskHandlerFactory.maskLetter("#");
+            case "ignore":
+                return MaskHandlerFactory.ignore();
+            default:
+                throw new IllegalArgumentException("未知的工厂方法：" + factory);
+        }
+    }
+
+    @Benchmark
+    public String handle() {
+        return handler.handle(inputs[index++ & (BenchmarkData.SIZE - 1)]);
+    }
+}
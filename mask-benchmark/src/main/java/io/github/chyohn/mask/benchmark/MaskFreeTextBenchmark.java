@@ -0,0 +1,96 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * maskNumber和maskLetter对长文本（类似日志）的脱敏耗时，分别测试返回字符串和写入可复用输出缓冲区两种方式
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskFreeTextBenchmark {
+
+    private static final int TEXT_COUNT = 16;
+
+    @Param({"1024", "65536"})
+    public int length;
+
+    private IMaskHandler maskNumber;
+    private IMaskHandler maskLetter;
+    private String[] texts;
+    private StringBuilder out;
+    private int index;
+
+    @Setup
+    public void setup() {
+        maskNumber = MaskHandlerFactory.maskNumber().compile();
+        maskLetter = MaskHandlerFactory.maskLetter().compile();
+        texts = BenchmarkData.freeText(length, TEXT_COUNT);
+        out = new StringBuilder(length);
+    }
+
+    private String next() {
+        return texts[index++ & (TEXT_COUNT - 1)];
+    }
+
+    @Benchmark
+    public String maskNumber() {
+        return maskNumber.handle(next());
+    }
+
+    @Benchmark
+    public String maskLetter() {
+        return maskLetter.handle(next());
+    }
+
+    @Benchmark
+    public int maskNumberToBuffer() {
+        out.setLength(0);
+        maskNumber.handle(next(), out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int maskLetterToBuffer() {
+        out.setLength(0);
+        maskLetter.handle(next(), out);
+        return out.length();
+    }
+}
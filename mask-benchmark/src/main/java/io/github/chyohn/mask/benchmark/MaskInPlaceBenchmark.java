@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 解析器复用char[]缓冲区的场景：先创建字符串脱敏再把结果复制回缓冲区，与直接在缓冲区中原地脱敏的耗时对比。
+ * 两种方式都先把输入复制到同一个缓冲区，复制的耗时相同
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskInPlaceBenchmark {
+
+    @Param({"maskInner", "maskOuter", "reserveOuter", "reserveLeft", "maskNumber", "maskLetter"})
+    public String factory;
+
+    @Param({"11", "64"})
+    public int length;
+
+    private IMaskHandler handler;
+    private char[][] inputs;
+    private char[] buf;
+    private int index;
+
+    @Setup
+    public void setup() {
+        handler = MaskFactoryBenchmark.create(factory).compile();
+        String[] values = BenchmarkData.mixed(length);
+        inputs = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            inputs[i] = values[i].toCharArray();
+        }
+        buf = new char[length];
+    }
+
+    private int next() {
+        char[] input = inputs[index++ & (BenchmarkData.SIZE - 1)];
+        System.arraycopy(input, 0, buf, 0, input.length);
+        return input.length;
+    }
+
+    @Benchmark
+    public char[] handleString() {
+        int len = next();
+        String result = handler.handle(new String(buf, 0, len));
+        result.getChars(0, len, buf, 0);
+        return buf;
+    }
+
+    @Benchmark
+    public char[] maskInPlace() {
+        handler.maskInPlace(buf, 0, next());
+        return buf;
+    }
+}
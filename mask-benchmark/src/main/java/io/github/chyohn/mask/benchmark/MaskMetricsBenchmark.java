@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.metrics.MaskMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link MaskMetrics#instrument(String, IMaskHandler)}包装后的处理器与原处理器的耗时对比，sampleInterval为耗时抽样间隔
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskMetricsBenchmark {
+
+    @Param({"0", "16", "1"})
+    public int sampleInterval;
+
+    private IMaskHandler phone;
+    private IMaskHandler instrumentedPhone;
+    private IMaskHandler email;
+    private IMaskHandler instrumentedEmail;
+    private String[] phones;
+    private String[] emails;
+    private int index;
+
+    @Setup
+    public void setup() {
+        MaskMetrics metrics = MaskMetrics.create().setSampleInterval(sampleInterval);
+        phone = MaskHandlerFactory.reserveOuter(3, 4).compile();
+        instrumentedPhone = metrics.instrument("phone", phone).compile();
+        email = MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1),
+            MaskHandlerFactory.maskLeft(1).setSeparator(".").setMaskStr("^_^")).compile();
+        instrumentedEmail = metrics.instrument("email", email).compile();
+        phones = BenchmarkData.phones();
+        emails = BenchmarkData.emails();
+    }
+
+    private int next() {
+        return index++ & (BenchmarkData.SIZE - 1);
+    }
+
+    @Benchmark
+    public String phone() {
+        return phone.handle(phones[next()]);
+    }
+
+    @Benchmark
+    public String phoneInstrumented() {
+        return instrumentedPhone.handle(phones[next()]);
+    }
+
+    @Benchmark
+    public String email() {
+        return email.handle(emails[next()]);
+    }
+
+    @Benchmark
+    public String emailInstrumented() {
+        return instrumentedEmail.handle(emails[next()]);
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 字面量分隔符和正则表达式分隔符的脱敏耗时，输入为tokens个由分隔符连接的元素
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskSeparatorBenchmark {
+
+    @Param({"4", "32"})
+    public int tokens;
+
+    @Param({"false", "true"})
+    public boolean compiled;
+
+    private IMaskHandler literal;
+    private IMaskHandler literalLimit;
+    private IMaskHandler literalDelimiter;
+    private IMaskHandler regex;
+    private IMaskHandler group;
+    private IMaskHandler sizeSelector;
+    private String[] commaInputs;
+    private String[] spaceInputs;
+    private int index;
+
+    @Setup
+    public void setup() {
+        literal = compile(MaskHandlerFactory.maskInner(1, 1).setSeparator(","));
+        literalLimit = compile(MaskHandlerFactory.maskInner(1, 1).setSeparator(",", 3));
+        literalDelimiter = compile(MaskHandlerFactory.maskInner(1, 1).setSeparator(",").setOutputDelimiter("|"));
+        regex = compile(MaskHandlerFactory.maskInner(1, 1).setSeparatorRegex("\\s+"));
+        group = compile(MaskHandlerFactory.group(",")
+            .addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.reserveRight(1))
+            .setDefaultHandler(MaskHandlerFactory.maskAll()));
+        sizeSelector = compile(MaskHandlerFactory.sizeSelector(",")
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 2, 3)
+            .addHandler(MaskHandlerFactory.reserveLeft(2), 4));
+        commaInputs = BenchmarkData.delimited(tokens, ",");
+        spaceInputs = BenchmarkData.delimited(tokens, "  ");
+    }
+
+    private IMaskHandler compile(IMaskHandler handler) {
+        return compiled ? handler.compile() : handler;
+    }
+
+    private int next() {
+        return index++ & (BenchmarkData.SIZE - 1);
+    }
+
+    @Benchmark
+    public String literal() {
+        return literal.handle(commaInputs[next()]);
+    }
+
+    @Benchmark
+    public String literalLimit() {
+        return literalLimit.handle(commaInputs[next()]);
+    }
+
+    @Benchmark
+    public String literalOutputDelimiter() {
+        return literalDelimiter.handle(commaInputs[next()]);
+    }
+
+    @Benchmark
+    public String regex() {
+        return regex.handle(spaceInputs[next()]);
+    }
+
+    @Benchmark
+    public String group() {
+        return group.handle(commaInputs[next()]);
+    }
+
+    @Benchmark
+    public String sizeSelector() {
+        return sizeSelector.handle(commaInputs[next()]);
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对UTF-8字节脱敏：先解码为字符串脱敏再编码、直接在字节上脱敏，以及在直接内存的buffer中原地脱敏的耗时和内存分配对比
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class MaskUtf8Benchmark {
+
+    private IMaskHandler phone;
+    private IMaskHandler email;
+    private IMaskHandler name;
+    private byte[][] phones;
+    private byte[][] emails;
+    private byte[][] names;
+    private final MaskByteSink sink = new MaskByteSink(256);
+    private ByteBuffer phoneBuffer; // 所有手机号依次写入的直接内存buffer
+    private int[] phoneOffsets;
+    private int index;
+
+    @Setup
+    public void setup() {
+        phone = MaskHandlerFactory.reserveOuter(3, 4).compile();
+        email = MaskHandlerFactory.group("@")
+            .addHandler(MaskHandlerFactory.maskInner(1, 1), MaskHandlerFactory.group(".")
+                .addHandler(MaskHandlerFactory.maskAll(), MaskHandlerFactory.ignore())
+                .addHandler(MaskHandlerFactory.maskAll(), MaskHandlerFactory.ignore(), MaskHandlerFactory.ignore()))
+            .compile();
+        name = MaskHandlerFactory.reserveLeft(1).compile();
+        phones = encode(BenchmarkData.phones());
+        emails = encode(BenchmarkData.emails());
+        names = encode(BenchmarkData.chineseNames());
+        phoneOffsets = new int[phones.length + 1];
+        for (int i = 0; i < phones.length; i++) {
+            phoneOffsets[i + 1] = phoneOffsets[i] + phones[i].length;
+        }
+        phoneBuffer = ByteBuffer.allocateDirect(phoneOffsets[phones.length]);
+        for (byte[] value : phones) {
+            phoneBuffer.put(value);
+        }
+    }
+
+    private static byte[][] encode(String[] values) {
+        byte[][] result = new byte[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private int next() {
+        return index++ & (BenchmarkData.SIZE - 1);
+    }
+
+    private static byte[] decoded(IMaskHandler handler, byte[] src) {
+        return handler.handle(new String(src, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private MaskByteSink bytes(IMaskHandler handler, byte[] src) {
+        sink.reset();
+        handler.handle(src, 0, src.length, sink);
+        return sink;
+    }
+
+    @Benchmark
+    public byte[] phoneDecoded() {
+        return decoded(phone, phones[next()]);
+    }
+
+    @Benchmark
+    public MaskByteSink phoneBytes() {
+        return bytes(phone, phones[next()]);
+    }
+
+    /**
+     * 原地脱敏后的内容再次脱敏结果不变，每次调用的耗时相同
+     */
+    @Benchmark
+    public boolean phoneInPlace() {
+        int i = next();
+        phoneBuffer.limit(phoneOffsets[i + 1]).position(phoneOffsets[i]);
+        return phone.maskInPlace(phoneBuffer);
+    }
+
+    @Benchmark
+    public byte[] emailDecoded() {
+        return decoded(email, emails[next()]);
+    }
+
+    @Benchmark
+    public MaskByteSink emailBytes() {
+        return bytes(email, emails[next()]);
+    }
+
+    @Benchmark
+    public byte[] chineseNameDecoded() {
+        return decoded(name, names[next()]);
+    }
+
+    @Benchmark
+    public MaskByteSink chineseNameBytes() {
+        return bytes(name, names[next()]);
+    }
+}
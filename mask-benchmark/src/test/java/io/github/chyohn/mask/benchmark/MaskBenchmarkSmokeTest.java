@@ -0,0 +1,149 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.benchmark;
+
+import io.github.chyohn.mask.MaskByteSink;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 对每个基准测试的所有参数组合执行一次初始化和若干次测试方法，保证基准测试在运行前不会因为异常而失败。
+ * 有compiled参数的基准测试，编译前后的处理器返回相同的结果
+ * </pre>
+ */
+public class MaskBenchmarkSmokeTest {
+
+    private static final int INVOCATIONS = 3;
+
+    @Test
+    public void runAllBenchmarks() throws Exception {
+        List<Class<?>> benchmarks = Arrays.asList(MaskFactoryBenchmark.class, MaskCompositionBenchmark.class,
+            MaskSeparatorBenchmark.class, MaskFreeTextBenchmark.class, MaskConfigBenchmark.class,
+            MaskMetricsBenchmark.class, MaskUtf8Benchmark.class, MaskInPlaceBenchmark.class);
+        for (Class<?> benchmark : benchmarks) {
+            run(benchmark);
+        }
+    }
+
+    private static void run(Class<?> benchmark) throws Exception {
+        Map<Field, String[]> params = new LinkedHashMap<>();
+        List<Method> methods = new ArrayList<>();
+        Method setup = null;
+        for (Field field : benchmark.getFields()) {
+            Param param = field.getAnnotation(Param.class);
+            if (param != null) {
+                params.put(field, param.value());
+            }
+        }
+        for (Method method : benchmark.getMethods()) {
+            if (method.isAnnotationPresent(Benchmark.class)) {
+                methods.add(method);
+            } else if (method.isAnnotationPresent(Setup.class)) {
+                setup = method;
+            }
+        }
+        Assertions.assertFalse(methods.isEmpty(), benchmark.getName());
+
+        // 除compiled以外的参数相同时的结果，用于比较编译前后的结果
+        Map<String, List<Object>> results = new HashMap<>();
+        List<Field> fields = new ArrayList<>(params.keySet());
+        int[] choice = new int[fields.size()];
+        do {
+            Object instance = benchmark.getConstructor().newInstance();
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < fields.size(); i++) {
+                Field field = fields.get(i);
+                String value = params.get(field)[choice[i]];
+                set(instance, field, value);
+                if (!field.getName().equals("compiled")) {
+                    key.append(field.getName()).append('=').append(value).append(',');
+                }
+            }
+            if (setup != null) {
+                setup.invoke(instance);
+            }
+            List<Object> values = new ArrayList<>();
+            for (Method method : methods) {
+                for (int n = 0; n < INVOCATIONS; n++) {
+                    values.add(method.getName() + ":" + normalize(method.invoke(instance)));
+                }
+            }
+            List<Object> previous = results.putIfAbsent(key.toString(), values);
+            if (previous != null) {
+                Assertions.assertEquals(previous, values, benchmark.getSimpleName() + " " + key);
+            }
+        } while (next(choice, fields, params));
+    }
+
+    private static boolean next(int[] choice, List<Field> fields, Map<Field, String[]> params) {
+        for (int i = choice.length - 1; i >= 0; i--) {
+            if (++choice[i] < params.get(fields.get(i)).length) {
+                return true;
+            }
+            choice[i] = 0;
+        }
+        return false;
+    }
+
+    private static void set(Object instance, Field field, String value) throws IllegalAccessException {
+        Class<?> type = field.getType();
+        if (type == int.class) {
+            field.setInt(instance, Integer.parseInt(value));
+        } else if (type == boolean.class) {
+            field.setBoolean(instance, Boolean.parseBoolean(value));
+        } else if (type == String.class) {
+            field.set(instance, value);
+        } else {
+            throw new IllegalStateException("不支持的参数类型：" + field);
+        }
+    }
+
+    /**
+     * 把测试方法的返回值转为可以比较的值，处理器等其他对象只检查不为null
+     */
+    private static Object normalize(Object value) {
+        Assertions.assertNotNull(value);
+        if (value instanceof byte[]) {
+            return Arrays.toString((byte[]) value);
+        }
+        if (value instanceof char[]) {
+            return new String((char[]) value);
+        }
+        if (value instanceof MaskByteSink) {
+            MaskByteSink sink = (MaskByteSink) value;
+            return Arrays.toString(Arrays.copyOf(sink.array(), sink.size()));
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value;
+        }
+        return value.getClass().getName();
+    }
+}
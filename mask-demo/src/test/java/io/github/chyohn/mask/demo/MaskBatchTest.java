@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.metrics.MaskMetrics;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 批量脱敏的结果与逐个调用{@link IMaskHandler#handle(String)}一致
+ */
+public class MaskBatchTest {
+
+    @Test
+    public void handleAllMatchesHandle() {
+        String[] inputs = Arrays.copyOf(MaskTestHandlers.INPUTS, MaskTestHandlers.INPUTS.length + 1); // 最后一个元素为null
+        for (IMaskHandler handler : MaskTestHandlers.handlers()) {
+            String[] want = new String[inputs.length];
+            for (int i = 0; i < MaskTestHandlers.INPUTS.length; i++) {
+                want[i] = handler.handle(inputs[i]);
+            }
+
+            String[] out = new String[inputs.length];
+            handler.handleAll(inputs, out);
+            Assertions.assertArrayEquals(want, out);
+
+            handler.compile().handleAll(inputs, out);
+            Assertions.assertArrayEquals(want, out);
+
+            // src和out为同一个数组
+            String[] same = inputs.clone();
+            handler.handleAll(same, same);
+            Assertions.assertArrayEquals(want, same);
+
+            List<String> list = handler.handleAll(Arrays.asList(inputs));
+            Assertions.assertEquals(Arrays.asList(want), list);
+        }
+    }
+
+    @Test
+    public void rejectsShortOutput() {
+        IMaskHandler handler = MaskHandlerFactory.maskAll();
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> handler.handleAll(new String[]{"a", "b"}, new String[1]));
+
+        IMaskHandler custom = String::toUpperCase;
+        String[] out = new String[3];
+        custom.handleAll(new String[]{"a", null}, out);
+        Assertions.assertArrayEquals(new String[]{"A", null, null}, out);
+    }
+
+    @Test
+    public void rejectsInvalidRange() {
+        IMaskHandler email = MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1));
+        IMaskHandler[] handlers = {email, email.compile(), MaskHandlerFactory.generate(email),
+            MaskHandlerFactory.ignore(), MaskHandlerFactory.immutable(email), String::toUpperCase,
+            MaskMetrics.create().instrument("email", email)};
+        String[] src = {"a@b", "c@d"};
+        for (IMaskHandler handler : handlers) {
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handleAll(src, new String[2], -1, 1));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handleAll(src, new String[2], 2, 1));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handleAll(src, new String[2], 0, 3));
+            Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handleAll(src, new String[1], 0, 2));
+            String[] out = new String[2];
+            handler.handleAll(src, out, 1, 2);
+            Assertions.assertNull(out[0]);
+            Assertions.assertEquals(handler.handle("c@d"), out[1]);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * ByteBuffer原地脱敏：能原地脱敏时结果与按字符串脱敏一致，不能时buffer保持不变，可以改为写入其他buffer
+ */
+public class MaskByteBufferTest {
+
+    @Test
+    public void inPlaceMatchesStringPath() {
+        for (IMaskHandler source : MaskTestHandlers.handlers()) {
+            for (IMaskHandler handler : Arrays.asList(source, source.compile())) {
+                for (String input : MaskTestHandlers.INPUTS) {
+                    byte[] want = handler.handle(input).getBytes(StandardCharsets.UTF_8);
+                    for (boolean direct : new boolean[]{false, true}) {
+                        byte[] bytes = ("<<" + input + ">>").getBytes(StandardCharsets.UTF_8);
+                        ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(bytes.length) : ByteBuffer.allocate(bytes.length);
+                        buffer.put(bytes);
+                        buffer.position(2).limit(bytes.length - 2);
+
+                        boolean masked = handler.maskInPlace(buffer);
+                        Assertions.assertEquals(2, buffer.position(), input);
+                        Assertions.assertEquals(bytes.length - 2, buffer.limit(), input);
+                        byte[] content = new byte[bytes.length];
+                        buffer.duplicate().clear().get(content);
+                        if (masked) {
+                            Assertions.assertTrue(handler.lengthPreserving(), input);
+                            Assertions.assertArrayEquals(want, Arrays.copyOfRange(content, 2, bytes.length - 2), input);
+                        } else {
+                            Assertions.assertArrayEquals(bytes, content, input);
+                        }
+                        // 区间外的内容不变
+                        Assertions.assertEquals('<', content[1]);
+                        Assertions.assertEquals('>', content[bytes.length - 2]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lengthPreservingRules() {
+        IMaskHandler inner = MaskHandlerFactory.maskInner(3, 4);
+        Assertions.assertTrue(inner.lengthPreserving());
+        ByteBuffer phone = ByteBuffer.allocateDirect(11).put("13755556666".getBytes(StandardCharsets.US_ASCII));
+        phone.flip();
+        Assertions.assertTrue(inner.maskInPlace(phone));
+        Assertions.assertEquals("137****6666", StandardCharsets.UTF_8.decode(phone).toString());
+
+        // 中文被替换为单字节的"*"后字节数变化，不能原地脱敏
+        ByteBuffer name = ByteBuffer.wrap("王昌龄".getBytes(StandardCharsets.UTF_8));
+        Assertions.assertFalse(MaskHandlerFactory.reserveLeft(1).maskInPlace(name));
+        Assertions.assertEquals("王昌龄", StandardCharsets.UTF_8.decode(name).toString());
+
+        // 脱敏后长度变化的规则
+        Assertions.assertFalse(MaskHandlerFactory.maskAll(3).lengthPreserving());
+        Assertions.assertFalse(MaskHandlerFactory.maskLetter("^_^").lengthPreserving());
+        Assertions.assertFalse(MaskHandlerFactory.maskAll(3).maskInPlace(ByteBuffer.wrap(new byte[]{'a', 'b'})));
+    }
+
+    @Test
+    public void writeToTarget() {
+        IMaskHandler handler = MaskHandlerFactory.reserveLeft(1);
+        byte[] bytes = "王昌龄".getBytes(StandardCharsets.UTF_8);
+        ByteBuffer src = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+        src.flip();
+
+        ByteBuffer small = ByteBuffer.allocate(3);
+        Assertions.assertThrows(BufferOverflowException.class, () -> handler.handle(src, small));
+        Assertions.assertEquals(0, src.position());
+        Assertions.assertEquals(0, small.position());
+
+        ByteBuffer target = ByteBuffer.allocate(16);
+        handler.handle(src, target);
+        Assertions.assertEquals(src.limit(), src.position());
+        target.flip();
+        Assertions.assertEquals("王**", StandardCharsets.UTF_8.decode(target).toString());
+    }
+}
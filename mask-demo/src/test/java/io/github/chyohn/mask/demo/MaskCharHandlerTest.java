@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+/**
+ * 模糊数字、字母的处理器与使用正则表达式替换的结果一致
+ */
+public class MaskCharHandlerTest {
+
+    private static final String ALPHABET = "0123456789azAZ_-表😀 ";
+    private static final String[] MASK_STRS = {"*", "#", "^_^", "表"};
+    private static final int[] MASK_LENGTHS = {-1, 0, 1, 3};
+
+    @Test
+    public void matchesReplaceAll() {
+        Random random = new Random(42L);
+        String[] inputs = new String[500];
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = randomString(random);
+        }
+        for (String maskStr : MASK_STRS) {
+            for (int maskLength : MASK_LENGTHS) {
+                IMaskHandler number = MaskHandlerFactory.maskNumber(maskStr).setMaskLength(maskLength);
+                IMaskHandler letter = MaskHandlerFactory.maskLetter(maskStr).setMaskLength(maskLength);
+                String[] numbers = new String[inputs.length];
+                String[] letters = new String[inputs.length];
+                number.handleAll(inputs, numbers);
+                letter.handleAll(inputs, letters);
+                for (int i = 0; i < inputs.length; i++) {
+                    String input = inputs[i];
+                    String wantNumber = replaceAll(input, "[0-9]", maskStr, maskLength);
+                    String wantLetter = replaceAll(input, "[a-zA-Z]", maskStr, maskLength);
+                    Assertions.assertEquals(wantNumber, number.handle(input), input);
+                    Assertions.assertEquals(wantLetter, letter.handle(input), input);
+                    Assertions.assertEquals(wantNumber, numbers[i], input);
+                    Assertions.assertEquals(wantLetter, letters[i], input);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void returnsSourceWhenNothingToMask() {
+        String src = "没有数字的字符串";
+        Assertions.assertSame(src, MaskHandlerFactory.maskNumber().handle(src));
+        Assertions.assertSame(src, MaskHandlerFactory.maskLetter().setMaskLength(2).handle(src));
+        Assertions.assertEquals("a**b**c", MaskHandlerFactory.maskNumber().setMaskLength(2).handle("a1b234c"));
+        Assertions.assertEquals("他的年龄##岁", MaskHandlerFactory.maskNumber("#").handle("他的年龄35岁"));
+    }
+
+    private static String replaceAll(String src, String charClass, String maskStr, int maskLength) {
+        if (maskLength < 1) {
+            return src.replaceAll(charClass, maskStr);
+        }
+        StringBuilder mask = new StringBuilder();
+        for (int i = 0; i < maskLength; i++) {
+            mask.append(maskStr);
+        }
+        return src.replaceAll(charClass + "+", mask.toString());
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(20);
+        for (int i = 0; i < length; i++) {
+            int index = random.nextInt(ALPHABET.length() - 1);
+            if (Character.isHighSurrogate(ALPHABET.charAt(index))) {
+                builder.append(ALPHABET, index, index + 2);
+            } else if (!Character.isLowSurrogate(ALPHABET.charAt(index))) {
+                builder.append(ALPHABET.charAt(index));
+            }
+        }
+        return builder.toString();
+    }
+}
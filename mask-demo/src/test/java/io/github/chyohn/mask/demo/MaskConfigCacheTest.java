@@ -0,0 +1,137 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.json.MaskConfigCache;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按配置缓存编译后的处理器：相同配置返回同一个对象，超过上限时淘汰最近最少使用的条目
+ */
+public class MaskConfigCacheTest {
+
+    private static String config(int i) {
+        return MaskHandlerFactory.reserveLeft(i).toConfig();
+    }
+
+    @Test
+    public void sameConfigSameHandler() {
+        MaskConfigCache cache = new MaskConfigCache(8);
+        String config = MaskHandlerFactory.reserveOuter(1, 6).toConfig();
+        IMaskHandler first = cache.get(config);
+        Assertions.assertSame(first, cache.get(config));
+        Assertions.assertSame(first, cache.get(new String(config))); // 按内容而不是引用匹配
+        Assertions.assertEquals("a***@b.com", first.handle("abcd@b.com"));
+
+        MaskConfigCache.Stats stats = cache.stats();
+        Assertions.assertEquals(2, stats.getHitCount());
+        Assertions.assertEquals(1, stats.getMissCount());
+        Assertions.assertEquals(1, stats.getSize());
+        Assertions.assertEquals(8, stats.getMaximumSize());
+        Assertions.assertEquals(2.0 / 3, stats.hitRate(), 1e-9);
+        Assertions.assertEquals(1.0, new MaskConfigCache(1).stats().hitRate());
+    }
+
+    @Test
+    public void cachedHandlerIsCompiled() {
+        IMaskHandler handler = new MaskConfigCache(4).get(MaskHandlerFactory.reserveLeft(2).toConfig());
+        Assertions.assertTrue(handler instanceof IMaskItemHandler);
+        Assertions.assertThrows(IllegalStateException.class, () -> ((IMaskItemHandler<?>) handler).setMaskStr("#"));
+        Assertions.assertEquals("ab***", handler.handle("abcde"));
+    }
+
+    @Test
+    public void eviction() {
+        MaskConfigCache cache = new MaskConfigCache(4);
+        for (int i = 0; i < 100; i++) {
+            cache.get(config(i));
+        }
+        MaskConfigCache.Stats stats = cache.stats();
+        Assertions.assertTrue(stats.getSize() <= 4, stats.toString());
+        Assertions.assertEquals(100 - stats.getSize(), stats.getEvictionCount());
+        Assertions.assertEquals(100, stats.getMissCount());
+
+        // 只有一个段时按访问顺序淘汰
+        MaskConfigCache single = new MaskConfigCache(1);
+        IMaskHandler a = single.get(config(1));
+        single.get(config(2));
+        Assertions.assertNotSame(a, single.get(config(1)));
+        Assertions.assertEquals(2, single.stats().getEvictionCount());
+    }
+
+    @Test
+    public void clear() {
+        MaskConfigCache cache = new MaskConfigCache(4);
+        IMaskHandler handler = cache.get(config(1));
+        cache.clear();
+        Assertions.assertEquals(0, cache.size());
+        Assertions.assertNotSame(handler, cache.get(config(1)));
+        Assertions.assertEquals(2, cache.stats().getMissCount());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MaskConfigCache(0));
+    }
+
+    @Test
+    public void concurrentGetReturnsSameHandler() throws Exception {
+        int threads = 8;
+        MaskConfigCache cache = new MaskConfigCache(64);
+        CyclicBarrier barrier = new CyclicBarrier(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<IMaskHandler[]>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    barrier.await();
+                    IMaskHandler[] handlers = new IMaskHandler[16];
+                    for (int i = 0; i < handlers.length; i++) {
+                        handlers[i] = cache.get(config(i));
+                    }
+                    return handlers;
+                }));
+            }
+            IMaskHandler[] expected = futures.get(0).get(10, TimeUnit.SECONDS);
+            for (Future<IMaskHandler[]> future : futures) {
+                Assertions.assertArrayEquals(expected, future.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void factoryCache() {
+        String config = MaskHandlerFactory.reserveOuter(3, 4).toConfig();
+        IMaskHandler handler = MaskHandlerFactory.fromConfigCached(config);
+        Assertions.assertSame(handler, MaskHandlerFactory.fromConfigCached(config));
+        Assertions.assertNotSame(handler, MaskHandlerFactory.fromConfig(config)); // 不使用缓存
+        Assertions.assertEquals("137****6666", handler.handle("13755556666"));
+        Assertions.assertTrue(MaskHandlerFactory.getConfigCache().size() > 0);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.csv.MaskCsvProcessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * 按列对CSV/TSV文本脱敏
+ */
+public class MaskCsvProcessorTest {
+
+    @Test
+    public void masksColumnsByIndexAndName() {
+        MaskCsvProcessor processor = MaskCsvProcessor.csv()
+            .setHeader(true)
+            .addHandler("phone", MaskHandlerFactory.reserveOuter(3, 4))
+            .addHandler(0, MaskHandlerFactory.reserveLeft(1));
+        Assertions.assertEquals("name,phone\n李*,137****6666\n", processor.process("name,phone\n李白,13755556666\n"));
+
+        // 空行、CRLF、缺少的列和多余的列
+        Assertions.assertEquals("name,phone\r\n\r\n李*,137****6666,extra\r\n王**\r\n",
+            processor.process("name,phone\r\n\r\n李白,13755556666,extra\r\n王昌龄\r\n"));
+
+        MaskCsvProcessor tsv = MaskCsvProcessor.tsv().addHandler(1, MaskHandlerFactory.maskAll());
+        Assertions.assertEquals("a\t**\tc\nd\t*\t", tsv.process("a\tbb\tc\nd\te\t"));
+    }
+
+    @Test
+    public void quotedFields() {
+        MaskCsvProcessor processor = MaskCsvProcessor.csv().addHandler(1, MaskHandlerFactory.reserveLeft(1));
+        // 引号内的分隔符、换行符和转义的引号
+        Assertions.assertEquals("x,\"a*****\",y\nz,\"\"\"****\",w",
+            processor.process("x,\"a,b\nc\"\"\",y\nz,\"\"\"abc\"\"\",w"));
+
+        // 原来没有引号的字段，脱敏结果包含分隔符时加上引号
+        MaskCsvProcessor comma = MaskCsvProcessor.csv().addHandler(0, MaskHandlerFactory.maskAll().setMaskStr(","));
+        Assertions.assertEquals("\",,\",b", comma.process("ab,b"));
+        MaskCsvProcessor quote = MaskCsvProcessor.of(';').setQuote('\'').addHandler(0, MaskHandlerFactory.reserveLeft(1));
+        Assertions.assertEquals("'a**';b", quote.process("'a;c';b"));
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        StringBuilder src = new StringBuilder("id,name,phone,note\n");
+        for (int i = 0; i < 50_000; i++) {
+            src.append(i).append(",用户").append(i).append(',').append(13700000000L + i).append(',');
+            src.append(i % 10 == 0 ? "\"多行\n备注,含逗号\"" : "备注").append(i % 7 == 0 ? "\r\n" : "\n");
+        }
+        MaskCsvProcessor processor = MaskCsvProcessor.csv()
+            .setHeader(true)
+            .addHandler("phone", MaskHandlerFactory.reserveOuter(3, 4))
+            .addHandler("note", MaskHandlerFactory.maskInner(1, 1))
+            .addHandler(1, MaskHandlerFactory.reserveLeft(1));
+        String serial = processor.process(src);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Assertions.assertEquals(serial, processor.processParallel(src, pool));
+        } finally {
+            pool.shutdownNow();
+        }
+        String head = "id,name,phone,note\n0,用**,137****0000,\"多*******号\"\r\n1,用**,137****0001,**\n";
+        Assertions.assertEquals(head, serial.substring(0, head.length()));
+    }
+
+    @Test
+    public void unknownColumnName() {
+        MaskCsvProcessor processor = MaskCsvProcessor.csv().setHeader(true).addHandler("email", MaskHandlerFactory.maskAll());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> processor.process("name,phone\n"));
+        MaskCsvProcessor noHeader = MaskCsvProcessor.csv().addHandler("email", MaskHandlerFactory.maskAll());
+        Assertions.assertThrows(IllegalStateException.class, () -> noHeader.process("a,b\n"));
+    }
+}
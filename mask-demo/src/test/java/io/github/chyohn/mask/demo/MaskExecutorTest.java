@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskExecutor;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 并行批量脱敏的结果与串行脱敏一致，并且保持输入顺序
+ */
+public class MaskExecutorTest {
+
+    private static final int SIZE = 100_000;
+
+    private static String[] inputs() {
+        String[] inputs = new String[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            inputs[i] = i % 97 == 0 ? null : "1375555" + i + "@sina.com";
+        }
+        return inputs;
+    }
+
+    private static IMaskHandler handler() {
+        return MaskHandlerFactory.group("@")
+            .addHandler(MaskHandlerFactory.reserveOuter(3, 2), MaskHandlerFactory.maskLeft(2))
+            .setDefaultHandler(MaskHandlerFactory.maskAll());
+    }
+
+    @Test
+    public void arraysKeepOrder() {
+        String[] inputs = inputs();
+        IMaskHandler handler = handler();
+        String[] want = new String[SIZE];
+        handler.handleAll(inputs, want);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            MaskExecutor executor = MaskExecutor.of(handler, pool);
+            Assertions.assertArrayEquals(want, executor.handleAll(inputs));
+            Assertions.assertArrayEquals(want, executor.handleAll(Arrays.asList(inputs)).toArray());
+
+            // src和out为同一个数组
+            String[] same = inputs.clone();
+            executor.handleAll(same, same);
+            Assertions.assertArrayEquals(want, same);
+
+            // 小批量在当前线程处理
+            String[] small = Arrays.copyOf(inputs, 10);
+            Assertions.assertArrayEquals(Arrays.copyOf(want, 10), executor.handleAll(small));
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                () -> executor.handleAll(inputs, new String[SIZE - 1]));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void streamsKeepOrder() {
+        IMaskHandler handler = handler();
+        MaskExecutor executor = MaskExecutor.of(handler);
+        List<String> inputs = IntStream.range(0, SIZE).mapToObj(i -> i + "@cc.com").collect(Collectors.toList());
+        List<String> want = new ArrayList<>();
+        for (String input : inputs) {
+            want.add(handler.handle(input));
+        }
+
+        Assertions.assertEquals(want, executor.handle(inputs.parallelStream()).collect(Collectors.toList()));
+        Assertions.assertEquals(want, executor.handle(inputs.stream()).collect(Collectors.toList()));
+        Assertions.assertEquals(want, inputs.stream().collect(executor.toList()));
+        Assertions.assertEquals(want, inputs.parallelStream().collect(executor.toList()));
+    }
+
+    @Test
+    public void rangedBatchOnlyTouchesRange() {
+        for (IMaskHandler handler : MaskTestHandlers.handlers()) {
+            String[] inputs = MaskTestHandlers.INPUTS;
+            String[] out = new String[inputs.length];
+            Arrays.fill(out, "untouched");
+            handler.handleAll(inputs, out, 2, 5);
+            for (int i = 0; i < inputs.length; i++) {
+                Assertions.assertEquals(i >= 2 && i < 5 ? handler.handle(inputs[i]) : "untouched", out[i]);
+            }
+            Assertions.assertThrows(IndexOutOfBoundsException.class,
+                () -> handler.handleAll(inputs, new String[3], 0, 4));
+        }
+    }
+}
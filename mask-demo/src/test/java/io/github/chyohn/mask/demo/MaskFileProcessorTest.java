@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.file.MaskFileProcessor;
+import io.github.chyohn.mask.file.MaskFileStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 文件按行并行脱敏的结果与逐行串行脱敏一致
+ */
+public class MaskFileProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void matchesLineByLine() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            content.append("用户").append(i).append(" 手机13755556666 卡号6222021234567890");
+            content.append(i % 3 == 0 ? "\r\n" : "\n");
+            if (i % 500 == 0) {
+                content.append('\n'); // 空行
+            }
+        }
+        content.append("最后一行没有换行符12345");
+        String text = content.toString();
+
+        IMaskHandler handler = MaskHandlerFactory.maskNumber();
+        String want = maskLines(handler, text);
+        Path src = write("src.log", text);
+        Path target = dir.resolve("target.log");
+
+        int[] chunkSizes = {1, 7, 1024, 1 << 20};
+        for (int chunkSize : chunkSizes) {
+            MaskFileStats stats = MaskFileProcessor.of(handler).setParallelism(4).setChunkSize(chunkSize)
+                .process(src, target);
+            String masked = new String(Files.readAllBytes(target), StandardCharsets.UTF_8);
+            Assertions.assertEquals(want, masked, "chunkSize=" + chunkSize);
+            Assertions.assertEquals(Files.size(src), stats.getBytesRead());
+            Assertions.assertEquals(Files.size(target), stats.getBytesWritten());
+            Assertions.assertEquals(text.split("\n", -1).length, stats.getLines());
+        }
+    }
+
+    @Test
+    public void emptyAndInvalidInput() throws IOException {
+        Path target = dir.resolve("target.log");
+        MaskFileStats stats = MaskFileProcessor.of(MaskHandlerFactory.maskAll()).process(write("empty.log", ""), target);
+        Assertions.assertEquals(0, stats.getLines());
+        Assertions.assertEquals(0, Files.size(target));
+
+        // 不合法的UTF-8字节替换为U+FFFD后继续处理
+        Path invalid = dir.resolve("invalid.log");
+        Files.write(invalid, new byte[]{'a', (byte) 0xC3, '\n', 'b', 'c'});
+        stats = MaskFileProcessor.of(MaskHandlerFactory.ignore()).process(invalid, target);
+        Assertions.assertEquals("a\uFFFD\nbc", new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+        Assertions.assertEquals(2, stats.getLines());
+
+        Path same = write("same.log", "abc");
+        Assertions.assertThrows(IllegalArgumentException.class,
+            () -> MaskFileProcessor.of(MaskHandlerFactory.maskAll()).process(same, same));
+    }
+
+    @Test
+    public void maxPendingBytes() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            content.append("line").append(i).append('\n');
+        }
+        String text = content.toString();
+        Path src = write("src.log", text);
+        Path target = dir.resolve("target.log");
+        IMaskHandler handler = MaskHandlerFactory.maskNumber();
+        MaskFileProcessor.of(handler).setParallelism(4).setChunkSize(64).setMaxPendingBytes(16).process(src, target);
+        Assertions.assertEquals(maskLines(handler, text), new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+
+        // 单行超过处理中的字节数上限
+        Path longLine = write("long.log", "short\n0123456789012345678901234567890123456789\nshort\n");
+        IOException e = Assertions.assertThrows(IOException.class,
+            () -> MaskFileProcessor.of(handler).setChunkSize(4).setMaxPendingBytes(32).process(longLine, target));
+        Assertions.assertTrue(e.getMessage().contains("32"), e.getMessage());
+        MaskFileProcessor.of(handler).setChunkSize(4).setMaxPendingBytes(64).process(longLine, target);
+        Assertions.assertEquals(maskLines(handler, "short\n0123456789012345678901234567890123456789\nshort\n"),
+            new String(Files.readAllBytes(target), StandardCharsets.UTF_8));
+    }
+
+    private Path write(String name, String content) throws IOException {
+        Path path = dir.resolve(name);
+        Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    /**
+     * 逐行脱敏，换行符原样保留
+     */
+    private static String maskLines(IMaskHandler handler, String text) {
+        StringBuilder out = new StringBuilder();
+        String[] lines = text.split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (i == lines.length - 1 && line.isEmpty()) {
+                break;
+            }
+            boolean cr = i < lines.length - 1 && line.endsWith("\r");
+            out.append(handler.handle(cr ? line.substring(0, line.length() - 1) : line));
+            if (cr) {
+                out.append('\r');
+            }
+            if (i < lines.length - 1) {
+                out.append('\n');
+            }
+        }
+        return out.toString();
+    }
+}
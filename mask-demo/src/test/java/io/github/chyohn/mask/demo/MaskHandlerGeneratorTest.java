@@ -0,0 +1,310 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskGroupHandler;
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWithSizeSelector;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskGeneratedHandler;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskItemInner;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * 生成的脱敏计划与解释执行编译后的处理器结果一致：随机生成处理器树，逐个比较脱敏结果、抛出的异常和配置
+ */
+public class MaskHandlerGeneratorTest {
+
+    private static final int TREES = 9000;
+    private static final int INPUTS_PER_TREE = 8;
+    private static final String[] MASKS = {"*", "^_^", "", "#", "*", "*"};
+    private static final String[] SEPARATORS = {null, null, null, ".", "@", "-", "ab", "::"};
+    private static final String ALPHABET = "ab.@-x1 2:9Z张三.@";
+    private static final String EMOJI = "😀";
+
+    private final Random random = new Random(20230601L);
+
+    @Test
+    public void generatedMatchesInterpreted() {
+        int generated = 0;
+        for (int t = 0; t < TREES; t++) {
+            IMaskHandler handler = random.nextInt(3) == 0 ? extra(1) : tree(2 + random.nextInt(2));
+            if (random.nextInt(4) == 0) {
+                handler = MaskHandlerFactory.group("-").addHandler(handler, extra(1));
+            }
+            IMaskHandler compiled = handler.compile();
+            IMaskHandler plan = MaskHandlerFactory.generate(handler);
+            if (plan instanceof MaskGeneratedHandler) {
+                generated++;
+            }
+            String config = compiled.toConfig();
+            Assertions.assertEquals(config, plan.toConfig());
+            for (int i = 0; i < INPUTS_PER_TREE; i++) {
+                String input = input();
+                for (int mode = 0; mode < 3; mode++) {
+                    Assertions.assertEquals(run(compiled, input, mode), run(plan, input, mode),
+                        () -> config + " [" + input + "]");
+                }
+            }
+        }
+        // 大部分随机生成的处理器树都能生成脱敏计划
+        Assertions.assertTrue(generated > TREES / 2, "generated=" + generated);
+    }
+
+    @Test
+    public void readmeEmail() {
+        IMaskHandler email = MaskHandlerFactory.group("@").addHandler(
+            MaskHandlerFactory.reserveLeft(1).setMaskLength(3),
+            MaskHandlerFactory.group(".").addHandler(MaskHandlerFactory.maskAll().setMaskStr("^_^", 1)));
+        IMaskHandler generated = MaskHandlerFactory.generate(email);
+        Assertions.assertTrue(generated instanceof MaskGeneratedHandler);
+        Assertions.assertEquals("a***@^_^.com", generated.handle("abcdefddddddd@sina.com"));
+        Assertions.assertEquals(email.toConfig(), generated.toConfig());
+        Assertions.assertSame(generated, generated.compile());
+
+        // 单个处理器不生成计划
+        IMaskHandler single = MaskHandlerFactory.generate(MaskHandlerFactory.reserveLeft(1));
+        Assertions.assertFalse(single instanceof MaskGeneratedHandler);
+        Assertions.assertEquals("a***", single.handle("abcd"));
+    }
+
+    @Test
+    public void customAndSubclassedChildren() {
+        IMaskHandler upper = String::toUpperCase;
+        MaskItemInner reversed = new MaskItemInner() {
+            @Override
+            protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+                // 子类重写的方法在生成的计划中同样生效
+                int from = out.length();
+                super.doHandle(src, start, end, out);
+                String masked = out.substring(from);
+                out.setLength(from);
+                out.append(new StringBuilder(masked).reverse());
+            }
+        };
+        reversed.setLeftSize(1);
+        MaskGroupHandler group = new MaskGroupHandler("@");
+        group.addHandler(upper, reversed);
+        IMaskHandler generated = MaskHandlerFactory.generate(group);
+        Assertions.assertTrue(generated instanceof MaskGeneratedHandler);
+        Assertions.assertEquals(group.handle("abc@def.com"), generated.handle("abc@def.com"));
+        Assertions.assertEquals("ABC@******d", generated.handle("abc@def.com"));
+    }
+
+    private static String run(IMaskHandler handler, String input, int mode) {
+        try {
+            if (mode == 0) {
+                return handler.handle(input);
+            }
+            if (mode == 1) {
+                StringBuilder out = new StringBuilder("xx");
+                handler.handle("<" + input + ">", 1, input.length() + 1, out);
+                return out.toString();
+            }
+            String[] out = new String[3];
+            handler.handleAll(new String[]{input, null, input + "1"}, out);
+            return Arrays.toString(out);
+        } catch (RuntimeException e) {
+            // 配置不合法等情况下两者抛出相同的异常
+            return "EX:" + e.getClass().getSimpleName();
+        }
+    }
+
+    private String input() {
+        int length = random.nextInt(14);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            int k = random.nextInt(ALPHABET.length() + 1);
+            if (k == ALPHABET.length()) {
+                input.append(EMOJI);
+            } else {
+                input.append(ALPHABET.charAt(k));
+            }
+        }
+        return input.toString();
+    }
+
+    private IMaskHandler leaf() {
+        int left = random.nextInt(4);
+        int right = random.nextInt(4);
+        IMaskItemHandler<?> item;
+        switch (random.nextInt(12)) {
+            case 0:
+                item = MaskHandlerFactory.maskInner(left, right);
+                break;
+            case 1:
+                item = MaskHandlerFactory.maskOuter(left, right);
+                break;
+            case 2:
+                item = MaskHandlerFactory.maskAppend(left, right);
+                break;
+            case 3:
+                item = MaskHandlerFactory.maskNumber();
+                break;
+            case 4:
+                item = MaskHandlerFactory.maskLetter();
+                break;
+            case 5:
+                return MaskHandlerFactory.ignore();
+            case 6:
+                item = MaskHandlerFactory.maskAll();
+                break;
+            case 7:
+                item = MaskHandlerFactory.hideAll();
+                break;
+            case 8:
+                item = MaskHandlerFactory.reserveLeft(left);
+                break;
+            case 9:
+                item = MaskHandlerFactory.reserveRight(right);
+                break;
+            case 10:
+                item = MaskHandlerFactory.maskMargin(left);
+                break;
+            default:
+                item = MaskHandlerFactory.reserveOuter(left, right);
+                break;
+        }
+        if (random.nextInt(3) == 0) {
+            item.setMaskStr(MASKS[random.nextInt(MASKS.length)]);
+        }
+        if (random.nextInt(3) == 0) {
+            item.setMaskLength(random.nextInt(5) - 1);
+        }
+        if (random.nextInt(4) == 0) {
+            item.setSeparator(SEPARATORS[random.nextInt(SEPARATORS.length)], random.nextInt(4));
+        }
+        if (random.nextInt(8) == 0) {
+            item.setOutputDelimiter("/");
+        }
+        return item;
+    }
+
+    private String separator() {
+        return SEPARATORS[3 + random.nextInt(SEPARATORS.length - 3)];
+    }
+
+    private IMaskHandler tree(int depth) {
+        int kind = depth <= 0 ? 0 : random.nextInt(3);
+        if (kind == 0) {
+            return leaf();
+        }
+        if (kind == 1) {
+            String separator = separator();
+            IMaskGroupHandler<?> group = random.nextBoolean() ? MaskHandlerFactory.group(separator)
+                : MaskHandlerFactory.group(separator, random.nextInt(4));
+            int groups = 1 + random.nextInt(3);
+            for (int i = 0; i < groups; i++) {
+                IMaskHandler[] handlers = new IMaskHandler[1 + random.nextInt(3)];
+                for (int j = 0; j < handlers.length; j++) {
+                    handlers[j] = random.nextInt(6) == 0 ? null : tree(depth - 1);
+                }
+                if (random.nextBoolean()) {
+                    group.addHandler(handlers);
+                } else {
+                    group.addHandler(random.nextInt(5), handlers);
+                }
+            }
+            if (random.nextBoolean()) {
+                group.setDefaultHandler(tree(depth - 1));
+            }
+            if (random.nextInt(8) == 0) {
+                group.setOutputDelimiter("/");
+            }
+            return group;
+        }
+        IMaskHandlerWithSizeSelector<?> selector;
+        switch (random.nextInt(3)) {
+            case 0:
+                selector = MaskHandlerFactory.sizeSelector();
+                break;
+            case 1:
+                selector = MaskHandlerFactory.sizeSelector(separator());
+                break;
+            default:
+                selector = MaskHandlerFactory.sizeSelector(separator(), random.nextInt(4));
+                break;
+        }
+        int count = 1 + random.nextInt(3);
+        for (int i = 0; i < count; i++) {
+            int[] sizes = new int[1 + random.nextInt(2)];
+            for (int j = 0; j < sizes.length; j++) {
+                sizes[j] = random.nextInt(8);
+            }
+            selector.addHandler(tree(depth - 1), sizes);
+        }
+        if (random.nextBoolean()) {
+            selector.setDefaultHandler(tree(depth - 1));
+        }
+        return selector;
+    }
+
+    /**
+     * 边界情况：没有分隔符的分组、正则分隔符、展开上限以外的子处理器、缓存和不可变处理器、不合法的配置等
+     */
+    private IMaskHandler extra(int depth) {
+        switch (random.nextInt(8)) {
+            case 0: {
+                MaskGroupHandler group = new MaskGroupHandler();
+                if (random.nextBoolean()) {
+                    group.addHandler(random.nextInt(3), tree(depth));
+                }
+                if (random.nextBoolean()) {
+                    group.setDefaultHandler(tree(depth));
+                }
+                return group;
+            }
+            case 1:
+                return MaskHandlerFactory.group(".").setSeparatorRegex("[.@]", random.nextInt(3))
+                    .addHandler(tree(depth), leaf());
+            case 2: {
+                IMaskGroupHandler<?> group = MaskHandlerFactory.group(random.nextBoolean() ? "" : "a");
+                IMaskHandler[] handlers = new IMaskHandler[20];
+                for (int i = 0; i < handlers.length; i++) {
+                    handlers[i] = random.nextInt(4) == 0 ? null : leaf();
+                }
+                group.addHandler(random.nextInt(25), handlers);
+                if (random.nextBoolean()) {
+                    group.setDefaultHandler(leaf());
+                }
+                return group;
+            }
+            case 3:
+                return MaskHandlerFactory.memoize(tree(depth));
+            case 4:
+                return MaskHandlerFactory.maskInner(-1, 2);
+            case 5:
+                return MaskHandlerFactory.group("@").addHandler(2, (IMaskHandler[]) null).addHandler(0, leaf(), extra(0));
+            case 6: {
+                IMaskHandlerWithSizeSelector<?> selector = MaskHandlerFactory.sizeSelector();
+                for (int i = 0; i < 12; i++) {
+                    selector.addHandler(random.nextInt(3) == 0 ? null : leaf(), random.nextInt(15) - 2);
+                }
+                return selector;
+            }
+            default:
+                return MaskHandlerFactory.immutable(tree(depth));
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.json.JacksonIOException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 配置JSON的解析：内置处理器直接读取，自定义处理器使用ObjectMapper解析，并且类型ID只能解析为脱敏处理器
+ */
+public class MaskHandlerJSONParserTest {
+
+    private static final String PREFIX = "\"@class\":\"" + Prefix.class.getName() + "\"";
+
+    @Test
+    public void builtInRoundTrip() {
+        IMaskHandler group = MaskHandlerFactory.group("@")
+            .addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.maskLeft(1).setSeparator(".").setMaskStr("^_^"));
+        String config = group.toConfig();
+        IMaskHandler parsed = MaskHandlerFactory.fromConfig(config);
+        Assertions.assertEquals("a***@^_^.com", parsed.handle("abcd@sina.com"));
+        Assertions.assertEquals(config, parsed.toConfig());
+    }
+
+    @Test
+    public void customHandler() {
+        String delegate = MaskHandlerFactory.reserveLeft(1).toConfig();
+        IMaskHandler handler = MaskHandlerFactory.fromConfig(
+            "{" + PREFIX + ",\"prefix\":\"#\",\"delegate\":" + delegate + ",\"payload\":null}");
+        Assertions.assertTrue(handler instanceof Prefix);
+        Assertions.assertEquals("#a***", handler.handle("abcd"));
+
+        // 值不是脱敏处理器时类型ID为"null"
+        Prefix prefix = (Prefix) MaskHandlerFactory.fromConfig(
+            "{" + PREFIX + ",\"prefix\":\"#\",\"payload\":{\"@class\":\"null\",\"key\":\"value\"}}");
+        Assertions.assertEquals("{key=value}", String.valueOf(prefix.getPayload()));
+        Assertions.assertEquals("#abcd", prefix.handle("abcd"));
+    }
+
+    @Test
+    public void rejectNonHandlerTypes() {
+        // 配置中指定的非脱敏处理器类型不会被实例化
+        Assertions.assertThrows(JacksonIOException.class, () -> MaskHandlerFactory.fromConfig(
+            "{" + PREFIX + ",\"payload\":{\"@class\":\"java.util.HashMap\",\"key\":\"value\"}}"));
+        Assertions.assertThrows(JacksonIOException.class, () -> MaskHandlerFactory.fromConfig(
+            "{" + PREFIX + ",\"payload\":{\"@class\":\"" + Gadget.class.getName() + "\"}}"));
+        Assertions.assertThrows(JacksonIOException.class,
+            () -> MaskHandlerFactory.fromConfig("{\"@class\":\"" + Gadget.class.getName() + "\"}"));
+        Assertions.assertEquals(0, Gadget.created);
+
+        // 脱敏处理器及其数组仍然可以使用类全名称
+        Prefix prefix = (Prefix) MaskHandlerFactory.fromConfig(
+            "{" + PREFIX + ",\"payload\":{\"@class\":\"MASK_IGNORE\"}}");
+        Assertions.assertEquals("abcd", ((IMaskHandler) prefix.getPayload()).handle("abcd"));
+    }
+
+    /**
+     * 在脱敏结果前添加前缀的自定义处理器，配置按字段读取
+     */
+    public static class Prefix implements IMaskHandler {
+
+        private String prefix = "";
+        private IMaskHandler delegate = MaskHandlerFactory.ignore();
+        private Object payload;
+
+        @Override
+        public String handle(String src) {
+            return prefix + delegate.handle(src);
+        }
+
+        public Object getPayload() {
+            return payload;
+        }
+    }
+
+    /**
+     * 不允许通过配置实例化的类型
+     */
+    public static class Gadget {
+
+        static int created;
+
+        public Gadget() {
+            created++;
+        }
+    }
+}
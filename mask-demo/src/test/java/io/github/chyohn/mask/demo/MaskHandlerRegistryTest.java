@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.registry.MaskHandlerRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按名称加载处理器，配置变更后只重建有变化的处理器，配置有误时保留原快照
+ */
+public class MaskHandlerRegistryTest {
+
+    private static final String PHONE = MaskHandlerFactory.reserveOuter(3, 4).toConfig();
+    private static final String NAME = MaskHandlerFactory.reserveLeft(1).toConfig();
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void loadFile() throws IOException {
+        // 配置可以是JSON对象或者配置JSON字符串
+        Path file = write("rules.json", "{\"phone\":" + PHONE + ",\"name\":" + quote(NAME) + "}");
+        try (MaskHandlerRegistry registry = MaskHandlerRegistry.load(file)) {
+            Assertions.assertEquals(new HashSet<>(Arrays.asList("phone", "name")), registry.names());
+            Assertions.assertEquals("137****6666", registry.get("phone").handle("13755556666"));
+            Assertions.assertEquals("李**", registry.get("name").handle("李太白"));
+            Assertions.assertNull(registry.get("email"));
+            Assertions.assertEquals(1, registry.getVersion());
+            Assertions.assertThrows(UnsupportedOperationException.class, () -> registry.getHandlers().clear());
+            Assertions.assertFalse(registry.reload()); // 内容没有变化
+            Assertions.assertEquals(1, registry.getVersion());
+        }
+    }
+
+    @Test
+    public void reloadOnlyChangedEntries() throws IOException {
+        Path file = write("rules.json", "{\"phone\":" + PHONE + ",\"name\":" + NAME + "}");
+        MaskHandlerRegistry registry = MaskHandlerRegistry.load(file);
+        IMaskHandler phone = registry.get("phone");
+        IMaskHandler name = registry.get("name");
+
+        write("rules.json", "{\"phone\":" + PHONE + ",\"name\":" + MaskHandlerFactory.maskAll().toConfig()
+            + ",\"card\":" + MaskHandlerFactory.reserveRight(4).toConfig() + "}");
+        Assertions.assertTrue(registry.reload());
+        Assertions.assertEquals(2, registry.getVersion());
+        Assertions.assertSame(phone, registry.get("phone"));
+        Assertions.assertNotSame(name, registry.get("name"));
+        Assertions.assertEquals("***", registry.get("name").handle("李太白"));
+        Assertions.assertEquals("************7890", registry.get("card").handle("6222021234567890"));
+
+        // 格式变化但配置相同时快照不变
+        write("rules.json", "{\n  \"card\" : " + MaskHandlerFactory.reserveRight(4).toConfig() + ",\n  \"phone\" : " + PHONE
+            + ",\n  \"name\" : " + MaskHandlerFactory.maskAll().toConfig() + "\n}");
+        Assertions.assertFalse(registry.reload());
+
+        write("rules.json", "{\"phone\":" + PHONE + "}");
+        Assertions.assertTrue(registry.reload());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("phone")), registry.names());
+        Assertions.assertSame(phone, registry.get("phone"));
+    }
+
+    @Test
+    public void invalidConfigKeepsSnapshot() throws IOException {
+        Path file = write("rules.json", "{\"phone\":" + PHONE + "}");
+        MaskHandlerRegistry registry = MaskHandlerRegistry.load(file);
+        IMaskHandler phone = registry.get("phone");
+
+        write("rules.json", "{\"phone\":" + PHONE + ",\"bad\":{\"@class\":\"NOT_EXISTS\"}}");
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, registry::reload);
+        Assertions.assertTrue(e.getMessage().contains("[bad]"), e.getMessage());
+        Assertions.assertFalse(registry.reload()); // 同一个有误的配置只抛出一次异常
+        Assertions.assertSame(phone, registry.get("phone"));
+        Assertions.assertNull(registry.get("bad"));
+        Assertions.assertEquals(1, registry.getVersion());
+
+        write("rules.json", "[1, 2]");
+        Assertions.assertThrows(IllegalArgumentException.class, registry::reload);
+        write("rules.json", "{\"phone\":");
+        Assertions.assertThrows(IllegalArgumentException.class, registry::reload);
+        Assertions.assertSame(phone, registry.get("phone"));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> MaskHandlerRegistry.load(write("bad.json", "[]")));
+    }
+
+    @Test
+    public void loadDirectory() throws IOException {
+        Path rules = Files.createDirectory(dir.resolve("rules"));
+        Files.write(rules.resolve("phone.json"), PHONE.getBytes(StandardCharsets.UTF_8));
+        Files.write(rules.resolve("name.json"), (NAME + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.write(rules.resolve("readme.txt"), "忽略".getBytes(StandardCharsets.UTF_8));
+        Files.write(rules.resolve(".hidden.json"), "{".getBytes(StandardCharsets.UTF_8));
+
+        MaskHandlerRegistry registry = MaskHandlerRegistry.load(rules);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("phone", "name")), registry.names());
+        Assertions.assertEquals("李**", registry.get("name").handle("李太白"));
+        IMaskHandler phone = registry.get("phone");
+
+        Files.delete(rules.resolve("name.json"));
+        Assertions.assertTrue(registry.reload());
+        Assertions.assertNull(registry.get("name"));
+        Assertions.assertSame(phone, registry.get("phone"));
+    }
+
+    @Test
+    public void watch() throws Exception {
+        Path file = write("rules.json", "{\"phone\":" + PHONE + "}");
+        BlockingQueue<Exception> errors = new LinkedBlockingQueue<>();
+        try (MaskHandlerRegistry registry = MaskHandlerRegistry.load(file).onError(errors::add)
+            .watch(10, TimeUnit.MILLISECONDS)) {
+            Assertions.assertThrows(IllegalStateException.class, () -> registry.watch(10, TimeUnit.MILLISECONDS));
+
+            write("rules.json", "{\"phone\":" + NAME + "}");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (registry.getVersion() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            Assertions.assertEquals("1**********", registry.get("phone").handle("13755556666"));
+
+            write("rules.json", "{\"phone\":{\"@class\":\"NOT_EXISTS\"}}");
+            Exception error = errors.poll(10, TimeUnit.SECONDS);
+            Assertions.assertTrue(error instanceof IllegalArgumentException, String.valueOf(error));
+            Assertions.assertEquals(2, registry.getVersion());
+        }
+    }
+
+    private Path write(String fileName, String content) throws IOException {
+        return Files.write(dir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String quote(String config) {
+        return "\"" + config.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多个线程共享同一个不可变处理器做脱敏，结果与单线程使用独立处理器的结果一致，并且处理器的状态不变
+ */
+public class MaskImmutableHandlerTest {
+
+    private static final int THREADS = 8;
+    private static final int ROUNDS = 2000;
+
+    @Test
+    public void sharedHandlerIsThreadSafe() throws Exception {
+        List<IMaskHandler> sources = MaskTestHandlers.handlers();
+        List<IMaskHandler> shared = new ArrayList<>();
+        List<String> configs = new ArrayList<>();
+        String[][] expected = new String[sources.size()][];
+        for (int h = 0; h < sources.size(); h++) {
+            IMaskHandler source = sources.get(h);
+            configs.add(source.toConfig());
+            shared.add(MaskHandlerFactory.immutable(source));
+            expected[h] = new String[MaskTestHandlers.INPUTS.length];
+            for (int i = 0; i < MaskTestHandlers.INPUTS.length; i++) {
+                // 每个输入使用由配置新建的处理器，不与其他线程共享
+                expected[h][i] = MaskHandlerFactory.fromConfig(configs.get(h)).handle(MaskTestHandlers.INPUTS[i]);
+            }
+        }
+
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    StringBuilder out = new StringBuilder();
+                    String[] batch = new String[MaskTestHandlers.INPUTS.length];
+                    for (int round = 0; round < ROUNDS; round++) {
+                        int h = (round + seed) % shared.size();
+                        IMaskHandler handler = shared.get(h);
+                        for (int i = 0; i < MaskTestHandlers.INPUTS.length; i++) {
+                            String input = MaskTestHandlers.INPUTS[(i + seed) % MaskTestHandlers.INPUTS.length];
+                            String want = expected[h][(i + seed) % MaskTestHandlers.INPUTS.length];
+                            Assertions.assertEquals(want, handler.handle(input));
+
+                            out.setLength(0);
+                            out.append('[');
+                            handler.handle("<" + input + ">", 1, input.length() + 1, out);
+                            Assertions.assertEquals("[" + want, out.toString());
+                        }
+                        handler.handleAll(MaskTestHandlers.INPUTS, batch);
+                        Assertions.assertArrayEquals(expected[h], batch);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // 脱敏过程没有修改处理器的状态
+        for (int h = 0; h < shared.size(); h++) {
+            Assertions.assertEquals(configs.get(h), shared.get(h).toConfig());
+        }
+    }
+
+    @Test
+    public void immutableHandlerIsIsolatedFromSource() {
+        IMaskItemHandler<?> source = MaskHandlerFactory.maskInner(1, 1).setSeparator(","); // 以分隔后的元素为单位脱敏
+        IMaskHandler immutable = MaskHandlerFactory.immutable(source);
+        String config = immutable.toConfig();
+
+        source.setMaskStr("#").setSeparator(null);
+        Assertions.assertEquals("*,*", immutable.handle("abc,def"));
+        Assertions.assertEquals(config, immutable.toConfig());
+        Assertions.assertSame(immutable, MaskHandlerFactory.immutable(immutable));
+
+        // 编译结果不允许修改配置
+        IMaskHandler compiled = immutable.compile();
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> ((IMaskItemHandler<?>) compiled).setMaskStr("#"));
+        Assertions.assertEquals(Arrays.asList("*,*", null), immutable.handleAll(Arrays.asList("abc,def", null)));
+    }
+
+    @Test
+    public void unwrappedHandlerCannotBeModified() {
+        MaskGroupHandler group = new MaskGroupHandler("@");
+        group.addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore());
+        IMaskHandler immutable = MaskHandlerFactory.immutable(group);
+        Assertions.assertEquals("a**@def.com", immutable.handle("abc@def.com"));
+
+        MaskGroupHandler compiled = (MaskGroupHandler) ((IMaskHandlerWrapper) immutable).unwrap();
+        // 获取到的是副本，修改副本不影响脱敏结果
+        compiled.getHandlersOfSize().get(2)[1] = MaskHandlerFactory.maskAll().compile();
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> compiled.getHandlersOfSize().clear());
+        Assertions.assertThrows(IllegalStateException.class, () -> compiled.addHandler(MaskHandlerFactory.maskAll()));
+        Assertions.assertThrows(IllegalStateException.class, () -> compiled.setSeparator("."));
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> ((IMaskItemHandler<?>) compiled.getHandlersOfSize().get(2)[0]).setMaskStr("#"));
+        Assertions.assertEquals("a**@def.com", immutable.handle("abc@def.com"));
+
+        MaskHandlerWithSizeSelector selector = new MaskHandlerWithSizeSelector();
+        selector.addHandler(MaskHandlerFactory.reserveLeft(1), 3);
+        IMaskHandler immutableSelector = MaskHandlerFactory.immutable(selector);
+        MaskHandlerWithSizeSelector compiledSelector =
+            (MaskHandlerWithSizeSelector) ((IMaskHandlerWrapper) immutableSelector).unwrap();
+        Assertions.assertThrows(UnsupportedOperationException.class,
+            () -> compiledSelector.getHandlerOfSize().put(3, MaskHandlerFactory.maskAll()));
+        Assertions.assertThrows(IllegalStateException.class, () -> compiledSelector.addHandler(MaskHandlerFactory.maskAll(), 1));
+        Assertions.assertEquals("a**", immutableSelector.handle("abc"));
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+/**
+ * char[]原地脱敏：长度不变的处理器结果与{@link IMaskHandler#handle(String)}一致，其他处理器不支持原地脱敏
+ */
+public class MaskInPlaceTest {
+
+    @Test
+    public void matchesHandle() {
+        int preserving = 0;
+        for (IMaskHandler source : MaskTestHandlers.handlers()) {
+            for (IMaskHandler handler : Arrays.asList(source, source.compile())) {
+                for (String input : MaskTestHandlers.INPUTS) {
+                    char[] buf = ("<<" + input + ">>").toCharArray();
+                    if (!handler.lengthPreserving()) {
+                        Assertions.assertThrows(UnsupportedOperationException.class,
+                            () -> handler.maskInPlace(buf, 2, input.length()));
+                        continue;
+                    }
+                    preserving++;
+                    handler.maskInPlace(buf, 2, input.length());
+                    Assertions.assertEquals("<<" + handler.handle(input) + ">>", new String(buf), input);
+                }
+            }
+        }
+        Assertions.assertTrue(preserving > 0);
+    }
+
+    @Test
+    public void capability() {
+        Assertions.assertTrue(MaskHandlerFactory.maskInner(3, 4).lengthPreserving());
+        Assertions.assertTrue(MaskHandlerFactory.reserveOuter(3, 4).lengthPreserving());
+        Assertions.assertTrue(MaskHandlerFactory.maskNumber().lengthPreserving());
+        Assertions.assertTrue(MaskHandlerFactory.maskLetter().lengthPreserving());
+        Assertions.assertTrue(MaskHandlerFactory.ignore().lengthPreserving());
+        Assertions.assertFalse(MaskHandlerFactory.maskAll(3).lengthPreserving()); // 固定个数的脱敏字符
+        Assertions.assertFalse(MaskHandlerFactory.hideAll().lengthPreserving());
+        Assertions.assertFalse(MaskHandlerFactory.maskLetter("^_^").lengthPreserving()); // 多个字符的maskStr
+        Assertions.assertFalse(MaskHandlerFactory.maskAppend(2, 2).lengthPreserving());
+        Assertions.assertFalse(((IMaskHandler) String::toUpperCase).lengthPreserving());
+
+        char[] buf = "身份证110101199003071234".toCharArray();
+        MaskHandlerFactory.reserveOuter(6, 4).maskInPlace(buf, 3, 18);
+        Assertions.assertEquals("身份证110101********1234", new String(buf));
+    }
+
+    @Test
+    public void outOfBounds() {
+        IMaskHandler handler = MaskHandlerFactory.maskInner(1, 1);
+        char[] buf = new char[4];
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.maskInPlace(buf, 2, 3));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.maskInPlace(buf, -1, 1));
+        Assertions.assertThrows(IndexOutOfBoundsException.class,
+            () -> MaskHandlerFactory.ignore().maskInPlace(buf, 0, 5));
+    }
+}
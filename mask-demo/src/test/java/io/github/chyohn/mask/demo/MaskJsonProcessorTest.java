@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.json.MaskJsonProcessor;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 按JSON路径对JSON文档流式脱敏
+ */
+public class MaskJsonProcessorTest {
+
+    private static final String JSON = "{\"user\":{\"name\":\"李白\",\"phone\":\"13755556666\",\"age\":35,"
+        + "\"email\":\"libai@tang.com\"},\"orders\":[{\"cardNo\":\"6222021234567890\",\"email\":\"a@b.com\"},"
+        + "{\"cardNo\":\"6222029876543210\",\"tags\":[\"x\",\"yy\"]}],\"a.b\":\"dotted\",\"phone\":null}";
+
+    @Test
+    public void pathSyntax() {
+        MaskJsonProcessor processor = MaskJsonProcessor.builder()
+            .addHandler("$.user.phone", MaskHandlerFactory.reserveOuter(3, 4))
+            .addHandler("$.orders[*].cardNo", MaskHandlerFactory.reserveRight(4))
+            .addHandler("$..email", MaskHandlerFactory.maskLeft(3))
+            .addHandler("$['a.b']", MaskHandlerFactory.maskAll())
+            .addHandler("$.orders[1].tags[0]", MaskHandlerFactory.maskAll())
+            .build();
+        String want = "{\"user\":{\"name\":\"李白\",\"phone\":\"137****6666\",\"age\":35,"
+            + "\"email\":\"***ai@tang.com\"},\"orders\":[{\"cardNo\":\"************7890\",\"email\":\"***.com\"},"
+            + "{\"cardNo\":\"************3210\",\"tags\":[\"*\",\"yy\"]}],\"a.b\":\"******\",\"phone\":null}";
+        Assertions.assertEquals(want, processor.process(JSON));
+    }
+
+    @Test
+    public void wildcardsAndFirstMatchWins() {
+        MaskJsonProcessor processor = MaskJsonProcessor.builder()
+            .addHandler("$.user.name", MaskHandlerFactory.reserveLeft(1))
+            .addHandler("$.user.*", MaskHandlerFactory.maskAll())
+            .addHandler("$..[*]", MaskHandlerFactory.ignore())
+            .build();
+        String want = "{\"user\":{\"name\":\"李*\",\"phone\":\"***********\",\"age\":35,"
+            + "\"email\":\"**************\"},\"orders\":[{\"cardNo\":\"6222021234567890\",\"email\":\"a@b.com\"},"
+            + "{\"cardNo\":\"6222029876543210\",\"tags\":[\"x\",\"yy\"]}],\"a.b\":\"dotted\",\"phone\":null}";
+        Assertions.assertEquals(want, processor.process(JSON));
+
+        // 匹配到对象或数组时不做处理
+        MaskJsonProcessor container = MaskJsonProcessor.builder().addHandler("$.orders", MaskHandlerFactory.maskAll()).build();
+        Assertions.assertEquals(JSON, container.process(JSON));
+    }
+
+    @Test
+    public void streamsAndWhitespace() throws IOException {
+        MaskJsonProcessor processor = MaskJsonProcessor.builder()
+            .addHandler("$[*].v", MaskHandlerFactory.maskAll())
+            .build();
+        String pretty = "[ {\"v\" : \"abc\", \"n\" : 1.50} ,\n {\"v\":\"表😀\"} ]";
+        String want = "[{\"v\":\"***\",\"n\":1.50},{\"v\":\"***\"}]";
+        Assertions.assertEquals(want, processor.process(pretty));
+
+        StringWriter writer = new StringWriter();
+        processor.process(new StringReader(pretty), writer);
+        Assertions.assertEquals(want, writer.toString());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        processor.process(new ByteArrayInputStream(pretty.getBytes(StandardCharsets.UTF_8)), out);
+        Assertions.assertEquals(want, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void invalidPath() {
+        String[] paths = {"user.phone", "$.", "$[abc]", "$['a.b", "$[-1]", "$x"};
+        for (String path : paths) {
+            Assertions.assertThrows(IllegalArgumentException.class,
+                () -> MaskJsonProcessor.builder().addHandler(path, MaskHandlerFactory.maskAll()).build(), path);
+        }
+    }
+}
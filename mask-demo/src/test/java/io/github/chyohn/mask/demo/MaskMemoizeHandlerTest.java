@@ -0,0 +1,132 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.IMaskMemoizeHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskMemoizeHandler;
+import io.github.chyohn.mask.handler.MaskMemoizeStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 缓存脱敏结果：结果与被缓存的处理器一致，修改原处理器不影响已缓存的结果
+ */
+public class MaskMemoizeHandlerTest {
+
+    @Test
+    public void cachedResults() {
+        Counting counting = new Counting();
+        IMaskMemoizeHandler<?> memo = MaskHandlerFactory.memoize(counting, 4);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertEquals("a***", memo.handle("abcd"));
+        }
+        Assertions.assertEquals(1, counting.calls.get());
+        StringBuilder out = new StringBuilder(">");
+        memo.handle("xabcdx", 1, 5, out);
+        Assertions.assertEquals(">a***", out.toString());
+        Assertions.assertEquals(1, counting.calls.get());
+
+        MaskMemoizeStats stats = memo.stats();
+        Assertions.assertEquals(3, stats.getHitCount());
+        Assertions.assertEquals(1, stats.getMissCount());
+        Assertions.assertEquals(1, stats.getSize());
+        Assertions.assertEquals(0.75, stats.hitRate(), 1e-9);
+
+        memo.clear();
+        memo.handle("abcd");
+        Assertions.assertEquals(2, counting.calls.get());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> memo.setMaximumSize(0));
+    }
+
+    @Test
+    public void sourceChangesDoNotAffectResults() {
+        IMaskItemHandler<?> item = MaskHandlerFactory.reserveLeft(1);
+        MaskGroupHandler group = new MaskGroupHandler("@");
+        group.addHandler(item, MaskHandlerFactory.ignore());
+        IMaskMemoizeHandler<?> memo = MaskHandlerFactory.memoize(group);
+        Assertions.assertEquals("q****@cc.com", memo.handle("qiang@cc.com"));
+
+        // 修改原处理器的配置后，缓存中和新计算的结果都不变
+        item.setMaskStr("#");
+        group.addHandler(MaskHandlerFactory.maskAll(), MaskHandlerFactory.maskAll());
+        Assertions.assertEquals("q****@cc.com", memo.handle("qiang@cc.com"));
+        Assertions.assertEquals("s***@cc.com", memo.handle("shao@cc.com"));
+
+        // 被缓存的处理器是编译后的副本
+        MaskMemoizeHandler handler = (MaskMemoizeHandler) memo;
+        Assertions.assertNotSame(group, handler.getHandler());
+        Assertions.assertThrows(IllegalStateException.class, () -> ((MaskGroupHandler) handler.getHandler()).setSeparator("."));
+
+        // 替换处理器时同样编译，并清空缓存
+        handler.setHandler(group);
+        Assertions.assertEquals("*****@******", memo.handle("qiang@cc.com"));
+        group.setSeparator(".");
+        Assertions.assertEquals("****@******", memo.handle("shao@cc.com"));
+        handler.setHandler(null);
+        Assertions.assertEquals("shao@cc.com", memo.handle("shao@cc.com"));
+    }
+
+    @Test
+    public void compile() {
+        IMaskMemoizeHandler<?> memo = MaskHandlerFactory.memoize(MaskHandlerFactory.reserveOuter(3, 4));
+        memo.handle("13755556666");
+        IMaskHandler compiled = memo.compile();
+        Assertions.assertSame(compiled, compiled.compile());
+        Assertions.assertEquals("137****6666", compiled.handle("13755556666"));
+        Assertions.assertEquals(0, ((IMaskMemoizeHandler<?>) compiled).stats().getHitCount()); // 使用新的缓存
+        Assertions.assertThrows(IllegalStateException.class, () -> ((IMaskMemoizeHandler<?>) compiled).setMaximumSize(8));
+
+        // 原地脱敏不经过缓存
+        char[] buf = "13755556666".toCharArray();
+        compiled.maskInPlace(buf, 0, buf.length);
+        Assertions.assertEquals("137****6666", new String(buf));
+        Assertions.assertEquals(1, ((IMaskMemoizeHandler<?>) compiled).stats().getMissCount());
+    }
+
+    @Test
+    public void eviction() {
+        IMaskMemoizeHandler<?> memo = MaskHandlerFactory.memoize(MaskHandlerFactory.maskAll(), 8);
+        for (int i = 0; i < 1000; i++) {
+            Assertions.assertEquals("****", memo.handle(String.valueOf(1000 + i)));
+        }
+        MaskMemoizeStats stats = memo.stats();
+        Assertions.assertTrue(stats.getSize() <= 8, stats.toString());
+        Assertions.assertEquals(1000, stats.getMissCount());
+    }
+
+    /**
+     * 记录调用次数的处理器
+     */
+    static class Counting implements IMaskHandler {
+
+        final AtomicInteger calls = new AtomicInteger();
+        private final IMaskHandler delegate = MaskHandlerFactory.reserveLeft(1);
+
+        @Override
+        public String handle(String src) {
+            calls.incrementAndGet();
+            return delegate.handle(src);
+        }
+    }
+}
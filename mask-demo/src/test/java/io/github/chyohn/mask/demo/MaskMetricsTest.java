@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
+import io.github.chyohn.mask.handler.MaskImmutableHandler;
+import io.github.chyohn.mask.metrics.MaskMetrics;
+import io.github.chyohn.mask.metrics.MaskRuleStats;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.Arrays;
+
+/**
+ * 统计整个处理器树的脱敏数据，统计前后脱敏结果和处理器的类型、编译状态不变
+ */
+public class MaskMetricsTest {
+
+    private static final String EMAIL = "qiang@cc.com";
+
+    private static MaskGroupHandler email() {
+        return email(new MaskGroupHandler());
+    }
+
+    private static MaskGroupHandler email(MaskGroupHandler group) {
+        group.setSeparator("@");
+        group.addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore());
+        group.setDefaultHandler(MaskHandlerFactory.maskAll());
+        return group;
+    }
+
+    @Test
+    public void instrumentTree() {
+        MaskMetrics metrics = MaskMetrics.create().setSampleInterval(1);
+        MaskGroupHandler source = email();
+        IMaskHandler handler = metrics.instrument("email", source);
+        Assertions.assertEquals("q****@cc.com", handler.handle(EMAIL));
+        Assertions.assertEquals("*****", handler.handle("no-at"));
+        Assertions.assertEquals(source.toConfig(), handler.toConfig());
+
+        assertStats(metrics.getStats("email"), 2, EMAIL.length() + 5, EMAIL.length() + 5);
+        assertStats(metrics.getStats("email[2][0]"), 1, 5, 5);
+        assertStats(metrics.getStats("email[2][1]"), 1, 6, 6);
+        assertStats(metrics.getStats("email.default"), 1, 5, 5);
+        Assertions.assertTrue(metrics.getStats("email").getSampledCalls() > 0);
+
+        // 统计不修改原处理器
+        Assertions.assertFalse(source.getHandlersOfSize().get(2)[0] instanceof IMaskHandlerWrapper);
+        Assertions.assertFalse(source.getDefaultHandler() instanceof IMaskHandlerWrapper);
+
+        metrics.reset();
+        assertStats(metrics.getStats("email[2][0]"), 0, 0, 0);
+    }
+
+    @Test
+    public void instrumentCompiledAndWrappedHandlers() {
+        MaskGroupHandler compiled = email().compile();
+        IMaskHandler generated = MaskHandlerFactory.generate(email());
+        IMaskHandler immutable = MaskHandlerFactory.immutable(email());
+
+        MaskMetrics metrics = MaskMetrics.create();
+        IMaskHandler[] handlers = {
+            metrics.instrument("compiled", compiled),
+            metrics.instrument("generated", generated),
+            metrics.instrument("immutable", immutable)
+        };
+        for (IMaskHandler handler : handlers) {
+            Assertions.assertEquals("q****@cc.com", handler.handle(EMAIL));
+        }
+        for (String rule : Arrays.asList("compiled", "generated", "immutable")) {
+            assertStats(metrics.getStats(rule + "[2][0]"), 1, 5, 5);
+            assertStats(metrics.getStats(rule + "[2][1]"), 1, 6, 6);
+        }
+
+        // 编译后的处理器统计后仍然是编译后的处理器
+        MaskGroupHandler instrumented = (MaskGroupHandler) ((IMaskHandlerWrapper) handlers[0]).unwrap();
+        Assertions.assertThrows(IllegalStateException.class, () -> instrumented.setSeparator("."));
+        Assertions.assertSame(handlers[0], handlers[0].compile());
+        IMaskHandler immutableInstrumented = ((IMaskHandlerWrapper) handlers[2]).unwrap();
+        Assertions.assertTrue(immutableInstrumented instanceof MaskImmutableHandler);
+        Assertions.assertEquals(immutable.toConfig(), handlers[2].toConfig());
+
+        // 已经统计过的处理器不重复统计子处理器
+        IMaskHandler twice = metrics.instrument("twice", handlers[0]);
+        twice.handle(EMAIL);
+        assertStats(metrics.getStats("twice"), 1, 12, 12);
+        assertStats(metrics.getStats("compiled[2][0]"), 2, 10, 10);
+        Assertions.assertNull(metrics.getStats("twice[2][0]"));
+    }
+
+    @Test
+    public void keepSubclass() {
+        MaskMetrics metrics = MaskMetrics.create();
+        for (MaskGroupHandler group : Arrays.asList(email(new EmailGroup()), email(new EmailGroup()).compile())) {
+            IMaskHandler handler = metrics.instrument("subclass", group);
+            Assertions.assertSame(EmailGroup.class, ((IMaskHandlerWrapper) handler).unwrap().getClass());
+            Assertions.assertEquals("q****@cc.com", handler.handle(EMAIL));
+        }
+        assertStats(metrics.getStats("subclass[2][0]"), 2, 10, 10);
+    }
+
+    @Test
+    public void instrumentSizeSelector() {
+        MaskHandlerWithSizeSelector selector = new MaskHandlerWithSizeSelector();
+        selector.addHandler(MaskHandlerFactory.reserveLeft(1), 2);
+        selector.setDefaultHandler(MaskHandlerFactory.reserveLeft(2));
+        MaskMetrics metrics = MaskMetrics.create();
+        IMaskHandler handler = metrics.instrument("name", selector.compile());
+        Assertions.assertEquals("李*", handler.handle("李白"));
+        Assertions.assertEquals("欧***", handler.handle("欧阳锋锋")); // 按长度向下匹配
+        Assertions.assertEquals("*", handler.handle("李"));
+        assertStats(metrics.getStats("name[2]"), 2, 6, 6);
+        assertStats(metrics.getStats("name.default"), 1, 1, 1);
+        MaskHandlerWithSizeSelector instrumented = (MaskHandlerWithSizeSelector) ((IMaskHandlerWrapper) handler).unwrap();
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> instrumented.addHandler(MaskHandlerFactory.maskAll(), 1));
+    }
+
+    @Test
+    public void batchAndSampling() {
+        MaskMetrics metrics = MaskMetrics.create().setSampleInterval(0);
+        IMaskItemHandler<?> item = MaskHandlerFactory.reserveOuter(3, 4);
+        IMaskHandler handler = metrics.instrument("phone", item);
+        String[] values = {"13755556666", null, "13800001111"};
+        String[] out = new String[3];
+        handler.handleAll(values, out);
+        Assertions.assertArrayEquals(new String[]{"137****6666", null, "138****1111"}, out);
+        MaskRuleStats stats = metrics.getStats("phone");
+        assertStats(stats, 2, 22, 22);
+        Assertions.assertEquals(0, stats.getSampledCalls()); // 不记录耗时
+        Assertions.assertThrows(IllegalArgumentException.class, () -> metrics.setSampleInterval(-1));
+    }
+
+    @Test
+    public void registerMBeans() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        MaskMetrics metrics = MaskMetrics.create();
+        metrics.instrument("phone", MaskHandlerFactory.reserveOuter(3, 4)).handle("13755556666");
+        metrics.registerMBeans(server);
+        metrics.instrument("name", MaskHandlerFactory.reserveLeft(1)); // 之后新增的规则也会注册
+
+        ObjectName phone = new ObjectName(MaskMetrics.JMX_DOMAIN + ":type=MaskRule,name=" + ObjectName.quote("phone"));
+        Assertions.assertEquals(1L, server.getAttribute(phone, "Calls"));
+        Assertions.assertTrue(server.isRegistered(
+            new ObjectName(MaskMetrics.JMX_DOMAIN + ":type=MaskRule,name=" + ObjectName.quote("name"))));
+        Assertions.assertThrows(IllegalStateException.class, () -> metrics.registerMBeans(server));
+
+        metrics.unregisterMBeans();
+        Assertions.assertFalse(server.isRegistered(phone));
+    }
+
+    private static void assertStats(MaskRuleStats stats, long calls, long inputChars, long outputChars) {
+        Assertions.assertNotNull(stats);
+        Assertions.assertEquals(calls, stats.getCalls(), stats.getRule());
+        Assertions.assertEquals(inputChars, stats.getInputChars(), stats.getRule());
+        Assertions.assertEquals(outputChars, stats.getOutputChars(), stats.getRule());
+    }
+
+    /**
+     * 自定义的组合处理器子类
+     */
+    public static class EmailGroup extends MaskGroupHandler {
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.annotation.Mask;
+import io.github.chyohn.mask.json.MaskModule;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Jackson序列化时对属性脱敏
+ */
+public class MaskModuleTest {
+
+    @Test
+    public void annotatedProperties() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new MaskModule());
+        Assertions.assertEquals("{\"name\":\"李*\",\"phone\":\"137****6666\",\"idCard\":\"110101199003071234\","
+                + "\"emails\":[\"a***@b.com\",null],\"cards\":[\"1**\"],\"phones\":{\"home\":\"1**\"},\"age\":35,"
+                + "\"nickname\":\"***\"}",
+            mapper.writeValueAsString(new User()));
+
+        User empty = new User();
+        empty.name = null;
+        empty.emails = null;
+        Assertions.assertTrue(mapper.writeValueAsString(empty).startsWith("{\"name\":null,"));
+    }
+
+    @Test
+    public void rulesOverrideAnnotations() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new MaskModule()
+            .addRule(User.class, "idCard", MaskHandlerFactory.reserveOuter(6, 4))
+            .addRule(User.class, "name", MaskHandlerFactory.maskAll().toConfig()));
+        String json = mapper.writeValueAsString(new VipUser()); // 规则对子类同样有效
+        Assertions.assertTrue(json.startsWith("{\"name\":\"**\",\"phone\":\"137****6666\",\"idCard\":\"110101********1234\","), json);
+        Assertions.assertTrue(json.endsWith(",\"level\":\"g***\"}"), json);
+    }
+
+    @Test
+    public void rulesAreFrozenOnRegistration() throws Exception {
+        MaskModule module = new MaskModule().addRule(User.class, "idCard", MaskHandlerFactory.reserveRight(4));
+        ObjectMapper mapper = new ObjectMapper().registerModule(module);
+        Assertions.assertThrows(IllegalStateException.class,
+            () -> module.addRule(User.class, "name", MaskHandlerFactory.maskAll()));
+        String json = mapper.writeValueAsString(new User());
+        Assertions.assertTrue(json.contains("\"name\":\"李*\""), json);
+        Assertions.assertTrue(json.contains("\"idCard\":\"**************1234\""), json);
+        // 同一个模块可以注册到多个ObjectMapper
+        Assertions.assertEquals(json, new ObjectMapper().registerModule(module).writeValueAsString(new User()));
+    }
+
+    @Test
+    public void rulesFromMap() throws Exception {
+        Map<String, String> rules = new TreeMap<>();
+        rules.put(User.class.getName() + ".idCard", MaskHandlerFactory.reserveRight(4).toConfig());
+        ObjectMapper mapper = new ObjectMapper().registerModule(new MaskModule().addRules(rules, getClass().getClassLoader()));
+        Assertions.assertTrue(mapper.writeValueAsString(new User()).contains("\"idCard\":\"**************1234\""));
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MaskModule()
+            .addRules(Collections.singletonMap("idCard", "{}"), getClass().getClassLoader()));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new MaskModule()
+            .addRules(Collections.singletonMap("com.example.Missing.idCard", "{}"), getClass().getClassLoader()));
+    }
+
+    public static class User {
+        @Mask(reserveLeft = 1)
+        public String name = "李白";
+        @Mask(reserveOuter = {3, 4})
+        public String phone = "13755556666";
+        public String idCard = "110101199003071234";
+        @Mask(maskInner = {1, 6})
+        public String[] emails = {"abcd@b.com", null};
+        @Mask(reserveLeft = 1)
+        public List<String> cards = Arrays.asList("123");
+        @Mask(reserveLeft = 1)
+        public Map<String, String> phones = Collections.singletonMap("home", "123");
+        public int age = 35;
+        private String nickname = "abc";
+
+        @Mask(maskAll = true)
+        public String getNickname() {
+            return nickname;
+        }
+    }
+
+    public static class VipUser extends User {
+        @Mask(reserveLeft = 1)
+        public String level = "gold";
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.pii.MaskPiiDetector;
+import io.github.chyohn.mask.pii.PiiMatch;
+import io.github.chyohn.mask.pii.PiiType;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 从自由文本中识别手机号、身份证号、邮箱和银行卡号
+ */
+public class MaskPiiDetectorTest {
+
+    private final MaskPiiDetector detector = MaskPiiDetector.create();
+
+    @Test
+    public void mobile() {
+        assertSingle(PiiType.MOBILE, "电话13755556666。", 2, 13);
+        assertNone("12755556666"); // 第二位不是3-9
+        assertNone("abc13755556666"); // 紧挨字母
+        assertNone("137555566661"); // 12位数字
+        Assertions.assertEquals("用户137****6666的", detector.mask("用户13755556666的"));
+    }
+
+    @Test
+    public void idCard() {
+        String id = withCheckCode("11010119900307123");
+        assertSingle(PiiType.ID_CARD, "身份证:" + id, 4, 22);
+        Assertions.assertEquals("身份证:110101********" + id.substring(14), detector.mask("身份证:" + id));
+
+        String x = idWithCheckCode('X');
+        assertSingle(PiiType.ID_CARD, x, 0, 18);
+        assertSingle(PiiType.ID_CARD, x.substring(0, 17) + "x", 0, 18);
+
+        // 校验码错误、出生日期错误
+        char wrong = id.charAt(17) == '0' ? '1' : '0';
+        Assertions.assertTrue(types(id.substring(0, 17) + wrong).stream().noneMatch(type -> type == PiiType.ID_CARD));
+        assertNone(withCheckCode("11010119901307123"));
+        assertNone(withCheckCode("11010119900230123"));
+        assertNone(withCheckCode("11010119900229123"));
+        assertSingle(PiiType.ID_CARD, withCheckCode("11010120000229123"), 0, 18);
+    }
+
+    @Test
+    public void email() {
+        assertSingle(PiiType.EMAIL, "邮箱是qiang.shao@cc.com。", 3, 20);
+        Assertions.assertEquals("用户137****6666的邮箱是q****@cc.com",
+            detector.mask("用户13755556666的邮箱是qiang@cc.com"));
+        // 邮箱中的数字不识别为手机号
+        Assertions.assertEquals(Collections.singletonList(PiiType.EMAIL), types("13755556666@cc.com"));
+        assertNone("a@b"); // 没有顶级域名
+        assertNone("@cc.com");
+    }
+
+    @Test
+    public void bankCard() {
+        assertSingle(PiiType.BANK_CARD, "卡号4111111111111111", 2, 18);
+        Assertions.assertEquals("卡号411111******1111", detector.mask("卡号4111111111111111"));
+        assertNone("4111111111111112"); // Luhn校验失败
+        assertNone("411111111111"); // 少于13位
+        Assertions.assertEquals("卡号************1111", MaskPiiDetector.create()
+            .setHandler(PiiType.BANK_CARD, MaskHandlerFactory.reserveRight(4)).mask("卡号4111111111111111"));
+    }
+
+    @Test
+    public void disabledTypesAndOutput() {
+        MaskPiiDetector noMobile = MaskPiiDetector.create().setHandler(PiiType.MOBILE, null);
+        String text = "13755556666 4111111111111111";
+        Assertions.assertEquals(Collections.singletonList(PiiType.BANK_CARD), noMobileTypes(noMobile, text));
+        Assertions.assertEquals("13755556666 411111******1111", noMobile.mask(text));
+
+        String plain = "没有敏感信息的文本";
+        Assertions.assertSame(plain, detector.mask(plain));
+
+        StringBuilder out = new StringBuilder(">");
+        detector.mask(new StringBuilder("a 13755556666 b"), out);
+        Assertions.assertEquals(">a 137****6666 b", out.toString());
+    }
+
+    @Test
+    public void longText() {
+        StringBuilder text = new StringBuilder();
+        StringBuilder want = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("第").append(i).append("条 13755556666, qa@cc.com;");
+            want.append("第").append(i).append("条 137****6666, q*@cc.com;");
+        }
+        Assertions.assertEquals(want.toString(), detector.mask(text.toString()));
+        Assertions.assertEquals(4000, detector.detect(text).size());
+    }
+
+    private void assertSingle(PiiType type, String text, int start, int end) {
+        Assertions.assertEquals(Collections.singletonList(new PiiMatch(type, start, end)), detector.detect(text), text);
+    }
+
+    private void assertNone(String text) {
+        Assertions.assertEquals(Collections.emptyList(), detector.detect(text), text);
+        Assertions.assertSame(text, detector.mask(text));
+    }
+
+    private List<PiiType> types(String text) {
+        return noMobileTypes(detector, text);
+    }
+
+    private static List<PiiType> noMobileTypes(MaskPiiDetector detector, String text) {
+        return Arrays.asList(detector.detect(text).stream().map(PiiMatch::getType).toArray(PiiType[]::new));
+    }
+
+    /**
+     * 按GB 11643计算身份证号的校验码
+     */
+    private static String withCheckCode(String first17) {
+        int[] weights = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (first17.charAt(i) - '0') * weights[i];
+        }
+        return first17 + "10X98765432".charAt(sum % 11);
+    }
+
+    private static String idWithCheckCode(char checkCode) {
+        for (int i = 0; i < 1000; i++) {
+            String id = withCheckCode(String.format("11010119900307%03d", i));
+            if (id.charAt(17) == checkCode) {
+                return id;
+            }
+        }
+        throw new IllegalStateException();
+    }
+}
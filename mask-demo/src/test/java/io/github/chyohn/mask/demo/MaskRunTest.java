@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 使用预先生成的模板输出模糊字符串，结果与逐个拼接maskStr一致
+ */
+public class MaskRunTest {
+
+    private static final String[] MASK_STRS = {"*", "ab", "表", "😀", "", "^_^"};
+    private static final int[] LENGTHS = {1, 5, 63, 64, 65, 100, 1500, 5000};
+
+    @Test
+    public void fixedMaskLength() {
+        for (String maskStr : MASK_STRS) {
+            for (int maskLength : LENGTHS) {
+                IMaskItemHandler<?> handler = MaskHandlerFactory.maskAll().setMaskStr(maskStr, maskLength);
+                String want = repeat(maskStr, maskLength);
+                assertMasked(want, handler, "abc");
+                assertMasked(want, handler.compile(), "abc");
+            }
+        }
+    }
+
+    @Test
+    public void maskLengthFollowsSource() {
+        for (String maskStr : MASK_STRS) {
+            for (int length : LENGTHS) {
+                IMaskItemHandler<?> handler = MaskHandlerFactory.maskAll().setMaskStr(maskStr);
+                String src = repeat("x", length);
+                assertMasked(repeat(maskStr, length), handler, src);
+                if (length > 2) {
+                    IMaskHandler inner = MaskHandlerFactory.maskInner(1, 1).setMaskStr(maskStr);
+                    assertMasked("x" + repeat(maskStr, length - 2) + "x", inner, src);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void templateFollowsConfigChanges() {
+        IMaskItemHandler<?> handler = MaskHandlerFactory.reserveLeft(1);
+        Assertions.assertEquals("a**", handler.handle("abc"));
+        handler.setMaskStr("#");
+        Assertions.assertEquals("a##", handler.handle("abc"));
+        handler.setMaskLength(4);
+        Assertions.assertEquals("a####", handler.handle("abc"));
+        handler.setMaskStr("表", 2);
+        Assertions.assertEquals("a表表", handler.handle("abc"));
+    }
+
+    private static void assertMasked(String want, IMaskHandler handler, String src) {
+        Assertions.assertEquals(want, handler.handle(src));
+        StringBuilder out = new StringBuilder();
+        handler.handle(src, out);
+        Assertions.assertEquals(want, out.toString());
+        MaskByteSink sink = new MaskByteSink();
+        byte[] bytes = src.getBytes(StandardCharsets.UTF_8);
+        handler.handle(bytes, 0, bytes.length, sink);
+        Assertions.assertEquals(want, sink.toString());
+    }
+
+    private static String repeat(String str, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append(str);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskSeparator;
+import io.github.chyohn.mask.handler.MaskTokens;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+/**
+ * 分隔符的分隔结果与{@link String#split(String, int)}一致
+ */
+public class MaskSeparatorTest {
+
+    private static final String[] ALPHABET = {"a", "b", ",", ";", ".", "é", "😀", "表"};
+    private static final String[] SEPARATORS = {",", ",,", ".", ";,", "😀", "é", "a.b"};
+    private static final int[] LIMITS = {0, 1, 2, 3, -1};
+
+    @Test
+    public void literalSplitMatchesStringSplit() {
+        Random random = new Random(20230101L);
+        for (int round = 0; round < 2000; round++) {
+            String input = randomString(random);
+            for (String separator : SEPARATORS) {
+                for (int limit : LIMITS) {
+                    String[] want = input.split(Pattern.quote(separator), Math.max(limit, 0));
+                    MaskSeparator literal = MaskSeparator.literal(separator, limit);
+                    String message = input + " / " + separator + " / " + limit;
+
+                    String padded = "<" + input + ">";
+                    try (MaskTokens tokens = literal.split(padded, 1, padded.length() - 1)) {
+                        Assertions.assertArrayEquals(want, tokens.toArray(), message);
+                    }
+                    Assertions.assertEquals(want.length, literal.count(padded, 1, padded.length() - 1), message);
+
+                    // 包含代理字符的分隔符不能在字节上分隔
+                    Assertions.assertEquals(!"😀".equals(separator), literal.supportsUtf8());
+                    if (!literal.supportsUtf8()) {
+                        continue;
+                    }
+                    byte[] bytes = padded.getBytes(StandardCharsets.UTF_8);
+                    try (MaskTokens tokens = literal.split(bytes, 1, bytes.length - 1)) {
+                        Assertions.assertArrayEquals(want, tokens.toArray(), message);
+                    }
+                    Assertions.assertEquals(want.length, literal.count(bytes, 1, bytes.length - 1), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void regexSplitMatchesStringSplit() {
+        String[] regexes = {"\\s+", "[,;]", "\\.", "(?=b)"};
+        Random random = new Random(7L);
+        for (int round = 0; round < 1000; round++) {
+            String input = randomString(random).replace('a', ' ');
+            for (String regex : regexes) {
+                for (int limit : LIMITS) {
+                    String[] want = input.split(regex, Math.max(limit, 0));
+                    MaskSeparator separator = MaskSeparator.regex(regex, limit);
+                    try (MaskTokens tokens = separator.split(input, 0, input.length())) {
+                        Assertions.assertArrayEquals(want, tokens.toArray(), input + " / " + regex);
+                    }
+                    Assertions.assertEquals(want.length, separator.count(input, 0, input.length()));
+                    Assertions.assertFalse(separator.supportsUtf8());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void literalSeparatorIsNotRegex() {
+        IMaskHandler literal = MaskHandlerFactory.maskAll().setSeparator("a.b");
+        Assertions.assertEquals("*a.b*", literal.handle("xa.by"));
+        Assertions.assertEquals("*", literal.handle("xacby"));
+
+        IMaskHandler regex = MaskHandlerFactory.maskAll().setSeparatorRegex("a.b");
+        Assertions.assertEquals("*a.b*", regex.handle("xacby"));
+
+        IMaskHandler dot = MaskHandlerFactory.reserveLeft(1).setSeparator(".", 2);
+        Assertions.assertEquals("qiang.*", dot.handle("qiang.shao.cc"));
+    }
+
+    private static String randomString(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            builder.append(ALPHABET[random.nextInt(ALPHABET.length)]);
+        }
+        return builder.toString();
+    }
+}
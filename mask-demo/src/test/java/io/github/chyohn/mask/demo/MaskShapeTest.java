@@ -0,0 +1,105 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个模糊字符的常见配置直接填充结果字符数组，结果与按区间脱敏、编译后的处理器一致
+ */
+public class MaskShapeTest {
+
+    private static final String[] INPUTS = {"", "a", "ab", "abc", "abcd", "13812345678", "张三丰", "a😀b😀c", "abcdefghijklmnopqrstuvwxyz"};
+
+    @Test
+    public void singleCharShapes() {
+        Assertions.assertEquals("138****5678", MaskHandlerFactory.maskInner(3, 4).handle("13812345678"));
+        Assertions.assertEquals("138**5678", MaskHandlerFactory.maskInner(3, 4).setMaskLength(2).handle("13812345678"));
+        Assertions.assertEquals("138####5678", MaskHandlerFactory.maskInner(3, 4).setMaskStr("#").handle("13812345678"));
+        Assertions.assertEquals("*******", MaskHandlerFactory.maskInner(3, 4).handle("1234567"));
+        Assertions.assertEquals("**", MaskHandlerFactory.maskInner(3, 4).setMaskLength(2).handle("1234567"));
+        Assertions.assertEquals("a**b", MaskHandlerFactory.maskInner(1, 1).handle("a😀b"));
+
+        Assertions.assertEquals("*bc*", MaskHandlerFactory.maskOuter(1, 1).handle("abcd"));
+        Assertions.assertEquals("**bc**", MaskHandlerFactory.maskOuter(1, 1).setMaskLength(2).handle("abcd"));
+        Assertions.assertEquals("ab***", MaskHandlerFactory.maskOuter(0, 2).setMaskLength(3).handle("abcd"));
+        Assertions.assertEquals("***", MaskHandlerFactory.maskOuter(2, 2).handle("abc"));
+
+        Assertions.assertEquals("**abc***", MaskHandlerFactory.maskAppend(2, 3).handle("abc"));
+        Assertions.assertEquals("abc", MaskHandlerFactory.maskAppend(0, 0).handle("abc"));
+    }
+
+    @Test
+    public void matchesRangeAndCompiled() {
+        for (IMaskItemHandler<?> handler : shapes()) {
+            IMaskHandler compiled = handler.compile();
+            for (String input : INPUTS) {
+                String expected = range(handler, input);
+                Assertions.assertEquals(expected, handler.handle(input), handler.toConfig() + " " + input);
+                Assertions.assertEquals(expected, compiled.handle(input), handler.toConfig() + " " + input);
+            }
+        }
+    }
+
+    @Test
+    public void reconfigure() {
+        // 修改maskStr和maskLength后重新计算是否可以直接填充
+        IMaskItemHandler<?> handler = MaskHandlerFactory.maskInner(1, 1);
+        Assertions.assertEquals("a**d", handler.handle("abcd"));
+        handler.setMaskStr("^_^");
+        Assertions.assertEquals(range(handler, "abcd"), handler.handle("abcd"));
+        Assertions.assertNotEquals("a**d", handler.handle("abcd"));
+        handler.setMaskStr("#");
+        Assertions.assertEquals("a##d", handler.handle("abcd"));
+        handler.setMaskLength(65);
+        Assertions.assertEquals(67, handler.handle("abcd").length());
+        Assertions.assertEquals(range(handler, "abcd"), handler.handle("abcd"));
+        handler.setMaskLength(1);
+        Assertions.assertEquals("a#d", handler.handle("abcd"));
+    }
+
+    private static String range(IMaskHandler handler, String input) {
+        StringBuilder out = new StringBuilder();
+        handler.handle("<" + input + ">", 1, input.length() + 1, out);
+        return out.toString();
+    }
+
+    private static List<IMaskItemHandler<?>> shapes() {
+        List<IMaskItemHandler<?>> shapes = new ArrayList<>();
+        int[] maskLengths = {-1, 0, 1, 3, 64, 65};
+        for (int left = 0; left < 4; left++) {
+            for (int right = 0; right < 4; right++) {
+                for (int maskLength : maskLengths) {
+                    for (String maskStr : new String[]{"*", "#", "^_^"}) {
+                        shapes.add(MaskHandlerFactory.maskInner(left, right).setMaskStr(maskStr).setMaskLength(maskLength));
+                        shapes.add(MaskHandlerFactory.maskOuter(left, right).setMaskStr(maskStr).setMaskLength(maskLength));
+                        shapes.add(MaskHandlerFactory.maskAppend(left, right).setMaskStr(maskStr).setMaskLength(maskLength));
+                    }
+                }
+            }
+        }
+        return shapes;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+/**
+ * 按长度选择处理器：未编译的处理器对映射的修改立即生效，编译后的处理器不受外部修改影响
+ */
+public class MaskSizeSelectionTest {
+
+    @Test
+    public void floorMatchesLargestSizeNotGreaterThanLength() {
+        MaskHandlerWithSizeSelector selector = new MaskHandlerWithSizeSelector()
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 2, 3)
+            .addHandler(MaskHandlerFactory.reserveLeft(2), 5)
+            .setDefaultHandler(MaskHandlerFactory.maskAll());
+        String[] inputs = {"", "a", "ab", "abc", "abcd", "abcde", "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789"};
+        String[] expected = {"", "*", "a*", "a**", "a***", "ab***", "ab" + repeat(70)};
+        for (int i = 0; i < inputs.length; i++) {
+            Assertions.assertEquals(expected[i], selector.handle(inputs[i]));
+            Assertions.assertEquals(expected[i], selector.compile().handle(inputs[i]));
+        }
+    }
+
+    @Test
+    public void editsThroughGetterTakeEffect() {
+        MaskGroupHandler group = new MaskGroupHandler("@")
+            .addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore());
+        Assertions.assertEquals("a**@def", group.handle("abc@def"));
+
+        group.getHandlersOfSize().put(2, new IMaskHandler[]{MaskHandlerFactory.maskAll(), MaskHandlerFactory.maskAll()});
+        Assertions.assertEquals("***@***", group.handle("abc@def"));
+        group.getHandlersOfSize().get(2)[0] = MaskHandlerFactory.ignore();
+        Assertions.assertEquals("abc@***", group.handle("abc@def"));
+
+        MaskHandlerWithSizeSelector selector = new MaskHandlerWithSizeSelector()
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 3);
+        Assertions.assertEquals("a**", selector.handle("abc"));
+        selector.getHandlerOfSize().put(2, MaskHandlerFactory.maskAll());
+        Assertions.assertEquals("**", selector.handle("ab"));
+        selector.getHandlerOfSize().remove(3);
+        Assertions.assertEquals("***", selector.handle("abc"));
+    }
+
+    @Test
+    public void compiledStateCannotBeChangedThroughGetter() {
+        MaskGroupHandler compiled = new MaskGroupHandler("@")
+            .addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore())
+            .compile();
+        Assertions.assertEquals("a**@def", compiled.handle("abc@def"));
+
+        Map<Integer, IMaskHandler[]> handlersOfSize = compiled.getHandlersOfSize();
+        handlersOfSize.get(2)[1] = MaskHandlerFactory.maskAll();
+        Assertions.assertThrows(UnsupportedOperationException.class,
+            () -> handlersOfSize.put(1, new IMaskHandler[]{MaskHandlerFactory.maskAll()}));
+        Assertions.assertEquals("a**@def", compiled.handle("abc@def"));
+
+        MaskHandlerWithSizeSelector selector = new MaskHandlerWithSizeSelector()
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 3)
+            .compile();
+        Assertions.assertThrows(UnsupportedOperationException.class,
+            () -> selector.getHandlerOfSize().put(2, MaskHandlerFactory.maskAll()));
+        Assertions.assertEquals("ab", selector.handle("ab"));
+    }
+
+    private static String repeat(int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            builder.append('*');
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.CharBuffer;
+
+/**
+ * 流式输出的脱敏结果与{@link IMaskHandler#handle(String)}一致
+ */
+public class MaskStreamingOutputTest {
+
+    @Test
+    public void appendsSameResultAsHandle() throws IOException {
+        for (IMaskHandler handler : MaskTestHandlers.handlers()) {
+            for (String input : MaskTestHandlers.INPUTS) {
+                String want = handler.handle(input);
+
+                StringBuilder out = new StringBuilder("[");
+                handler.handle(input, out);
+                Assertions.assertEquals("[" + want, out.toString(), input);
+
+                // 只处理更长字符序列中的一段，不影响区间外的内容
+                out.setLength(0);
+                handler.handle(new StringBuilder("<<").append(input).append(">>"), 2, input.length() + 2, out);
+                Assertions.assertEquals(want, out.toString(), input);
+
+                out.setLength(0);
+                handler.handle(CharBuffer.wrap(input), out);
+                Assertions.assertEquals(want, out.toString(), input);
+
+                StringWriter writer = new StringWriter();
+                handler.handle(input, writer);
+                Assertions.assertEquals(want, writer.toString(), input);
+            }
+        }
+    }
+
+    @Test
+    public void customHandlerUsesDefaultImplementation() throws IOException {
+        IMaskHandler upper = String::toUpperCase;
+        IMaskHandler group = MaskHandlerFactory.group("@").addHandler(upper, MaskHandlerFactory.maskAll());
+
+        StringBuilder out = new StringBuilder();
+        group.handle("xabc@def.comx", 1, 12, out);
+        Assertions.assertEquals("ABC@*******", out.toString());
+
+        StringWriter writer = new StringWriter();
+        upper.handle("abc", writer);
+        Assertions.assertEquals("ABC", writer.toString());
+    }
+
+    @Test
+    public void knownResults() {
+        StringBuilder out = new StringBuilder();
+        MaskHandlerFactory.reserveOuter(3, 4).handle("13755556666", out);
+        out.append('|');
+        MaskHandlerFactory.maskInner(1, 1).setSeparator(",").handle("abc,de,f", out);
+        out.append('|');
+        MaskHandlerFactory.maskNumber().handle("他的年龄35岁", out);
+        Assertions.assertEquals("137****6666|abc,*,f|他的年龄**岁", out.toString());
+    }
+}
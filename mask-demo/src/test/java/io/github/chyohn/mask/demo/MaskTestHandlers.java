@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 测试中共用的处理器组合和待脱敏字符串
+ */
+final class MaskTestHandlers {
+
+    static final String[] INPUTS = {
+        "13755556666", "abcdefddddddd@sina.com", "qiang.shao@cc.com", "李白", "王昌龄", "司马相如弟弟",
+        "他的年龄35岁", "35到45岁是人生的golden年龄", "a b  c   d", "1,22,333,4444,55555", "", "x",
+        ",,a,,b,,", "a.b.c", "😀表情😀符号", "6222021234567890123",
+    };
+
+    private MaskTestHandlers() {
+    }
+
+    /**
+     * 覆盖各个工厂方法、分隔方式和组合方式的处理器，每次调用都新建处理器
+     */
+    static List<IMaskHandler> handlers() {
+        List<IMaskHandler> handlers = new ArrayList<>();
+        handlers.add(MaskHandlerFactory.ignore());
+        handlers.add(MaskHandlerFactory.maskAll());
+        handlers.add(MaskHandlerFactory.maskAll(3));
+        handlers.add(MaskHandlerFactory.hideAll());
+        handlers.add(MaskHandlerFactory.maskInner(1, 1));
+        handlers.add(MaskHandlerFactory.maskOuter(1, 2));
+        handlers.add(MaskHandlerFactory.maskMargin(1));
+        handlers.add(MaskHandlerFactory.maskLeft(2));
+        handlers.add(MaskHandlerFactory.maskRight(2));
+        handlers.add(MaskHandlerFactory.maskAppend(2, 2));
+        handlers.add(MaskHandlerFactory.maskMarginAppend(1));
+        handlers.add(MaskHandlerFactory.maskLeftAppend(3));
+        handlers.add(MaskHandlerFactory.maskRightAppend(3));
+        handlers.add(MaskHandlerFactory.reserveOuter(3, 4));
+        handlers.add(MaskHandlerFactory.reserveInner(1, 1));
+        handlers.add(MaskHandlerFactory.reserveMargin(1));
+        handlers.add(MaskHandlerFactory.reserveLeft(1));
+        handlers.add(MaskHandlerFactory.reserveRight(2));
+        handlers.add(MaskHandlerFactory.maskNumber());
+        handlers.add(MaskHandlerFactory.maskNumber("#"));
+        handlers.add(MaskHandlerFactory.maskLetter());
+        handlers.add(MaskHandlerFactory.maskLetter("^_^"));
+        handlers.add(MaskHandlerFactory.reserveLeft(1).setMaskStr("-", 3));
+        handlers.add(MaskHandlerFactory.maskInner(1, 1).setSeparator(","));
+        handlers.add(MaskHandlerFactory.maskInner(1, 1).setSeparatorRegex("\\s+").setOutputDelimiter("_"));
+        handlers.add(MaskHandlerFactory.maskAll().setSeparator(".", 2));
+        handlers.add(MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1)));
+        handlers.add(MaskHandlerFactory.group("@").addHandler(
+            MaskHandlerFactory.reserveLeft(1).setMaskLength(3),
+            MaskHandlerFactory.maskLeft(1).setSeparator(".").setMaskStr("^_^")));
+        handlers.add(MaskHandlerFactory.group(",", 3)
+            .addHandler(MaskHandlerFactory.maskAll(), MaskHandlerFactory.ignore())
+            .setDefaultHandler(MaskHandlerFactory.reserveRight(1)));
+        handlers.add(MaskHandlerFactory.sizeSelector()
+            .addHandler(MaskHandlerFactory.reserveLeft(1), 2, 3)
+            .addHandler(MaskHandlerFactory.reserveLeft(2), 4)
+            .setDefaultHandler(MaskHandlerFactory.reserveOuter(3, 4)));
+        handlers.add(MaskHandlerFactory.sizeSelector(",")
+            .addHandler(MaskHandlerFactory.maskAll(), 1)
+            .addHandler(MaskHandlerFactory.maskInner(1, 1), 3));
+        return handlers;
+    }
+}
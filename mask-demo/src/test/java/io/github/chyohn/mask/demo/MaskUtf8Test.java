@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 直接对UTF-8字节脱敏的结果与先解码、按字符串脱敏、再编码的结果一致
+ */
+public class MaskUtf8Test {
+
+    @Test
+    public void matchesStringPath() {
+        for (IMaskHandler source : MaskTestHandlers.handlers()) {
+            for (IMaskHandler handler : Arrays.asList(source, source.compile())) {
+                for (String input : MaskTestHandlers.INPUTS) {
+                    byte[] want = handler.handle(input).getBytes(StandardCharsets.UTF_8);
+                    byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+
+                    MaskByteSink out = new MaskByteSink(1);
+                    handler.handle(bytes, 0, bytes.length, out);
+                    Assertions.assertArrayEquals(want, out.toByteArray(), input);
+
+                    // 只处理更长数组中的一段，结果追加到已有内容之后
+                    byte[] padded = ("<<" + input + ">>").getBytes(StandardCharsets.UTF_8);
+                    out.reset();
+                    out.write('[');
+                    handler.handle(padded, 2, bytes.length, out);
+                    byte[] appended = new byte[want.length + 1];
+                    appended[0] = '[';
+                    System.arraycopy(want, 0, appended, 1, want.length);
+                    Assertions.assertArrayEquals(appended, out.toByteArray(), input);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void malformedInput() {
+        byte[][] inputs = {
+            {(byte) 0x80, 'a', 'b', 'c'}, // 单独的后续字节
+            {'a', 'b', (byte) 0xE4, (byte) 0xB8}, // 截断的多字节字符
+            {(byte) 0xED, (byte) 0xA0, (byte) 0x80, '1', '2', '3'}, // 编码的代理字符
+            {(byte) 0xC0, (byte) 0xAF, '@', 'x'}, // 过长编码
+        };
+        for (IMaskHandler handler : MaskTestHandlers.handlers()) {
+            for (byte[] input : inputs) {
+                String decoded = new String(input, StandardCharsets.UTF_8);
+                MaskByteSink out = new MaskByteSink();
+                handler.handle(input, 0, input.length, out);
+                Assertions.assertArrayEquals(handler.handle(decoded).getBytes(StandardCharsets.UTF_8), out.toByteArray(), decoded);
+            }
+        }
+    }
+
+    @Test
+    public void outOfBounds() {
+        byte[] bytes = "13755556666".getBytes(StandardCharsets.UTF_8);
+        IMaskHandler handler = MaskHandlerFactory.reserveOuter(3, 4);
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handle(bytes, 5, 10, new MaskByteSink()));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> handler.handle(bytes, -1, 2, new MaskByteSink()));
+    }
+
+    @Test
+    public void byteSink() {
+        MaskByteSink sink = new MaskByteSink(2);
+        sink.write('a').write("中文".getBytes(StandardCharsets.UTF_8)).write(new byte[]{'x', 'b', 'y'}, 1, 1);
+        Assertions.assertEquals(8, sink.size());
+        Assertions.assertEquals("a中文b", sink.toString());
+        sink.setLength(1);
+        Assertions.assertArrayEquals(new byte[]{'a'}, sink.toByteArray());
+        sink.reset();
+        Assertions.assertEquals(0, sink.size());
+        Assertions.assertEquals("", sink.toString());
+    }
+}
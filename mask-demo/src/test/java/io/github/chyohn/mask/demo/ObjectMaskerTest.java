@@ -0,0 +1,293 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+package io.github.chyohn.mask.demo;
+
+import io.github.chyohn.mask.annotation.Mask;
+import io.github.chyohn.mask.annotation.ObjectMasker;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 根据{@link Mask}注解对对象脱敏，包括嵌套对象、集合和循环引用
+ */
+public class ObjectMaskerTest {
+
+    private final ObjectMasker masker = ObjectMasker.getInstance();
+
+    @Test
+    public void copyLeavesSourceUnchanged() {
+        User user = user();
+        User copy = masker.maskCopy(user);
+
+        Assertions.assertNotSame(user, copy);
+        Assertions.assertEquals("李白", user.name);
+        Assertions.assertEquals("李*", copy.name);
+        Assertions.assertEquals("137****6666", copy.phone);
+        Assertions.assertEquals(35, copy.age);
+        Assertions.assertArrayEquals(new String[]{"a***@b.com", null}, copy.emails);
+        Assertions.assertArrayEquals(new String[]{"abcd@b.com", null}, user.emails);
+        Assertions.assertEquals(Arrays.asList("1**", "4**"), copy.cards);
+        Assertions.assertEquals(Collections.singletonMap("home", "1**"), copy.phones);
+
+        Assertions.assertEquals(LinkedList.class, copy.addresses.getClass());
+        Assertions.assertNotSame(user.addresses.get(0), copy.addresses.get(0));
+        Assertions.assertEquals("长安*", copy.addresses.get(0).street);
+        Assertions.assertEquals("长安街", user.addresses.get(0).street);
+        Assertions.assertEquals("长安*", copy.primary.street);
+        Assertions.assertEquals(Arrays.asList("z**", "a**"), new ArrayList<>(copy.tags));
+        Assertions.assertEquals(copy.tags.comparator(), user.tags.comparator());
+    }
+
+    @Test
+    public void inPlaceMasksSource() {
+        User user = user();
+        Assertions.assertSame(user, masker.mask(user));
+        Assertions.assertEquals("李*", user.name);
+        Assertions.assertEquals("137****6666", user.phone);
+        Assertions.assertArrayEquals(new String[]{"a***@b.com", null}, user.emails);
+        Assertions.assertEquals(Arrays.asList("1**", "4**"), user.cards);
+        Assertions.assertEquals("长安*", user.addresses.get(0).street);
+        Assertions.assertEquals(Arrays.asList("z**", "a**"), new ArrayList<>(user.tags));
+    }
+
+    @Test
+    public void cyclesAndSharedReferences() {
+        Address address = new Address("长安街");
+        User user = user();
+        user.addresses.set(0, address);
+        user.primary = address; // 同一个对象只处理一次
+        user.self = user; // 循环引用
+
+        User copy = masker.maskCopy(user);
+        Assertions.assertSame(copy, copy.self);
+        Assertions.assertSame(copy.primary, copy.addresses.get(0));
+        Assertions.assertEquals("长安*", copy.primary.street);
+
+        masker.mask(user);
+        Assertions.assertEquals("长安*", address.street);
+
+        // 集合中的循环引用
+        List<Object> list = new ArrayList<>();
+        list.add(list);
+        list.add(new Address("abc"));
+        List<Object> listCopy = masker.maskCopy(list);
+        Assertions.assertSame(listCopy, listCopy.get(0));
+        Assertions.assertEquals("ab*", ((Address) listCopy.get(1)).street);
+    }
+
+    @Test
+    public void finalFields() {
+        Holder holder = new Holder("id-1", new Address("长安街"));
+        holder.codes.add("12345");
+        Holder copy = masker.maskCopy(holder);
+        Assertions.assertEquals("id-1", copy.id);
+        Assertions.assertEquals("长安*", copy.address.street);
+        Assertions.assertEquals(Collections.singletonList("1****"), copy.codes);
+        Assertions.assertEquals(Collections.singletonList("12345"), holder.codes);
+
+        masker.mask(holder);
+        Assertions.assertEquals(Collections.singletonList("1****"), holder.codes);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> masker.mask(new FinalMasked()));
+    }
+
+    @Test
+    public void unsupportedContainerTypeFailsClearly() {
+        Queued queued = new Queued();
+        queued.queue.add(new Address("abc"));
+        IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class, () -> masker.maskCopy(queued));
+        Assertions.assertTrue(e.getMessage().contains("BlockingQueue"), e.getMessage());
+        // 原对象脱敏不需要创建集合
+        masker.mask(queued);
+        Assertions.assertEquals("ab*", queued.queue.peek().street);
+    }
+
+    @Test
+    public void declaredInterfaceUsesCompatibleType() {
+        Unmodifiable value = new Unmodifiable();
+        value.addresses = Collections.unmodifiableList(Collections.singletonList(new Address("abc")));
+        value.set = Collections.unmodifiableSet(Collections.singleton("abc"));
+        value.map = Collections.unmodifiableMap(new HashMap<>(Collections.singletonMap("k", new Address("abc"))));
+        Unmodifiable copy = masker.maskCopy(value);
+        Assertions.assertEquals("ab*", copy.addresses.get(0).street);
+        Assertions.assertEquals(Collections.singleton("a**"), copy.set);
+        Assertions.assertEquals("ab*", copy.map.get("k").street);
+    }
+
+    @Test
+    public void hashedAndSortedContainersKeepStructure() {
+        Key key = new Key("abc");
+        Map<Key, Address> map = new HashMap<>();
+        map.put(key, new Address("abc"));
+        Set<Key> set = new HashSet<>(Collections.singleton(new Key("abc")));
+        TreeMap<String, Key> tree = new TreeMap<>(Collections.singletonMap("k", new Key("abc")));
+
+        masker.mask(Arrays.asList(map, set, tree));
+        // key和Set中的元素不处理，value正常脱敏
+        Assertions.assertEquals("abc", key.value);
+        Assertions.assertEquals("ab*", map.get(new Key("abc")).street);
+        Assertions.assertTrue(set.contains(new Key("abc")));
+        Assertions.assertEquals("a**", tree.get("k").value);
+
+        // 副本中同样会被脱敏
+        Map<Key, Address> copy = masker.maskCopy(map);
+        Assertions.assertEquals(Collections.singleton(new Key("a**")), copy.keySet());
+    }
+
+    @Test
+    public void maskedSetShrinksAndUnmodifiableIsReplaced() {
+        Unmodifiable value = new Unmodifiable();
+        value.set = new LinkedHashSet<>(Arrays.asList("abc", "abd", "xyz"));
+        Set<String> set = value.set;
+        masker.mask(value);
+        Assertions.assertSame(set, value.set);
+        Assertions.assertEquals(new LinkedHashSet<>(Arrays.asList("a**", "x**")), value.set); // 脱敏后相同的元素合并
+
+        value.set = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("abc", "xyz")));
+        value.codes = Collections.unmodifiableList(Arrays.asList("123", "456"));
+        value.phones = Collections.unmodifiableMap(Collections.singletonMap("home", "123"));
+        masker.mask(value);
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("a**", "x**")), value.set);
+        Assertions.assertEquals(Arrays.asList("1**", "4**"), value.codes);
+        Assertions.assertEquals(Collections.singletonMap("home", "1**"), value.phones);
+        value.codes.set(0, "abc"); // 替换后的副本可以修改
+    }
+
+    private static User user() {
+        User user = new User();
+        user.name = "李白";
+        user.phone = "13755556666";
+        user.age = 35;
+        user.emails = new String[]{"abcd@b.com", null};
+        user.cards = new ArrayList<>(Arrays.asList("123", "456"));
+        user.phones = new TreeMap<>(Collections.singletonMap("home", "123"));
+        user.addresses = new LinkedList<>(Collections.singletonList(new Address("长安街")));
+        user.primary = new Address("长安街");
+        user.tags = new TreeSet<>(Comparator.reverseOrder());
+        user.tags.add("abc");
+        user.tags.add("zzz");
+        return user;
+    }
+
+    public static class User {
+        @Mask(reserveLeft = 1)
+        private String name;
+        @Mask(reserveOuter = {3, 4})
+        private String phone;
+        private int age;
+        @Mask(maskInner = {1, 6})
+        private String[] emails;
+        @Mask(reserveLeft = 1)
+        private List<String> cards;
+        @Mask(reserveLeft = 1)
+        private Map<String, String> phones;
+        private LinkedList<Address> addresses;
+        private Address primary;
+        @Mask(reserveLeft = 1)
+        private TreeSet<String> tags;
+        private User self;
+    }
+
+    public static class Address {
+        @Mask(maskRight = 1)
+        private String street;
+
+        public Address() {
+        }
+
+        Address(String street) {
+            this.street = street;
+        }
+    }
+
+    public static class Holder {
+        private final String id;
+        private final Address address;
+        @Mask(reserveLeft = 1)
+        private final List<String> codes = new ArrayList<>();
+
+        public Holder() {
+            this(null, null);
+        }
+
+        Holder(String id, Address address) {
+            this.id = id;
+            this.address = address;
+        }
+    }
+
+    public static class FinalMasked {
+        @Mask(maskAll = true)
+        private final String value = "abc";
+    }
+
+    public static class Queued {
+        private final BlockingQueue<Address> queue = new ArrayBlockingQueue<>(4);
+    }
+
+    public static class Unmodifiable {
+        private List<Address> addresses;
+        @Mask(reserveLeft = 1)
+        private Set<String> set;
+        private Map<String, Address> map;
+        @Mask(reserveLeft = 1)
+        private List<String> codes;
+        @Mask(reserveLeft = 1)
+        private Map<String, String> phones;
+    }
+
+    public static class Key {
+        @Mask(reserveLeft = 1)
+        private String value;
+
+        public Key() {
+        }
+
+        Key(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Objects.equals(value, ((Key) o).value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(value);
+        }
+    }
+}
@@ -19,6 +19,12 @@ package io.github.chyohn.mask;
 
 import io.github.chyohn.mask.json.MaskHandlerJSONParser;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
 /**
  * 脱敏入口。该接口定义为脱敏处理器，对字符串进行脱敏处理
  *
@@ -36,6 +42,207 @@ public interface IMaskHandler {
      */
     String handle(String src);
 
+    /**
+     * 对指定字符串做脱敏处理，并把脱敏结果追加到out中
+     *
+     * @param src 待脱敏的字符串
+     * @param out 脱敏结果输出
+     */
+    default void handle(CharSequence src, StringBuilder out) {
+        handle(src, 0, src.length(), out);
+    }
+
+    /**
+     * <pre>
+     * 对src中[start, end)区间的字符串做脱敏处理，并把脱敏结果追加到out中。
+     * 内置的处理器直接把结果写入out，不会产生中间字符串；
+     * 默认实现先截取待脱敏的字符串，再把{@link #handle(String)}的结果追加到out中
+     * </pre>
+     *
+     * @param src   待脱敏的字符串
+     * @param start 待脱敏部分的开始位置（包含）
+     * @param end   待脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    default void handle(CharSequence src, int start, int end, StringBuilder out) {
+        out.append(handle(src.subSequence(start, end).toString()));
+    }
+
+    /**
+     * 对指定字符串做脱敏处理，并把脱敏结果追加到out中
+     *
+     * @param src 待脱敏的字符串
+     * @param out 脱敏结果输出
+     * @throws IOException 写入out失败
+     */
+    default void handle(CharSequence src, Appendable out) throws IOException {
+        if (out instanceof StringBuilder) {
+            handle(src, (StringBuilder) out);
+            return;
+        }
+        StringBuilder buffer = new StringBuilder(src.length());
+        handle(src, buffer);
+        out.append(buffer);
+    }
+
+    /**
+     * <pre>
+     * 对UTF-8编码的src中[off, off + len)区间的内容做脱敏处理，并把UTF-8编码的脱敏结果追加到out中。
+     * 脱敏结果与先解码为字符串、调用{@link #handle(String)}、再编码为UTF-8的结果一致，长度、位置等仍然按字符（char）计算。
+     * 内置的处理器直接在字节上查找分隔符和计算字符个数，不创建中间字符串；
+     * 默认实现先解码为字符串，再把{@link #handle(String)}的结果编码后追加到out中
+     * </pre>
+     *
+     * @param src 待脱敏的UTF-8字节数组
+     * @param off 待脱敏部分的开始位置
+     * @param len 待脱敏部分的字节数
+     * @param out 脱敏结果输出
+     */
+    default void handle(byte[] src, int off, int len, MaskByteSink out) {
+        out.write(handle(new String(src, off, len, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * <pre>
+     * 脱敏结果的字符（char）个数是否总是与原字符串相同，比如maskLength为-1、maskStr为单个字符、没有分隔符的{@code maskInner(3, 4)}。
+     * 只有返回true的处理器才能原地脱敏，见{@link #maskInPlace(char[], int, int)}和{@link #maskInPlace(ByteBuffer)}。默认返回false
+     * </pre>
+     *
+     * @return true: 脱敏前后长度一致
+     */
+    default boolean lengthPreserving() {
+        return false;
+    }
+
+    /**
+     * <pre>
+     * 对buf中[off, off + len)区间的字符原地脱敏，只覆盖需要模糊的字符，结果与{@link #handle(String)}一致。
+     * 适用于解析器等复用char[]缓冲区的场景，不需要为每个值创建字符串。
+     * 只有{@link #lengthPreserving()}为true的处理器支持原地脱敏；默认实现先创建字符串，再把{@link #handle(String)}的结果复制回buf
+     * </pre>
+     *
+     * @param buf 字符缓冲区
+     * @param off 待脱敏部分的开始位置
+     * @param len 待脱敏部分的字符个数
+     * @throws UnsupportedOperationException {@link #lengthPreserving()}为false
+     */
+    default void maskInPlace(char[] buf, int off, int len) {
+        if (!lengthPreserving()) {
+            throw new UnsupportedOperationException("脱敏前后长度不一致，不能原地脱敏：" + getClass().getName());
+        }
+        String result = handle(new String(buf, off, len));
+        if (result.length() != len) {
+            throw new IllegalStateException("脱敏前后长度不一致，不能原地脱敏：" + getClass().getName());
+        }
+        result.getChars(0, len, buf, off);
+    }
+
+    /**
+     * <pre>
+     * 对buffer中[position, limit)区间的UTF-8内容原地脱敏，只覆盖需要模糊的字节，支持堆内和直接内存的buffer，不修改position和limit。
+     * 只有{@link #lengthPreserving()}为true，并且脱敏结果的UTF-8字节数与原内容相同时（比如使用单字节的"*"模糊ASCII字符）才能原地脱敏；
+     * 否则不修改buffer并返回false，这时可以使用{@link #handle(ByteBuffer, ByteBuffer)}把结果写入其他buffer。
+     * 原地脱敏的结果与{@link #handle(byte[], int, int, MaskByteSink)}一致。默认返回false
+     * </pre>
+     *
+     * @param buffer UTF-8内容
+     * @return true: 已原地脱敏；false: 不能原地脱敏，buffer没有被修改
+     */
+    default boolean maskInPlace(ByteBuffer buffer) {
+        return false;
+    }
+
+    /**
+     * <pre>
+     * 对src中[position, limit)区间的UTF-8内容脱敏，并把UTF-8编码的脱敏结果写入target，用于不能原地脱敏的情况。
+     * 完成后src的position为limit，target的position移动到写入内容之后
+     * </pre>
+     *
+     * @param src    UTF-8内容
+     * @param target 脱敏结果输出
+     * @throws java.nio.BufferOverflowException target剩余空间不足，这时src和target都没有被修改
+     */
+    default void handle(ByteBuffer src, ByteBuffer target) {
+        int length = src.remaining();
+        MaskByteSink out = new MaskByteSink(length);
+        if (src.hasArray()) {
+            handle(src.array(), src.arrayOffset() + src.position(), length, out);
+        } else {
+            byte[] bytes = new byte[length];
+            src.duplicate().get(bytes);
+            handle(bytes, 0, length, out);
+        }
+        target.put(out.array(), 0, out.size());
+        src.position(src.limit());
+    }
+
+    /**
+     * <pre>
+     * 批量脱敏，把src中每个字符串的脱敏结果写入out中相同下标的位置，src中为null的元素脱敏结果也为null。
+     * src和out可以是同一个数组。
+     * 内置处理器在整个批次中复用输出缓冲区、分隔结果等临时对象，比逐个调用{@link #handle(String)}开销更小
+     * </pre>
+     *
+     * @param src 待脱敏的字符串数组
+     * @param out 脱敏结果数组，长度不能小于src的长度
+     */
+    default void handleAll(String[] src, String[] out) {
+        if (out.length < src.length) {
+            throw new IllegalArgumentException("out的长度不能小于src的长度");
+        }
+        handleAll(src, out, 0, src.length);
+    }
+
+    /**
+     * <pre>
+     * 批量脱敏src中[from, to)区间的字符串，把结果写入out中相同下标的位置，区间外的元素不变。
+     * 用于把一个大数组分段交给多个线程处理，不需要复制出子数组，见{@link #handleAll(String[], String[])}
+     * </pre>
+     *
+     * @param src  待脱敏的字符串数组
+     * @param out  脱敏结果数组，src和out可以是同一个数组
+     * @param from 开始下标（包含）
+     * @param to   结束下标（不包含）
+     * @throws IndexOutOfBoundsException 区间超出src或out的范围
+     */
+    default void handleAll(String[] src, String[] out, int from, int to) {
+        if (from < 0 || from > to || to > src.length || to > out.length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to
+                + ", src.length=" + src.length + ", out.length=" + out.length);
+        }
+        for (int i = from; i < to; i++) {
+            String value = src[i];
+            out[i] = value == null ? null : handle(value);
+        }
+    }
+
+    /**
+     * 批量脱敏，见{@link #handleAll(String[], String[])}
+     *
+     * @param src 待脱敏的字符串列表
+     * @return 与src顺序一致的脱敏结果列表，列表长度固定
+     */
+    default List<String> handleAll(List<String> src) {
+        String[] values = src.toArray(new String[0]);
+        handleAll(values, values);
+        return Arrays.asList(values);
+    }
+
+    /**
+     * <pre>
+     * 把处理器编译为不可变的脱敏计划。
+     * 1. 编译结果是当前处理器（及其子处理器）的深拷贝，不再受原处理器后续修改的影响
+     * 2. 编译时会预先计算脱敏所需的数据，比如按长度选择处理器的查找表，脱敏时不再重复计算
+     * 3. 编译结果不允许再修改配置，可以在多个线程之间共享
+     * 默认实现直接返回当前处理器。
+     * </pre>
+     *
+     * @return 编译后的处理器
+     */
+    default IMaskHandler compile() {
+        return this;
+    }
+
     /**
      * 把handler转为配置JSON字符串对象
      *
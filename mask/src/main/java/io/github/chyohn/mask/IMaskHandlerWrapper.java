@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask;
+
+/**
+ * <pre>
+ * 包装（装饰）其他处理器的脱敏处理器，比如不可变处理器、统计脱敏耗时的处理器。
+ * 包装处理器本身没有配置，{@link #toConfig()}以及作为其他处理器的子处理器输出配置时，都输出被包装的处理器的配置
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public interface IMaskHandlerWrapper extends IMaskHandler {
+
+    /**
+     * @return 被包装的处理器
+     */
+    IMaskHandler unwrap();
+
+    /**
+     * @return 被包装的处理器的配置
+     */
+    @Override
+    default String toConfig() {
+        return unwrap().toConfig();
+    }
+}
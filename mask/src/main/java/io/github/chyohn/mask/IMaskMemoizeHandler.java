@@ -0,0 +1,63 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask;
+
+import io.github.chyohn.mask.handler.MaskMemoizeStats;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 缓存脱敏结果的处理器，相同的字符串直接返回缓存的脱敏结果，适用于大量重复值并且脱敏开销较大的处理器（比如嵌套的组合处理器）。
+ * 缓存的条目数和字符数有上限，超过上限时按访问频率淘汰，访问频率低的值不会挤出热点值
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public interface IMaskMemoizeHandler<T extends IMaskMemoizeHandler<T>> extends IMaskHandler {
+
+    /**
+     * @param maximumSize 最多缓存的条目数
+     * @return this
+     */
+    T setMaximumSize(int maximumSize);
+
+    /**
+     * @param maximumWeight 最多缓存的字符数（原始字符串和脱敏结果的字符数之和），小于0表示不限制
+     * @return this
+     */
+    T setMaximumWeight(long maximumWeight);
+
+    /**
+     * @param duration 写入后的过期时间，小于等于0表示不过期
+     * @param unit     时间单位
+     * @return this
+     */
+    T setExpireAfterWrite(long duration, TimeUnit unit);
+
+    /**
+     * @return 缓存统计数据
+     */
+    MaskMemoizeStats stats();
+
+    /**
+     * 清空缓存，统计数据不变
+     */
+    void clear();
+}
@@ -33,7 +33,7 @@ package io.github.chyohn.mask;
 public interface IMaskSeparableHandler<T extends IMaskSeparableHandler<T>> extends IMaskHandler {
 
     /**
-     * 设置分隔符，如果分隔符为<code>separator==null || separator=""</code>，则以字符为单位进行处理，否则按整个字符串做处理
+     * 设置分隔符，分隔符按字面量匹配，不是正则表达式。如果分隔符为<code>separator==null || separator=""</code>，则以字符为单位进行处理，否则按整个字符串做处理
      * @param separator 分隔符
      * @return this
      */
@@ -48,6 +48,24 @@ public interface IMaskSeparableHandler<T extends IMaskSeparableHandler<T>> exten
      */
     T setSeparator(String separator, int limit);
 
+    /**
+     * 设置正则表达式分隔符，与{@link #setSeparator(String)}只能二选一，后设置的生效。
+     * 正则表达式只编译一次，一般情况下使用字面量分隔符{@link #setSeparator(String)}即可
+     *
+     * @param separatorRegex 正则表达式分隔符
+     * @return this
+     */
+    T setSeparatorRegex(String separatorRegex);
+
+    /**
+     * 设置正则表达式分隔符
+     *
+     * @param separatorRegex 正则表达式分隔符
+     * @param limit 最大长度限制
+     * @return this
+     */
+    T setSeparatorRegex(String separatorRegex, int limit);
+
     /**
      * 分隔后的字符串数组最大长度。
      * 1. separateLimit &lt;= 0时，不限制结果数组长度
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * UTF-8字节形式的脱敏结果输出，相当于字节版的{@link StringBuilder}，容量不足时自动扩容。
+ * 用于{@link IMaskHandler#handle(byte[], int, int, MaskByteSink)}，可以在多次脱敏之间调用{@link #reset()}复用。
+ * 不是线程安全的
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskByteSink {
+
+    private byte[] buf;
+    private int size;
+
+    public MaskByteSink() {
+        this(64);
+    }
+
+    /**
+     * @param capacity 初始容量
+     */
+    public MaskByteSink(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity不能小于0");
+        }
+        this.buf = new byte[capacity];
+    }
+
+    /**
+     * 追加一个字节
+     *
+     * @param b 字节，只使用低8位
+     * @return this
+     */
+    public MaskByteSink write(int b) {
+        ensureCapacity(size + 1);
+        buf[size++] = (byte) b;
+        return this;
+    }
+
+    /**
+     * 追加src中[off, off + len)区间的字节
+     *
+     * @param src 源字节数组
+     * @param off 开始位置
+     * @param len 字节数
+     * @return this
+     */
+    public MaskByteSink write(byte[] src, int off, int len) {
+        if (off < 0 || len < 0 || off > src.length - len) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + src.length);
+        }
+        ensureCapacity(size + len);
+        System.arraycopy(src, off, buf, size, len);
+        size += len;
+        return this;
+    }
+
+    /**
+     * 追加整个字节数组
+     *
+     * @param src 源字节数组
+     * @return this
+     */
+    public MaskByteSink write(byte[] src) {
+        return write(src, 0, src.length);
+    }
+
+    /**
+     * @return 已写入的字节数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 截断或者补0到指定长度，与{@link StringBuilder#setLength(int)}一致
+     *
+     * @param length 新的长度
+     */
+    public void setLength(int length) {
+        if (length < 0) {
+            throw new IndexOutOfBoundsException("length=" + length);
+        }
+        ensureCapacity(length);
+        if (length > size) {
+            Arrays.fill(buf, size, length, (byte) 0);
+        }
+        size = length;
+    }
+
+    /**
+     * 清空已写入的内容，保留已分配的容量
+     */
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * @return 内部缓冲区，有效内容为[0, {@link #size()})区间，不复制数据；继续写入后可能变为新的数组
+     */
+    public byte[] array() {
+        return buf;
+    }
+
+    /**
+     * @return 已写入内容的副本
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, size);
+    }
+
+    /**
+     * 把已写入的内容写到输出流
+     *
+     * @param out 输出流
+     * @throws IOException 写入失败
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buf, 0, size);
+    }
+
+    /**
+     * @return 已写入的内容按UTF-8解码后的字符串
+     */
+    @Override
+    public String toString() {
+        return new String(buf, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity < 0) {
+            throw new OutOfMemoryError("MaskByteSink容量超出上限");
+        }
+        if (minCapacity > buf.length) {
+            int capacity = Math.max(buf.length << 1, minCapacity);
+            buf = Arrays.copyOf(buf, capacity < 0 ? minCapacity : capacity);
+        }
+    }
+}
@@ -0,0 +1,290 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * <pre>
+ * 并行批量脱敏执行器，在{@link ForkJoinPool}中对数组、集合和{@link Stream}做脱敏，结果顺序与输入顺序一致。
+ * 1. 创建执行器时会先{@link IMaskHandler#compile() 编译}脱敏处理器，编译后的处理器在多个线程之间共享
+ * 2. 任务按输入规模和线程池并行度自适应拆分，线程池中有空闲线程时继续拆分，否则在当前线程内批量脱敏
+ * 3. 元素为null时脱敏结果也为null
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskExecutor executor = MaskExecutor.of(MaskHandlerFactory.reserveOuter(3, 4));
+ * String[] masked = executor.handleAll(phones); // 数组
+ * List<String> list = phoneStream.collect(executor.toList()); // Stream
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskExecutor {
+
+    /**
+     * 单个任务最少处理的元素个数，元素过少时拆分任务的开销大于并行的收益
+     */
+    private static final int MIN_CHUNK_SIZE = 256;
+
+    private final IMaskHandler handler;
+    private final ForkJoinPool pool;
+
+    private MaskExecutor(IMaskHandler handler, ForkJoinPool pool) {
+        this.handler = Objects.requireNonNull(handler, "handler不能为null").compile();
+        this.pool = Objects.requireNonNull(pool, "pool不能为null");
+    }
+
+    /**
+     * 创建使用公共线程池{@link ForkJoinPool#commonPool()}的执行器
+     *
+     * @param handler 脱敏处理器
+     * @return 执行器
+     */
+    public static MaskExecutor of(IMaskHandler handler) {
+        return new MaskExecutor(handler, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 创建使用指定线程池的执行器
+     *
+     * @param handler 脱敏处理器
+     * @param pool    执行脱敏的线程池
+     * @return 执行器
+     */
+    public static MaskExecutor of(IMaskHandler handler, ForkJoinPool pool) {
+        return new MaskExecutor(handler, pool);
+    }
+
+    /**
+     * @return 编译后的脱敏处理器
+     */
+    public IMaskHandler getHandler() {
+        return handler;
+    }
+
+    /**
+     * 对字符串数组做并行脱敏
+     *
+     * @param src 待脱敏的字符串数组
+     * @return 脱敏结果数组，与src顺序一致
+     */
+    public String[] handleAll(String[] src) {
+        String[] out = new String[src.length];
+        handleAll(src, out);
+        return out;
+    }
+
+    /**
+     * 对字符串数组做并行脱敏，把src中每个字符串的脱敏结果写入out中相同下标的位置，src和out可以是同一个数组
+     *
+     * @param src 待脱敏的字符串数组
+     * @param out 脱敏结果数组，长度不能小于src的长度
+     */
+    public void handleAll(String[] src, String[] out) {
+        if (out.length < src.length) {
+            throw new IllegalArgumentException("out的长度不能小于src的长度");
+        }
+        int threshold = threshold(src.length);
+        if (src.length <= threshold) {
+            handler.handleAll(src, out);
+            return;
+        }
+        pool.invoke(new MaskTask(handler, src, out, 0, src.length, threshold));
+    }
+
+    /**
+     * 对字符串集合做并行脱敏
+     *
+     * @param src 待脱敏的字符串集合
+     * @return 脱敏结果列表，与src的迭代顺序一致，列表长度固定
+     */
+    public List<String> handleAll(Collection<String> src) {
+        String[] values = src.toArray(new String[0]);
+        handleAll(values, values);
+        return Arrays.asList(values);
+    }
+
+    /**
+     * <pre>
+     * 返回对src中每个元素做脱敏的Stream，保持src的顺序和并行/串行属性。
+     * 脱敏在执行终止操作的线程中进行，并行Stream使用{@link ForkJoinPool#commonPool()}，
+     * 需要使用执行器的线程池时请使用{@link #toList()}
+     * </pre>
+     *
+     * @param src 待脱敏的字符串Stream
+     * @return 脱敏结果Stream
+     */
+    public Stream<String> handle(Stream<String> src) {
+        return StreamSupport.stream(spliterator(src.spliterator()), src.isParallel())
+            .onClose(src::close);
+    }
+
+    /**
+     * 返回对src中每个元素做脱敏的{@link Spliterator}，拆分方式与src一致
+     *
+     * @param src 待脱敏的字符串Spliterator
+     * @return 脱敏结果Spliterator
+     */
+    public Spliterator<String> spliterator(Spliterator<String> src) {
+        return new MaskSpliterator(handler, src);
+    }
+
+    /**
+     * <pre>
+     * 返回收集Stream元素并做脱敏的{@link Collector}，脱敏结果列表与Stream的顺序一致，列表长度固定。
+     * 收集完成后在执行器的线程池中并行脱敏，即使Stream是串行的也能利用多个线程。
+     * </pre>
+     *
+     * @return 收集器
+     */
+    public Collector<String, ?, List<String>> toList() {
+        return Collector.<String, List<String>, List<String>>of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }, this::handleAll);
+    }
+
+    /**
+     * 按输入规模和线程池并行度计算单个任务处理的元素个数，每个线程大约分到4个任务以平衡负载
+     */
+    private int threshold(int size) {
+        int chunks = pool.getParallelism() << 2;
+        return Math.max(MIN_CHUNK_SIZE, size / chunks + 1);
+    }
+
+    /**
+     * 对数组中[from, to)区间做脱敏的任务
+     */
+    private static final class MaskTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient IMaskHandler handler;
+        private final String[] src;
+        private final String[] out;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        MaskTask(IMaskHandler handler, String[] src, String[] out, int from, int to, int threshold) {
+            this.handler = handler;
+            this.src = src;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int hi = to;
+            List<MaskTask> forked = null;
+            // 线程池中排队的任务不多时继续拆分，让空闲线程可以窃取
+            while (hi - from > threshold && getSurplusQueuedTaskCount() <= 3) {
+                int mid = (from + hi) >>> 1;
+                MaskTask right = new MaskTask(handler, src, out, mid, hi, threshold);
+                right.fork();
+                if (forked == null) {
+                    forked = new ArrayList<>();
+                }
+                forked.add(right);
+                hi = mid;
+            }
+            handleRange(hi);
+            if (forked != null) {
+                for (int i = forked.size() - 1; i >= 0; i--) {
+                    MaskTask task = forked.get(i);
+                    if (task.tryUnfork()) {
+                        task.compute();
+                    } else {
+                        task.join();
+                    }
+                }
+            }
+        }
+
+        private void handleRange(int hi) {
+            handler.handleAll(src, out, from, hi);
+        }
+    }
+
+    /**
+     * 对源Spliterator的每个元素做脱敏
+     */
+    private static final class MaskSpliterator implements Spliterator<String> {
+
+        private final IMaskHandler handler;
+        private final Spliterator<String> src;
+
+        MaskSpliterator(IMaskHandler handler, Spliterator<String> src) {
+            this.handler = handler;
+            this.src = src;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super String> action) {
+            return src.tryAdvance(value -> action.accept(handle(value)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super String> action) {
+            src.forEachRemaining(value -> action.accept(handle(value)));
+        }
+
+        @Override
+        public Spliterator<String> trySplit() {
+            Spliterator<String> prefix = src.trySplit();
+            return prefix == null ? null : new MaskSpliterator(handler, prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return src.estimateSize();
+        }
+
+        @Override
+        public long getExactSizeIfKnown() {
+            return src.getExactSizeIfKnown();
+        }
+
+        @Override
+        public int characteristics() {
+            // 脱敏后元素可能重复，也不再满足排序，只保留与元素值无关的特性
+            return src.characteristics() & ~(DISTINCT | SORTED);
+        }
+
+        private String handle(String value) {
+            return value == null ? null : handler.handle(value);
+        }
+    }
+}
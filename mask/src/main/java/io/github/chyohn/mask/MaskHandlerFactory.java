@@ -16,19 +16,23 @@
 
 package io.github.chyohn.mask;
 
+import io.github.chyohn.mask.json.MaskConfigCache;
 import io.github.chyohn.mask.json.MaskHandlerJSONParser;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import io.github.chyohn.mask.handler.AbstractMaskItemHandler;
 import io.github.chyohn.mask.handler.AbstractMaskSeparableHandler;
 import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerGenerator;
 import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
 import io.github.chyohn.mask.handler.MaskIgnore;
+import io.github.chyohn.mask.handler.MaskImmutableHandler;
 import io.github.chyohn.mask.handler.MaskItemAppendOuter;
 import io.github.chyohn.mask.handler.MaskItemInner;
 import io.github.chyohn.mask.handler.MaskItemLetter;
 import io.github.chyohn.mask.handler.MaskItemNumber;
 import io.github.chyohn.mask.handler.MaskItemOuter;
+import io.github.chyohn.mask.handler.MaskMemoizeHandler;
 
 /**
  * 提供创建{@link IMaskHandler}脱敏接口对象的工厂方法
@@ -80,6 +84,9 @@ import io.github.chyohn.mask.handler.MaskItemOuter;
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public abstract class MaskHandlerFactory {
 
+    private static final int CONFIG_CACHE_SIZE = 1024;
+    private static final MaskConfigCache CONFIG_CACHE = new MaskConfigCache(CONFIG_CACHE_SIZE);
+
     /**
      * 使用json创建Handler
      *
@@ -90,6 +97,78 @@ public abstract class MaskHandlerFactory {
         return MaskHandlerJSONParser.fromJSON(configJson);
     }
 
+    /**
+     * <pre>
+     * 使用json创建编译后的Handler，相同的配置返回缓存中的同一个处理器对象，缓存最多保存{@value #CONFIG_CACHE_SIZE}个处理器。
+     * 与{@link #fromConfig(String)}不同，返回的处理器已经{@link IMaskHandler#compile() 编译}，不能再修改配置，可以在多个线程之间共享
+     * </pre>
+     *
+     * @param configJson 由{@link IMaskHandler#toConfig()}生成的JSON串, 或json中需要带上具体的java类型
+     * @return 由config JSON生成的编译后的脱敏对象
+     * @see #getConfigCache()
+     */
+    public static IMaskHandler fromConfigCached(String configJson) {
+        return CONFIG_CACHE.get(configJson);
+    }
+
+    /**
+     * @return {@link #fromConfigCached(String)}使用的缓存，可以查看统计数据或者清空缓存
+     */
+    public static MaskConfigCache getConfigCache() {
+        return CONFIG_CACHE;
+    }
+
+    /**
+     * <pre>
+     * 创建不可变的处理器，用于在多个线程之间共享同一个实例，见{@link MaskImmutableHandler}。
+     * 与{@link IMaskHandler#compile()}相比，返回的处理器即使没有通过同步的方式发布给其他线程也是线程安全的，
+     * 并且不提供修改配置的方法
+     * </pre>
+     *
+     * @param handler 脱敏处理器
+     * @return 不可变处理器
+     */
+    public static IMaskHandler immutable(IMaskHandler handler) {
+        return MaskImmutableHandler.of(handler);
+    }
+
+    /**
+     * <pre>
+     * 缓存处理器的脱敏结果，相同的字符串直接返回缓存的结果，最多缓存{@value MaskMemoizeHandler#DEFAULT_MAXIMUM_SIZE}个条目。
+     * 适用于大量重复值并且脱敏开销较大的处理器，比如嵌套的组合处理器；其他缓存配置见{@link IMaskMemoizeHandler}
+     * </pre>
+     *
+     * @param handler 脱敏处理器
+     * @return 缓存脱敏结果的处理器
+     */
+    public static IMaskMemoizeHandler<?> memoize(IMaskHandler handler) {
+        return new MaskMemoizeHandler(handler);
+    }
+
+    /**
+     * 缓存处理器的脱敏结果，见{@link #memoize(IMaskHandler)}
+     *
+     * @param handler     脱敏处理器
+     * @param maximumSize 最多缓存的条目数
+     * @return 缓存脱敏结果的处理器
+     */
+    public static IMaskMemoizeHandler<?> memoize(IMaskHandler handler, int maximumSize) {
+        return new MaskMemoizeHandler(handler).setMaximumSize(maximumSize);
+    }
+
+    /**
+     * <pre>
+     * 把处理器生成为由方法句柄组合而成的脱敏计划，见{@link MaskHandlerGenerator}。
+     * 组合处理器不再逐层通过接口调用子处理器，但计划不会被JIT当作常量内联，性能与编译后的处理器接近，使用前应以基准测试为准。
+     * 返回的处理器是不可变的，脱敏结果与{@link IMaskHandler#compile()}的结果一致；不能生成时返回编译后的处理器
+     * </pre>
+     *
+     * @param handler 脱敏处理器
+     * @return 生成的处理器
+     */
+    public static IMaskHandler generate(IMaskHandler handler) {
+        return MaskHandlerGenerator.generate(handler);
+    }
 
     /**
      * 组合多个处理器对数据的不同部分进行脱敏
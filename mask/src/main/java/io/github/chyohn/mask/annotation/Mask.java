@@ -0,0 +1,164 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.annotation;
+
+import io.github.chyohn.mask.MaskHandlerFactory;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * <pre>
+ * 标记需要脱敏的字段，属性名与{@link MaskHandlerFactory}的工厂方法名一致，属性值为工厂方法的参数，比如：
+ * {@code @Mask(reserveOuter = {3, 4})} 等价于 {@code MaskHandlerFactory.reserveOuter(3, 4)}
+ * {@code @Mask(reserveLeft = 1)} 等价于 {@code MaskHandlerFactory.reserveLeft(1)}
+ * {@code @Mask(maskNumber = true)} 等价于 {@code MaskHandlerFactory.maskNumber()}
+ * 也可以使用{@link #config()}指定{@link io.github.chyohn.mask.IMaskHandler#toConfig()}生成的配置。
+ * 工厂方法属性和config只能指定一个。
+ *
+ * 可以标记的字段类型有：String、String[]、元素为String的Collection和值为String的Map。
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ * @see MaskAnnotations
+ * @see ObjectMasker
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface Mask {
+
+    /**
+     * @return {@link MaskHandlerFactory#maskInner(int, int)}的参数
+     */
+    int[] maskInner() default {};
+
+    /**
+     * @return {@link MaskHandlerFactory#maskOuter(int, int)}的参数
+     */
+    int[] maskOuter() default {};
+
+    /**
+     * @return {@link MaskHandlerFactory#maskMargin(int)}的参数
+     */
+    int maskMargin() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#maskLeft(int)}的参数
+     */
+    int maskLeft() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#maskRight(int)}的参数
+     */
+    int maskRight() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#maskAppend(int, int)}的参数
+     */
+    int[] maskAppend() default {};
+
+    /**
+     * @return {@link MaskHandlerFactory#maskMarginAppend(int)}的参数
+     */
+    int maskMarginAppend() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#maskLeftAppend(int)}的参数
+     */
+    int maskLeftAppend() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#maskRightAppend(int)}的参数
+     */
+    int maskRightAppend() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#reserveOuter(int, int)}的参数
+     */
+    int[] reserveOuter() default {};
+
+    /**
+     * @return {@link MaskHandlerFactory#reserveInner(int, int)}的参数
+     */
+    int[] reserveInner() default {};
+
+    /**
+     * @return {@link MaskHandlerFactory#reserveMargin(int)}的参数
+     */
+    int reserveMargin() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#reserveLeft(int)}的参数
+     */
+    int reserveLeft() default -1;
+
+    /**
+     * @return {@link MaskHandlerFactory#reserveRight(int)}的参数
+     */
+    int reserveRight() default -1;
+
+    /**
+     * @return 是否使用{@link MaskHandlerFactory#maskAll()}
+     */
+    boolean maskAll() default false;
+
+    /**
+     * @return 是否使用{@link MaskHandlerFactory#hideAll()}
+     */
+    boolean hideAll() default false;
+
+    /**
+     * @return 是否使用{@link MaskHandlerFactory#maskNumber()}
+     */
+    boolean maskNumber() default false;
+
+    /**
+     * @return 是否使用{@link MaskHandlerFactory#maskLetter()}
+     */
+    boolean maskLetter() default false;
+
+    /**
+     * @return 是否使用{@link MaskHandlerFactory#ignore()}
+     */
+    boolean ignore() default false;
+
+    /**
+     * @return {@link MaskHandlerFactory#fromConfig(String)}的参数
+     */
+    String config() default "";
+
+    /**
+     * @return 模糊字符串，为空时使用处理器默认的模糊字符串，只对工厂方法创建的处理器有效
+     */
+    String maskStr() default "";
+
+    /**
+     * @return 模糊字符串个数，小于等于0时与源字符个数一致，只对工厂方法创建的处理器有效
+     */
+    int maskLength() default 0;
+
+    /**
+     * @return 分隔符，为空时不分隔，只对工厂方法创建的处理器有效
+     */
+    String separator() default "";
+}
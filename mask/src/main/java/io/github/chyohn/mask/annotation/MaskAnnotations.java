@@ -0,0 +1,147 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.annotation;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 把{@link Mask}注解解析为编译后的{@link IMaskHandler}，相同的注解只解析一次
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public abstract class MaskAnnotations {
+
+    private static final Map<Mask, IMaskHandler> HANDLERS = new ConcurrentHashMap<>();
+
+    /**
+     * 返回注解对应的脱敏处理器，处理器已经{@link IMaskHandler#compile() 编译}，可以在多个线程之间共享
+     *
+     * @param mask 脱敏注解
+     * @return 脱敏处理器
+     * @throws IllegalArgumentException 注解没有指定或者指定了多个工厂方法
+     */
+    public static IMaskHandler handler(Mask mask) {
+        IMaskHandler handler = HANDLERS.get(mask);
+        if (handler == null) {
+            handler = create(mask).compile();
+            IMaskHandler existing = HANDLERS.putIfAbsent(mask, handler);
+            if (existing != null) {
+                handler = existing;
+            }
+        }
+        return handler;
+    }
+
+    private static IMaskHandler create(Mask mask) {
+        List<String> methods = new ArrayList<>();
+        List<Supplier<IMaskHandler>> factories = new ArrayList<>();
+        addPair(methods, factories, "maskInner", mask.maskInner(), MaskHandlerFactory::maskInner);
+        addPair(methods, factories, "maskOuter", mask.maskOuter(), MaskHandlerFactory::maskOuter);
+        addPair(methods, factories, "maskAppend", mask.maskAppend(), MaskHandlerFactory::maskAppend);
+        addPair(methods, factories, "reserveOuter", mask.reserveOuter(), MaskHandlerFactory::reserveOuter);
+        addPair(methods, factories, "reserveInner", mask.reserveInner(), MaskHandlerFactory::reserveInner);
+        addSize(methods, factories, "maskMargin", mask.maskMargin(), MaskHandlerFactory::maskMargin);
+        addSize(methods, factories, "maskLeft", mask.maskLeft(), MaskHandlerFactory::maskLeft);
+        addSize(methods, factories, "maskRight", mask.maskRight(), MaskHandlerFactory::maskRight);
+        addSize(methods, factories, "maskMarginAppend", mask.maskMarginAppend(), MaskHandlerFactory::maskMarginAppend);
+        addSize(methods, factories, "maskLeftAppend", mask.maskLeftAppend(), MaskHandlerFactory::maskLeftAppend);
+        addSize(methods, factories, "maskRightAppend", mask.maskRightAppend(), MaskHandlerFactory::maskRightAppend);
+        addSize(methods, factories, "reserveMargin", mask.reserveMargin(), MaskHandlerFactory::reserveMargin);
+        addSize(methods, factories, "reserveLeft", mask.reserveLeft(), MaskHandlerFactory::reserveLeft);
+        addSize(methods, factories, "reserveRight", mask.reserveRight(), MaskHandlerFactory::reserveRight);
+        addFlag(methods, factories, "maskAll", mask.maskAll(), MaskHandlerFactory::maskAll);
+        addFlag(methods, factories, "hideAll", mask.hideAll(), MaskHandlerFactory::hideAll);
+        addFlag(methods, factories, "maskNumber", mask.maskNumber(), MaskHandlerFactory::maskNumber);
+        addFlag(methods, factories, "maskLetter", mask.maskLetter(), MaskHandlerFactory::maskLetter);
+        addFlag(methods, factories, "ignore", mask.ignore(), MaskHandlerFactory::ignore);
+        boolean config = !mask.config().isEmpty();
+        if (config) {
+            methods.add("config");
+        }
+        if (methods.size() != 1) {
+            throw new IllegalArgumentException("@Mask必须且只能指定一个工厂方法或config，当前指定了：" + methods);
+        }
+        if (config) {
+            return MaskHandlerFactory.fromConfig(mask.config());
+        }
+        IMaskHandler handler = factories.get(0).get();
+        if (handler instanceof IMaskItemHandler) {
+            IMaskItemHandler<?> item = (IMaskItemHandler<?>) handler;
+            if (!mask.maskStr().isEmpty()) {
+                item.setMaskStr(mask.maskStr());
+            }
+            if (mask.maskLength() > 0) {
+                item.setMaskLength(mask.maskLength());
+            }
+            if (!mask.separator().isEmpty()) {
+                item.setSeparator(mask.separator());
+            }
+        }
+        return handler;
+    }
+
+    private static void addPair(List<String> methods, List<Supplier<IMaskHandler>> factories,
+                                String method, int[] args, PairFactory factory) {
+        if (args.length == 0) {
+            return;
+        }
+        if (args.length != 2) {
+            throw new IllegalArgumentException("@Mask的" + method + "需要2个参数");
+        }
+        methods.add(method);
+        factories.add(() -> factory.create(args[0], args[1]));
+    }
+
+    private static void addSize(List<String> methods, List<Supplier<IMaskHandler>> factories,
+                                String method, int size, SizeFactory factory) {
+        if (size >= 0) {
+            methods.add(method);
+            factories.add(() -> factory.create(size));
+        }
+    }
+
+    private static void addFlag(List<String> methods, List<Supplier<IMaskHandler>> factories,
+                                String method, boolean flag, Supplier<IMaskHandler> factory) {
+        if (flag) {
+            methods.add(method);
+            factories.add(factory);
+        }
+    }
+
+    @FunctionalInterface
+    private interface PairFactory {
+        IMaskHandler create(int leftSize, int rightSize);
+    }
+
+    @FunctionalInterface
+    private interface SizeFactory {
+        IMaskHandler create(int size);
+    }
+}
@@ -0,0 +1,675 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.annotation;
+
+import io.github.chyohn.mask.IMaskHandler;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.PriorityBlockingQueue;
+
+/**
+ * <pre>
+ * 根据字段上的{@link Mask}注解对对象做脱敏，可以直接修改原对象，也可以生成脱敏后的副本。
+ * 1. 每个类的脱敏计划只在第一次使用时生成一次，字段通过{@link MethodHandle}读写，脱敏时没有反射调用
+ * 2. 递归处理嵌套对象、数组、Collection和Map中的元素，对象之间的循环引用和共享引用只处理一次
+ * 3. JDK中的类型（Collection、Map除外）、枚举和基本类型不做处理，在副本中与原对象共享
+ * 4. 生成副本时，需要复制的类必须有无参构造方法。final字段在副本中通过{@link MethodHandle}赋值，
+ *    不能赋值时（比如record的字段），不需要处理的字段保留构造方法中的值，其他字段不能生成副本
+ * 5. 副本中的Collection和Map尽量与原对象的类型一致，原类型不能创建时使用字段声明类型的无参构造方法，
+ *    声明类型是接口或者没有无参构造方法时使用ArrayList、LinkedList、LinkedHashSet、TreeSet、LinkedHashMap或TreeMap中
+ *    与声明类型兼容的类型。都不能使用时，在生成脱敏计划时报错
+ * 6. 标记了{@link Mask}的String字段不能是final的
+ * 7. 直接修改原对象时，不处理Map的key以及Set、PriorityQueue等按hashCode或者比较结果存放的元素，
+ *    修改这些对象的字段会破坏容器的结构；生成副本时这些对象同样会被脱敏
+ * 8. 标记了{@link Mask}的Set字段脱敏后相同的元素会合并，元素个数可能变少；
+ *    标记了{@link Mask}的Collection、Map不能修改时（比如{@link java.util.Collections#unmodifiableList}），
+ *    直接修改原对象会把字段替换为脱敏后的副本，字段不能写入时抛出{@link IllegalArgumentException}
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * public class User {
+ *     &#64;Mask(reserveLeft = 1)
+ *     private String name;
+ *     &#64;Mask(reserveOuter = {3, 4})
+ *     private String phone;
+ *     private List<Address> addresses;
+ * }
+ *
+ * User masked = ObjectMasker.getInstance().maskCopy(user); // user不变
+ * ObjectMasker.getInstance().mask(user); // 直接修改user
+ * }
+ * </pre>
+ * 该类是线程安全的。
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class ObjectMasker {
+
+    private static final ObjectMasker INSTANCE = new ObjectMasker();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+    private static final Class<?>[] COLLECTION_TYPES = {ArrayList.class, LinkedList.class, LinkedHashSet.class, TreeSet.class};
+    private static final Class<?>[] MAP_TYPES = {LinkedHashMap.class, TreeMap.class};
+
+    private static final ClassValue<ContainerPlan> CONTAINERS = new ClassValue<ContainerPlan>() {
+        @Override
+        protected ContainerPlan computeValue(Class<?> type) {
+            return new ContainerPlan(type);
+        }
+    };
+
+    private final ClassValue<ClassPlan> plans = new ClassValue<ClassPlan>() {
+        @Override
+        protected ClassPlan computeValue(Class<?> type) {
+            return new ClassPlan(type);
+        }
+    };
+
+    /**
+     * @return 共享的实例，各个类的脱敏计划在所有调用方之间共享
+     */
+    public static ObjectMasker getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 直接修改obj及其引用的对象中标记了{@link Mask}的字段
+     *
+     * @param obj 待脱敏的对象，可以是数组、Collection或Map
+     * @param <T> 对象类型
+     * @return obj
+     */
+    public <T> T mask(T obj) {
+        if (obj != null) {
+            new InPlace().visit(obj);
+        }
+        return obj;
+    }
+
+    /**
+     * 生成obj的脱敏副本，obj不变
+     *
+     * @param obj 待脱敏的对象，可以是数组、Collection或Map
+     * @param <T> 对象类型
+     * @return 脱敏后的副本
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T maskCopy(T obj) {
+        return obj == null ? null : (T) new Copy().copy(obj, CONTAINERS.get(Object.class));
+    }
+
+    /**
+     * @return 是否是不需要处理的类型
+     */
+    private static boolean opaque(Class<?> type) {
+        if (type.isArray()) {
+            return type.getComponentType().isPrimitive();
+        }
+        if (Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+            return false;
+        }
+        String name = type.getName();
+        return type.isPrimitive() || type.isEnum() || name.startsWith("java.") || name.startsWith("javax.")
+            || name.startsWith("sun.") || name.startsWith("jdk.");
+    }
+
+    /**
+     * @return 元素是否按hashCode或者比较结果存放，修改元素的字段会破坏容器的结构
+     */
+    private static boolean hashedOrSorted(Collection<?> collection) {
+        return collection instanceof Set || collection instanceof PriorityQueue
+            || collection instanceof PriorityBlockingQueue;
+    }
+
+    private static String maskString(IMaskHandler handler, Object value) {
+        return value == null ? null : handler.handle((String) value);
+    }
+
+    /**
+     * 直接修改原对象
+     */
+    private final class InPlace {
+
+        private final Map<Object, Boolean> visited = new IdentityHashMap<>();
+
+        void visit(Object value) {
+            if (value == null || opaque(value.getClass()) || visited.put(value, Boolean.TRUE) != null) {
+                return;
+            }
+            if (value instanceof Object[]) {
+                for (Object element : (Object[]) value) {
+                    visit(element);
+                }
+            } else if (value instanceof Collection) {
+                if (hashedOrSorted((Collection<?>) value)) {
+                    // 修改元素的字段会改变hashCode或者比较结果
+                    return;
+                }
+                for (Object element : (Collection<?>) value) {
+                    visit(element);
+                }
+            } else if (value instanceof Map) {
+                // 不处理key，修改key的字段会改变hashCode或者比较结果
+                for (Object element : ((Map<?, ?>) value).values()) {
+                    visit(element);
+                }
+            } else {
+                plans.get(value.getClass()).mask(value, this);
+            }
+        }
+    }
+
+    /**
+     * 生成副本
+     */
+    private final class Copy {
+
+        private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+        /**
+         * @param value     原对象
+         * @param container 存放副本的字段或数组元素的声明类型，用于创建Collection和Map的副本
+         * @return 副本
+         */
+        Object copy(Object value, ContainerPlan container) {
+            if (value == null || opaque(value.getClass())) {
+                return value;
+            }
+            Object copy = copies.get(value);
+            if (copy != null) {
+                return copy;
+            }
+            if (value instanceof Object[]) {
+                Object[] array = (Object[]) value;
+                Class<?> componentType = array.getClass().getComponentType();
+                ContainerPlan element = CONTAINERS.get(componentType);
+                Object[] target = (Object[]) Array.newInstance(componentType, array.length);
+                copies.put(value, target);
+                for (int i = 0; i < array.length; i++) {
+                    target[i] = copy(array[i], element);
+                }
+                return target;
+            }
+            ContainerPlan any = CONTAINERS.get(Object.class);
+            if (value instanceof Collection) {
+                Collection<Object> target = container.newCollection((Collection<?>) value);
+                copies.put(value, target);
+                for (Object element : (Collection<?>) value) {
+                    target.add(copy(element, any));
+                }
+                return target;
+            }
+            if (value instanceof Map) {
+                Map<Object, Object> target = container.newMap((Map<?, ?>) value);
+                copies.put(value, target);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    target.put(copy(entry.getKey(), any), copy(entry.getValue(), any));
+                }
+                return target;
+            }
+            return plans.get(value.getClass()).copy(value, this);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> type, MethodHandles.Lookup lookup) {
+        if (type.isInterface() || type.isArray() || type.isPrimitive() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return lookup.unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static Object newInstance(MethodHandle constructor, Class<?> type) {
+        try {
+            return constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("创建" + type.getName() + "对象失败", e);
+        }
+    }
+
+    /**
+     * <pre>
+     * 生成副本时Collection和Map的创建方式，按字段、数组元素的声明类型缓存。
+     * 依次尝试以下方式，创建的对象总是能赋值给声明类型：
+     * 1. 原对象是SortedSet、SortedMap并且声明类型兼容TreeSet、TreeMap时，使用原对象的比较器创建TreeSet、TreeMap
+     * 2. 原对象的类型有无参构造方法时，创建相同类型的对象
+     * 3. 声明类型有无参构造方法时，创建声明类型的对象
+     * 4. 使用与原对象和声明类型都兼容的ArrayList、LinkedList、LinkedHashSet、TreeSet、LinkedHashMap或TreeMap
+     * </pre>
+     */
+    private static final class ContainerPlan {
+
+        private final Class<?> type; // 声明类型
+        private final MethodHandle constructor; // 声明类型的无参构造方法，没有时为null
+
+        ContainerPlan(Class<?> type) {
+            this.type = type;
+            this.constructor = Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)
+                ? constructor(type, MethodHandles.lookup()) : null;
+        }
+
+        /**
+         * @return 声明类型为Collection或Map时，能否为该类型生成副本
+         */
+        boolean copyable() {
+            if (constructor != null) {
+                return true;
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                return compatible(COLLECTION_TYPES) != null;
+            }
+            if (Map.class.isAssignableFrom(type)) {
+                return compatible(MAP_TYPES) != null;
+            }
+            return true;
+        }
+
+        private Class<?> compatible(Class<?>[] candidates) {
+            for (Class<?> candidate : candidates) {
+                if (type.isAssignableFrom(candidate)) {
+                    return candidate;
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Collection<Object> newCollection(Collection<?> src) {
+            if (src instanceof SortedSet && type.isAssignableFrom(TreeSet.class)) {
+                return new TreeSet(((SortedSet<?>) src).comparator());
+            }
+            MethodHandle same = CONTAINERS.get(src.getClass()).constructor;
+            if (same != null) {
+                return (Collection<Object>) newInstance(same, src.getClass());
+            }
+            if (constructor != null) {
+                return (Collection<Object>) newInstance(constructor, type);
+            }
+            if (src instanceof Set && type.isAssignableFrom(LinkedHashSet.class)) {
+                return new LinkedHashSet<>(src.size());
+            }
+            Class<?> compatible = compatible(COLLECTION_TYPES);
+            if (compatible == ArrayList.class) {
+                return new ArrayList<>(src.size());
+            }
+            if (compatible == LinkedList.class) {
+                return new LinkedList<>();
+            }
+            if (compatible == LinkedHashSet.class) {
+                return new LinkedHashSet<>(src.size());
+            }
+            if (compatible == TreeSet.class) {
+                return new TreeSet<>();
+            }
+            throw new IllegalArgumentException("不能为" + type.getName() + "类型生成脱敏副本");
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Map<Object, Object> newMap(Map<?, ?> src) {
+            if (src instanceof SortedMap && type.isAssignableFrom(TreeMap.class)) {
+                return new TreeMap(((SortedMap<?, ?>) src).comparator());
+            }
+            MethodHandle same = CONTAINERS.get(src.getClass()).constructor;
+            if (same != null) {
+                return (Map<Object, Object>) newInstance(same, src.getClass());
+            }
+            if (constructor != null) {
+                return (Map<Object, Object>) newInstance(constructor, type);
+            }
+            Class<?> compatible = compatible(MAP_TYPES);
+            if (compatible == LinkedHashMap.class) {
+                return new LinkedHashMap<>(src.size());
+            }
+            if (compatible == TreeMap.class) {
+                return new TreeMap<>();
+            }
+            throw new IllegalArgumentException("不能为" + type.getName() + "类型生成脱敏副本");
+        }
+    }
+
+    /**
+     * 字段的处理方式
+     */
+    private enum FieldKind {
+        MASK_STRING, // 标记了@Mask的String字段
+        MASK_ARRAY, // 标记了@Mask的String[]字段
+        MASK_COLLECTION, // 标记了@Mask的Collection字段
+        MASK_MAP, // 标记了@Mask的Map字段，对value脱敏
+        VALUE, // 不需要处理的字段，副本中直接复制值
+        NESTED // 可能包含需要脱敏的字段的对象
+    }
+
+    /**
+     * 一个类的脱敏计划
+     */
+    private static final class ClassPlan {
+
+        private final Class<?> type;
+        private final FieldPlan[] fields; // 所有实例字段，包括父类的字段
+        private final FieldPlan[] maskFields; // 原对象脱敏时需要处理的字段
+        private final MethodHandle constructor; // 无参构造方法，没有时为null
+        private final String copyError; // 不能生成副本的原因，可以生成副本时为null
+
+        ClassPlan(Class<?> type) {
+            this.type = type;
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            List<FieldPlan> all = new ArrayList<>();
+            List<FieldPlan> masked = new ArrayList<>();
+            String copyError = null;
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic()) {
+                        continue;
+                    }
+                    FieldPlan plan = new FieldPlan(field, lookup);
+                    all.add(plan);
+                    if (plan.kind != FieldKind.VALUE) {
+                        masked.add(plan);
+                    }
+                    if (copyError == null) {
+                        copyError = plan.copyError();
+                    }
+                }
+            }
+            this.fields = all.toArray(new FieldPlan[0]);
+            this.maskFields = masked.toArray(new FieldPlan[0]);
+            this.constructor = ObjectMasker.constructor(type, lookup);
+            if (copyError == null && constructor == null) {
+                copyError = type.getName() + "没有无参构造方法，不能生成脱敏副本";
+            }
+            this.copyError = copyError;
+        }
+
+        void mask(Object value, InPlace context) {
+            for (FieldPlan field : maskFields) {
+                field.mask(value, context);
+            }
+        }
+
+        Object copy(Object value, Copy context) {
+            if (copyError != null) {
+                throw new IllegalArgumentException(copyError);
+            }
+            Object target = newInstance(constructor, type);
+            context.copies.put(value, target);
+            for (FieldPlan field : fields) {
+                field.copy(value, target, context);
+            }
+            return target;
+        }
+    }
+
+    /**
+     * 一个字段的脱敏计划
+     */
+    private static final class FieldPlan {
+
+        private final Field field;
+        private final FieldKind kind;
+        private final IMaskHandler handler;
+        private final MethodHandle getter;
+        private final MethodHandle setter; // 不能写入时为null，比如record的字段
+        private final ContainerPlan container; // 字段声明类型对应的Collection、Map创建方式
+
+        FieldPlan(Field field, MethodHandles.Lookup lookup) {
+            this.field = field;
+            Mask mask = field.getAnnotation(Mask.class);
+            Class<?> type = field.getType();
+            if (mask != null) {
+                this.handler = MaskAnnotations.handler(mask);
+                this.kind = maskKind(field, type);
+            } else {
+                this.handler = null;
+                this.kind = type.isPrimitive() || (opaque(type) && !type.isInterface() && type != Object.class)
+                    ? FieldKind.VALUE : FieldKind.NESTED;
+            }
+            try {
+                field.setAccessible(true);
+                this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalArgumentException("无法访问字段" + field, e);
+            }
+            if (kind == FieldKind.MASK_STRING && Modifier.isFinal(field.getModifiers())) {
+                throw new IllegalArgumentException("@Mask标记的String字段不能是final的：" + field);
+            }
+            MethodHandle setter = null;
+            try {
+                // 字段已经设置为可访问，非静态的final字段也可以写入，只用于给新创建的副本赋值
+                setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                // 没有写权限时setter为null
+            }
+            if (setter == null && kind == FieldKind.MASK_STRING) {
+                throw new IllegalArgumentException("@Mask标记的String字段不能写入：" + field);
+            }
+            this.setter = setter;
+            this.container = kind == FieldKind.VALUE || kind == FieldKind.MASK_STRING || kind == FieldKind.MASK_ARRAY
+                ? null : CONTAINERS.get(type);
+        }
+
+        /**
+         * @return 不能为该字段生成副本的原因，可以生成副本时返回null
+         */
+        String copyError() {
+            if (setter == null && kind != FieldKind.VALUE) {
+                return "final字段不能写入，不能生成脱敏副本：" + field;
+            }
+            if (container != null && !container.copyable()) {
+                return "不能为" + field.getType().getName() + "类型生成脱敏副本，需要无参构造方法或者使用接口类型：" + field;
+            }
+            return null;
+        }
+
+        private static FieldKind maskKind(Field field, Class<?> type) {
+            if (type == String.class) {
+                return FieldKind.MASK_STRING;
+            }
+            if (type == String[].class) {
+                return FieldKind.MASK_ARRAY;
+            }
+            if (Collection.class.isAssignableFrom(type)) {
+                return FieldKind.MASK_COLLECTION;
+            }
+            if (Map.class.isAssignableFrom(type)) {
+                return FieldKind.MASK_MAP;
+            }
+            throw new IllegalArgumentException("@Mask只能标记String、String[]、Collection和Map类型的字段：" + field);
+        }
+
+        void mask(Object owner, InPlace context) {
+            Object value = get(owner);
+            if (value == null) {
+                return;
+            }
+            switch (kind) {
+                case MASK_STRING:
+                    set(owner, handler.handle((String) value));
+                    break;
+                case MASK_ARRAY:
+                    String[] array = (String[]) value;
+                    for (int i = 0; i < array.length; i++) {
+                        array[i] = maskString(handler, array[i]);
+                    }
+                    break;
+                case MASK_COLLECTION:
+                    maskCollection(owner, (Collection<?>) value);
+                    break;
+                case MASK_MAP:
+                    try {
+                        maskMap((Map<?, ?>) value);
+                    } catch (UnsupportedOperationException e) {
+                        replace(owner, maskedMap((Map<?, ?>) value), e);
+                    }
+                    break;
+                case NESTED:
+                    context.visit(value);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void maskCollection(Object owner, Collection<?> value) {
+            if (value instanceof List) {
+                try {
+                    ListIterator<Object> iterator = ((List<Object>) value).listIterator();
+                    while (iterator.hasNext()) {
+                        iterator.set(maskString(handler, iterator.next()));
+                    }
+                } catch (UnsupportedOperationException e) {
+                    replace(owner, maskedCollection(value), e);
+                }
+                return;
+            }
+            // Set中脱敏后相同的元素会合并
+            Collection<Object> collection = (Collection<Object>) value;
+            List<Object> masked = new ArrayList<>(collection.size());
+            for (Object element : collection) {
+                masked.add(maskString(handler, element));
+            }
+            try {
+                collection.clear();
+                collection.addAll(masked);
+            } catch (UnsupportedOperationException e) {
+                // 先计算了脱敏结果，clear成功而addAll失败时也不会丢失元素
+                Collection<Object> copy = container.newCollection(collection);
+                copy.addAll(masked);
+                replace(owner, copy, e);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void maskMap(Map<?, ?> value) {
+            for (Map.Entry<?, ?> entry : value.entrySet()) {
+                ((Map.Entry<Object, Object>) entry).setValue(maskString(handler, entry.getValue()));
+            }
+        }
+
+        private Collection<Object> maskedCollection(Collection<?> value) {
+            Collection<Object> collection = container.newCollection(value);
+            for (Object element : value) {
+                collection.add(maskString(handler, element));
+            }
+            return collection;
+        }
+
+        private Map<Object, Object> maskedMap(Map<?, ?> value) {
+            Map<Object, Object> map = container.newMap(value);
+            for (Map.Entry<?, ?> entry : value.entrySet()) {
+                map.put(entry.getKey(), maskString(handler, entry.getValue()));
+            }
+            return map;
+        }
+
+        /**
+         * 不能修改的Collection、Map替换为脱敏后的副本
+         */
+        private void replace(Object owner, Object masked, UnsupportedOperationException cause) {
+            if (setter == null || !container.copyable()) {
+                throw new IllegalArgumentException("字段的值不能修改，字段也不能写入：" + field, cause);
+            }
+            set(owner, masked);
+        }
+
+        void copy(Object owner, Object target, Copy context) {
+            Object value = get(owner);
+            if (value != null) {
+                switch (kind) {
+                    case MASK_STRING:
+                        value = handler.handle((String) value);
+                        break;
+                    case MASK_ARRAY:
+                        String[] array = ((String[]) value).clone();
+                        for (int i = 0; i < array.length; i++) {
+                            array[i] = maskString(handler, array[i]);
+                        }
+                        value = array;
+                        break;
+                    case MASK_COLLECTION:
+                        value = maskedCollection((Collection<?>) value);
+                        break;
+                    case MASK_MAP:
+                        value = maskedMap((Map<?, ?>) value);
+                        break;
+                    case NESTED:
+                        value = context.copy(value, container);
+                        break;
+                    default:
+                        break;
+                }
+            }
+            if (setter == null) {
+                // 不需要处理的字段不能写入时保留构造方法中的值，其他字段在生成计划时已经检查
+                return;
+            }
+            set(target, value);
+        }
+
+        private Object get(Object owner) {
+            try {
+                return getter.invokeExact(owner);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("读取字段失败：" + field, e);
+            }
+        }
+
+        private void set(Object owner, Object value) {
+            try {
+                setter.invokeExact(owner, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException("写入字段失败：" + field, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.csv;
+
+import io.github.chyohn.mask.IMaskHandler;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <pre>
+ * 按列对CSV/TSV文本做脱敏，每一列可以指定不同的脱敏处理器，列可以用下标（从0开始）或者表头名称指定。
+ * 1. 一次扫描完成解析，不需要脱敏的列直接从输入复制到输出，不创建字符串
+ * 2. 支持引号包含的字段，引号内可以有分隔符和换行符，两个连续的引号表示一个引号字符
+ * 3. 原来有引号的字段脱敏后仍然使用引号；原来没有引号的字段，如果脱敏结果中包含分隔符、引号或换行符，会加上引号
+ * 4. 表头和空行原样输出
+ * 5. 并行模式按记录边界切分文本，多个线程同时脱敏，结果与串行模式一致
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskCsvProcessor processor = MaskCsvProcessor.csv()
+ *         .setHeader(true)
+ *         .addHandler("phone", MaskHandlerFactory.reserveOuter(3, 4))
+ *         .addHandler(0, MaskHandlerFactory.reserveLeft(1));
+ * String masked = processor.process("name,phone\n李白,13755556666\n"); // name,phone\n李*,137****6666\n
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskCsvProcessor {
+
+    private static final int MIN_CHUNK_SIZE = 64 << 10; // 并行模式下每个分块的最少字符数
+
+    private final char delimiter; // 字段分隔符
+    private char quote = '"'; // 引号
+    private boolean header; // 第一行是否是表头
+    private final Map<Integer, IMaskHandler> handlersOfIndex = new HashMap<>();
+    private final Map<String, IMaskHandler> handlersOfName = new LinkedHashMap<>();
+
+    private MaskCsvProcessor(char delimiter) {
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * @return 以逗号分隔的CSV处理器
+     */
+    public static MaskCsvProcessor csv() {
+        return new MaskCsvProcessor(',');
+    }
+
+    /**
+     * @return 以制表符分隔的TSV处理器
+     */
+    public static MaskCsvProcessor tsv() {
+        return new MaskCsvProcessor('\t');
+    }
+
+    /**
+     * @param delimiter 字段分隔符，不能是换行符
+     * @return 使用指定分隔符的处理器
+     */
+    public static MaskCsvProcessor of(char delimiter) {
+        if (delimiter == '\n' || delimiter == '\r') {
+            throw new IllegalArgumentException("分隔符不能是换行符");
+        }
+        return new MaskCsvProcessor(delimiter);
+    }
+
+    /**
+     * 设置引号，默认为双引号
+     *
+     * @param quote 引号
+     * @return 当前对象
+     */
+    public MaskCsvProcessor setQuote(char quote) {
+        if (quote == delimiter || quote == '\n' || quote == '\r') {
+            throw new IllegalArgumentException("引号不能是分隔符或换行符");
+        }
+        this.quote = quote;
+        return this;
+    }
+
+    /**
+     * 设置第一行是否为表头，使用表头名称指定列时必须设置为true
+     *
+     * @param header 第一行是否为表头
+     * @return 当前对象
+     */
+    public MaskCsvProcessor setHeader(boolean header) {
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * 指定列的脱敏处理器，处理器会先被{@link IMaskHandler#compile() 编译}
+     *
+     * @param column  列下标，从0开始
+     * @param handler 脱敏处理器
+     * @return 当前对象
+     */
+    public MaskCsvProcessor addHandler(int column, IMaskHandler handler) {
+        if (column < 0) {
+            throw new IllegalArgumentException("column不能小于0");
+        }
+        handlersOfIndex.put(column, Objects.requireNonNull(handler, "handler不能为null").compile());
+        return this;
+    }
+
+    /**
+     * 指定列的脱敏处理器，处理器会先被{@link IMaskHandler#compile() 编译}
+     *
+     * @param column  表头中的列名
+     * @param handler 脱敏处理器
+     * @return 当前对象
+     */
+    public MaskCsvProcessor addHandler(String column, IMaskHandler handler) {
+        handlersOfName.put(Objects.requireNonNull(column, "column不能为null"),
+            Objects.requireNonNull(handler, "handler不能为null").compile());
+        return this;
+    }
+
+    /**
+     * 对CSV文本脱敏
+     *
+     * @param src CSV文本
+     * @return 脱敏结果
+     */
+    public String process(CharSequence src) {
+        StringBuilder out = new StringBuilder(src.length());
+        process(src, out);
+        return out.toString();
+    }
+
+    /**
+     * 对CSV文本脱敏，并把脱敏结果追加到out中
+     *
+     * @param src CSV文本
+     * @param out 脱敏结果输出
+     */
+    public void process(CharSequence src, StringBuilder out) {
+        int length = src.length();
+        int bodyStart = header ? recordEnd(src, 0, length) : 0;
+        IMaskHandler[] handlers = resolveHandlers(src, bodyStart);
+        out.append(src, 0, bodyStart);
+        process(src, bodyStart, length, handlers, out);
+    }
+
+    /**
+     * 使用{@link ForkJoinPool#commonPool()}对CSV文本并行脱敏
+     *
+     * @param src CSV文本
+     * @return 脱敏结果
+     */
+    public String processParallel(CharSequence src) {
+        return processParallel(src, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * 在指定的线程池中对CSV文本并行脱敏，文本按记录边界切分为多个分块，结果与{@link #process(CharSequence)}一致
+     *
+     * @param src  CSV文本
+     * @param pool 执行脱敏的线程池
+     * @return 脱敏结果
+     */
+    public String processParallel(CharSequence src, ForkJoinPool pool) {
+        int length = src.length();
+        int bodyStart = header ? recordEnd(src, 0, length) : 0;
+        IMaskHandler[] handlers = resolveHandlers(src, bodyStart);
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, (length - bodyStart) / (pool.getParallelism() << 2) + 1);
+        List<ForkJoinTask<StringBuilder>> tasks = new ArrayList<>();
+        int start = bodyStart;
+        while (start < length) {
+            int end = start;
+            // 按记录扫描到分块大小，保证分块边界不会落在引号内
+            while (end < length && end - start < chunkSize) {
+                end = recordEnd(src, end, length);
+            }
+            int chunkStart = start;
+            int chunkEnd = end;
+            tasks.add(pool.submit(() -> {
+                StringBuilder out = new StringBuilder(chunkEnd - chunkStart);
+                process(src, chunkStart, chunkEnd, handlers, out);
+                return out;
+            }));
+            start = end;
+        }
+        StringBuilder out = new StringBuilder(length);
+        out.append(src, 0, bodyStart);
+        for (ForkJoinTask<StringBuilder> task : tasks) {
+            out.append(task.join());
+        }
+        return out.toString();
+    }
+
+    /**
+     * 按列下标整理脱敏处理器，列名从表头中查找
+     */
+    private IMaskHandler[] resolveHandlers(CharSequence src, int headerEnd) {
+        Map<Integer, IMaskHandler> handlers = new HashMap<>(handlersOfIndex);
+        if (!handlersOfName.isEmpty()) {
+            if (!header) {
+                throw new IllegalStateException("使用列名指定脱敏处理器时需要设置header为true");
+            }
+            List<String> names = parseRecord(src, 0, headerEnd);
+            for (Map.Entry<String, IMaskHandler> entry : handlersOfName.entrySet()) {
+                int index = names.indexOf(entry.getKey());
+                if (index < 0) {
+                    throw new IllegalArgumentException("表头中不存在列：" + entry.getKey());
+                }
+                handlers.put(index, entry.getValue());
+            }
+        }
+        int size = 0;
+        for (Integer index : handlers.keySet()) {
+            size = Math.max(size, index + 1);
+        }
+        IMaskHandler[] result = new IMaskHandler[size];
+        handlers.forEach((index, handler) -> result[index] = handler);
+        return result;
+    }
+
+    /**
+     * 对[from, to)区间的记录脱敏，from和to都在记录边界上
+     */
+    private void process(CharSequence src, int from, int to, IMaskHandler[] handlers, StringBuilder out) {
+        StringBuilder scratch = null;
+        int copyFrom = from; // 还未复制到输出的位置
+        int pos = from;
+        while (pos < to) {
+            if (isLineEnd(src, pos, to)) {
+                // 空行原样输出
+                pos = src.charAt(pos) == '\n' ? pos + 1 : pos + 2;
+                continue;
+            }
+            int column = 0;
+            while (true) {
+                int fieldStart = pos;
+                int fieldEnd = fieldEnd(src, pos, to);
+                if (column < handlers.length && handlers[column] != null) {
+                    int contentEnd = fieldEnd;
+                    if (fieldEnd < to && src.charAt(fieldEnd) == '\n' && contentEnd > fieldStart
+                        && src.charAt(contentEnd - 1) == '\r') {
+                        contentEnd--;
+                    }
+                    out.append(src, copyFrom, fieldStart);
+                    if (fieldStart < contentEnd && src.charAt(fieldStart) == quote) {
+                        if (scratch == null) {
+                            scratch = new StringBuilder();
+                        }
+                        maskQuoted(handlers[column], src, fieldStart, contentEnd, scratch, out);
+                    } else {
+                        maskUnquoted(handlers[column], src, fieldStart, contentEnd, out);
+                    }
+                    copyFrom = contentEnd;
+                }
+                column++;
+                if (fieldEnd >= to) {
+                    pos = to;
+                    break;
+                }
+                pos = fieldEnd + 1;
+                if (src.charAt(fieldEnd) == '\n') {
+                    break;
+                }
+            }
+        }
+        out.append(src, copyFrom, to);
+    }
+
+    private void maskUnquoted(IMaskHandler handler, CharSequence src, int start, int end, StringBuilder out) {
+        int mark = out.length();
+        handler.handle(src, start, end, out);
+        if (needQuote(out, mark)) {
+            String value = out.substring(mark);
+            out.setLength(mark);
+            appendQuoted(value, out);
+        }
+    }
+
+    private void maskQuoted(IMaskHandler handler, CharSequence src, int start, int end,
+                            StringBuilder scratch, StringBuilder out) {
+        scratch.setLength(0);
+        unquote(src, start, end, scratch);
+        int mark = out.length();
+        handler.handle(scratch, 0, scratch.length(), out);
+        String value = out.substring(mark);
+        out.setLength(mark);
+        appendQuoted(value, out);
+    }
+
+    private boolean needQuote(StringBuilder out, int from) {
+        for (int i = from, n = out.length(); i < n; i++) {
+            char c = out.charAt(i);
+            if (c == delimiter || c == quote || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 去掉引号并把连续的两个引号还原为一个，闭合引号后面的字符也作为字段内容
+     */
+    private void unquote(CharSequence src, int start, int end, StringBuilder out) {
+        int i = start + 1;
+        while (i < end) {
+            char c = src.charAt(i);
+            if (c == quote) {
+                if (i + 1 < end && src.charAt(i + 1) == quote) {
+                    i++;
+                } else {
+                    out.append(src, i + 1, end);
+                    return;
+                }
+            }
+            out.append(c);
+            i++;
+        }
+    }
+
+    private void appendQuoted(String value, StringBuilder out) {
+        out.append(quote);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == quote) {
+                out.append(quote);
+            }
+            out.append(c);
+        }
+        out.append(quote);
+    }
+
+    /**
+     * 解析一条记录的所有字段
+     */
+    private List<String> parseRecord(CharSequence src, int from, int to) {
+        List<String> fields = new ArrayList<>();
+        int pos = from;
+        while (pos < to) {
+            int fieldEnd = fieldEnd(src, pos, to);
+            int contentEnd = fieldEnd;
+            if (fieldEnd < to && src.charAt(fieldEnd) == '\n' && contentEnd > pos
+                && src.charAt(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            if (pos < contentEnd && src.charAt(pos) == quote) {
+                StringBuilder value = new StringBuilder(contentEnd - pos);
+                unquote(src, pos, contentEnd, value);
+                fields.add(value.toString());
+            } else {
+                fields.add(src.subSequence(pos, contentEnd).toString());
+            }
+            if (fieldEnd >= to || src.charAt(fieldEnd) == '\n') {
+                break;
+            }
+            pos = fieldEnd + 1;
+        }
+        return fields;
+    }
+
+    /**
+     * @return 从pos开始的记录的结束位置（换行符的下一个位置）
+     */
+    private int recordEnd(CharSequence src, int pos, int to) {
+        while (pos < to) {
+            int fieldEnd = fieldEnd(src, pos, to);
+            if (fieldEnd >= to) {
+                return to;
+            }
+            pos = fieldEnd + 1;
+            if (src.charAt(fieldEnd) == '\n') {
+                return pos;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * @return 从pos开始的字段的结束位置，即分隔符、换行符的位置或者to
+     */
+    private int fieldEnd(CharSequence src, int pos, int to) {
+        if (pos < to && src.charAt(pos) == quote) {
+            pos++;
+            while (pos < to) {
+                if (src.charAt(pos) == quote) {
+                    if (pos + 1 < to && src.charAt(pos + 1) == quote) {
+                        pos += 2;
+                        continue;
+                    }
+                    pos++;
+                    break;
+                }
+                pos++;
+            }
+        }
+        while (pos < to) {
+            char c = src.charAt(pos);
+            if (c == delimiter || c == '\n') {
+                break;
+            }
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isLineEnd(CharSequence src, int pos, int to) {
+        char c = src.charAt(pos);
+        return c == '\n' || (c == '\r' && pos + 1 < to && src.charAt(pos + 1) == '\n');
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.file;
+
+import io.github.chyohn.mask.IMaskHandler;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * <pre>
+ * 按行对UTF-8文本文件做并行脱敏。
+ * 1. 输入文件按换行符对齐切分为多个分块，每个分块通过{@link FileChannel#map}映射到内存，由多个线程并行脱敏
+ * 2. 每一行（不包括行尾的"\n"或"\r\n"）使用同一个{@link IMaskHandler}脱敏，换行符原样输出
+ * 3. 分块的脱敏结果按原始顺序通过{@link FileChannel#write(ByteBuffer, long)}写入输出文件
+ * 4. 同时处理中的分块的字节数之和不超过{@link #setMaxPendingBytes(int)}，默认32MB，内存占用与文件大小和CPU核数无关。
+ *    每个分块解码后的字符、脱敏结果和编码后的字节都在堆上，堆内存占用约为处理中字节数的6倍；
+ *    单行超过该上限时抛出{@link IOException}
+ * 5. 不合法的UTF-8字节替换为U+FFFD后再脱敏，不会中断整个文件的处理
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskFileStats stats = MaskFileProcessor.of(MaskHandlerFactory.maskNumber())
+ *         .process(Paths.get("app.log"), Paths.get("app.masked.log"));
+ * System.out.println(stats); // bytesRead=..., lines=..., bytes/s=..., lines/s=...
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskFileProcessor {
+
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20; // 默认分块大小1MB
+    private static final int DEFAULT_MAX_PENDING_BYTES = 32 << 20; // 默认处理中的字节数上限32MB
+    private static final int SCAN_BUFFER_SIZE = 8 << 10; // 查找换行符时每次读取的字节数
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final IMaskHandler handler;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private int maxPendingBytes = DEFAULT_MAX_PENDING_BYTES;
+
+    private MaskFileProcessor(IMaskHandler handler) {
+        this.handler = Objects.requireNonNull(handler, "handler不能为null").compile();
+    }
+
+    /**
+     * 创建文件脱敏处理器，处理器会先被{@link IMaskHandler#compile() 编译}
+     *
+     * @param handler 对每一行做脱敏的处理器
+     * @return 文件脱敏处理器
+     */
+    public static MaskFileProcessor of(IMaskHandler handler) {
+        return new MaskFileProcessor(handler);
+    }
+
+    /**
+     * 设置并行脱敏的线程数，默认为CPU核数
+     *
+     * @param parallelism 线程数
+     * @return 当前对象
+     */
+    public MaskFileProcessor setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism不能小于1");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * 设置分块的最大字节数，默认1MB。文件较小时按线程数平均切分；单行超过该大小时分块会延伸到行尾
+     *
+     * @param chunkSize 分块的最大字节数
+     * @return 当前对象
+     */
+    public MaskFileProcessor setChunkSize(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize不能小于1");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * 设置同时处理中（已读取但还没有写入输出文件）的分块的字节数之和的上限，默认32MB，同时也是单行的最大字节数。
+     * 分块大小超过该上限时按该上限切分
+     *
+     * @param maxPendingBytes 处理中的字节数上限
+     * @return 当前对象
+     */
+    public MaskFileProcessor setMaxPendingBytes(int maxPendingBytes) {
+        if (maxPendingBytes < 1) {
+            throw new IllegalArgumentException("maxPendingBytes不能小于1");
+        }
+        this.maxPendingBytes = maxPendingBytes;
+        return this;
+    }
+
+    /**
+     * 对src文件按行脱敏，结果写入target文件。target已存在时会被覆盖，src和target不能是同一个文件
+     *
+     * @param src    输入文件
+     * @param target 输出文件
+     * @return 统计结果
+     * @throws IOException 读写文件失败或者单行超过{@link #setMaxPendingBytes(int) 处理中的字节数上限}
+     */
+    public MaskFileStats process(Path src, Path target) throws IOException {
+        if (Files.exists(target) && Files.isSameFile(src, target)) {
+            throw new IllegalArgumentException("src和target不能是同一个文件");
+        }
+        long begin = System.nanoTime();
+        try (FileChannel in = FileChannel.open(src, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE,
+                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long[] written = new long[2]; // 0: 写入的字节数，1: 行数
+            if (size > 0) {
+                process(in, size, out, written);
+            }
+            return new MaskFileStats(size, written[0], written[1], System.nanoTime() - begin);
+        }
+    }
+
+    private void process(FileChannel in, long size, FileChannel out, long[] written) throws IOException {
+        long targetSize = Math.min(Math.min(chunkSize, maxPendingBytes), (size + parallelism - 1) / parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "mask-file-" + THREAD_ID.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // 处理中的分块的字节数之和不超过上限，按提交顺序取结果写入，保证输出顺序与输入一致
+            Deque<Future<MaskedChunk>> pending = new ArrayDeque<>();
+            long pendingBytes = 0;
+            long start = 0;
+            long end = -1; // 已查找到但还没有提交的分块的结束位置
+            long position = 0;
+            while (start < size || !pending.isEmpty()) {
+                while (start < size) {
+                    if (end < 0) {
+                        end = chunkEnd(in, start, size, targetSize, maxPendingBytes);
+                    }
+                    if (pendingBytes + end - start > maxPendingBytes) {
+                        break;
+                    }
+                    long chunkStart = start;
+                    long chunkEnd = end;
+                    pending.add(executor.submit(() -> maskChunk(in, chunkStart, chunkEnd)));
+                    pendingBytes += end - start;
+                    start = end;
+                    end = -1;
+                }
+                MaskedChunk chunk = await(pending.poll());
+                pendingBytes -= chunk.size;
+                ByteBuffer bytes = chunk.bytes;
+                while (bytes.hasRemaining()) {
+                    position += out.write(bytes, position);
+                }
+                written[1] += chunk.lines;
+            }
+            written[0] = position;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 从start + targetSize - 1开始向后查找换行符，返回换行符的下一个位置作为分块结束位置。
+     * 分块超过maxBytes时改为向前查找，仍然找不到换行符时说明单行超过maxBytes，抛出异常
+     */
+    private static long chunkEnd(FileChannel in, long start, long size, long targetSize, int maxBytes)
+        throws IOException {
+        long from = start + targetSize - 1;
+        if (from >= size - 1) {
+            return size;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+        long limit = Math.min(size, start + maxBytes);
+        long position = from;
+        while (position < limit) {
+            buffer.clear();
+            buffer.limit((int) Math.min(SCAN_BUFFER_SIZE, limit - position));
+            int read = in.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        if (limit == size) {
+            return size;
+        }
+        while (from > start) {
+            int length = (int) Math.min(SCAN_BUFFER_SIZE, from - start);
+            buffer.clear();
+            buffer.limit(length);
+            long blockStart = from - length;
+            while (buffer.hasRemaining() && in.read(buffer, blockStart + buffer.position()) >= 0) {
+                // 读满整个区间
+            }
+            for (int i = buffer.position() - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return blockStart + i + 1;
+                }
+            }
+            from = blockStart;
+        }
+        throw new IOException("单行超过" + maxBytes + "字节，位置：" + start);
+    }
+
+    private MaskedChunk maskChunk(FileChannel in, long start, long end) throws IOException {
+        MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        CharBuffer chars = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+            .decode(mapped);
+        int length = chars.length();
+        StringBuilder out = new StringBuilder(length + (length >> 3));
+        long lines = 0;
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = lineStart;
+            while (lineEnd < length && chars.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int contentEnd = lineEnd;
+            if (lineEnd < length && contentEnd > lineStart && chars.get(contentEnd - 1) == '\r') {
+                contentEnd--;
+            }
+            handler.handle(chars, lineStart, contentEnd, out);
+            if (lineEnd < length) {
+                out.append(chars, contentEnd, lineEnd + 1);
+                lineEnd++;
+            }
+            lineStart = lineEnd;
+            lines++;
+        }
+        return new MaskedChunk(StandardCharsets.UTF_8.encode(CharBuffer.wrap(out)), end - start, lines);
+    }
+
+    private static MaskedChunk await(Future<MaskedChunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException exception = new InterruptedIOException("文件脱敏被中断");
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * 一个分块的脱敏结果
+     */
+    private static final class MaskedChunk {
+        private final ByteBuffer bytes;
+        private final long size; // 输入的字节数
+        private final long lines;
+
+        MaskedChunk(ByteBuffer bytes, long size, long lines) {
+            this.bytes = bytes;
+            this.size = size;
+            this.lines = lines;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.file;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 文件脱敏的统计结果
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@Getter
+@AllArgsConstructor
+public final class MaskFileStats {
+
+    private final long bytesRead; // 读取的字节数
+    private final long bytesWritten; // 写入的字节数
+    private final long lines; // 处理的行数
+    private final long elapsedNanos; // 耗时，单位纳秒
+
+    /**
+     * @return 每秒读取的字节数
+     */
+    public double bytesPerSecond() {
+        return perSecond(bytesRead);
+    }
+
+    /**
+     * @return 每秒处理的行数
+     */
+    public double linesPerSecond() {
+        return perSecond(lines);
+    }
+
+    private double perSecond(long count) {
+        if (elapsedNanos <= 0) {
+            return 0;
+        }
+        return count * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("bytesRead=%d, bytesWritten=%d, lines=%d, elapsed=%dms, bytes/s=%.0f, lines/s=%.0f",
+            bytesRead, bytesWritten, lines, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            bytesPerSecond(), linesPerSecond());
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.MaskByteSink;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * 只模糊字符串中某一类字符的处理器，比如数字、字母。
+ * 对字符串只扫描一遍，不使用正则表达式：
+ * 1. maskLength &lt; 1时，每个需要模糊的字符替换为一个maskStr
+ * 2. maskLength &gt;= 1时，每一段连续的需要模糊的字符替换为maskLength个maskStr
+ * 字符串中没有需要模糊的字符时，直接返回原字符串。
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public abstract class AbstractMaskCharHandler<T extends AbstractMaskCharHandler<T>> extends
+    AbstractMaskItemHandler<T> {
+
+    /**
+     * 判断字符是否需要模糊
+     *
+     * @param c 字符
+     * @return true: 需要模糊
+     */
+    protected abstract boolean isMaskChar(char c);
+
+    @Override
+    protected String doHandle(String src) {
+        int length = src.length();
+        int first = indexOfMaskChar(src, 0, length);
+        if (first < 0) {
+            return src;
+        }
+
+        if (maskLength < 1 && maskStr.length() == 1) {
+            // 脱敏前后长度一致，直接替换字符
+            char mask = maskStr.charAt(0);
+            char[] result = src.toCharArray();
+            for (int i = first; i < length; i++) {
+                if (isMaskChar(result[i])) {
+                    result[i] = mask;
+                }
+            }
+            return new String(result);
+        }
+
+        // 不预先计算结果长度，避免再扫描一遍字符串，结果超出时由StringBuilder扩容
+        StringBuilder out = new StringBuilder(length + 16);
+        out.append(src, 0, first);
+        doHandle(src, first, length, out);
+        return out.toString();
+    }
+
+    /**
+     * 没有分隔符时从第一个需要模糊的字符开始脱敏，之前的字符直接复制，不重复扫描
+     */
+    @Override
+    protected String handleWithBuffer(String src, StringBuilder buffer) {
+        if (hasSeparator()) {
+            return super.handleWithBuffer(src, buffer);
+        }
+        int length = src.length();
+        int first = indexOfMaskChar(src, 0, length);
+        if (first < 0) {
+            return src;
+        }
+        buffer.setLength(0);
+        buffer.append(src, 0, first);
+        doHandle(src, first, length, buffer);
+        return buffer.toString();
+    }
+
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        int copied = start; // 已输出到out的位置
+        int i = start;
+        while (i < end) {
+            if (!isMaskChar(src.charAt(i))) {
+                i++;
+                continue;
+            }
+            out.append(src, copied, i);
+            int runEnd = i + 1;
+            while (runEnd < end && isMaskChar(src.charAt(runEnd))) {
+                runEnd++;
+            }
+            appendMask(out, maskLength < 1 ? runEnd - i : maskLength);
+            i = runEnd;
+            copied = runEnd;
+        }
+        out.append(src, copied, end);
+    }
+
+    /**
+     * 在UTF-8字节上只模糊需要模糊的字符，代理对中只有一个字符需要模糊时按字符串脱敏
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 被脱敏部分的开始位置（包含）
+     * @param end   被脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        int mark = out.size();
+        int copied = start; // 已输出到out的位置
+        int i = start;
+        while (i < end) {
+            int n = MaskUtf8.sequenceLength(src[i]);
+            int chars = maskChars(src, i, n);
+            if (chars == 0) {
+                i += n;
+                continue;
+            }
+            if (chars < 0) {
+                out.setLength(mark);
+                doHandleDecoded(src, start, end, out);
+                return;
+            }
+            out.write(src, copied, i - copied);
+            int runChars = 0; // 连续需要模糊的字符个数
+            int runEnd = i;
+            while (chars > 0) {
+                runChars += chars;
+                runEnd += n;
+                if (runEnd == end) {
+                    break;
+                }
+                n = MaskUtf8.sequenceLength(src[runEnd]);
+                chars = maskChars(src, runEnd, n);
+            }
+            if (chars < 0) {
+                out.setLength(mark);
+                doHandleDecoded(src, start, end, out);
+                return;
+            }
+            appendMask(out, maskLength < 1 ? runChars : maskLength);
+            i = runEnd;
+            copied = runEnd;
+        }
+        out.write(src, copied, end - copied);
+    }
+
+    /**
+     * @param n 编码的字节数
+     * @return 位置i的编码中需要模糊的字符（char）个数，4个字节的编码只有一个代理字符需要模糊时返回-1
+     */
+    private int maskChars(byte[] src, int i, int n) {
+        if (n < 4) {
+            return isMaskChar(MaskUtf8.decodeChar(src, i, n)) ? 1 : 0;
+        }
+        int codePoint = MaskUtf8.decodeCodePoint(src, i);
+        boolean high = isMaskChar(Character.highSurrogate(codePoint));
+        boolean low = isMaskChar(Character.lowSurrogate(codePoint));
+        if (high != low) {
+            return -1;
+        }
+        return high ? 2 : 0;
+    }
+
+    /**
+     * @return 没有分隔符、maskLength &lt; 1并且maskStr为单个字符时，脱敏前后长度一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        return !hasSeparator() && singleCharMask();
+    }
+
+    @Override
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        char mask = maskStr.charAt(0);
+        for (int i = start; i < end; i++) {
+            if (isMaskChar(buf[i])) {
+                buf[i] = mask;
+            }
+        }
+    }
+
+    /**
+     * 先检查每个需要模糊的字符的字节数都与maskStr相同，再原地替换
+     */
+    @Override
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; ) {
+            int n = MaskUtf8.sequenceLength(buffer.get(i));
+            int chars = maskChars(buffer, i, n);
+            if (chars < 0 || (chars > 0 && !fitsMask(n, chars))) {
+                return false;
+            }
+            i += n;
+        }
+        for (int i = start; i < end; ) {
+            int n = MaskUtf8.sequenceLength(buffer.get(i));
+            int chars = maskChars(buffer, i, n);
+            if (chars > 0) {
+                fillMask(buffer, i, chars);
+            }
+            i += n;
+        }
+        return true;
+    }
+
+    /**
+     * 与{@link #maskChars(byte[], int, int)}一致，使用绝对位置读取
+     */
+    private int maskChars(ByteBuffer buffer, int i, int n) {
+        if (n < 4) {
+            return isMaskChar(MaskUtf8.decodeChar(buffer, i, n)) ? 1 : 0;
+        }
+        int codePoint = MaskUtf8.decodeCodePoint(buffer, i);
+        boolean high = isMaskChar(Character.highSurrogate(codePoint));
+        boolean low = isMaskChar(Character.lowSurrogate(codePoint));
+        if (high != low) {
+            return -1;
+        }
+        return high ? 2 : 0;
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            doHandle(tokens.bytes(), tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            doHandle(tokens.source(), tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    @Override
+    protected String[] doHandle(String originalSrc, String[] separatedStrs) {
+        String[] result = new String[separatedStrs.length];
+        for (int i = 0; i < separatedStrs.length; i++) {
+            result[i] = doHandle(separatedStrs[i]);
+        }
+        return result;
+    }
+
+    @Override
+    protected int outputLength(int srcLength) {
+        if (maskLength < 1 && maskStr != null && maskStr.length() == 1) {
+            return srcLength;
+        }
+        return super.outputLength(srcLength);
+    }
+
+    private int indexOfMaskChar(String src, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (isMaskChar(src.charAt(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
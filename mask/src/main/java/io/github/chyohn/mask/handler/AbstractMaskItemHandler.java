@@ -17,8 +17,13 @@
 package io.github.chyohn.mask.handler;
 
 import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 /**
  * 带分隔符的脱敏处理器
  * <p>
@@ -42,17 +47,22 @@ public abstract class AbstractMaskItemHandler<T extends AbstractMaskItemHandler<
 
     protected String maskStr = "*"; // 脱敏替代字符串
     protected int maskLength = -1; // 脱敏替代字符串长度，-1：根据原始字符串长度进行替换
-
+    @Getter(AccessLevel.NONE)
+    private transient MaskRun maskRun; // 由maskStr和maskLength生成的模糊字符串模板，配置变更时置空
 
     @Override
     public T setMaskLength(int maskLength) {
+        checkNotFrozen();
         this.maskLength = maskLength;
+        this.maskRun = null;
         return (T) this;
     }
 
     @Override
     public T setMaskStr(String maskStr) {
+        checkNotFrozen();
         this.maskStr = maskStr;
+        this.maskRun = null;
         return (T) this;
     }
 
@@ -63,4 +73,143 @@ public abstract class AbstractMaskItemHandler<T extends AbstractMaskItemHandler<
         return (T) this;
     }
 
+    /**
+     * 追加count个maskStr到out，使用预先生成的模糊字符串模板，不创建中间字符串
+     *
+     * @param out   脱敏结果输出
+     * @param count maskStr个数
+     */
+    protected void appendMask(StringBuilder out, int count) {
+        maskRun().append(out, count);
+    }
+
+    /**
+     * 追加count个maskStr的UTF-8编码到out，只能在{@link #supportsUtf8()}为true时调用
+     *
+     * @param out   脱敏结果输出
+     * @param count maskStr个数
+     */
+    protected void appendMask(MaskByteSink out, int count) {
+        maskRun().append(out, count);
+    }
+
+    /**
+     * @return 每个被模糊的字符是否替换为一个maskStr字符，即maskLength &lt;= 0并且maskStr为单个非代理字符
+     */
+    protected boolean singleCharMask() {
+        return maskLength <= 0 && maskStr != null && maskStr.length() == 1 && !Character.isSurrogate(maskStr.charAt(0));
+    }
+
+    /**
+     * @param bytes 被模糊部分的UTF-8字节数
+     * @param count 模糊字符串个数
+     * @return count个maskStr的UTF-8字节数是否等于bytes，相等时可以原地脱敏
+     */
+    protected boolean fitsMask(int bytes, int count) {
+        return (long) count * maskRun().utf8MaskLength() == bytes;
+    }
+
+    /**
+     * 从buf的index位置开始原地写入count个maskStr
+     *
+     * @param buf   字符缓冲区
+     * @param index 开始位置
+     * @param count maskStr个数
+     */
+    protected void fillMask(char[] buf, int index, int count) {
+        maskRun().fill(buf, index, count);
+    }
+
+    /**
+     * 从buffer的index位置开始原地写入count个maskStr的UTF-8编码，调用前需要使用{@link #fitsMask(int, int)}检查长度
+     *
+     * @param buffer 脱敏内容
+     * @param index  开始位置
+     * @param count  maskStr个数
+     */
+    protected void fillMask(ByteBuffer buffer, int index, int count) {
+        maskRun().fill(buffer, index, count);
+    }
+
+    /**
+     * <pre>
+     * 没有分隔符时，maskStr为单个字符并且maskLength为-1或者不超过64的常见配置，
+     * 可以直接在结果字符数组中填充模糊字符，不需要StringBuilder，也不需要截取保留部分。
+     * 该形式在maskStr和maskLength确定后计算一次，配置变更时重新计算
+     * </pre>
+     *
+     * @return 可以直接填充的模糊字符，其他配置返回-1
+     */
+    protected int fillChar() {
+        return maskRun().fillChar();
+    }
+
+    /**
+     * @param c     模糊字符
+     * @param count 字符个数
+     * @return 由count个c组成的字符串
+     */
+    protected static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * maskStr包含代理字符时，与相邻内容一起编码的结果可能不同，只能按字符串脱敏
+     */
+    @Override
+    protected boolean supportsUtf8() {
+        return maskStr != null && maskRun().supportsUtf8();
+    }
+
+    private MaskRun maskRun() {
+        MaskRun run = maskRun;
+        if (run == null) {
+            run = new MaskRun(maskStr, maskLength);
+            maskRun = run;
+        }
+        return run;
+    }
+
+    /**
+     * 把count个maskStr的UTF-8编码使用delimiter连接后写入out，用于以token为单位脱敏
+     *
+     * @param out       脱敏结果输出
+     * @param delimiter 连接字符串的UTF-8编码
+     * @param count     maskStr个数
+     */
+    protected void appendMaskJoined(MaskByteSink out, byte[] delimiter, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            appendMask(out, 1);
+        }
+    }
+
+    @Override
+    protected void freeze() {
+        if (maskStr != null) {
+            maskRun = new MaskRun(maskStr, maskLength);
+        }
+        super.freeze();
+    }
+
+    /**
+     * 计算脱敏结果长度
+     *
+     * @param reserveLength 保留的字符个数
+     * @param maskCount     模糊字符串个数
+     * @param srcLength     源字符串长度，无法计算结果长度时返回该值
+     * @return 脱敏结果长度
+     */
+    protected int outputLength(long reserveLength, long maskCount, int srcLength) {
+        if (reserveLength < 0 || maskCount < 0 || maskStr == null) {
+            return srcLength;
+        }
+        long length = reserveLength + maskCount * maskStr.length();
+        return length > Integer.MAX_VALUE ? srcLength : (int) length;
+    }
+
 }
@@ -16,9 +16,15 @@
 
 package io.github.chyohn.mask.handler;
 
+import io.github.chyohn.mask.IMaskHandler;
 import io.github.chyohn.mask.IMaskSeparableHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import lombok.AccessLevel;
 import lombok.Getter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 带分隔符的脱敏处理器
  *
@@ -27,15 +33,45 @@ import lombok.Getter;
  */
 @Getter
 public abstract class AbstractMaskSeparableHandler<T extends AbstractMaskSeparableHandler<T>> implements
-    IMaskSeparableHandler<T> {
+    IMaskSeparableHandler<T>, Cloneable {
+
+    private static final byte[] NO_UTF8_DELIMITER = new byte[0];
 
     private String separator; // token分隔符
+    private String separatorRegex; // 正则表达式token分隔符，与separator只能二选一
     private int separateLimit; // 分隔token最大数量
     private String outputDelimiter; // 输出结果链接字符
+    @Getter(AccessLevel.NONE)
+    private transient boolean frozen; // 是否已编译为不可变处理器
+    @Getter(AccessLevel.NONE)
+    private transient MaskSeparator compiledSeparator; // 编译后的分隔符，分隔配置变更时置空
+    @Getter(AccessLevel.NONE)
+    private transient byte[] utf8Delimiter; // 输出连接字符串的UTF-8编码，分隔配置变更时置空
 
     @Override
     public T setSeparator(String separator) {
+        checkNotFrozen();
         this.separator = separator;
+        this.separatorRegex = null;
+        this.compiledSeparator = null;
+        this.utf8Delimiter = null;
+        return (T) this;
+    }
+
+    @Override
+    public T setSeparatorRegex(String separatorRegex) {
+        checkNotFrozen();
+        this.separatorRegex = separatorRegex;
+        this.separator = null;
+        this.compiledSeparator = null;
+        this.utf8Delimiter = null;
+        return (T) this;
+    }
+
+    @Override
+    public T setSeparatorRegex(String separatorRegex, int limit) {
+        this.setSeparatorRegex(separatorRegex);
+        this.setSeparateLimit(limit);
         return (T) this;
     }
 
@@ -48,48 +84,557 @@ public abstract class AbstractMaskSeparableHandler<T extends AbstractMaskSeparab
 
     @Override
     public T setSeparateLimit(int separateLimit) {
+        checkNotFrozen();
         this.separateLimit = separateLimit;
+        this.compiledSeparator = null;
         return (T) this;
     }
 
     @Override
     public T setOutputDelimiter(String outputDelimiter) {
+        checkNotFrozen();
         this.outputDelimiter = outputDelimiter;
+        this.utf8Delimiter = null;
         return (T) this;
     }
 
+    /**
+     * 复制当前处理器并冻结，见{@link #freeze()}
+     *
+     * @return 编译后的处理器，如果当前处理器已经编译过，则返回当前处理器
+     */
+    @Override
+    public T compile() {
+        if (frozen) {
+            return (T) this;
+        }
+        T copy;
+        try {
+            copy = (T) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.freeze();
+        return copy;
+    }
+
+    /**
+     * 复制当前处理器，复制结果没有冻结，可以修改配置。
+     * 子类需要在复制结果上清除只在编译后存在的数据，重写时需要调用super.copy()
+     *
+     * @return 与当前处理器类型相同的未冻结副本
+     */
+    protected T copy() {
+        T copy;
+        try {
+            copy = (T) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        ((AbstractMaskSeparableHandler<?>) copy).frozen = false;
+        return copy;
+    }
+
+    /**
+     * @return 当前处理器是否已编译为不可变处理器
+     */
+    protected final boolean frozen() {
+        return frozen;
+    }
+
+    /**
+     * 冻结当前处理器，冻结后不允许再修改配置。
+     * 子类可以在此编译子处理器，以及预先计算脱敏时需要的数据，重写时需要调用super.freeze()
+     */
+    protected void freeze() {
+        this.compiledSeparator = compileSeparator();
+        this.utf8Delimiter = compileUtf8Delimiter();
+        this.frozen = true;
+    }
+
+    /**
+     * 检查处理器是否可以修改配置，在修改配置的方法中调用
+     *
+     * @throws IllegalStateException 处理器已经编译为不可变处理器
+     */
+    protected final void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("脱敏处理器已编译为不可变对象，不允许修改配置：" + getClass().getName());
+        }
+    }
+
     @Override
     public final String handle(String src) {
-        if (separator == null) {
+        if (!hasSeparator()) {
             return doHandle(src);
         }
+        StringBuilder out = new StringBuilder(src.length());
+        handle(src, 0, src.length(), out);
+        return out.toString();
+    }
+
+    @Override
+    public final void handle(CharSequence src, int start, int end, StringBuilder out) {
+        MaskSeparator compiled = compiledSeparator;
+        if (compiled == null) {
+            compiled = compileSeparator();
+            if (compiled == null) {
+                doHandle(src, start, end, out);
+                return;
+            }
+            compiledSeparator = compiled;
+        }
+
+        doHandle(src, start, end, compiled, delimiter(), out);
+    }
+
+    /**
+     * <pre>
+     * 直接在UTF-8字节上脱敏，结果与解码后调用{@link #handle(String)}再编码的结果一致。
+     * 字节不是合法的UTF-8编码、使用正则表达式分隔符等无法在字节上处理的情况下，解码后按字符串脱敏
+     * </pre>
+     */
+    @Override
+    public final void handle(byte[] src, int off, int len, MaskByteSink out) {
+        if (off < 0 || len < 0 || off > src.length - len) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + src.length);
+        }
+        if (!MaskUtf8.isWellFormed(src, off, off + len)) {
+            handleDecoded(src, off, off + len, out);
+            return;
+        }
+        handleUtf8(src, off, off + len, out);
+    }
+
+    /**
+     * 对合法的UTF-8字节脱敏，不再检查编码
+     */
+    final void handleUtf8(byte[] src, int start, int end, MaskByteSink out) {
+        if (!supportsUtf8()) {
+            handleDecoded(src, start, end, out);
+            return;
+        }
+        MaskSeparator compiled = compiledSeparator;
+        if (compiled == null) {
+            compiled = compileSeparator();
+            if (compiled == null) {
+                doHandle(src, start, end, out);
+                return;
+            }
+            compiledSeparator = compiled;
+        }
+        byte[] delimiter = utf8Delimiter;
+        if (delimiter == null) {
+            delimiter = compileUtf8Delimiter();
+            utf8Delimiter = delimiter;
+        }
+        // 连接字符串为空时，相邻token的脱敏结果可能组成代理对，只能按字符串脱敏
+        if (!compiled.supportsUtf8() || delimiter.length == 0) {
+            handleDecoded(src, start, end, out);
+            return;
+        }
+        doHandle(src, start, end, compiled, delimiter, out);
+    }
+
+    /**
+     * 使用子处理器对合法的UTF-8字节脱敏，handler为null时不做脱敏处理。内置处理器不再重复检查编码
+     *
+     * @param handler 子处理器
+     * @param src     合法的UTF-8字节数组
+     * @param start   开始位置（包含）
+     * @param end     结束位置（不包含）
+     * @param out     脱敏结果输出
+     */
+    protected static void handleUtf8(IMaskHandler handler, byte[] src, int start, int end, MaskByteSink out) {
+        if (handler == null) {
+            out.write(src, start, end - start);
+        } else if (handler instanceof AbstractMaskSeparableHandler) {
+            ((AbstractMaskSeparableHandler<?>) handler).handleUtf8(src, start, end, out);
+        } else {
+            handler.handle(src, start, end - start, out);
+        }
+    }
+
+    /**
+     * 把UTF-8字节解码为字符串后脱敏，再把编码后的结果写入out，用于无法直接在字节上脱敏的情况
+     *
+     * @param src   UTF-8字节数组
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    protected final void handleDecoded(byte[] src, int start, int end, MaskByteSink out) {
+        out.write(handle(new String(src, start, end - start, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 原地脱敏，子类通过{@link #doMaskInPlace(char[], int, int)}实现
+     */
+    @Override
+    public final void maskInPlace(char[] buf, int off, int len) {
+        if (off < 0 || len < 0 || off > buf.length - len) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + buf.length);
+        }
+        if (!lengthPreserving()) {
+            throw new UnsupportedOperationException("脱敏前后长度不一致，不能原地脱敏：" + getClass().getName());
+        }
+        doMaskInPlace(buf, off, off + len);
+    }
+
+    /**
+     * 使用子处理器原地脱敏，handler为null时不做脱敏处理，只在子处理器{@link #lengthPreserving()}为true时调用
+     *
+     * @param handler 子处理器
+     * @param buf     字符缓冲区
+     * @param start   开始位置（包含）
+     * @param end     结束位置（不包含）
+     */
+    protected static void maskInPlace(IMaskHandler handler, char[] buf, int start, int end) {
+        if (handler instanceof AbstractMaskSeparableHandler) {
+            ((AbstractMaskSeparableHandler<?>) handler).doMaskInPlace(buf, start, end);
+        } else if (handler != null) {
+            handler.maskInPlace(buf, start, end - start);
+        }
+    }
+
+    /**
+     * 对buf中[start, end)区间的字符原地脱敏，只在{@link #lengthPreserving()}为true时调用。
+     * 默认先创建字符串，再把{@link #handle(String)}的结果复制回buf
+     *
+     * @param buf   字符缓冲区
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     */
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        String result = handle(new String(buf, start, end - start));
+        if (result.length() != end - start) {
+            throw new IllegalStateException("脱敏前后长度不一致，不能原地脱敏：" + getClass().getName());
+        }
+        result.getChars(0, result.length(), buf, start);
+    }
+
+    /**
+     * <pre>
+     * 原地脱敏，只读的buffer、不合法的UTF-8编码以及{@link #lengthPreserving()}为false时返回false。
+     * 子类通过{@link #doMaskInPlace(ByteBuffer, int, int)}实现
+     * </pre>
+     */
+    @Override
+    public final boolean maskInPlace(ByteBuffer buffer) {
+        if (buffer.isReadOnly()) {
+            return false;
+        }
+        int start = buffer.position();
+        int end = buffer.limit();
+        return MaskUtf8.isWellFormed(buffer, start, end) && maskInPlace(this, buffer, start, end);
+    }
+
+    /**
+     * 使用子处理器对合法的UTF-8内容原地脱敏，handler为null时不做脱敏处理。内置处理器不再重复检查编码
+     *
+     * @param handler 子处理器
+     * @param buffer  可写的buffer，[start, end)区间为position和limit之间的全部内容
+     * @param start   开始位置（包含）
+     * @param end     结束位置（不包含）
+     * @return true: 已原地脱敏；false: 不能原地脱敏，buffer没有被修改
+     */
+    protected static boolean maskInPlace(IMaskHandler handler, ByteBuffer buffer, int start, int end) {
+        if (handler == null) {
+            return true;
+        }
+        if (handler instanceof AbstractMaskSeparableHandler) {
+            return handler.lengthPreserving()
+                && ((AbstractMaskSeparableHandler<?>) handler).doMaskInPlace(buffer, start, end);
+        }
+        return handler.maskInPlace(buffer);
+    }
+
+    /**
+     * 对合法的UTF-8内容原地脱敏，只在{@link #lengthPreserving()}为true时调用。
+     * 需要先检查脱敏结果的字节数是否与原内容相同，不同时不能修改buffer，直接返回false。默认返回false
+     *
+     * @param buffer 可写的buffer
+     * @param start  开始位置（包含）
+     * @param end    结束位置（不包含）
+     * @return true: 已原地脱敏；false: 不能原地脱敏，buffer没有被修改
+     */
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        return false;
+    }
+
+    /**
+     * 是否可以直接在UTF-8字节上脱敏，返回false时解码后按字符串脱敏。子类的配置无法在字节上处理时应该重写该方法
+     *
+     * @return true: 可以在字节上脱敏
+     */
+    protected boolean supportsUtf8() {
+        return true;
+    }
+
+    /**
+     * @return 编译后的分隔符，没有配置分隔符时为null，只能在编译后的处理器上调用，见{@link MaskHandlerGenerator}
+     */
+    final MaskSeparator compiledSeparator() {
+        return compiledSeparator;
+    }
+
+    /**
+     * 未指定输出连接字符时使用分隔符，不回写outputDelimiter，脱敏过程不修改处理器的状态
+     */
+    final String delimiter() {
+        String delimiter = outputDelimiter;
+        if (delimiter == null) {
+            delimiter = separator != null ? separator : separatorRegex;
+        }
+        return delimiter;
+    }
+
+    private byte[] compileUtf8Delimiter() {
+        byte[] delimiter = MaskUtf8.encode(delimiter());
+        return delimiter == null ? NO_UTF8_DELIMITER : delimiter;
+    }
+
+    /**
+     * 批量脱敏，整个批次复用同一个输出缓冲区
+     *
+     * @param src  待脱敏的字符串数组
+     * @param out  脱敏结果数组
+     * @param from 开始下标（包含）
+     * @param to   结束下标（不包含）
+     */
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        MaskRanges.check(src, out, from, to);
+        StringBuilder buffer = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            String value = src[i];
+            out[i] = value == null ? null : handleWithBuffer(value, buffer);
+        }
+    }
+
+    /**
+     * 批量脱敏时对单个字符串做脱敏，buffer在整个批次中复用
+     *
+     * @param src    待脱敏的字符串
+     * @param buffer 可复用的输出缓冲区，使用前需要清空
+     * @return 脱敏结果
+     */
+    protected String handleWithBuffer(String src, StringBuilder buffer) {
+        buffer.setLength(0);
+        handle(src, 0, src.length(), buffer);
+        return buffer.toString();
+    }
+
+    /**
+     * @return 是否配置了分隔符
+     */
+    protected final boolean hasSeparator() {
+        return separator != null || separatorRegex != null;
+    }
+
+    private MaskSeparator compileSeparator() {
+        if (separator != null) {
+            return MaskSeparator.literal(separator, separateLimit);
+        }
+        if (separatorRegex != null) {
+            return MaskSeparator.regex(separatorRegex, separateLimit);
+        }
+        return null;
+    }
+
+    /**
+     * 计算没有分隔符时脱敏结果的长度，用于预先分配输出缓冲区的大小。
+     * 默认返回源字符串长度，能够准确计算结果长度的子类应该重写该方法
+     *
+     * @param srcLength 源字符串长度
+     * @return 脱敏结果的长度
+     */
+    protected int outputLength(int srcLength) {
+        return srcLength;
+    }
+
+    /**
+     * 脱敏没有分隔的字符串，并把结果写入out。
+     * 默认调用{@link #doHandle(String)}，子类可以重写该方法直接把结果写入out，避免产生中间字符串。
+     * 子类至少需要重写该方法与{@link #doHandle(String)}中的一个
+     *
+     * @param src   源字符串
+     * @param start 待脱敏部分在src中的开始位置（包含）
+     * @param end   待脱敏部分在src中的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        out.append(doHandle(src.subSequence(start, end).toString()));
+    }
 
-        String[] tokens = separate(src);
-        String[] maskedStrs = doHandle(src, tokens);
-        if (outputDelimiter == null) {
-            outputDelimiter = separator;
+    /**
+     * 对没有分隔的UTF-8字节脱敏，并把结果写入out。默认解码为字符串后脱敏，子类可以重写该方法直接在字节上脱敏
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 待脱敏部分的开始位置（包含）
+     * @param end   待脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        doHandleDecoded(src, start, end, out);
+    }
+
+    /**
+     * 把没有分隔的UTF-8字节解码为字符串后调用{@link #doHandle(String)}，再把编码后的结果写入out，用于无法直接在字节上脱敏的情况
+     *
+     * @param src   UTF-8字节数组
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    protected final void doHandleDecoded(byte[] src, int start, int end, MaskByteSink out) {
+        out.write(doHandle(new String(src, start, end - start, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 在字节上分隔UTF-8编码的src中[start, end)区间的内容，对分隔结果做脱敏，并把结果使用delimiter连接后写入out。
+     * 默认先分隔，再调用{@link #doHandle(MaskTokens, byte[], MaskByteSink)}
+     *
+     * @param src       合法的UTF-8字节数组
+     * @param start     待脱敏部分的开始位置（包含）
+     * @param end       待脱敏部分的结束位置（不包含）
+     * @param separator 可以在字节上分隔的分隔符
+     * @param delimiter 输出内容的连接字符串的UTF-8编码
+     * @param out       脱敏结果输出
+     */
+    protected void doHandle(byte[] src, int start, int end, MaskSeparator separator, byte[] delimiter,
+        MaskByteSink out) {
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            doHandle(tokens, delimiter, out);
         }
-        return String.join(outputDelimiter, maskedStrs);
     }
 
-    private String[] separate(String src) {
-        String regex = this.separator;
-        if (regex.length() == 1 && ".$|()[{^?*+\\".indexOf(regex) == 0) {
-            regex = new StringBuilder("\\").append(regex).toString();
+    /**
+     * 对在字节上分隔的token做脱敏，并把结果使用delimiter连接后写入out。默认把整个区间解码为字符串后脱敏
+     *
+     * @param tokens    分隔结果，token的位置为字节位置
+     * @param delimiter 输出内容的连接字符串的UTF-8编码
+     * @param out       脱敏结果输出
+     */
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        handleDecoded(tokens.bytes(), tokens.regionStart(), tokens.regionEnd(), out);
+    }
+
+    /**
+     * 把在字节上分隔的token使用delimiter连接后写入out
+     *
+     * @param out       输出
+     * @param delimiter 连接字符串的UTF-8编码
+     * @param tokens    分隔结果
+     * @param from      开始的token下标（包含）
+     * @param to        结束的token下标（不包含）
+     */
+    protected static void appendJoined(MaskByteSink out, byte[] delimiter, MaskTokens tokens, int from, int to) {
+        byte[] src = tokens.bytes();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.write(delimiter);
+            }
+            out.write(src, tokens.start(i), tokens.end(i) - tokens.start(i));
         }
-        if (separateLimit > 0) {
-            return src.split(regex, separateLimit);
+    }
+
+    /**
+     * 分隔src中[start, end)区间的字符串，对分隔结果做脱敏，并把结果使用delimiter连接后写入out。
+     * 默认先分隔字符串，再调用{@link #doHandle(MaskTokens, String, StringBuilder)}，
+     * 不需要逐个处理token的子类可以重写该方法，比如只需要token个数时使用{@link MaskSeparator#count(CharSequence, int, int)}
+     *
+     * @param src       源字符串
+     * @param start     待脱敏部分在src中的开始位置（包含）
+     * @param end       待脱敏部分在src中的结束位置（不包含）
+     * @param separator 分隔符
+     * @param delimiter 输出内容的连接字符串
+     * @param out       脱敏结果输出
+     */
+    protected void doHandle(CharSequence src, int start, int end, MaskSeparator separator, String delimiter,
+        StringBuilder out) {
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            doHandle(tokens, delimiter, out);
         }
-        return src.split(regex);
     }
 
     /**
-     * 脱敏没有分隔的字符串
+     * 对分隔后的token做脱敏，并把结果使用delimiter连接后写入out。
+     * 默认调用{@link #doHandle(String, String[])}，子类可以重写该方法直接把结果写入out，避免产生中间字符串和数组
+     *
+     * @param tokens    分隔结果
+     * @param delimiter 输出内容的连接字符串
+     * @param out       脱敏结果输出
+     */
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        String originalSrc = tokens.source().subSequence(tokens.regionStart(), tokens.regionEnd()).toString();
+        appendJoined(out, delimiter, doHandle(originalSrc, tokens.toArray()));
+    }
+
+    /**
+     * 把字符串数组使用delimiter连接后写入out，与{@link String#join(CharSequence, CharSequence...)}的结果一致
+     *
+     * @param out       输出
+     * @param delimiter 连接字符串
+     * @param strs      字符串数组
+     */
+    protected static void appendJoined(StringBuilder out, String delimiter, String[] strs) {
+        for (int i = 0; i < strs.length; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            out.append(strs[i]);
+        }
+    }
+
+    /**
+     * 把分隔后的token使用delimiter连接后写入out
+     *
+     * @param out       输出
+     * @param delimiter 连接字符串
+     * @param tokens    分隔结果
+     * @param from      开始的token下标（包含）
+     * @param to        结束的token下标（不包含）
+     */
+    protected static void appendJoined(StringBuilder out, String delimiter, MaskTokens tokens, int from, int to) {
+        CharSequence src = tokens.source();
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                out.append(delimiter);
+            }
+            out.append(src, tokens.start(i), tokens.end(i));
+        }
+    }
+
+    /**
+     * 把count个str使用delimiter连接后写入out
+     *
+     * @param out       输出
+     * @param str       重复的字符串
+     * @param delimiter 连接字符串
+     * @param count     重复次数
+     */
+    protected static void appendJoined(StringBuilder out, String str, String delimiter, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            out.append(str);
+        }
+    }
+
+    /**
+     * 脱敏没有分隔的字符串。
+     * 默认调用{@link #doHandle(CharSequence, int, int, StringBuilder)}，子类至少需要重写该方法与其中的一个
      *
      * @param src 源字符串
      * @return 返回脱敏后的字符串
      */
-    protected abstract String doHandle(String src);
+    protected String doHandle(String src) {
+        StringBuilder out = new StringBuilder(outputLength(src.length()));
+        doHandle(src, 0, src.length(), out);
+        return out.toString();
+    }
 
     /**
      * 对分隔后的字符串数组做脱敏
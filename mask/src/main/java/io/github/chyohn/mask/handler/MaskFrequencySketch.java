@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+/**
+ * <pre>
+ * 估算字符串访问频率的Count-Min Sketch，每个计数器占4位，最大值为15。
+ * 1. 每个字符串对应{@value #DEPTH}个计数器，频率取其中的最小值
+ * 2. 累计访问次数达到采样数后所有计数器减半，使频率能够反映最近的访问情况
+ * 3. 多线程同时更新时不加锁，可能丢失少量计数，只影响估算的精度
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskFrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final long[] SEEDS = {0x9E3779B97F4A7C15L, 0xC2B2AE3D27D4EB4FL, 0x165667B19E3779F9L, 0xD6E8FEB86659FD93L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table; // 每个long保存16个计数器
+    private final int counterMask;
+    private final int sampleSize;
+    private int additions; // 自上次减半后的访问次数，不需要精确
+
+    /**
+     * @param maximumSize 缓存的最大条目数，计数器个数为不小于maximumSize的2的幂，最少64个
+     */
+    MaskFrequencySketch(int maximumSize) {
+        int counters = Integer.highestOneBit(Math.max(64, Math.min(maximumSize, 1 << 26) - 1) << 1);
+        this.table = new long[counters >>> 4];
+        this.counterMask = counters - 1;
+        this.sampleSize = counters * 10;
+    }
+
+    /**
+     * @param hash 字符串的hash值
+     * @return 估算的访问频率，0到15
+     */
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            int counter = indexOf(hash, i);
+            frequency = Math.min(frequency, (int) ((table[counter >>> 4] >>> ((counter & 15) << 2)) & 15L));
+        }
+        return frequency;
+    }
+
+    /**
+     * 记录一次访问
+     *
+     * @param hash 字符串的hash值
+     */
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int counter = indexOf(hash, i);
+            int index = counter >>> 4;
+            int shift = (counter & 15) << 2;
+            long word = table[index];
+            if (((word >>> shift) & 15L) != 15L) {
+                table[index] = word + (1L << shift);
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions = sampleSize >>> 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= h >>> 32;
+        return (int) h & counterMask;
+    }
+}
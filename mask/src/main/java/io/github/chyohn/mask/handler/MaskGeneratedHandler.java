@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.MaskByteSink;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * 使用生成的脱敏计划对字符串脱敏的处理器，由{@link MaskHandlerGenerator#generate(IMaskHandler)}创建。
+ * 1. 对字符串脱敏时执行生成的计划，结果与被包装的处理器一致
+ * 2. 对UTF-8字节脱敏、原地脱敏等其他方法由被包装的处理器执行
+ * 3. 计划和被包装的处理器都保存在final字段中，可以在多个线程之间共享。
+ *    计划是实例字段，JIT不会把它当作常量内联，见{@link MaskHandlerGenerator}
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskGeneratedHandler implements IMaskHandlerWrapper {
+
+    private final IMaskHandler handler; // 编译后的处理器，用于输出配置以及执行计划之外的方法
+    private final MethodHandle plan; // 脱敏计划，类型为(CharSequence, int, int, StringBuilder)void
+
+    MaskGeneratedHandler(IMaskHandler handler, MethodHandle plan) {
+        this.handler = handler;
+        this.plan = plan;
+    }
+
+    @Override
+    public String handle(String src) {
+        StringBuilder out = new StringBuilder(src.length());
+        handle(src, 0, src.length(), out);
+        return out.toString();
+    }
+
+    @Override
+    public void handle(CharSequence src, int start, int end, StringBuilder out) {
+        try {
+            plan.invokeExact(src, start, end, out);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    @Override
+    public void handle(byte[] src, int off, int len, MaskByteSink out) {
+        handler.handle(src, off, len, out);
+    }
+
+    @Override
+    public boolean lengthPreserving() {
+        return handler.lengthPreserving();
+    }
+
+    @Override
+    public void maskInPlace(char[] buf, int off, int len) {
+        handler.maskInPlace(buf, off, len);
+    }
+
+    @Override
+    public boolean maskInPlace(ByteBuffer buffer) {
+        return handler.maskInPlace(buffer);
+    }
+
+    /**
+     * 批量脱敏，整个批次复用同一个输出缓冲区
+     */
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        MaskRanges.check(src, out, from, to);
+        StringBuilder buffer = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            String value = src[i];
+            if (value == null) {
+                out[i] = null;
+                continue;
+            }
+            buffer.setLength(0);
+            handle(value, 0, value.length(), buffer);
+            out[i] = buffer.toString();
+        }
+    }
+
+    /**
+     * @return 当前处理器，已经是不可变的
+     */
+    @Override
+    public IMaskHandler compile() {
+        return this;
+    }
+
+    /**
+     * @return 被包装的编译后的处理器
+     */
+    @Override
+    public IMaskHandler unwrap() {
+        return handler;
+    }
+}
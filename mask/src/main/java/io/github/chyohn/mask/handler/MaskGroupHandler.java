@@ -18,12 +18,16 @@ package io.github.chyohn.mask.handler;
 
 import io.github.chyohn.mask.IMaskGroupHandler;
 import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskByteSink;
+import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  * 脱敏处理方式组合器：可以组合和嵌套多种处理方式
@@ -32,7 +36,6 @@ import lombok.Setter;
  * @since 1.0.0
  */
 @Getter
-@Setter
 @NoArgsConstructor
 public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHandler> implements
         IMaskGroupHandler<MaskGroupHandler> {
@@ -52,10 +55,21 @@ public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHand
      */
     private IMaskHandler defaultHandler;
 
+    /**
+     * 由{@link #handlersOfSize}编译的查找表，只在编译后的处理器上存在，未编译时直接查找{@link #handlersOfSize}
+     */
+    @Getter(AccessLevel.NONE)
+    private transient MaskSizeTable<IMaskHandler[]> sizeTable;
+
     public MaskGroupHandler(String separator) {
         this.setSeparator(separator);
     }
 
+    public void setHandlersOfSize(Map<Integer, IMaskHandler[]> handlersOfSize) {
+        checkNotFrozen();
+        this.handlersOfSize = handlersOfSize;
+    }
+
     /**
      * <pre>
      * 添加处理器列表
@@ -85,6 +99,7 @@ public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHand
      */
     @Override
     public MaskGroupHandler addHandler(int size, IMaskHandler... handlers) {
+        checkNotFrozen();
         handlersOfSize.put(size, handlers);
         return this;
     }
@@ -97,6 +112,7 @@ public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHand
      */
     @Override
     public MaskGroupHandler setDefaultHandler(IMaskHandler defaultHandler) {
+        checkNotFrozen();
         this.defaultHandler = defaultHandler;
         return this;
     }
@@ -115,17 +131,126 @@ public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHand
      * @return  返回匹配长度的处理器列表
      */
     private IMaskHandler[] getMatchHandlers(int size) {
-        Integer[] sizes = handlersOfSize.keySet().stream().sorted().toArray(Integer[]::new);
+        MaskSizeTable<IMaskHandler[]> table = sizeTable;
+        if (table == null) {
+            return MaskSizeTable.floor(handlersOfSize, size, null);
+        }
+        return table.floor(size);
+    }
+
+    /**
+     * 获取各规格的处理器列表。未编译时返回当前使用的映射，对它的修改会影响脱敏结果；
+     * 编译后返回只读的副本，其中的处理器数组也是副本，修改它们不会影响编译后的处理器
+     *
+     * @return 规格与处理器列表的映射
+     */
+    public Map<Integer, IMaskHandler[]> getHandlersOfSize() {
+        if (sizeTable == null) {
+            return handlersOfSize;
+        }
+        Map<Integer, IMaskHandler[]> copy = new HashMap<>();
+        for (Map.Entry<Integer, IMaskHandler[]> entry : handlersOfSize.entrySet()) {
+            IMaskHandler[] handlers = entry.getValue();
+            copy.put(entry.getKey(), handlers == null ? null : handlers.clone());
+        }
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * <pre>
+     * 复制当前处理器，并使用mapper替换每个子处理器，复制结果保持当前处理器的实际类型和分隔配置。
+     * mapper的第一个参数是子处理器的位置："[规格][下标]"或者".default"，返回替换后的子处理器。
+     * 当前处理器已编译时，复制结果也会编译
+     * </pre>
+     *
+     * @param mapper 子处理器替换函数
+     * @return 替换了子处理器的副本
+     */
+    public MaskGroupHandler mapHandlers(BiFunction<String, IMaskHandler, IMaskHandler> mapper) {
+        MaskGroupHandler copy = copy();
+        if (handlersOfSize != null) {
+            Map<Integer, IMaskHandler[]> mapped = new HashMap<>();
+            for (Map.Entry<Integer, IMaskHandler[]> entry : handlersOfSize.entrySet()) {
+                IMaskHandler[] handlers = entry.getValue();
+                if (handlers != null) {
+                    handlers = handlers.clone();
+                    for (int i = 0; i < handlers.length; i++) {
+                        if (handlers[i] != null) {
+                            handlers[i] = mapper.apply("[" + entry.getKey() + "][" + i + "]", handlers[i]);
+                        }
+                    }
+                }
+                mapped.put(entry.getKey(), handlers);
+            }
+            copy.handlersOfSize = mapped;
+        }
+        copy.defaultHandler = defaultHandler == null ? null : mapper.apply(".default", defaultHandler);
+        if (frozen()) {
+            copy.freeze();
+        }
+        return copy;
+    }
+
+    @Override
+    protected MaskGroupHandler copy() {
+        MaskGroupHandler copy = super.copy();
+        copy.sizeTable = null;
+        return copy;
+    }
+
+    /**
+     * 编译所有子处理器，并预先编译长度查找表
+     */
+    @Override
+    protected void freeze() {
+        Map<Integer, IMaskHandler[]> compiled = new HashMap<>();
+        for (Map.Entry<Integer, IMaskHandler[]> entry : handlersOfSize.entrySet()) {
+            compiled.put(entry.getKey(), compile(entry.getValue()));
+        }
+        handlersOfSize = Collections.unmodifiableMap(compiled);
+        defaultHandler = defaultHandler == null ? null : defaultHandler.compile();
+        sizeTable = MaskSizeTable.of(handlersOfSize, null);
+        super.freeze();
+    }
 
-        for (int i = sizes.length - 1; i >= 0; i--) {
-            if (sizes[i] <= size) {
-                return handlersOfSize.get(sizes[i]);
+    private static IMaskHandler[] compile(IMaskHandler[] handlers) {
+        if (handlers == null) {
+            return null;
+        }
+        IMaskHandler[] compiled = handlers.clone();
+        for (int i = 0; i < compiled.length; i++) {
+            if (compiled[i] != null) {
+                compiled[i] = compiled[i].compile();
             }
         }
-        return null;
+        return compiled;
     }
 
 
+    /**
+     * 批量脱敏，没有分隔符时只查找一次处理器，整个批次交给该处理器批量处理
+     *
+     * @param src  待脱敏的字符串数组
+     * @param out  脱敏结果数组
+     * @param from 开始下标（包含）
+     * @param to   结束下标（不包含）
+     */
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        if (!hasSeparator()) {
+            IMaskHandler[] handlers = getMatchHandlers(1);
+            IMaskHandler handler = handlers != null && handlers.length > 0 ? handlers[0] : defaultHandler;
+            if (handler != null) {
+                handler.handleAll(src, out, from, to);
+                return;
+            }
+        }
+        super.handleAll(src, out, from, to);
+    }
+
+    /**
+     * 没有分隔符时直接调用子处理器的{@link IMaskHandler#handle(String)}，子处理器可以使用其针对整个字符串的实现
+     */
     @Override
     protected String doHandle(String src) {
         IMaskHandler[] handlers = getMatchHandlers(1);
@@ -135,6 +260,95 @@ public class MaskGroupHandler extends AbstractMaskSeparableHandler<MaskGroupHand
         return defaultHandler == null ? src : defaultHandler.handle(src);
     }
 
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        IMaskHandler[] handlers = getMatchHandlers(1);
+        if (handlers != null && handlers.length > 0) {
+            handlers[0].handle(src, start, end, out);
+            return;
+        }
+        handle(defaultHandler, src, start, end, out);
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        int size = tokens.size();
+        IMaskHandler[] handlers = getMatchHandlers(size);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            IMaskHandler handler = handlers != null && handlers.length > i && handlers[i] != null
+                ? handlers[i] : defaultHandler;
+            handle(handler, tokens.source(), tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        IMaskHandler[] handlers = getMatchHandlers(1);
+        if (handlers != null && handlers.length > 0) {
+            handleUtf8(handlers[0], src, start, end, out);
+            return;
+        }
+        handleUtf8(defaultHandler, src, start, end, out);
+    }
+
+    /**
+     * @return 没有分隔符，并且整体使用的处理器脱敏前后长度一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        if (hasSeparator()) {
+            return false;
+        }
+        IMaskHandler handler = wholeHandler();
+        return handler == null || handler.lengthPreserving();
+    }
+
+    @Override
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        maskInPlace(wholeHandler(), buf, start, end);
+    }
+
+    @Override
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        return maskInPlace(wholeHandler(), buffer, start, end);
+    }
+
+    /**
+     * @return 没有分隔符时对整个字符串脱敏的处理器
+     */
+    private IMaskHandler wholeHandler() {
+        IMaskHandler[] handlers = getMatchHandlers(1);
+        return handlers != null && handlers.length > 0 ? handlers[0] : defaultHandler;
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        int size = tokens.size();
+        IMaskHandler[] handlers = getMatchHandlers(size);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            IMaskHandler handler = handlers != null && handlers.length > i && handlers[i] != null
+                ? handlers[i] : defaultHandler;
+            handleUtf8(handler, tokens.bytes(), tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    /**
+     * 使用handler脱敏，如果handler为null，则不做脱敏处理
+     */
+    private static void handle(IMaskHandler handler, CharSequence src, int start, int end, StringBuilder out) {
+        if (handler == null) {
+            out.append(src, start, end);
+        } else {
+            handler.handle(src, start, end, out);
+        }
+    }
+
     @Override
     protected String[] doHandle(String originalSrc, String[] separatedStrs) {
         String[] result = new String[separatedStrs.length];
@@ -0,0 +1,373 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.IMaskHandler;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * 把编译后的处理器树生成为由{@link MethodHandle}组合而成的脱敏计划，见{@link io.github.chyohn.mask.MaskHandlerFactory#generate(IMaskHandler)}。
+ * 解释执行时，组合处理器通过{@link IMaskHandler#handle(CharSequence, int, int, StringBuilder)}调用子处理器，
+ * 嵌套的处理器在同一个调用点上是多态的，JIT无法跨层内联。生成的计划中：
+ * 1. 分隔符、连接字符串、长度等配置通过{@link MethodHandles#insertArguments}绑定到方法句柄中，
+ *    没有分隔符的{@link AbstractMaskItemHandler}直接绑定其自身的脱敏方法，模糊字符串等配置仍由处理器读取
+ * 2. 按长度选择处理器编译为二分比较的条件分支，分组处理器按token下标展开为顺序调用
+ * 3. 没有分隔符的分组处理器直接使用子处理器的计划，不再经过中间层
+ * 计划保存在{@link MaskGeneratedHandler}的实例字段中，JIT不会把它当作常量，既不能跨过invokeExact内联整个计划，
+ * 也不会对绑定的配置做常量折叠。生成的计划只是省去了组合处理器逐层的分隔符判断和接口调用，
+ * 性能与{@link IMaskHandler#compile()}的结果接近，是否使用应以实际的基准测试为准。
+ *
+ * 以下处理器仍然调用其自身的handle方法（解释执行），生成结果与解释执行一致：
+ * 1. 内置处理器之外的处理器，包括自定义处理器、分组和按长度选择处理器的子类、缓存和统计处理器等
+ * 2. 配置了分隔符的{@link AbstractMaskItemHandler}，按token数组脱敏的逻辑保留在处理器中
+ * 最外层不是{@link MaskGroupHandler}或{@link MaskHandlerWithSizeSelector}时不生成计划，直接使用编译后的处理器
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public final class MaskHandlerGenerator {
+
+    private static final int MAX_UNROLLED_TOKENS = 16; // 分组处理器展开调用的最大子处理器个数
+
+    // 脱敏计划的类型：(src, start, end, out)void
+    private static final MethodType PLAN_TYPE = MethodType.methodType(void.class, CharSequence.class, int.class,
+        int.class, StringBuilder.class);
+    // 分隔后token的脱敏计划的类型：(tokens, out)void
+    private static final MethodType TOKENS_TYPE = MethodType.methodType(void.class, MaskTokens.class,
+        StringBuilder.class);
+
+    private static final MethodHandle HANDLE;
+    private static final MethodHandle COPY;
+    private static final MethodHandle ITEM;
+    private static final MethodHandle SPLIT;
+    private static final MethodHandle JOIN_TOKENS;
+    private static final MethodHandle APPLY_TOKENS;
+    private static final MethodHandle APPLY_DEFAULT;
+    private static final MethodHandle SKIP_TOKENS;
+    private static final MethodHandle AT_LEAST;
+    private static final MethodHandle LENGTH;
+    private static final MethodHandle COUNT;
+    private static final MethodHandle TOKEN_COUNT;
+    private static final MethodHandle TOKEN_SOURCE;
+    private static final MethodHandle TOKEN_START;
+    private static final MethodHandle TOKEN_END;
+    private static final MethodHandle APPEND_STRING;
+
+    static {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            HANDLE = lookup.findVirtual(IMaskHandler.class, "handle", PLAN_TYPE);
+            COPY = lookup.findStatic(MaskHandlerGenerator.class, "copy", PLAN_TYPE);
+            ITEM = lookup.findVirtual(AbstractMaskSeparableHandler.class, "doHandle", PLAN_TYPE);
+            SPLIT = lookup.findStatic(MaskHandlerGenerator.class, "split",
+                PLAN_TYPE.insertParameterTypes(0, MaskSeparator.class, MethodHandle.class));
+            JOIN_TOKENS = lookup.findStatic(MaskHandlerGenerator.class, "joinTokens",
+                PLAN_TYPE.insertParameterTypes(0, MaskSeparator.class, String.class));
+            APPLY_TOKENS = lookup.findStatic(MaskHandlerGenerator.class, "applyTokens",
+                TOKENS_TYPE.insertParameterTypes(0, MethodHandle[].class, MethodHandle.class, String.class));
+            APPLY_DEFAULT = lookup.findStatic(MaskHandlerGenerator.class, "applyDefault",
+                TOKENS_TYPE.insertParameterTypes(0, int.class, MethodHandle.class, String.class));
+            SKIP_TOKENS = lookup.findStatic(MaskHandlerGenerator.class, "skipTokens", TOKENS_TYPE);
+            AT_LEAST = lookup.findStatic(MaskHandlerGenerator.class, "atLeast",
+                MethodType.methodType(boolean.class, int.class, int.class));
+            LENGTH = lookup.findStatic(MaskHandlerGenerator.class, "length",
+                MethodType.methodType(int.class, CharSequence.class, int.class, int.class));
+            COUNT = lookup.findVirtual(MaskSeparator.class, "count",
+                MethodType.methodType(int.class, CharSequence.class, int.class, int.class));
+            TOKEN_COUNT = lookup.findVirtual(MaskTokens.class, "size", MethodType.methodType(int.class));
+            TOKEN_SOURCE = lookup.findVirtual(MaskTokens.class, "source", MethodType.methodType(CharSequence.class));
+            TOKEN_START = lookup.findVirtual(MaskTokens.class, "start", MethodType.methodType(int.class, int.class));
+            TOKEN_END = lookup.findVirtual(MaskTokens.class, "end", MethodType.methodType(int.class, int.class));
+            APPEND_STRING = lookup.findVirtual(StringBuilder.class, "append",
+                MethodType.methodType(StringBuilder.class, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * 编译处理器并生成脱敏计划
+     *
+     * @param handler 脱敏处理器
+     * @return 生成的处理器；handler不是组合处理器、整个处理器只能解释执行或者生成失败时，返回handler编译后的处理器
+     */
+    public static IMaskHandler generate(IMaskHandler handler) {
+        Objects.requireNonNull(handler, "handler不能为null");
+        IMaskHandler compiled = handler.compile();
+        Class<?> type = compiled.getClass();
+        if (type != MaskGroupHandler.class && type != MaskHandlerWithSizeSelector.class) {
+            // 单个处理器没有可以消除的中间层，执行计划反而多一次方法句柄调用
+            return compiled;
+        }
+        MethodHandle plan;
+        try {
+            plan = new Planner().plan(compiled);
+        } catch (RuntimeException e) {
+            // 方法句柄组合失败时，使用解释执行的处理器
+            return compiled;
+        }
+        return plan == null ? compiled : new MaskGeneratedHandler(compiled, plan);
+    }
+
+    /**
+     * 生成一棵处理器树的脱敏计划，同一个处理器实例只生成一次
+     */
+    private static final class Planner {
+
+        private final Map<IMaskHandler, MethodHandle> plans = new IdentityHashMap<>();
+
+        /**
+         * @return 处理器的脱敏计划，只能解释执行时返回null
+         */
+        MethodHandle plan(IMaskHandler handler) {
+            MethodHandle plan = plans.get(handler);
+            if (plan == null && !plans.containsKey(handler)) {
+                plan = doPlan(handler);
+                plans.put(handler, plan);
+            }
+            return plan;
+        }
+
+        private MethodHandle doPlan(IMaskHandler handler) {
+            Class<?> type = handler.getClass();
+            if (type == MaskIgnore.class) {
+                return COPY;
+            }
+            if (type == MaskGroupHandler.class) {
+                return planGroup((MaskGroupHandler) handler);
+            }
+            if (type == MaskHandlerWithSizeSelector.class) {
+                return planSizeSelector((MaskHandlerWithSizeSelector) handler);
+            }
+            if (handler instanceof AbstractMaskItemHandler && !((AbstractMaskItemHandler<?>) handler).hasSeparator()) {
+                // 与解释执行调用同一个方法，只是跳过了分隔符判断等中间层
+                return ITEM.bindTo(handler);
+            }
+            return null;
+        }
+
+        private MethodHandle planGroup(MaskGroupHandler group) {
+            Map<Integer, IMaskHandler[]> handlersOfSize = group.getHandlersOfSize();
+            IMaskHandler defaultHandler = group.getDefaultHandler();
+            MaskSeparator separator = group.compiledSeparator();
+            if (separator == null) {
+                IMaskHandler[] handlers = MaskSizeTable.of(handlersOfSize, null).floor(1);
+                if (handlers != null && handlers.length > 0) {
+                    // handlers[0]为null时解释执行会抛出NullPointerException，保持一致
+                    return handlers[0] == null ? null : planOrInterpret(handlers[0]);
+                }
+                return planOrCopy(defaultHandler);
+            }
+
+            MethodHandle fallback = planOrCopy(defaultHandler);
+            String delimiter = group.delimiter();
+            int[] sizes = sortedSizes(handlersOfSize);
+            MethodHandle[] branches = new MethodHandle[sizes.length];
+            for (int i = 0; i < sizes.length; i++) {
+                branches[i] = MethodHandles.dropArguments(
+                    planTokens(handlersOfSize.get(sizes[i]), sizes[i], fallback, delimiter), 0, int.class);
+            }
+            MethodHandle absent = MethodHandles.dropArguments(tokensTail(0, fallback, delimiter), 0, int.class);
+            MethodHandle tokensPlan = MethodHandles.foldArguments(select(sizes, branches, absent), TOKEN_COUNT);
+            return MethodHandles.insertArguments(SPLIT, 0, separator, tokensPlan);
+        }
+
+        /**
+         * 生成分组处理器中token个数不小于size时的脱敏计划，前handlers.length个token按下标展开调用
+         */
+        private MethodHandle planTokens(IMaskHandler[] handlers, int size, MethodHandle fallback, String delimiter) {
+            if (handlers == null) {
+                return tokensTail(0, fallback, delimiter);
+            }
+            MethodHandle[] plans = new MethodHandle[handlers.length];
+            for (int i = 0; i < handlers.length; i++) {
+                plans[i] = handlers[i] == null ? fallback : planOrInterpret(handlers[i]);
+            }
+            if (plans.length > MAX_UNROLLED_TOKENS) {
+                return MethodHandles.insertArguments(APPLY_TOKENS, 0, plans, fallback, delimiter);
+            }
+
+            MethodHandle plan = tokensTail(plans.length, fallback, delimiter);
+            for (int i = plans.length - 1; i >= 0; i--) {
+                MethodHandle step = tokenStep(i, plans[i], delimiter);
+                if (i >= size) {
+                    // 选中该分支时token个数不小于size，只有下标不小于size的token可能不存在
+                    MethodHandle test = MethodHandles.dropArguments(MethodHandles.filterReturnValue(TOKEN_COUNT,
+                        MethodHandles.insertArguments(AT_LEAST, 1, i + 1)), 1, StringBuilder.class);
+                    step = MethodHandles.guardWithTest(test, step, SKIP_TOKENS);
+                }
+                plan = MethodHandles.foldArguments(plan, step);
+            }
+            return plan;
+        }
+
+        private MethodHandle planSizeSelector(MaskHandlerWithSizeSelector selector) {
+            Map<Integer, IMaskHandler> handlerOfSize = selector.getHandlerOfSize();
+            IMaskHandler defaultHandler = selector.getDefaultHandler();
+            MaskSeparator separator = selector.compiledSeparator();
+            // 没有匹配的处理器时，没有分隔符则原样输出，否则原样输出分隔后的token
+            MethodHandle unmatched = separator == null ? COPY
+                : MethodHandles.insertArguments(JOIN_TOKENS, 0, separator, selector.delimiter());
+
+            int[] sizes = sortedSizes(handlerOfSize);
+            MethodHandle[] branches = new MethodHandle[sizes.length];
+            for (int i = 0; i < sizes.length; i++) {
+                IMaskHandler handler = handlerOfSize.get(sizes[i]);
+                branches[i] = MethodHandles.dropArguments(
+                    handler == null ? unmatched : planOrInterpret(handler), 0, int.class);
+            }
+            MethodHandle absent = MethodHandles.dropArguments(
+                defaultHandler == null ? unmatched : planOrInterpret(defaultHandler), 0, int.class);
+            MethodHandle size = separator == null ? LENGTH : COUNT.bindTo(separator);
+            return MethodHandles.foldArguments(select(sizes, branches, absent), size);
+        }
+
+        private MethodHandle planOrInterpret(IMaskHandler handler) {
+            MethodHandle plan = plan(handler);
+            return plan != null ? plan : HANDLE.bindTo(handler);
+        }
+
+        private MethodHandle planOrCopy(IMaskHandler handler) {
+            return handler == null ? COPY : planOrInterpret(handler);
+        }
+    }
+
+    private static int[] sortedSizes(Map<Integer, ?> valueOfSize) {
+        int[] sizes = new int[valueOfSize.size()];
+        int i = 0;
+        for (Integer size : valueOfSize.keySet()) {
+            sizes[i++] = size;
+        }
+        Arrays.sort(sizes);
+        return sizes;
+    }
+
+    /**
+     * <pre>
+     * 按长度选择分支，第一个参数为长度，与{@link MaskSizeTable#floor(int)}的规则一致：
+     * 选择小于等于长度的最大规格对应的分支，没有满足条件的规格时选择absent。
+     * 编译为二分比较的条件分支，最多比较O(log n)次
+     * </pre>
+     */
+    private static MethodHandle select(int[] sizes, MethodHandle[] branches, MethodHandle absent) {
+        return select(sizes, branches, 0, sizes.length, absent);
+    }
+
+    private static MethodHandle select(int[] sizes, MethodHandle[] branches, int from, int to, MethodHandle below) {
+        if (from == to) {
+            return below;
+        }
+        int mid = (from + to) >>> 1;
+        List<Class<?>> rest = below.type().parameterList().subList(1, below.type().parameterCount());
+        MethodHandle test = MethodHandles.dropArguments(MethodHandles.insertArguments(AT_LEAST, 1, sizes[mid]), 1,
+            rest);
+        return MethodHandles.guardWithTest(test, select(sizes, branches, mid + 1, to, branches[mid]),
+            select(sizes, branches, from, mid, below));
+    }
+
+    /**
+     * 把没有分隔的脱敏计划适配为对第index个token脱敏，index大于0时先输出连接字符串
+     */
+    private static MethodHandle tokenStep(int index, MethodHandle plan, String delimiter) {
+        MethodHandle step = MethodHandles.filterArguments(plan, 0, TOKEN_SOURCE,
+            MethodHandles.insertArguments(TOKEN_START, 1, index), MethodHandles.insertArguments(TOKEN_END, 1, index));
+        step = MethodHandles.permuteArguments(step, TOKENS_TYPE, 0, 0, 0, 1);
+        if (index == 0) {
+            return step;
+        }
+        MethodHandle appendDelimiter = MethodHandles.insertArguments(APPEND_STRING, 1, delimiter)
+            .asType(MethodType.methodType(void.class, StringBuilder.class));
+        return MethodHandles.foldArguments(step, MethodHandles.dropArguments(appendDelimiter, 0, MaskTokens.class));
+    }
+
+    /**
+     * 使用plan对下标从from开始的所有token脱敏
+     */
+    private static MethodHandle tokensTail(int from, MethodHandle plan, String delimiter) {
+        return MethodHandles.insertArguments(APPLY_DEFAULT, 0, from, plan, delimiter);
+    }
+
+    private static void copy(CharSequence src, int start, int end, StringBuilder out) {
+        out.append(src, start, end);
+    }
+
+    private static void split(MaskSeparator separator, MethodHandle tokensPlan, CharSequence src, int start, int end,
+        StringBuilder out) throws Throwable {
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            tokensPlan.invokeExact(tokens, out);
+        }
+    }
+
+    private static void joinTokens(MaskSeparator separator, String delimiter, CharSequence src, int start, int end,
+        StringBuilder out) {
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            AbstractMaskSeparableHandler.appendJoined(out, delimiter, tokens, 0, tokens.size());
+        }
+    }
+
+    /**
+     * 子处理器超过{@link #MAX_UNROLLED_TOKENS}个时不展开，按下标循环调用
+     */
+    private static void applyTokens(MethodHandle[] plans, MethodHandle fallback, String delimiter, MaskTokens tokens,
+        StringBuilder out) throws Throwable {
+        CharSequence src = tokens.source();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            MethodHandle plan = i < plans.length ? plans[i] : fallback;
+            plan.invokeExact(src, tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    private static void applyDefault(int from, MethodHandle plan, String delimiter, MaskTokens tokens,
+        StringBuilder out) throws Throwable {
+        CharSequence src = tokens.source();
+        for (int i = from; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            plan.invokeExact(src, tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    private static void skipTokens(MaskTokens tokens, StringBuilder out) {
+        // token不存在时不输出任何内容
+    }
+
+    private static boolean atLeast(int size, int min) {
+        return size >= min;
+    }
+
+    private static int length(CharSequence src, int start, int end) {
+        return end - start;
+    }
+}
@@ -18,12 +18,16 @@ package io.github.chyohn.mask.handler;
 
 import io.github.chyohn.mask.IMaskHandler;
 import io.github.chyohn.mask.IMaskHandlerWithSizeSelector;
+import io.github.chyohn.mask.MaskByteSink;
+import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 
+import java.nio.ByteBuffer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiFunction;
 import lombok.Getter;
-import lombok.Setter;
 
 /**
  *
@@ -31,7 +35,6 @@ import lombok.Setter;
  * @since 1.0.0
  */
 @Getter
-@Setter
 @NoArgsConstructor
 public class MaskHandlerWithSizeSelector extends AbstractMaskSeparableHandler<MaskHandlerWithSizeSelector> implements
         IMaskHandlerWithSizeSelector<MaskHandlerWithSizeSelector> {
@@ -46,13 +49,26 @@ public class MaskHandlerWithSizeSelector extends AbstractMaskSeparableHandler<Ma
     private Map<Integer, IMaskHandler> handlerOfSize = new HashMap<>();
     private IMaskHandler defaultHandler;
 
+    /**
+     * 由{@link #handlerOfSize}和{@link #defaultHandler}编译的查找表，只在编译后的处理器上存在，
+     * 未编译时直接查找{@link #handlerOfSize}
+     */
+    @Getter(AccessLevel.NONE)
+    private transient MaskSizeTable<IMaskHandler> sizeTable;
+
     public MaskHandlerWithSizeSelector(String separator) {
         this.setSeparator(separator);
     }
 
+    public void setHandlerOfSize(Map<Integer, IMaskHandler> handlerOfSize) {
+        checkNotFrozen();
+        this.handlerOfSize = handlerOfSize;
+    }
+
 
     @Override
     public MaskHandlerWithSizeSelector addHandler(IMaskHandler handler, int... size) {
+        checkNotFrozen();
         for (int i : size) {
             handlerOfSize.put(i, handler);
         }
@@ -61,6 +77,7 @@ public class MaskHandlerWithSizeSelector extends AbstractMaskSeparableHandler<Ma
 
     @Override
     public MaskHandlerWithSizeSelector setDefaultHandler(IMaskHandler defaultHandler) {
+        checkNotFrozen();
         this.defaultHandler = defaultHandler;
         return this;
     }
@@ -79,23 +96,141 @@ public class MaskHandlerWithSizeSelector extends AbstractMaskSeparableHandler<Ma
      * @return 返回匹配长度的处理器，如果没有与之匹配的自返回默认脱敏处理器
      */
     private IMaskHandler getMatchHandler(int size) {
-        Integer[] sizes = handlerOfSize.keySet().stream().sorted().toArray(Integer[]::new);
+        MaskSizeTable<IMaskHandler> table = sizeTable;
+        if (table == null) {
+            return MaskSizeTable.floor(handlerOfSize, size, defaultHandler);
+        }
+        return table.floor(size);
+    }
 
-        for (int i = sizes.length - 1; i >= 0; i--) {
-            if (sizes[i] <= size) {
-                return handlerOfSize.get(sizes[i]);
+    /**
+     * <pre>
+     * 复制当前处理器，并使用mapper替换每个子处理器，复制结果保持当前处理器的实际类型和分隔配置。
+     * mapper的第一个参数是子处理器的位置："[规格]"或者".default"，返回替换后的子处理器。
+     * 当前处理器已编译时，复制结果也会编译
+     * </pre>
+     *
+     * @param mapper 子处理器替换函数
+     * @return 替换了子处理器的副本
+     */
+    public MaskHandlerWithSizeSelector mapHandlers(BiFunction<String, IMaskHandler, IMaskHandler> mapper) {
+        MaskHandlerWithSizeSelector copy = copy();
+        if (handlerOfSize != null) {
+            Map<Integer, IMaskHandler> mapped = new HashMap<>();
+            for (Map.Entry<Integer, IMaskHandler> entry : handlerOfSize.entrySet()) {
+                IMaskHandler handler = entry.getValue();
+                mapped.put(entry.getKey(), handler == null ? null : mapper.apply("[" + entry.getKey() + "]", handler));
             }
+            copy.handlerOfSize = mapped;
+        }
+        copy.defaultHandler = defaultHandler == null ? null : mapper.apply(".default", defaultHandler);
+        if (frozen()) {
+            copy.freeze();
+        }
+        return copy;
+    }
+
+    @Override
+    protected MaskHandlerWithSizeSelector copy() {
+        MaskHandlerWithSizeSelector copy = super.copy();
+        copy.sizeTable = null;
+        return copy;
+    }
+
+    /**
+     * 编译所有子处理器，并预先编译长度查找表
+     */
+    @Override
+    protected void freeze() {
+        Map<Integer, IMaskHandler> compiled = new HashMap<>();
+        for (Map.Entry<Integer, IMaskHandler> entry : handlerOfSize.entrySet()) {
+            IMaskHandler handler = entry.getValue();
+            compiled.put(entry.getKey(), handler == null ? null : handler.compile());
         }
-        return defaultHandler;
+        handlerOfSize = Collections.unmodifiableMap(compiled);
+        defaultHandler = defaultHandler == null ? null : defaultHandler.compile();
+        sizeTable = MaskSizeTable.of(handlerOfSize, defaultHandler);
+        super.freeze();
     }
 
 
+    /**
+     * 没有分隔符时直接调用匹配的处理器的{@link IMaskHandler#handle(String)}，匹配的处理器可以使用其针对整个字符串的实现
+     */
     @Override
     protected String doHandle(String src) {
         IMaskHandler handler = getMatchHandler(src.length());
         return handler == null ? src : handler.handle(src);
     }
 
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        IMaskHandler handler = getMatchHandler(end - start);
+        if (handler == null) {
+            out.append(src, start, end);
+        } else {
+            handler.handle(src, start, end, out);
+        }
+    }
+
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, MaskSeparator separator, String delimiter,
+        StringBuilder out) {
+        IMaskHandler handler = getMatchHandler(separator.count(src, start, end));
+        if (handler != null) {
+            handler.handle(src, start, end, out);
+            return;
+        }
+        // 没有匹配的处理器时，原样输出分隔后的token
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            appendJoined(out, delimiter, tokens, 0, tokens.size());
+        }
+    }
+
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        handleUtf8(getMatchHandler(MaskUtf8.length(src, start, end)), src, start, end, out);
+    }
+
+    /**
+     * @return 没有分隔符，并且所有候选处理器脱敏前后长度一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        if (hasSeparator()) {
+            return false;
+        }
+        for (IMaskHandler handler : handlerOfSize.values()) {
+            if (handler != null && !handler.lengthPreserving()) {
+                return false;
+            }
+        }
+        return defaultHandler == null || defaultHandler.lengthPreserving();
+    }
+
+    @Override
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        maskInPlace(getMatchHandler(end - start), buf, start, end);
+    }
+
+    @Override
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        return maskInPlace(getMatchHandler(MaskUtf8.length(buffer, start, end)), buffer, start, end);
+    }
+
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskSeparator separator, byte[] delimiter,
+        MaskByteSink out) {
+        IMaskHandler handler = getMatchHandler(separator.count(src, start, end));
+        if (handler != null) {
+            handleUtf8(handler, src, start, end, out);
+            return;
+        }
+        try (MaskTokens tokens = separator.split(src, start, end)) {
+            appendJoined(out, delimiter, tokens, 0, tokens.size());
+        }
+    }
+
     @Override
     protected String[] doHandle(String originalSrc, String[] separatedStrs) {
         IMaskHandler handler = getMatchHandler(separatedStrs.length);
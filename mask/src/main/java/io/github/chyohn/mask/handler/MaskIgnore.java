@@ -17,10 +17,14 @@
 package io.github.chyohn.mask.handler;
 
 import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskByteSink;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
 import lombok.Setter;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
 /**
  * 忽略脱敏，即对字符串什么也不做，直接返回原始字符串
  *
@@ -42,4 +46,50 @@ public class MaskIgnore implements IMaskHandler {
     public String handle(String src) {
         return src;
     }
+
+    @Override
+    public void handle(CharSequence src, int start, int end, StringBuilder out) {
+        out.append(src, start, end);
+    }
+
+    @Override
+    public void handle(byte[] src, int off, int len, MaskByteSink out) {
+        if (off >= 0 && len >= 0 && off <= src.length - len && !MaskUtf8.isWellFormed(src, off, off + len)) {
+            // 不合法的编码与解码再编码的结果保持一致
+            out.write(new String(src, off, len, StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        out.write(src, off, len);
+    }
+
+    @Override
+    public boolean lengthPreserving() {
+        return true;
+    }
+
+    /**
+     * 什么也不处理
+     */
+    @Override
+    public void maskInPlace(char[] buf, int off, int len) {
+        if (off < 0 || len < 0 || off > buf.length - len) {
+            throw new IndexOutOfBoundsException("off=" + off + ", len=" + len + ", length=" + buf.length);
+        }
+    }
+
+    /**
+     * 不需要修改buffer，不合法的UTF-8编码解码后长度会变化，返回false
+     */
+    @Override
+    public boolean maskInPlace(ByteBuffer buffer) {
+        return MaskUtf8.isWellFormed(buffer, buffer.position(), buffer.limit());
+    }
+
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        MaskRanges.check(src, out, from, to);
+        if (src != out) {
+            System.arraycopy(src, from, out, from, to - from);
+        }
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.MaskByteSink;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * 不可变的脱敏处理器，由{@link io.github.chyohn.mask.MaskHandlerFactory#immutable(IMaskHandler)}创建。
+ * 1. 持有原处理器{@link IMaskHandler#compile() 编译}后的深拷贝，原处理器后续的修改不影响该处理器
+ * 2. 编译结果保存在final字段中，即使通过非volatile字段等没有同步的方式发布给其他线程，其他线程也能看到完整初始化的处理器
+ * 3. 不提供修改配置的方法；{@link #unwrap()}返回的编译结果同样不能修改：修改配置的方法抛出{@link IllegalStateException}，
+ *    获取子处理器的方法返回不可修改的副本。脱敏过程不修改任何共享状态，可以在任意多个线程之间共享同一个实例
+ * 自定义的{@link IMaskHandler}实现需要自行保证{@link IMaskHandler#compile()}的结果是不可变的
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskImmutableHandler implements IMaskHandlerWrapper {
+
+    private final IMaskHandler handler; // 编译后的处理器，只能通过该final字段访问
+
+    private MaskImmutableHandler(IMaskHandler handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * 编译处理器并包装为不可变处理器
+     *
+     * @param handler 脱敏处理器
+     * @return 不可变处理器，如果handler已经是不可变处理器，则直接返回
+     */
+    public static IMaskHandler of(IMaskHandler handler) {
+        Objects.requireNonNull(handler, "handler不能为null");
+        if (handler instanceof MaskImmutableHandler) {
+            return handler;
+        }
+        return new MaskImmutableHandler(handler.compile());
+    }
+
+    @Override
+    public String handle(String src) {
+        return handler.handle(src);
+    }
+
+    @Override
+    public void handle(CharSequence src, StringBuilder out) {
+        handler.handle(src, out);
+    }
+
+    @Override
+    public void handle(CharSequence src, int start, int end, StringBuilder out) {
+        handler.handle(src, start, end, out);
+    }
+
+    @Override
+    public void handle(byte[] src, int off, int len, MaskByteSink out) {
+        handler.handle(src, off, len, out);
+    }
+
+    @Override
+    public boolean lengthPreserving() {
+        return handler.lengthPreserving();
+    }
+
+    @Override
+    public void maskInPlace(char[] buf, int off, int len) {
+        handler.maskInPlace(buf, off, len);
+    }
+
+    @Override
+    public boolean maskInPlace(ByteBuffer buffer) {
+        return handler.maskInPlace(buffer);
+    }
+
+    @Override
+    public void handleAll(String[] src, String[] out) {
+        handler.handleAll(src, out);
+    }
+
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        handler.handleAll(src, out, from, to);
+    }
+
+    @Override
+    public List<String> handleAll(List<String> src) {
+        return handler.handleAll(src);
+    }
+
+    /**
+     * @return 被包装的编译后的处理器，比如作为组合处理器的子处理器编译时，组合处理器直接持有编译结果
+     */
+    @Override
+    public IMaskHandler compile() {
+        return handler;
+    }
+
+    /**
+     * @return 被包装的编译后的处理器
+     */
+    @Override
+    public IMaskHandler unwrap() {
+        return handler;
+    }
+}
@@ -16,10 +16,11 @@
 
 package io.github.chyohn.mask.handler;
 
-import io.github.chyohn.mask.utils.Strings;
+import io.github.chyohn.mask.MaskByteSink;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
+
+import java.util.Arrays;
 
 /**
  * 对数据左部分和右边部分添加脱敏字符
@@ -28,7 +29,6 @@ import lombok.Setter;
  * @since 1.0.0
  */
 @Getter
-@Setter
 @NoArgsConstructor
 public class MaskItemAppendOuter extends AbstractMaskItemHandler<MaskItemAppendOuter> {
 
@@ -41,9 +41,73 @@ public class MaskItemAppendOuter extends AbstractMaskItemHandler<MaskItemAppendO
         this.rightSize = rightSize;
     }
 
+    public void setLeftSize(int leftSize) {
+        checkNotFrozen();
+        this.leftSize = leftSize;
+    }
+
+    public void setRightSize(int rightSize) {
+        checkNotFrozen();
+        this.rightSize = rightSize;
+    }
+
+    @Override
+    protected int outputLength(int srcLength) {
+        return outputLength(srcLength, (long) leftSize + rightSize, srcLength);
+    }
+
+    /**
+     * 模糊字符为单个字符时直接填充结果字符数组，见{@link #fillChar()}
+     *
+     * @param src 被脱敏字符串
+     * @return 脱敏结果
+     */
     @Override
     protected String doHandle(String src) {
-        return Strings.repeat(maskStr, leftSize) + src + Strings.repeat(maskStr, rightSize);
+        int mask = fillChar();
+        int length = src.length();
+        if (mask < 0 || leftSize < 0 || rightSize < 0 || (long) leftSize + length + rightSize > Integer.MAX_VALUE) {
+            return super.doHandle(src);
+        }
+        char[] chars = new char[leftSize + length + rightSize];
+        Arrays.fill(chars, 0, leftSize, (char) mask);
+        src.getChars(0, length, chars, leftSize);
+        Arrays.fill(chars, leftSize + length, chars.length, (char) mask);
+        return new String(chars);
+    }
+
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        appendMask(out, leftSize);
+        out.append(src, start, end);
+        appendMask(out, rightSize);
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.append(delimiter);
+            }
+            doHandle(tokens.source(), tokens.start(i), tokens.end(i), out);
+        }
+    }
+
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        appendMask(out, leftSize);
+        out.write(src, start, end - start);
+        appendMask(out, rightSize);
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                out.write(delimiter);
+            }
+            doHandle(tokens.bytes(), tokens.start(i), tokens.end(i), out);
+        }
     }
 
     @Override
@@ -16,10 +16,12 @@
 
 package io.github.chyohn.mask.handler;
 
-import io.github.chyohn.mask.utils.Strings;
+import io.github.chyohn.mask.MaskByteSink;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 从指定区间内部做脱敏
@@ -30,7 +32,6 @@ import lombok.Setter;
  * @since 1.0.0
  */
 @Getter
-@Setter
 @NoArgsConstructor
 public class MaskItemInner extends AbstractMaskItemHandler<MaskItemInner> {
 
@@ -43,10 +44,180 @@ public class MaskItemInner extends AbstractMaskItemHandler<MaskItemInner> {
         this.rightSize = rightSize;
     }
 
+    public void setLeftSize(int leftSize) {
+        checkNotFrozen();
+        this.leftSize = leftSize;
+    }
+
+    public void setRightSize(int rightSize) {
+        checkNotFrozen();
+        this.rightSize = rightSize;
+    }
+
 
+    @Override
+    protected int outputLength(int srcLength) {
+        int reverseSize = leftSize + rightSize;
+        if (reverseSize >= srcLength) {
+            return outputLength(0, maskLength <= 0 ? srcLength : maskLength, srcLength);
+        }
+        int maskSize = maskLength <= 0 ? srcLength - reverseSize : maskLength;
+        return outputLength(reverseSize, maskSize, srcLength);
+    }
+
+    /**
+     * 模糊字符为单个字符时直接填充结果字符数组，见{@link #fillChar()}
+     *
+     * @param src 被脱敏字符串
+     * @return 脱敏结果
+     */
     @Override
     protected String doHandle(String src) {
-        return maskInner(src, leftSize, rightSize, maskStr, maskLength);
+        checkSize(leftSize, rightSize);
+        int reverseSize = leftSize + rightSize;
+        int mask = reverseSize < 0 ? -1 : fillChar();
+        if (mask < 0) {
+            return super.doHandle(src);
+        }
+
+        int length = src.length();
+        if (reverseSize >= length) {
+            return repeat((char) mask, maskLength <= 0 ? length : maskLength);
+        }
+        if (maskLength <= 0) {
+            // 脱敏前后长度一致，复制后覆盖中间
+            char[] chars = src.toCharArray();
+            Arrays.fill(chars, leftSize, length - rightSize, (char) mask);
+            return new String(chars);
+        }
+        char[] chars = new char[reverseSize + maskLength];
+        src.getChars(0, leftSize, chars, 0);
+        Arrays.fill(chars, leftSize, leftSize + maskLength, (char) mask);
+        src.getChars(length - rightSize, length, chars, leftSize + maskLength);
+        return new String(chars);
+    }
+
+    /**
+     * 模糊中间
+     *
+     * @param src   被脱敏字符串
+     * @param start 被脱敏部分的开始位置（包含）
+     * @param end   被脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        checkSize(leftSize, rightSize);
+
+        int length = end - start;
+        int reverseSize = leftSize + rightSize;
+        if (reverseSize >= length) {
+            int maskSize = maskLength <= 0 ? length : maskLength;
+            appendMask(out, maskSize);
+            return;
+        }
+
+        // 保留左边
+        out.append(src, start, start + leftSize);
+        // 模糊中间
+        int maskSize = maskLength <= 0 ? length - reverseSize : maskLength;
+        appendMask(out, maskSize);
+        // 保留右边
+        out.append(src, end - rightSize, end);
+    }
+
+    /**
+     * 在UTF-8字节上模糊中间，保留部分落在代理对中间时按字符串脱敏
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 被脱敏部分的开始位置（包含）
+     * @param end   被脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        checkSize(leftSize, rightSize);
+
+        int length = MaskUtf8.length(src, start, end);
+        int reverseSize = leftSize + rightSize;
+        if (reverseSize >= length) {
+            appendMask(out, maskLength <= 0 ? length : maskLength);
+            return;
+        }
+
+        int leftEnd = MaskUtf8.offset(src, start, end, leftSize);
+        int rightStart = MaskUtf8.offsetFromEnd(src, start, end, rightSize);
+        if (leftEnd < 0 || rightStart < 0) {
+            doHandleDecoded(src, start, end, out);
+            return;
+        }
+        out.write(src, start, leftEnd - start);
+        appendMask(out, maskLength <= 0 ? length - reverseSize : maskLength);
+        out.write(src, rightStart, end - rightStart);
+    }
+
+    /**
+     * @return 没有分隔符、maskLength &lt;= 0并且maskStr为单个字符时，脱敏前后长度一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        return !hasSeparator() && singleCharMask();
+    }
+
+    @Override
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        checkSize(leftSize, rightSize);
+
+        int length = end - start;
+        if (leftSize + rightSize >= length) {
+            fillMask(buf, start, length);
+            return;
+        }
+        fillMask(buf, start + leftSize, length - leftSize - rightSize);
+    }
+
+    @Override
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        checkSize(leftSize, rightSize);
+
+        int length = MaskUtf8.length(buffer, start, end);
+        int maskStart = start;
+        int maskEnd = end;
+        int maskSize = length;
+        if (leftSize + rightSize < length) {
+            maskStart = MaskUtf8.offset(buffer, start, end, leftSize);
+            maskEnd = MaskUtf8.offsetFromEnd(buffer, start, end, rightSize);
+            if (maskStart < 0 || maskEnd < 0) {
+                return false;
+            }
+            maskSize = length - leftSize - rightSize;
+        }
+        if (!fitsMask(maskEnd - maskStart, maskSize)) {
+            return false;
+        }
+        fillMask(buffer, maskStart, maskSize);
+        return true;
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        checkSize(leftSize, rightSize);
+
+        int length = tokens.size();
+        int reverseSize = leftSize + rightSize;
+        if (reverseSize >= length) {
+            appendMaskJoined(out, delimiter, maskLength <= 0 ? length : maskLength);
+            return;
+        }
+
+        appendJoined(out, delimiter, tokens, 0, leftSize);
+        if (leftSize > 0) {
+            out.write(delimiter);
+        }
+        appendMaskJoined(out, delimiter, maskLength <= 0 ? length - reverseSize : maskLength);
+        for (int i = length - rightSize; i < length; i++) {
+            out.write(delimiter).write(tokens.bytes(), tokens.start(i), tokens.end(i) - tokens.start(i));
+        }
     }
 
     @Override
@@ -55,35 +226,42 @@ public class MaskItemInner extends AbstractMaskItemHandler<MaskItemInner> {
     }
 
     /**
-     * 模糊中间
+     * 模糊中间，以分隔后的token为单位
      *
-     * @param src        被脱敏字符串
-     * @param leftSize   左保留长度
-     * @param rightSize  右保留长度
-     * @param maskStr    模糊字符
-     * @param maskLength 模糊字符长度，&lt;=0: 与源字符个数一致。大于0：不管源字符串多长，使用固定数量的模糊字符串模糊数据
-     * @return 脱敏结果
+     * @param tokens    分隔结果
+     * @param delimiter 输出内容的连接字符串
+     * @param out       脱敏结果输出
      */
-    private static String maskInner(String src, int leftSize, int rightSize, String maskStr, int maskLength) {
-        if (leftSize < 0 || rightSize < 0) {
-            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
-        }
+    @Override
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        checkSize(leftSize, rightSize);
 
+        int length = tokens.size();
         int reverseSize = leftSize + rightSize;
-        if (reverseSize >= src.length()) {
-            int maskSize = maskLength <= 0 ? src.length() : maskLength;
-            return Strings.repeat(maskStr, maskSize);
+        if (reverseSize >= length) {
+            int maskSize = maskLength <= 0 ? length : maskLength;
+            appendJoined(out, maskStr, delimiter, maskSize);
+            return;
         }
 
+        CharSequence src = tokens.source();
         // 保留左边
-        StringBuilder result = new StringBuilder(src.substring(0, leftSize));
+        for (int i = 0; i < leftSize; i++) {
+            out.append(src, tokens.start(i), tokens.end(i)).append(delimiter);
+        }
         // 模糊中间
-        int maskSize = maskLength <= 0 ? src.length() - reverseSize : maskLength;
-        result.append(Strings.repeat(maskStr, maskSize));
+        int maskSize = maskLength <= 0 ? length - reverseSize : maskLength;
+        appendJoined(out, maskStr, delimiter, maskSize);
         // 保留右边
-        result.append(src.substring(src.length() - rightSize));
+        for (int i = length - rightSize; i < length; i++) {
+            out.append(delimiter).append(src, tokens.start(i), tokens.end(i));
+        }
+    }
 
-        return result.toString();
+    private static void checkSize(int leftSize, int rightSize) {
+        if (leftSize < 0 || rightSize < 0) {
+            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
+        }
     }
 
     /**
@@ -97,9 +275,7 @@ public class MaskItemInner extends AbstractMaskItemHandler<MaskItemInner> {
      * @return 脱敏后数组
      */
     public static String[] maskInner(String[] src, int leftSize, int rightSize, String maskStr, int maskLength) {
-        if (leftSize < 0 || rightSize < 0) {
-            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
-        }
+        checkSize(leftSize, rightSize);
 
         int reverseSize = leftSize + rightSize;
         if (reverseSize >= src.length) {
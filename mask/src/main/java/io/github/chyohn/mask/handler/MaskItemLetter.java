@@ -18,8 +18,6 @@ package io.github.chyohn.mask.handler;
 
 import lombok.NoArgsConstructor;
 
-import java.util.Arrays;
-
 /**
  * 只模糊字符串中的字母
  *
@@ -27,25 +25,10 @@ import java.util.Arrays;
  * @since 1.0.0
  */
 @NoArgsConstructor
-public class MaskItemLetter extends AbstractMaskItemHandler<MaskItemLetter> {
-
-    @Override
-    protected String doHandle(String src) {
-        if (maskLength < 1) {
-            return src.replaceAll("[a-zA-Z]", maskStr);
-        }
-        String[] masks = new String[maskLength];
-        Arrays.fill(masks, maskStr);
-        String allMaskStr = String.join("", masks);
-        return src.replaceAll("[a-zA-Z]+", allMaskStr);
-    }
+public class MaskItemLetter extends AbstractMaskCharHandler<MaskItemLetter> {
 
     @Override
-    protected String[] doHandle(String originalSrc, String[] separatedStrs) {
-        String[] result = new String[separatedStrs.length];
-        for (int i = 0; i < separatedStrs.length; i++) {
-            result[i] = doHandle(separatedStrs[i]);
-        }
-        return result;
+    protected boolean isMaskChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
     }
 }
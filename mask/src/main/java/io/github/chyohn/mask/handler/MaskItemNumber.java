@@ -18,8 +18,6 @@ package io.github.chyohn.mask.handler;
 
 import lombok.NoArgsConstructor;
 
-import java.util.Arrays;
-
 /**
  * 只模糊字符串中的数字
  *
@@ -27,26 +25,10 @@ import java.util.Arrays;
  * @since 1.0.0
  */
 @NoArgsConstructor
-public class MaskItemNumber extends AbstractMaskItemHandler<MaskItemNumber> {
+public class MaskItemNumber extends AbstractMaskCharHandler<MaskItemNumber> {
 
     @Override
-    protected String doHandle(String src) {
-        if (maskLength < 1) {
-            return src.replaceAll("[0-9]", maskStr);
-        }
-        String[] masks = new String[maskLength];
-        Arrays.fill(masks, maskStr);
-        String allMaskStr = String.join("", masks);
-        return src.replaceAll("[0-9]+", allMaskStr);
+    protected boolean isMaskChar(char c) {
+        return c >= '0' && c <= '9';
     }
-
-    @Override
-    protected String[] doHandle(String originalSrc, String[] separatedStrs) {
-        String[] result = new String[separatedStrs.length];
-        for (int i = 0; i < separatedStrs.length; i++) {
-            result[i] = doHandle(separatedStrs[i]);
-        }
-        return result;
-    }
-
 }
@@ -16,10 +16,12 @@
 
 package io.github.chyohn.mask.handler;
 
-import io.github.chyohn.mask.utils.Strings;
+import io.github.chyohn.mask.MaskByteSink;
 import lombok.NoArgsConstructor;
 import lombok.Getter;
-import lombok.Setter;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 /**
  * 对数据左部分和右边部分做脱敏
@@ -28,7 +30,6 @@ import lombok.Setter;
  * @since 1.0.0
  */
 @Getter
-@Setter
 @NoArgsConstructor
 public class MaskItemOuter extends AbstractMaskItemHandler<MaskItemOuter> {
 
@@ -40,51 +41,238 @@ public class MaskItemOuter extends AbstractMaskItemHandler<MaskItemOuter> {
         this.rightSize = rightSize;
     }
 
-    @Override
-    protected String doHandle(String src) {
-        return maskOuter(src, leftSize, rightSize, maskStr, maskLength);
+    public void setLeftSize(int leftSize) {
+        checkNotFrozen();
+        this.leftSize = leftSize;
+    }
+
+    public void setRightSize(int rightSize) {
+        checkNotFrozen();
+        this.rightSize = rightSize;
     }
 
     @Override
-    protected String[] doHandle(String originalSrc, String[] separatedStrs) {
-        return maskOuter(separatedStrs, leftSize, rightSize, maskStr, maskLength);
+    protected int outputLength(int srcLength) {
+        int maskSize = leftSize + rightSize;
+        if (maskSize >= srcLength) {
+            return outputLength(0, maskLength <= 0 ? srcLength : maskLength, srcLength);
+        }
+        int leftMaskSize = leftSize == 0 || maskLength <= 0 ? leftSize : maskLength;
+        int rightMaskSize = rightSize == 0 || maskLength <= 0 ? rightSize : maskLength;
+        return outputLength(srcLength - maskSize, (long) leftMaskSize + rightMaskSize, srcLength);
     }
 
     /**
-     * 模糊两边
+     * 模糊字符为单个字符时直接填充结果字符数组，见{@link #fillChar()}
      *
-     * @param src
-     * @param leftSize   左模糊长度
-     * @param rightSize  右模糊长度
-     * @param maskStr    模糊字符
-     * @param maskLength 模糊字符长度，&lt;=0: 与源字符个数一致。大于0：不管源字符串多长，使用固定数量的模糊字符串模糊数据
+     * @param src 被脱敏字符串
      * @return 脱敏结果
      */
-    private static String maskOuter(String src, int leftSize, int rightSize, String maskStr, int maskLength) {
-        if (leftSize < 0 || rightSize < 0) {
-            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
+    @Override
+    protected String doHandle(String src) {
+        checkSize(leftSize, rightSize);
+        int mask = leftSize + rightSize < 0 ? -1 : fillChar();
+        if (mask < 0) {
+            return super.doHandle(src);
+        }
+
+        int length = src.length();
+        if (leftSize + rightSize >= length) {
+            return repeat((char) mask, maskLength <= 0 ? length : maskLength);
+        }
+        if (maskLength <= 0) {
+            // 脱敏前后长度一致，复制后覆盖两边
+            char[] chars = src.toCharArray();
+            Arrays.fill(chars, 0, leftSize, (char) mask);
+            Arrays.fill(chars, length - rightSize, length, (char) mask);
+            return new String(chars);
         }
+        int leftMaskSize = leftSize == 0 ? 0 : maskLength;
+        int rightMaskSize = rightSize == 0 ? 0 : maskLength;
+        int reserveEnd = leftMaskSize + length - leftSize - rightSize;
+        char[] chars = new char[reserveEnd + rightMaskSize];
+        Arrays.fill(chars, 0, leftMaskSize, (char) mask);
+        src.getChars(leftSize, length - rightSize, chars, leftMaskSize);
+        Arrays.fill(chars, reserveEnd, chars.length, (char) mask);
+        return new String(chars);
+    }
 
+    /**
+     * 模糊两边
+     *
+     * @param src   被脱敏字符串
+     * @param start 被脱敏部分的开始位置（包含）
+     * @param end   被脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    @Override
+    protected void doHandle(CharSequence src, int start, int end, StringBuilder out) {
+        checkSize(leftSize, rightSize);
+
+        int length = end - start;
         int maskSize = leftSize + rightSize;
-        if (maskSize >= src.length()) {
-            maskSize = maskLength <= 0 ? src.length() : maskLength;
-            return Strings.repeat(maskStr, maskSize);
+        if (maskSize >= length) {
+            maskSize = maskLength <= 0 ? length : maskLength;
+            appendMask(out, maskSize);
+            return;
         }
 
-        StringBuilder result = new StringBuilder();
         // 左边模糊
         int leftMaskSize = leftSize == 0 || maskLength <= 0 ? leftSize : maskLength;
-        result.append(Strings.repeat(maskStr, leftMaskSize));
+        appendMask(out, leftMaskSize);
 
         // 中间保留
-        String reverseStr = src.substring(leftSize, src.length() - rightSize);
-        result.append(reverseStr);
+        out.append(src, start + leftSize, end - rightSize);
 
         // 右边模糊
         int rightMaskSize = rightSize == 0 || maskLength <= 0 ? rightSize : maskLength;
-        result.append(Strings.repeat(maskStr, rightMaskSize));
+        appendMask(out, rightMaskSize);
+    }
+
+    /**
+     * 在UTF-8字节上模糊两边，模糊部分的边界落在代理对中间时按字符串脱敏
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 被脱敏部分的开始位置（包含）
+     * @param end   被脱敏部分的结束位置（不包含）
+     * @param out   脱敏结果输出
+     */
+    @Override
+    protected void doHandle(byte[] src, int start, int end, MaskByteSink out) {
+        checkSize(leftSize, rightSize);
+
+        int length = MaskUtf8.length(src, start, end);
+        int maskSize = leftSize + rightSize;
+        if (maskSize >= length) {
+            appendMask(out, maskLength <= 0 ? length : maskLength);
+            return;
+        }
 
-        return result.toString();
+        int reserveStart = MaskUtf8.offset(src, start, end, leftSize);
+        int reserveEnd = MaskUtf8.offsetFromEnd(src, start, end, rightSize);
+        if (reserveStart < 0 || reserveEnd < 0) {
+            doHandleDecoded(src, start, end, out);
+            return;
+        }
+        appendMask(out, leftSize == 0 || maskLength <= 0 ? leftSize : maskLength);
+        out.write(src, reserveStart, reserveEnd - reserveStart);
+        appendMask(out, rightSize == 0 || maskLength <= 0 ? rightSize : maskLength);
+    }
+
+    /**
+     * @return 没有分隔符、maskLength &lt;= 0并且maskStr为单个字符时，脱敏前后长度一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        return !hasSeparator() && singleCharMask();
+    }
+
+    @Override
+    protected void doMaskInPlace(char[] buf, int start, int end) {
+        checkSize(leftSize, rightSize);
+
+        int length = end - start;
+        if (leftSize + rightSize >= length) {
+            fillMask(buf, start, length);
+            return;
+        }
+        fillMask(buf, start, leftSize);
+        fillMask(buf, end - rightSize, rightSize);
+    }
+
+    @Override
+    protected boolean doMaskInPlace(ByteBuffer buffer, int start, int end) {
+        checkSize(leftSize, rightSize);
+
+        int length = MaskUtf8.length(buffer, start, end);
+        if (leftSize + rightSize >= length) {
+            if (!fitsMask(end - start, length)) {
+                return false;
+            }
+            fillMask(buffer, start, length);
+            return true;
+        }
+
+        int reserveStart = MaskUtf8.offset(buffer, start, end, leftSize);
+        int reserveEnd = MaskUtf8.offsetFromEnd(buffer, start, end, rightSize);
+        if (reserveStart < 0 || reserveEnd < 0
+            || !fitsMask(reserveStart - start, leftSize) || !fitsMask(end - reserveEnd, rightSize)) {
+            return false;
+        }
+        fillMask(buffer, start, leftSize);
+        fillMask(buffer, reserveEnd, rightSize);
+        return true;
+    }
+
+    @Override
+    protected void doHandle(MaskTokens tokens, byte[] delimiter, MaskByteSink out) {
+        checkSize(leftSize, rightSize);
+
+        int length = tokens.size();
+        int maskSize = leftSize + rightSize;
+        if (maskSize >= length) {
+            appendMaskJoined(out, delimiter, maskLength <= 0 ? length : maskLength);
+            return;
+        }
+
+        int leftMaskSize = leftSize == 0 || maskLength <= 0 ? leftSize : maskLength;
+        appendMaskJoined(out, delimiter, leftMaskSize);
+        if (leftMaskSize > 0) {
+            out.write(delimiter);
+        }
+        appendJoined(out, delimiter, tokens, leftSize, length - rightSize);
+        int rightMaskSize = rightSize == 0 || maskLength <= 0 ? rightSize : maskLength;
+        for (int i = 0; i < rightMaskSize; i++) {
+            out.write(delimiter);
+            appendMask(out, 1);
+        }
+    }
+
+    @Override
+    protected String[] doHandle(String originalSrc, String[] separatedStrs) {
+        return maskOuter(separatedStrs, leftSize, rightSize, maskStr, maskLength);
+    }
+
+    /**
+     * 模糊两边，以分隔后的token为单位
+     *
+     * @param tokens    分隔结果
+     * @param delimiter 输出内容的连接字符串
+     * @param out       脱敏结果输出
+     */
+    @Override
+    protected void doHandle(MaskTokens tokens, String delimiter, StringBuilder out) {
+        checkSize(leftSize, rightSize);
+
+        int length = tokens.size();
+        int maskSize = leftSize + rightSize;
+        if (maskSize >= length) {
+            maskSize = maskLength <= 0 ? length : maskLength;
+            appendJoined(out, maskStr, delimiter, maskSize);
+            return;
+        }
+
+        // 模糊左边
+        int leftMaskSize = leftSize == 0 || maskLength <= 0 ? leftSize : maskLength;
+        appendJoined(out, maskStr, delimiter, leftMaskSize);
+
+        // 中间保留
+        if (leftMaskSize > 0) {
+            out.append(delimiter);
+        }
+        appendJoined(out, delimiter, tokens, leftSize, length - rightSize);
+
+        // 模糊右边
+        int rightMaskSize = rightSize == 0 || maskLength <= 0 ? rightSize : maskLength;
+        for (int i = 0; i < rightMaskSize; i++) {
+            out.append(delimiter).append(maskStr);
+        }
+    }
+
+    private static void checkSize(int leftSize, int rightSize) {
+        if (leftSize < 0 || rightSize < 0) {
+            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
+        }
     }
 
     /**
@@ -98,9 +286,7 @@ public class MaskItemOuter extends AbstractMaskItemHandler<MaskItemOuter> {
      * @return 脱敏结果
      */
     private static String[] maskOuter(String[] src, int leftSize, int rightSize, String maskStr, int maskLength) {
-        if (leftSize < 0 || rightSize < 0) {
-            throw new IllegalArgumentException("leftSize和rightSize不能小于0");
-        }
+        checkSize(leftSize, rightSize);
 
         int maskSize = leftSize + rightSize;
         if (maskSize >= src.length) {
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <pre>
+ * {@link MaskMemoizeHandler}使用的脱敏结果缓存，key为原始字符串，value为脱敏结果。
+ * 1. 查询不加锁；写入后超过条目数或字符数上限时，在淘汰锁内淘汰条目
+ * 2. 淘汰时使用时钟算法选出最近没有被访问的条目，再与新写入的条目比较访问频率（{@link MaskFrequencySketch}），
+ *    新条目的频率不高于被淘汰的条目时不缓存新条目，避免只出现一次的值把热点值挤出缓存
+ * 3. 条目的大小按key和value的字符数计算
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskMemoCache {
+
+    private static final int MAX_SCAN = 16; // 查找淘汰条目时最多跳过的最近被访问过的条目数
+
+    private final ConcurrentHashMap<String, Entry> map = new ConcurrentHashMap<>();
+    private final MaskFrequencySketch sketch;
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final long expireAfterWriteNanos;
+    private final AtomicLong weight = new AtomicLong();
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    private Iterator<Entry> clock; // 时钟算法的当前位置，由evictionLock保护
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder rejections = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maximumSize           最多缓存的条目数
+     * @param maximumWeight         最多缓存的字符数，小于0表示不限制
+     * @param expireAfterWriteNanos 写入后的过期时间（纳秒），小于等于0表示不过期
+     */
+    MaskMemoCache(int maximumSize, long maximumWeight, long expireAfterWriteNanos) {
+        this.sketch = new MaskFrequencySketch(maximumSize);
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight < 0 ? Long.MAX_VALUE : maximumWeight;
+        this.expireAfterWriteNanos = expireAfterWriteNanos;
+    }
+
+    /**
+     * @param key 原始字符串
+     * @return 缓存的脱敏结果，没有缓存或已过期时返回null
+     */
+    String get(String key) {
+        sketch.increment(key.hashCode());
+        Entry entry = map.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (expireAfterWriteNanos > 0 && System.nanoTime() - entry.writeTime > expireAfterWriteNanos) {
+            if (remove(entry)) {
+                expirations.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * 缓存脱敏结果，超过上限时淘汰条目或者不缓存
+     *
+     * @param key   原始字符串
+     * @param value 脱敏结果
+     */
+    void put(String key, String value) {
+        Entry entry = new Entry(key, value, expireAfterWriteNanos > 0 ? System.nanoTime() : 0);
+        if (entry.weight > maximumWeight) {
+            rejections.increment();
+            return;
+        }
+        if (map.putIfAbsent(key, entry) != null) {
+            return;
+        }
+        long total = weight.addAndGet(entry.weight);
+        if (map.size() > maximumSize || total > maximumWeight) {
+            evict(entry);
+        }
+    }
+
+    private void evict(Entry candidate) {
+        evictionLock.lock();
+        try {
+            while (map.size() > maximumSize || weight.get() > maximumWeight) {
+                Entry victim = nextVictim(candidate);
+                if (victim == null) {
+                    if (candidate != null && remove(candidate)) {
+                        rejections.increment();
+                    }
+                    return;
+                }
+                if (candidate != null
+                    && sketch.frequency(candidate.key.hashCode()) <= sketch.frequency(victim.key.hashCode())) {
+                    // 新条目的访问频率不高于被淘汰的条目，不缓存新条目
+                    if (remove(candidate)) {
+                        rejections.increment();
+                    }
+                    candidate = null;
+                    continue;
+                }
+                if (remove(victim)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 使用时钟算法查找淘汰的条目：跳过并清除最近被访问过的条目的访问标记，最多跳过{@value #MAX_SCAN}个
+     */
+    private Entry nextVictim(Entry candidate) {
+        Entry fallback = null;
+        boolean restarted = false;
+        for (int scanned = 0; scanned <= MAX_SCAN; ) {
+            if (clock == null || !clock.hasNext()) {
+                if (restarted) {
+                    break;
+                }
+                clock = map.values().iterator();
+                restarted = true;
+                continue;
+            }
+            Entry entry = clock.next();
+            if (entry == candidate) {
+                continue;
+            }
+            if (!entry.referenced) {
+                return entry;
+            }
+            entry.referenced = false;
+            fallback = entry;
+            scanned++;
+        }
+        return fallback;
+    }
+
+    private boolean remove(Entry entry) {
+        if (map.remove(entry.key, entry)) {
+            weight.addAndGet(-entry.weight);
+            return true;
+        }
+        return false;
+    }
+
+    MaskMemoizeStats stats() {
+        return new MaskMemoizeStats(hits.sum(), misses.sum(), evictions.sum(), rejections.sum(), expirations.sum(),
+            map.size(), weight.get());
+    }
+
+    void clear() {
+        evictionLock.lock();
+        try {
+            for (Entry entry : map.values()) {
+                remove(entry);
+            }
+            clock = null;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry {
+
+        final String key;
+        final String value;
+        final long writeTime;
+        final long weight;
+        volatile boolean referenced; // 最近是否被访问过，时钟算法使用
+
+        Entry(String key, String value, long writeTime) {
+            this.key = key;
+            this.value = value;
+            this.writeTime = writeTime;
+            this.weight = (long) key.length() + value.length();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskMemoizeHandler;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ * 缓存脱敏结果的处理器，见{@link IMaskMemoizeHandler}。
+ * 1. 只缓存{@link #handle(String)}和整个字符串的脱敏结果，其他区间先截取为字符串再查询缓存
+ * 2. 修改配置后清空缓存；{@link #compile()}的结果使用新的缓存
+ * 3. 被缓存的处理器在创建和{@link #setHandler(IMaskHandler)}时{@link IMaskHandler#compile() 编译}，
+ *    之后修改原处理器的配置不会影响脱敏结果，缓存的结果不会因此过期
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@Getter
+@NoArgsConstructor
+public class MaskMemoizeHandler implements IMaskMemoizeHandler<MaskMemoizeHandler> {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private IMaskHandler handler; // 被缓存脱敏结果的处理器
+    private int maximumSize = DEFAULT_MAXIMUM_SIZE; // 最多缓存的条目数
+    private long maximumWeight = -1; // 最多缓存的字符数，-1：不限制
+    private long expireAfterWriteMillis = -1; // 写入后的过期时间（毫秒），-1：不过期
+    @Getter(AccessLevel.NONE)
+    private transient boolean frozen; // 是否已编译为不可变处理器
+    @Getter(AccessLevel.NONE)
+    private transient MaskMemoCache cache; // 配置变更时置空，使用时重新创建
+
+    public MaskMemoizeHandler(IMaskHandler handler) {
+        this.handler = Objects.requireNonNull(handler, "handler不能为null").compile();
+    }
+
+    public MaskMemoizeHandler setHandler(IMaskHandler handler) {
+        checkNotFrozen();
+        this.handler = handler == null ? null : handler.compile();
+        this.cache = null;
+        return this;
+    }
+
+    @Override
+    public MaskMemoizeHandler setMaximumSize(int maximumSize) {
+        checkNotFrozen();
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize不能小于1");
+        }
+        this.maximumSize = maximumSize;
+        this.cache = null;
+        return this;
+    }
+
+    @Override
+    public MaskMemoizeHandler setMaximumWeight(long maximumWeight) {
+        checkNotFrozen();
+        this.maximumWeight = maximumWeight;
+        this.cache = null;
+        return this;
+    }
+
+    public MaskMemoizeHandler setExpireAfterWriteMillis(long expireAfterWriteMillis) {
+        checkNotFrozen();
+        this.expireAfterWriteMillis = expireAfterWriteMillis;
+        this.cache = null;
+        return this;
+    }
+
+    @Override
+    public MaskMemoizeHandler setExpireAfterWrite(long duration, TimeUnit unit) {
+        return setExpireAfterWriteMillis(duration <= 0 ? -1 : unit.toMillis(duration));
+    }
+
+    @Override
+    public String handle(String src) {
+        if (handler == null) {
+            return src;
+        }
+        MaskMemoCache memo = cache();
+        String result = memo.get(src);
+        if (result == null) {
+            result = handler.handle(src);
+            if (result != null) {
+                memo.put(src, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void handle(CharSequence src, int start, int end, StringBuilder out) {
+        if (handler == null) {
+            out.append(src, start, end);
+            return;
+        }
+        String value = src instanceof String && start == 0 && end == src.length()
+            ? (String) src : src.subSequence(start, end).toString();
+        out.append(handle(value));
+    }
+
+    /**
+     * @return 被缓存的处理器脱敏前后长度是否一致
+     */
+    @Override
+    public boolean lengthPreserving() {
+        return handler == null || handler.lengthPreserving();
+    }
+
+    /**
+     * 原地脱敏不需要创建结果字符串，不使用缓存，直接由被缓存的处理器处理
+     */
+    @Override
+    public void maskInPlace(char[] buf, int off, int len) {
+        if (handler == null) {
+            new MaskIgnore().maskInPlace(buf, off, len);
+        } else {
+            handler.maskInPlace(buf, off, len);
+        }
+    }
+
+    /**
+     * 与{@link #maskInPlace(char[], int, int)}一样不使用缓存
+     */
+    @Override
+    public boolean maskInPlace(ByteBuffer buffer) {
+        return handler == null ? new MaskIgnore().maskInPlace(buffer) : handler.maskInPlace(buffer);
+    }
+
+    @Override
+    public MaskMemoizeStats stats() {
+        MaskMemoCache memo = cache;
+        return memo == null ? new MaskMemoizeStats(0, 0, 0, 0, 0, 0, 0) : memo.stats();
+    }
+
+    @Override
+    public void clear() {
+        MaskMemoCache memo = cache;
+        if (memo != null) {
+            memo.clear();
+        }
+    }
+
+    /**
+     * 复制当前处理器并编译被缓存的处理器，编译结果使用新的缓存，不允许再修改配置
+     *
+     * @return 编译后的处理器，如果当前处理器已经编译过，则返回当前处理器
+     */
+    @Override
+    public MaskMemoizeHandler compile() {
+        if (frozen) {
+            return this;
+        }
+        MaskMemoizeHandler copy = new MaskMemoizeHandler();
+        copy.handler = handler == null ? null : handler.compile();
+        copy.maximumSize = maximumSize;
+        copy.maximumWeight = maximumWeight;
+        copy.expireAfterWriteMillis = expireAfterWriteMillis;
+        copy.cache = copy.newCache();
+        copy.frozen = true;
+        return copy;
+    }
+
+    private MaskMemoCache cache() {
+        MaskMemoCache memo = cache;
+        if (memo == null) {
+            memo = newCache();
+            cache = memo;
+        }
+        return memo;
+    }
+
+    private MaskMemoCache newCache() {
+        long expireNanos = expireAfterWriteMillis <= 0 ? 0 : TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMillis);
+        return new MaskMemoCache(maximumSize, maximumWeight, expireNanos);
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) {
+            throw new IllegalStateException("脱敏处理器已编译为不可变对象，不允许修改配置：" + getClass().getName());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * {@link MaskMemoizeHandler}的缓存统计数据
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class MaskMemoizeStats {
+
+    private final long hitCount; // 命中次数
+    private final long missCount; // 未命中次数
+    private final long evictionCount; // 淘汰次数
+    private final long rejectionCount; // 因访问频率低或者超过字符数上限而没有缓存的次数
+    private final long expirationCount; // 过期次数
+    private final int size; // 当前缓存的条目数
+    private final long weight; // 当前缓存的字符数
+
+    /**
+     * @return 命中率，没有访问时为1
+     */
+    public double hitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 1.0 : (double) hitCount / total;
+    }
+}
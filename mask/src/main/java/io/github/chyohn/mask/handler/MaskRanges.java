@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.IMaskHandler;
+
+/**
+ * 批量脱敏时检查下标区间的工具方法，见{@link IMaskHandler#handleAll(String[], String[], int, int)}
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskRanges {
+
+    private MaskRanges() {
+    }
+
+    /**
+     * @param src  待脱敏的字符串数组
+     * @param out  脱敏结果数组
+     * @param from 开始下标（包含）
+     * @param to   结束下标（不包含）
+     * @throws IndexOutOfBoundsException 区间超出src或out的范围
+     */
+    static void check(String[] src, String[] out, int from, int to) {
+        if (from < 0 || from > to || to > src.length || to > out.length) {
+            throw new IndexOutOfBoundsException("from=" + from + ", to=" + to
+                + ", src.length=" + src.length + ", out.length=" + out.length);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import io.github.chyohn.mask.MaskByteSink;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * 模糊字符串的重复模板，由处理器的maskStr和maskLength预先生成，避免每次脱敏都重新拼接模糊字符串。
+ * 模板中包含多个连续的maskStr，输出时直接追加模板的一部分：
+ * 1. 模板至少包含{@link #TEMPLATE_LENGTH}个字符，常见的模糊长度只需要追加一次
+ * 2. maskLength &gt; 0时，模板至少包含maskLength个maskStr，即固定长度的模糊字符串整体预先生成
+ * 3. 超出模板长度时，分多次追加模板
+ * 4. maskStr不包含代理字符时，同时生成模板的UTF-8编码，用于在字节上脱敏
+ * 5. maskStr为单个字符并且maskLength不超过{@link #TEMPLATE_LENGTH}时，记录该字符，处理器可以直接填充结果字符数组
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskRun {
+
+    private static final int TEMPLATE_LENGTH = 64; // 模板最少字符数
+    private static final int MAX_TEMPLATE_LENGTH = 4096; // 模板最多字符数
+
+    private final int maskStrLength; // maskStr长度
+    private final char[] template; // 由多个maskStr组成的模板
+    private final int templateCount; // 模板中maskStr的个数
+    private final byte[] utf8Template; // 模板的UTF-8编码，maskStr包含代理字符时为null
+    private final int fillChar; // 可以直接填充的模糊字符，不能直接填充时为-1
+
+    MaskRun(String maskStr, int maskLength) {
+        this.maskStrLength = maskStr.length();
+        this.fillChar = maskStrLength == 1 && maskLength <= TEMPLATE_LENGTH ? maskStr.charAt(0) : -1;
+        if (maskStrLength == 0) {
+            this.template = new char[0];
+            this.templateCount = Integer.MAX_VALUE;
+            this.utf8Template = new byte[0];
+            return;
+        }
+
+        int count = (TEMPLATE_LENGTH + maskStrLength - 1) / maskStrLength;
+        if (maskLength > count && (long) maskLength * maskStrLength <= MAX_TEMPLATE_LENGTH) {
+            count = maskLength;
+        }
+        this.templateCount = count;
+        this.template = new char[count * maskStrLength];
+        for (int i = 0; i < count; i++) {
+            maskStr.getChars(0, maskStrLength, template, i * maskStrLength);
+        }
+        this.utf8Template = MaskUtf8.encode(new String(template));
+    }
+
+    /**
+     * <pre>
+     * maskStr为单个字符，并且maskLength不超过{@link #TEMPLATE_LENGTH}时返回该字符，否则返回-1。
+     * 手机号、身份证号、姓名等最常见的配置都是这种形式，处理器可以直接填充结果字符数组，不需要经过StringBuilder
+     * </pre>
+     *
+     * @return 可以直接填充的模糊字符
+     */
+    int fillChar() {
+        return fillChar;
+    }
+
+    /**
+     * @return 是否可以追加UTF-8编码的模糊字符串，见{@link #append(MaskByteSink, int)}
+     */
+    boolean supportsUtf8() {
+        return utf8Template != null;
+    }
+
+    /**
+     * @return 一个maskStr的UTF-8字节数，只能在{@link #supportsUtf8()}为true时调用
+     */
+    int utf8MaskLength() {
+        return maskStrLength == 0 ? 0 : utf8Template.length / templateCount;
+    }
+
+    /**
+     * 从buf的index位置开始写入count个maskStr
+     *
+     * @param buf   输出
+     * @param index 开始位置
+     * @param count maskStr个数
+     */
+    void fill(char[] buf, int index, int count) {
+        if (maskStrLength == 1) {
+            Arrays.fill(buf, index, index + count, template[0]);
+            return;
+        }
+        int length = count * maskStrLength;
+        while (length > 0) {
+            int n = Math.min(length, template.length);
+            System.arraycopy(template, 0, buf, index, n);
+            index += n;
+            length -= n;
+        }
+    }
+
+    /**
+     * 从buffer的index位置开始写入count个maskStr的UTF-8编码，使用绝对位置写入，不修改buffer的position。
+     * 只能在{@link #supportsUtf8()}为true时调用
+     *
+     * @param buffer 输出
+     * @param index  开始位置
+     * @param count  maskStr个数
+     */
+    void fill(ByteBuffer buffer, int index, int count) {
+        int length = count * utf8MaskLength();
+        if (buffer.hasArray()) {
+            byte[] array = buffer.array();
+            int offset = buffer.arrayOffset() + index;
+            while (length > 0) {
+                int n = Math.min(length, utf8Template.length);
+                System.arraycopy(utf8Template, 0, array, offset, n);
+                offset += n;
+                length -= n;
+            }
+            return;
+        }
+        for (int i = 0; i < length; i += utf8Template.length) {
+            int n = Math.min(length - i, utf8Template.length);
+            for (int j = 0; j < n; j++) {
+                buffer.put(index + i + j, utf8Template[j]);
+            }
+        }
+    }
+
+    /**
+     * 追加count个maskStr的UTF-8编码到out，只能在{@link #supportsUtf8()}为true时调用
+     *
+     * @param out   输出
+     * @param count maskStr个数
+     */
+    void append(MaskByteSink out, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count should not be negative");
+        }
+        if (maskStrLength == 0) {
+            return;
+        }
+        int bytesPerMask = utf8Template.length / templateCount;
+        while (count > templateCount) {
+            out.write(utf8Template, 0, utf8Template.length);
+            count -= templateCount;
+        }
+        out.write(utf8Template, 0, count * bytesPerMask);
+    }
+
+    /**
+     * 追加count个maskStr到out
+     *
+     * @param out   输出
+     * @param count maskStr个数
+     */
+    void append(StringBuilder out, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("count should not be negative");
+        }
+        if (maskStrLength == 0) {
+            return;
+        }
+        while (count > templateCount) {
+            out.append(template, 0, template.length);
+            count -= templateCount;
+        }
+        out.append(template, 0, count * maskStrLength);
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <pre>
+ * 编译后的分隔符，用于把字符串分隔为token，分隔结果与{@link String#split(String, int)}一致：
+ * 1. limit &gt; 0时，最多分隔出limit个token，最后一个token包含剩余的所有内容
+ * 2. limit &lt;= 0时，不限制token个数，并移除末尾的空token
+ *
+ * 分隔符有两种模式：
+ * 1. 字面量模式（默认）：直接在源字符串中查找分隔符，不使用正则表达式
+ * 2. 正则表达式模式：分隔符为正则表达式，编译后的{@link Pattern}随分隔符对象一起缓存
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskSeparator {
+
+    private final String literal; // 字面量分隔符
+    private final Pattern pattern; // 正则表达式分隔符
+    private final int limit; // 分隔token最大数量
+    private final byte[] literalBytes; // 字面量分隔符的UTF-8编码，不能在字节上分隔时为null
+
+    private MaskSeparator(String literal, Pattern pattern, int limit) {
+        this.literal = literal;
+        this.pattern = pattern;
+        this.limit = Math.max(limit, 0);
+        this.literalBytes = literal == null || literal.isEmpty() ? null : MaskUtf8.encode(literal);
+    }
+
+    /**
+     * @param separator 字面量分隔符
+     * @param limit     分隔token最大数量，&lt;=0时不限制
+     * @return 分隔符
+     */
+    public static MaskSeparator literal(String separator, int limit) {
+        return new MaskSeparator(separator, null, limit);
+    }
+
+    /**
+     * @param regex 正则表达式分隔符
+     * @param limit 分隔token最大数量，&lt;=0时不限制
+     * @return 分隔符
+     */
+    public static MaskSeparator regex(String regex, int limit) {
+        return new MaskSeparator(null, Pattern.compile(regex), limit);
+    }
+
+    /**
+     * 分隔src中[start, end)区间的字符串，结果使用完后需要调用{@link MaskTokens#close()}
+     *
+     * @param src   源字符串
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return 分隔结果
+     */
+    public MaskTokens split(CharSequence src, int start, int end) {
+        MaskTokens tokens = MaskTokens.acquire(src, start, end);
+        try {
+            if (pattern != null) {
+                splitByRegex(src, start, end, tokens);
+            } else {
+                splitByLiteral(src, start, end, tokens);
+            }
+        } catch (RuntimeException e) {
+            tokens.close();
+            throw e;
+        }
+        return tokens;
+    }
+
+    /**
+     * 只计算src中[start, end)区间的字符串分隔后的token个数，不记录token位置
+     *
+     * @param src   源字符串
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return token个数
+     */
+    public int count(CharSequence src, int start, int end) {
+        if (pattern != null) {
+            try (MaskTokens tokens = split(src, start, end)) {
+                return tokens.size();
+            }
+        }
+
+        int count = 0;
+        int trailingEmpty = 0; // 末尾连续空token个数
+        int position = start;
+        int index;
+        while ((limit == 0 || count < limit - 1) && (index = indexOf(src, position, end)) >= 0) {
+            trailingEmpty = index == position ? trailingEmpty + 1 : 0;
+            count++;
+            position = index + literal.length();
+        }
+        if (count == 0) {
+            // 没有匹配到分隔符
+            return 1;
+        }
+        trailingEmpty = position == end ? trailingEmpty + 1 : 0;
+        count++;
+        return limit == 0 ? count - trailingEmpty : count;
+    }
+
+    /**
+     * <pre>
+     * 是否可以直接在UTF-8字节上分隔，见{@link #split(byte[], int, int)}。
+     * 正则表达式、空字符串以及包含代理字符的分隔符不能在字节上分隔
+     * </pre>
+     *
+     * @return true: 可以在字节上分隔
+     */
+    public boolean supportsUtf8() {
+        return literalBytes != null;
+    }
+
+    /**
+     * 分隔UTF-8编码的src中[start, end)区间的内容，token的位置为字节位置，结果与解码后分隔的结果一致。
+     * 只能在{@link #supportsUtf8()}为true时调用，结果使用完后需要调用{@link MaskTokens#close()}
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return 分隔结果
+     */
+    public MaskTokens split(byte[] src, int start, int end) {
+        checkUtf8();
+        MaskTokens tokens = MaskTokens.acquire(src, start, end);
+        int position = start;
+        int index;
+        while ((limit == 0 || tokens.size() < limit - 1) && (index = indexOf(src, position, end)) >= 0) {
+            tokens.add(position, index);
+            position = index + literalBytes.length;
+        }
+        if (tokens.size() == 0) {
+            tokens.add(start, end);
+            return tokens;
+        }
+        tokens.add(position, end);
+        if (limit == 0) {
+            tokens.removeTrailingEmpty();
+        }
+        return tokens;
+    }
+
+    /**
+     * 只计算UTF-8编码的src中[start, end)区间分隔后的token个数，只能在{@link #supportsUtf8()}为true时调用
+     *
+     * @param src   合法的UTF-8字节数组
+     * @param start 开始位置（包含）
+     * @param end   结束位置（不包含）
+     * @return token个数
+     */
+    public int count(byte[] src, int start, int end) {
+        checkUtf8();
+        int count = 0;
+        int trailingEmpty = 0; // 末尾连续空token个数
+        int position = start;
+        int index;
+        while ((limit == 0 || count < limit - 1) && (index = indexOf(src, position, end)) >= 0) {
+            trailingEmpty = index == position ? trailingEmpty + 1 : 0;
+            count++;
+            position = index + literalBytes.length;
+        }
+        if (count == 0) {
+            return 1;
+        }
+        trailingEmpty = position == end ? trailingEmpty + 1 : 0;
+        count++;
+        return limit == 0 ? count - trailingEmpty : count;
+    }
+
+    private void checkUtf8() {
+        if (literalBytes == null) {
+            throw new UnsupportedOperationException("分隔符不能在UTF-8字节上分隔：" + (literal != null ? literal : pattern));
+        }
+    }
+
+    /**
+     * 在字节上查找分隔符的位置，UTF-8编码中每个字符的第一个字节与后续字节不同，不会匹配到字符的中间
+     *
+     * @return 分隔符在src中的位置，没有找到返回-1
+     */
+    private int indexOf(byte[] src, int from, int end) {
+        byte[] target = literalBytes;
+        byte first = target[0];
+        int max = end - target.length;
+        for (int i = from; i <= max; i++) {
+            if (src[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < target.length && src[i + j] == target[j]) {
+                j++;
+            }
+            if (j == target.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void splitByLiteral(CharSequence src, int start, int end, MaskTokens tokens) {
+        int position = start;
+        int index;
+        while ((limit == 0 || tokens.size() < limit - 1) && (index = indexOf(src, position, end)) >= 0) {
+            tokens.add(position, index);
+            position = index + literal.length();
+        }
+        if (tokens.size() == 0) {
+            // 没有匹配到分隔符
+            tokens.add(start, end);
+            return;
+        }
+        tokens.add(position, end);
+        if (limit == 0) {
+            tokens.removeTrailingEmpty();
+        }
+    }
+
+    /**
+     * 查找分隔符的位置，空分隔符匹配每个字符之后的位置
+     *
+     * @return 分隔符在src中的位置，没有找到返回-1
+     */
+    private int indexOf(CharSequence src, int from, int end) {
+        int length = literal.length();
+        if (length == 0) {
+            return from < end ? from + 1 : -1;
+        }
+        int max = end - length;
+        if (end == src.length() && src instanceof String) {
+            int index = ((String) src).indexOf(literal, from);
+            return index > max ? -1 : index;
+        }
+        char first = literal.charAt(0);
+        for (int i = from; i <= max; i++) {
+            if (src.charAt(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < length && src.charAt(i + j) == literal.charAt(j)) {
+                j++;
+            }
+            if (j == length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 与{@link Pattern#split(CharSequence, int)}的逻辑一致，只是记录token的位置
+     */
+    private void splitByRegex(CharSequence src, int start, int end, MaskTokens tokens) {
+        Matcher matcher = pattern.matcher(src);
+        matcher.region(start, end);
+        int position = start;
+        while ((limit == 0 || tokens.size() < limit - 1) && matcher.find()) {
+            if (matcher.start() == start && matcher.start() == matcher.end()) {
+                // 开头的零宽度匹配不产生空token
+                continue;
+            }
+            tokens.add(position, matcher.start());
+            position = matcher.end();
+        }
+        if (tokens.size() == 0) {
+            tokens.add(start, end);
+            return;
+        }
+        tokens.add(position, end);
+        if (limit == 0) {
+            tokens.removeTrailingEmpty();
+        }
+    }
+}
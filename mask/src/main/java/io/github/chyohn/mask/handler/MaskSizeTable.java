@@ -0,0 +1,123 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 按长度选择处理器的不可变查找表，由{@code Map<Integer, V>}编译而来。
+ * 查找规则与{@link MaskGroupHandler}、{@link MaskHandlerWithSizeSelector}一致：返回小于等于size的最大规格对应的值，
+ * 如果没有满足条件的规格，则返回构建时指定的缺省值。
+ *
+ * 1. 规格升序存放在int数组中，使用二分查找，复杂度O(log n)
+ * 2. 对于不超过{@link #DENSE_LIMIT}的size，预先计算好结果，直接按下标取值，复杂度O(1)
+ * 查找过程不会产生任何对象。
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskSizeTable<V> {
+
+    private static final int DENSE_LIMIT = 64;
+
+    private final int[] sizes; // 升序排列的规格
+    private final Object[] values; // 与sizes下标一一对应的值
+    private final Object[] dense; // 下标为size，值为size对应的查找结果
+    private final Object absent; // 没有匹配规格时的返回值
+
+    private MaskSizeTable(int[] sizes, Object[] values, Object absent) {
+        this.sizes = sizes;
+        this.values = values;
+        this.absent = absent;
+
+        int max = sizes.length == 0 ? -1 : sizes[sizes.length - 1];
+        int denseLength = Math.max(0, Math.min(max, DENSE_LIMIT) + 1);
+        this.dense = new Object[denseLength];
+        for (int i = 0; i < denseLength; i++) {
+            dense[i] = search(i);
+        }
+    }
+
+    /**
+     * 编译查找表
+     *
+     * @param valueOfSize 规格与值的映射
+     * @param absent      没有匹配规格时的返回值
+     * @param <V>         值类型
+     * @return 不可变查找表
+     */
+    static <V> MaskSizeTable<V> of(Map<Integer, V> valueOfSize, V absent) {
+        int[] sizes = new int[valueOfSize.size()];
+        int i = 0;
+        for (Integer size : valueOfSize.keySet()) {
+            sizes[i++] = size;
+        }
+        Arrays.sort(sizes);
+
+        Object[] values = new Object[sizes.length];
+        for (i = 0; i < sizes.length; i++) {
+            values[i] = valueOfSize.get(sizes[i]);
+        }
+        return new MaskSizeTable<>(sizes, values, absent);
+    }
+
+    /**
+     * 获取小于等于size的最大规格对应的值
+     *
+     * @param size 字符串长度或分隔后的字符串数组长度
+     * @return 匹配的值，没有匹配的规格则返回缺省值
+     */
+    @SuppressWarnings("unchecked")
+    V floor(int size) {
+        if (size >= 0 && size < dense.length) {
+            return (V) dense[size];
+        }
+        return (V) search(size);
+    }
+
+    /**
+     * 直接在映射上查找小于等于size的最大规格对应的值，规则与{@link #floor(int)}一致。
+     * 用于未编译的处理器，每次查找都读取当前的映射，对映射的修改立即生效
+     *
+     * @param valueOfSize 规格与值的映射
+     * @param size        字符串长度或分隔后的字符串数组长度
+     * @param absent      没有匹配规格时的返回值
+     * @param <V>         值类型
+     * @return 匹配的值，没有匹配的规格则返回缺省值
+     */
+    static <V> V floor(Map<Integer, V> valueOfSize, int size, V absent) {
+        Integer match = null;
+        for (Integer key : valueOfSize.keySet()) {
+            if (key <= size && (match == null || key > match)) {
+                match = key;
+            }
+        }
+        return match == null ? absent : valueOfSize.get(match);
+    }
+
+    private Object search(int size) {
+        int index = Arrays.binarySearch(sizes, size);
+        if (index < 0) {
+            // 插入点的前一个位置即为小于size的最大规格
+            index = -index - 2;
+        }
+        return index < 0 ? absent : values[index];
+    }
+}
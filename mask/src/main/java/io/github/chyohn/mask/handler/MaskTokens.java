@@ -0,0 +1,196 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package io.github.chyohn.mask.handler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ * 字符串分隔结果，只记录每个token在源字符串中的开始和结束位置，不会为token创建字符串对象。
+ *
+ * 对象由{@link MaskSeparator#split(CharSequence, int, int)}从当前线程的对象池中获取，使用完后需要调用{@link #close()}归还，
+ * 建议使用try-with-resources语句：
+ * {@code
+ * try (MaskTokens tokens = separator.split(src, start, end)) {
+ *     for (int i = 0; i < tokens.size(); i++) {
+ *         // tokens.start(i), tokens.end(i)
+ *     }
+ * }
+ * }
+ * 嵌套的处理器在同一线程中会获取到不同的对象，互不影响。
+ * 由{@link MaskSeparator#split(byte[], int, int)}分隔UTF-8字节时，token的位置为字节位置，源字节数组见{@link #bytes()}。
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskTokens implements AutoCloseable {
+
+    private static final ThreadLocal<MaskTokens> POOL = ThreadLocal.withInitial(MaskTokens::new);
+
+    private CharSequence src; // 源字符串
+    private byte[] bytes; // 源UTF-8字节数组，与src只有一个不为null
+    private int regionStart; // 被分隔部分在src中的开始位置
+    private int regionEnd; // 被分隔部分在src中的结束位置
+    private int[] bounds = new int[16]; // 第i个token的开始位置为bounds[2i]，结束位置为bounds[2i+1]
+    private int size; // token个数
+    private boolean inUse; // 是否正在使用
+    private MaskTokens next; // 嵌套使用时的下一个对象
+
+    private MaskTokens() {
+    }
+
+    /**
+     * 从当前线程的对象池中获取一个未使用的对象
+     */
+    static MaskTokens acquire(CharSequence src, int start, int end) {
+        MaskTokens tokens = acquire(start, end);
+        tokens.src = src;
+        return tokens;
+    }
+
+    /**
+     * 从当前线程的对象池中获取一个未使用的对象，用于分隔UTF-8字节
+     */
+    static MaskTokens acquire(byte[] bytes, int start, int end) {
+        MaskTokens tokens = acquire(start, end);
+        tokens.bytes = bytes;
+        return tokens;
+    }
+
+    private static MaskTokens acquire(int start, int end) {
+        MaskTokens tokens = POOL.get();
+        while (tokens.inUse) {
+            if (tokens.next == null) {
+                tokens.next = new MaskTokens();
+            }
+            tokens = tokens.next;
+        }
+        tokens.inUse = true;
+        tokens.regionStart = start;
+        tokens.regionEnd = end;
+        tokens.size = 0;
+        return tokens;
+    }
+
+    void add(int start, int end) {
+        int index = size << 1;
+        if (index == bounds.length) {
+            bounds = Arrays.copyOf(bounds, index << 1);
+        }
+        bounds[index] = start;
+        bounds[index + 1] = end;
+        size++;
+    }
+
+    /**
+     * 移除末尾的空token，与{@link String#split(String)}的结果保持一致
+     */
+    void removeTrailingEmpty() {
+        while (size > 0 && start(size - 1) == end(size - 1)) {
+            size--;
+        }
+    }
+
+    /**
+     * @return token个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param index token下标
+     * @return 第index个token在源字符串中的开始位置（包含）
+     */
+    public int start(int index) {
+        return bounds[index << 1];
+    }
+
+    /**
+     * @param index token下标
+     * @return 第index个token在源字符串中的结束位置（不包含）
+     */
+    public int end(int index) {
+        return bounds[(index << 1) + 1];
+    }
+
+    /**
+     * @return 源字符串，分隔UTF-8字节时为null
+     */
+    public CharSequence source() {
+        return src;
+    }
+
+    /**
+     * @return 源UTF-8字节数组，分隔字符串时为null
+     */
+    public byte[] bytes() {
+        return bytes;
+    }
+
+    /**
+     * @return 被分隔部分在源字符串中的开始位置（包含）
+     */
+    public int regionStart() {
+        return regionStart;
+    }
+
+    /**
+     * @return 被分隔部分在源字符串中的结束位置（不包含）
+     */
+    public int regionEnd() {
+        return regionEnd;
+    }
+
+    /**
+     * 创建第index个token的字符串
+     *
+     * @param index token下标
+     * @return token字符串
+     */
+    public String get(int index) {
+        if (bytes != null) {
+            return new String(bytes, start(index), end(index) - start(index), StandardCharsets.UTF_8);
+        }
+        return src.subSequence(start(index), end(index)).toString();
+    }
+
+    /**
+     * 创建所有token的字符串数组，结果与{@link String#split(String)}一致
+     *
+     * @return token字符串数组
+     */
+    public String[] toArray() {
+        String[] result = new String[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 归还到对象池
+     */
+    @Override
+    public void close() {
+        src = null;
+        bytes = null;
+        inUse = false;
+    }
+}
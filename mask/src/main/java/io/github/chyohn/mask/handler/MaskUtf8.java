@@ -0,0 +1,346 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.handler;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <pre>
+ * 在UTF-8字节上按字符（char）计算长度和位置的工具方法，计算结果与解码为字符串后的结果一致：
+ * 1. 1~3个字节的编码对应1个char，4个字节的编码对应2个char（代理对）
+ * 2. 除{@link #isWellFormed(byte[], int, int)}外，其他方法要求字节是合法的UTF-8编码
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskUtf8 {
+
+    private MaskUtf8() {
+    }
+
+    /**
+     * 判断src中[start, end)区间是否是合法的UTF-8编码，与{@link StandardCharsets#UTF_8}解码器的规则一致：
+     * 不允许超长编码、代理区的码点、大于U+10FFFF的码点以及不完整的编码
+     */
+    static boolean isWellFormed(byte[] src, int start, int end) {
+        int i = start;
+        while (i < end) {
+            int b = src[i];
+            if (b >= 0) {
+                i++;
+                continue;
+            }
+            b &= 0xFF;
+            if (b < 0xC2) {
+                return false;
+            }
+            if (b < 0xE0) {
+                if (i + 1 >= end || !isContinuation(src[i + 1])) {
+                    return false;
+                }
+                i += 2;
+                continue;
+            }
+            if (b < 0xF0) {
+                if (i + 2 >= end) {
+                    return false;
+                }
+                int b1 = src[i + 1] & 0xFF;
+                if (b == 0xE0 ? b1 < 0xA0 || b1 > 0xBF : b == 0xED ? b1 < 0x80 || b1 > 0x9F : !isContinuation(src[i + 1])) {
+                    return false;
+                }
+                if (!isContinuation(src[i + 2])) {
+                    return false;
+                }
+                i += 3;
+                continue;
+            }
+            if (b > 0xF4 || i + 3 >= end) {
+                return false;
+            }
+            int b1 = src[i + 1] & 0xFF;
+            if (b == 0xF0 ? b1 < 0x90 || b1 > 0xBF : b == 0xF4 ? b1 < 0x80 || b1 > 0x8F : !isContinuation(src[i + 1])) {
+                return false;
+            }
+            if (!isContinuation(src[i + 2]) || !isContinuation(src[i + 3])) {
+                return false;
+            }
+            i += 4;
+        }
+        return true;
+    }
+
+    /**
+     * @return src中[start, end)区间解码后的字符（char）个数
+     */
+    static int length(byte[] src, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            int b = src[i];
+            if (b >= 0) {
+                length++;
+            } else if ((b & 0xC0) != 0x80) {
+                // 4个字节的编码对应2个char
+                length += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 从start开始向后跳过chars个字符（char）
+     *
+     * @return 跳过后的位置，落在4个字节编码的代理对中间时返回-1
+     */
+    static int offset(byte[] src, int start, int end, int chars) {
+        int i = start;
+        while (chars > 0 && i < end) {
+            int n = sequenceLength(src[i]);
+            if (n == 4) {
+                if (chars == 1) {
+                    return -1;
+                }
+                chars -= 2;
+            } else {
+                chars--;
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    /**
+     * 从end开始向前跳过chars个字符（char）
+     *
+     * @return 跳过后的位置，落在4个字节编码的代理对中间时返回-1
+     */
+    static int offsetFromEnd(byte[] src, int start, int end, int chars) {
+        int i = end;
+        while (chars > 0 && i > start) {
+            int lead = i - 1;
+            while (lead > start && isContinuation(src[lead])) {
+                lead--;
+            }
+            if (i - lead == 4) {
+                if (chars == 1) {
+                    return -1;
+                }
+                chars -= 2;
+            } else {
+                chars--;
+            }
+            i = lead;
+        }
+        return i;
+    }
+
+    /**
+     * @param lead 编码的第一个字节
+     * @return 编码的字节数
+     */
+    static int sequenceLength(byte lead) {
+        if (lead >= 0) {
+            return 1;
+        }
+        if ((lead & 0xE0) == 0xC0) {
+            return 2;
+        }
+        return (lead & 0xF0) == 0xE0 ? 3 : 4;
+    }
+
+    /**
+     * 解码1~3个字节的编码
+     *
+     * @param n 编码的字节数，见{@link #sequenceLength(byte)}
+     */
+    static char decodeChar(byte[] src, int i, int n) {
+        if (n == 1) {
+            return (char) src[i];
+        }
+        if (n == 2) {
+            return (char) (((src[i] & 0x1F) << 6) | (src[i + 1] & 0x3F));
+        }
+        return (char) (((src[i] & 0x0F) << 12) | ((src[i + 1] & 0x3F) << 6) | (src[i + 2] & 0x3F));
+    }
+
+    /**
+     * 解码4个字节的编码
+     */
+    static int decodeCodePoint(byte[] src, int i) {
+        return ((src[i] & 0x07) << 18) | ((src[i + 1] & 0x3F) << 12) | ((src[i + 2] & 0x3F) << 6)
+            | (src[i + 3] & 0x3F);
+    }
+
+    /**
+     * 与{@link #isWellFormed(byte[], int, int)}一致，使用绝对位置读取，不修改buffer的position
+     */
+    static boolean isWellFormed(ByteBuffer src, int start, int end) {
+        if (src.hasArray()) {
+            int offset = src.arrayOffset();
+            return isWellFormed(src.array(), offset + start, offset + end);
+        }
+        int i = start;
+        while (i < end) {
+            int b = src.get(i);
+            if (b >= 0) {
+                i++;
+                continue;
+            }
+            b &= 0xFF;
+            if (b < 0xC2) {
+                return false;
+            }
+            if (b < 0xE0) {
+                if (i + 1 >= end || !isContinuation(src.get(i + 1))) {
+                    return false;
+                }
+                i += 2;
+                continue;
+            }
+            if (b < 0xF0) {
+                if (i + 2 >= end) {
+                    return false;
+                }
+                int b1 = src.get(i + 1) & 0xFF;
+                if (b == 0xE0 ? b1 < 0xA0 || b1 > 0xBF : b == 0xED ? b1 < 0x80 || b1 > 0x9F : !isContinuation(src.get(i + 1))) {
+                    return false;
+                }
+                if (!isContinuation(src.get(i + 2))) {
+                    return false;
+                }
+                i += 3;
+                continue;
+            }
+            if (b > 0xF4 || i + 3 >= end) {
+                return false;
+            }
+            int b1 = src.get(i + 1) & 0xFF;
+            if (b == 0xF0 ? b1 < 0x90 || b1 > 0xBF : b == 0xF4 ? b1 < 0x80 || b1 > 0x8F : !isContinuation(src.get(i + 1))) {
+                return false;
+            }
+            if (!isContinuation(src.get(i + 2)) || !isContinuation(src.get(i + 3))) {
+                return false;
+            }
+            i += 4;
+        }
+        return true;
+    }
+
+    /**
+     * 与{@link #length(byte[], int, int)}一致，使用绝对位置读取
+     */
+    static int length(ByteBuffer src, int start, int end) {
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            int b = src.get(i);
+            if (b >= 0) {
+                length++;
+            } else if ((b & 0xC0) != 0x80) {
+                length += (b & 0xF8) == 0xF0 ? 2 : 1;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * 与{@link #offset(byte[], int, int, int)}一致，使用绝对位置读取
+     */
+    static int offset(ByteBuffer src, int start, int end, int chars) {
+        int i = start;
+        while (chars > 0 && i < end) {
+            int n = sequenceLength(src.get(i));
+            if (n == 4) {
+                if (chars == 1) {
+                    return -1;
+                }
+                chars -= 2;
+            } else {
+                chars--;
+            }
+            i += n;
+        }
+        return i;
+    }
+
+    /**
+     * 与{@link #offsetFromEnd(byte[], int, int, int)}一致，使用绝对位置读取
+     */
+    static int offsetFromEnd(ByteBuffer src, int start, int end, int chars) {
+        int i = end;
+        while (chars > 0 && i > start) {
+            int lead = i - 1;
+            while (lead > start && isContinuation(src.get(lead))) {
+                lead--;
+            }
+            if (i - lead == 4) {
+                if (chars == 1) {
+                    return -1;
+                }
+                chars -= 2;
+            } else {
+                chars--;
+            }
+            i = lead;
+        }
+        return i;
+    }
+
+    /**
+     * 与{@link #decodeChar(byte[], int, int)}一致，使用绝对位置读取
+     */
+    static char decodeChar(ByteBuffer src, int i, int n) {
+        if (n == 1) {
+            return (char) src.get(i);
+        }
+        if (n == 2) {
+            return (char) (((src.get(i) & 0x1F) << 6) | (src.get(i + 1) & 0x3F));
+        }
+        return (char) (((src.get(i) & 0x0F) << 12) | ((src.get(i + 1) & 0x3F) << 6) | (src.get(i + 2) & 0x3F));
+    }
+
+    /**
+     * 与{@link #decodeCodePoint(byte[], int)}一致，使用绝对位置读取
+     */
+    static int decodeCodePoint(ByteBuffer src, int i) {
+        return ((src.get(i) & 0x07) << 18) | ((src.get(i + 1) & 0x3F) << 12) | ((src.get(i + 2) & 0x3F) << 6)
+            | (src.get(i + 3) & 0x3F);
+    }
+
+    /**
+     * 编码为UTF-8
+     *
+     * @return 编码结果，str为null或者包含代理字符时返回null，这时与相邻内容一起编码的结果可能不同
+     */
+    static byte[] encode(String str) {
+        if (str == null) {
+            return null;
+        }
+        for (int i = 0; i < str.length(); i++) {
+            if (Character.isSurrogate(str.charAt(i))) {
+                return null;
+            }
+        }
+        return str.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+}
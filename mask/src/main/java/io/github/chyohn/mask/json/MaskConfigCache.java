@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.json;
+
+import io.github.chyohn.mask.IMaskHandler;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 缓存由配置JSON创建并{@link IMaskHandler#compile() 编译}后的脱敏处理器，相同的配置返回同一个处理器对象。
+ * 1. 缓存的条目数有上限，超过上限时淘汰最近最少使用的条目
+ * 2. 缓存分为多个段，每个段单独加锁，减少多线程之间的竞争；解析配置在锁外进行
+ * 3. 记录命中、未命中和淘汰次数
+ * 缓存的处理器是编译后的不可变处理器，可以在多个线程之间共享，不能再修改配置。
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskConfigCache {
+
+    private final Segment[] segments;
+    private final int maximumSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maximumSize 最多缓存的处理器个数
+     */
+    public MaskConfigCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize不能小于1");
+        }
+        this.maximumSize = maximumSize;
+        int count = 1;
+        while (count < 16 && count << 1 <= maximumSize) {
+            count <<= 1;
+        }
+        this.segments = new Segment[count];
+        // 各段容量之和等于maximumSize
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(maximumSize / count + (i < maximumSize % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * 返回配置对应的编译后的处理器，缓存中没有时解析配置并编译
+     *
+     * @param config 由{@link IMaskHandler#toConfig()}生成的配置
+     * @return 编译后的处理器
+     */
+    public IMaskHandler get(String config) {
+        Segment segment = segmentFor(config);
+        IMaskHandler handler;
+        synchronized (segment) {
+            handler = segment.get(config);
+        }
+        if (handler != null) {
+            hits.increment();
+            return handler;
+        }
+        misses.increment();
+        IMaskHandler created = MaskHandlerJSONParser.fromJSON(config).compile();
+        synchronized (segment) {
+            // 其他线程可能已经放入了相同的配置，使用先放入的处理器，保证相同配置返回同一个对象
+            handler = segment.putIfAbsent(config, created);
+        }
+        return handler == null ? created : handler;
+    }
+
+    /**
+     * @return 当前缓存的处理器个数
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * 清空缓存，统计数据不变
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    /**
+     * @return 缓存统计数据
+     */
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size(), maximumSize);
+    }
+
+    private Segment segmentFor(String config) {
+        int hash = config.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * 按访问顺序排列的段，超过容量时淘汰最久未访问的条目
+     */
+    private final class Segment extends LinkedHashMap<String, IMaskHandler> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, IMaskHandler> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 缓存统计数据
+     */
+    @Getter
+    @ToString
+    @AllArgsConstructor
+    public static final class Stats {
+
+        private final long hitCount; // 命中次数
+        private final long missCount; // 未命中次数
+        private final long evictionCount; // 淘汰次数
+        private final int size; // 当前缓存的处理器个数
+        private final int maximumSize; // 最多缓存的处理器个数
+
+        /**
+         * @return 命中率，没有访问时为1
+         */
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 1.0 : (double) hitCount / total;
+        }
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskItemHandler;
+import io.github.chyohn.mask.IMaskSeparableHandler;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
+import io.github.chyohn.mask.handler.MaskIgnore;
+import io.github.chyohn.mask.handler.MaskItemAppendOuter;
+import io.github.chyohn.mask.handler.MaskItemInner;
+import io.github.chyohn.mask.handler.MaskItemLetter;
+import io.github.chyohn.mask.handler.MaskItemNumber;
+import io.github.chyohn.mask.handler.MaskItemOuter;
+import io.github.chyohn.mask.handler.MaskMemoizeHandler;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <pre>
+ * 直接从{@link JsonParser}读取内置脱敏处理器的配置，不经过ObjectMapper的多态类型解析和反射。
+ * 只支持{@link IMaskHandler#toConfig()}输出的格式（"@class"为第一个字段，值为短名称或类全名）；
+ * 遇到不支持的内容（比如自定义的处理器类型、需要类型转换的值、格式错误）时抛出{@link UnsupportedConfigException}，
+ * 由调用方改用ObjectMapper解析，保证结果与ObjectMapper一致
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskConfigReader {
+
+    private static final String TYPE_PROPERTY = "@class";
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private MaskConfigReader() {
+    }
+
+    /**
+     * 读取配置
+     *
+     * @param json 配置JSON
+     * @return 脱敏处理器
+     * @throws UnsupportedConfigException 配置中有不支持的内容
+     */
+    static IMaskHandler read(String json) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            parser.nextToken();
+            IMaskHandler handler = readHandler(parser);
+            if (parser.nextToken() != null) {
+                throw UnsupportedConfigException.INSTANCE;
+            }
+            return handler;
+        } catch (UnsupportedConfigException e) {
+            throw e;
+        } catch (Exception e) {
+            // 格式错误或者处理器校验失败，交给ObjectMapper解析并抛出它的异常
+            throw UnsupportedConfigException.INSTANCE;
+        }
+    }
+
+    private static IMaskHandler readHandler(JsonParser parser) throws Exception {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(token == JsonToken.START_OBJECT);
+        expect(parser.nextToken() == JsonToken.FIELD_NAME && TYPE_PROPERTY.equals(parser.getCurrentName()));
+        expect(parser.nextToken() == JsonToken.VALUE_STRING);
+        IMaskHandler handler = newHandler(MaskHandlerMiniNameEnum.getInstanceByTypeId(parser.getText()));
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            readProperty(handler, name, parser);
+        }
+        expect(parser.currentToken() == JsonToken.END_OBJECT);
+        return handler;
+    }
+
+    private static IMaskHandler newHandler(MaskHandlerMiniNameEnum type) {
+        if (type == null) {
+            throw UnsupportedConfigException.INSTANCE;
+        }
+        switch (type) {
+            case MASK_GROUP:
+                return new MaskGroupHandler();
+            case MASK_WITH_SIZE:
+                return new MaskHandlerWithSizeSelector();
+            case MASK_APPENDER:
+                return new MaskItemAppendOuter();
+            case MASK_INNER:
+                return new MaskItemInner();
+            case MASK_OUTER:
+                return new MaskItemOuter();
+            case MASK_LETTER:
+                return new MaskItemLetter();
+            case MASK_NUMBER:
+                return new MaskItemNumber();
+            case MASK_IGNORE:
+                return new MaskIgnore();
+            case MASK_MEMOIZE:
+                return new MaskMemoizeHandler();
+            default:
+                throw UnsupportedConfigException.INSTANCE;
+        }
+    }
+
+    private static void readProperty(IMaskHandler handler, String name, JsonParser parser) throws Exception {
+        if (handler instanceof IMaskSeparableHandler && readSeparableProperty((IMaskSeparableHandler<?>) handler, name, parser)) {
+            return;
+        }
+        if (handler instanceof IMaskItemHandler && readItemProperty((IMaskItemHandler<?>) handler, name, parser)) {
+            return;
+        }
+        if ("leftSize".equals(name) || "rightSize".equals(name)) {
+            int size = readInt(parser);
+            boolean left = "leftSize".equals(name);
+            if (handler instanceof MaskItemInner) {
+                setSize((MaskItemInner) handler, left, size);
+                return;
+            }
+            if (handler instanceof MaskItemOuter) {
+                setSize((MaskItemOuter) handler, left, size);
+                return;
+            }
+            if (handler instanceof MaskItemAppendOuter) {
+                setSize((MaskItemAppendOuter) handler, left, size);
+                return;
+            }
+        } else if (handler instanceof MaskGroupHandler) {
+            MaskGroupHandler group = (MaskGroupHandler) handler;
+            if ("handlersOfSize".equals(name)) {
+                group.setHandlersOfSize(readHandlersOfSize(parser));
+                return;
+            }
+            if ("defaultHandler".equals(name)) {
+                group.setDefaultHandler(readHandler(parser));
+                return;
+            }
+        } else if (handler instanceof MaskMemoizeHandler) {
+            MaskMemoizeHandler memoize = (MaskMemoizeHandler) handler;
+            switch (name) {
+                case "handler":
+                    memoize.setHandler(readHandler(parser));
+                    return;
+                case "maximumSize":
+                    memoize.setMaximumSize(readInt(parser));
+                    return;
+                case "maximumWeight":
+                    memoize.setMaximumWeight(readLong(parser));
+                    return;
+                case "expireAfterWriteMillis":
+                    memoize.setExpireAfterWriteMillis(readLong(parser));
+                    return;
+                default:
+                    break;
+            }
+        } else if (handler instanceof MaskHandlerWithSizeSelector) {
+            MaskHandlerWithSizeSelector selector = (MaskHandlerWithSizeSelector) handler;
+            if ("handlerOfSize".equals(name)) {
+                selector.setHandlerOfSize(readHandlerOfSize(parser));
+                return;
+            }
+            if ("defaultHandler".equals(name)) {
+                selector.setDefaultHandler(readHandler(parser));
+                return;
+            }
+        }
+        // 未知属性忽略，与ObjectMapper的FAIL_ON_UNKNOWN_PROPERTIES=false一致
+        parser.skipChildren();
+    }
+
+    private static boolean readSeparableProperty(IMaskSeparableHandler<?> handler, String name, JsonParser parser)
+        throws Exception {
+        switch (name) {
+            case "separator":
+                handler.setSeparator(readString(parser));
+                return true;
+            case "separatorRegex":
+                handler.setSeparatorRegex(readString(parser));
+                return true;
+            case "separateLimit":
+                handler.setSeparateLimit(readInt(parser));
+                return true;
+            case "outputDelimiter":
+                handler.setOutputDelimiter(readString(parser));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean readItemProperty(IMaskItemHandler<?> handler, String name, JsonParser parser)
+        throws Exception {
+        switch (name) {
+            case "maskStr":
+                handler.setMaskStr(readString(parser));
+                return true;
+            case "maskLength":
+                handler.setMaskLength(readInt(parser));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void setSize(MaskItemInner handler, boolean left, int size) {
+        if (left) {
+            handler.setLeftSize(size);
+        } else {
+            handler.setRightSize(size);
+        }
+    }
+
+    private static void setSize(MaskItemOuter handler, boolean left, int size) {
+        if (left) {
+            handler.setLeftSize(size);
+        } else {
+            handler.setRightSize(size);
+        }
+    }
+
+    private static void setSize(MaskItemAppendOuter handler, boolean left, int size) {
+        if (left) {
+            handler.setLeftSize(size);
+        } else {
+            handler.setRightSize(size);
+        }
+    }
+
+    /**
+     * 读取{@link MaskGroupHandler}的处理器列表，格式：{"@class":"null","2":["[LMASK_INTERFACE;",[{...},{...}]]}
+     */
+    private static Map<Integer, IMaskHandler[]> readHandlersOfSize(JsonParser parser) throws Exception {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        Map<Integer, IMaskHandler[]> map = new LinkedHashMap<>();
+        readMap(parser, size -> {
+            if (parser.currentToken() == JsonToken.VALUE_NULL) {
+                map.put(size, null);
+                return;
+            }
+            expect(parser.currentToken() == JsonToken.START_ARRAY);
+            expect(parser.nextToken() == JsonToken.VALUE_STRING);
+            Class<?> componentType = arrayComponentType(parser.getText());
+            expect(parser.nextToken() == JsonToken.START_ARRAY);
+            List<IMaskHandler> handlers = new ArrayList<>();
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                handlers.add(readHandler(parser));
+            }
+            expect(parser.nextToken() == JsonToken.END_ARRAY);
+            IMaskHandler[] array = (IMaskHandler[]) Array.newInstance(componentType, handlers.size());
+            map.put(size, handlers.toArray(array));
+        });
+        return map;
+    }
+
+    /**
+     * 读取{@link MaskHandlerWithSizeSelector}的处理器，格式：{"@class":"null","1":{...},"2":{...}}
+     */
+    private static Map<Integer, IMaskHandler> readHandlerOfSize(JsonParser parser) throws Exception {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        Map<Integer, IMaskHandler> map = new LinkedHashMap<>();
+        readMap(parser, size -> map.put(size, readHandler(parser)));
+        return map;
+    }
+
+    private static void readMap(JsonParser parser, EntryReader reader) throws Exception {
+        expect(parser.currentToken() == JsonToken.START_OBJECT);
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.FIELD_NAME && TYPE_PROPERTY.equals(parser.getCurrentName())) {
+            expect(parser.nextToken() == JsonToken.VALUE_STRING);
+            token = parser.nextToken();
+        }
+        while (token == JsonToken.FIELD_NAME) {
+            int size = Integer.parseInt(parser.getCurrentName());
+            parser.nextToken();
+            reader.read(size);
+            token = parser.nextToken();
+        }
+        expect(token == JsonToken.END_OBJECT);
+    }
+
+    /**
+     * 解析数组类型，比如"[LMASK_INTERFACE;"
+     */
+    private static Class<?> arrayComponentType(String typeId) {
+        expect(typeId.startsWith("[L") && typeId.endsWith(";"));
+        MaskHandlerMiniNameEnum type = MaskHandlerMiniNameEnum.getInstanceByTypeId(typeId.substring(2, typeId.length() - 1));
+        expect(type != null);
+        return type.getMaskClass();
+    }
+
+    private static String readString(JsonParser parser) throws Exception {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        expect(token == JsonToken.VALUE_STRING);
+        return parser.getText();
+    }
+
+    private static int readInt(JsonParser parser) throws Exception {
+        expect(parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+            && parser.getNumberType() == JsonParser.NumberType.INT);
+        return parser.getIntValue();
+    }
+
+    private static long readLong(JsonParser parser) throws Exception {
+        expect(parser.currentToken() == JsonToken.VALUE_NUMBER_INT
+            && parser.getNumberType() != JsonParser.NumberType.BIG_INTEGER);
+        return parser.getLongValue();
+    }
+
+    private static void expect(boolean condition) {
+        if (!condition) {
+            throw UnsupportedConfigException.INSTANCE;
+        }
+    }
+
+    @FunctionalInterface
+    private interface EntryReader {
+        void read(int size) throws Exception;
+    }
+
+    /**
+     * 配置中有不支持的内容，需要改用ObjectMapper解析
+     */
+    static final class UnsupportedConfigException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+        static final UnsupportedConfigException INSTANCE = new UnsupportedConfigException();
+
+        private UnsupportedConfigException() {
+            super("unsupported config", null, false, false);
+        }
+    }
+}
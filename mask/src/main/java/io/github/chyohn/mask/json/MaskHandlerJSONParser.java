@@ -19,6 +19,7 @@ package io.github.chyohn.mask.json;
 import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonValue;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
@@ -27,13 +28,14 @@ import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTypeResolverBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.deser.DeserializationProblemHandler;
 import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
 import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
 
 import java.io.IOException;
 
@@ -46,6 +48,7 @@ import java.io.IOException;
 public class MaskHandlerJSONParser {
 
     private static ObjectMapper OBJ_MAPPER;
+    private static ObjectReader HANDLER_READER; // 由OBJ_MAPPER创建的可复用reader
 
     static {
         ObjectMapper objectMapper = (new ObjectMapper())
@@ -76,14 +79,24 @@ public class MaskHandlerJSONParser {
     }
 
     /**
-     * 把JSON转为{@link IMaskHandler} 对象
+     * <pre>
+     * 把JSON转为{@link IMaskHandler} 对象。
+     * 内置处理器的配置直接从JsonParser读取；包含自定义处理器等其他内容时使用ObjectMapper解析
+     * </pre>
      *
      * @param json the json of handler
      * @return handler
      */
     public static IMaskHandler fromJSON(String json) {
+        if (json != null) {
+            try {
+                return MaskConfigReader.read(json);
+            } catch (MaskConfigReader.UnsupportedConfigException e) {
+                // 使用ObjectMapper解析
+            }
+        }
         try {
-            return OBJ_MAPPER.readValue(json, IMaskHandler.class);
+            return HANDLER_READER.readValue(json);
         } catch (IOException e) {
             throw new JacksonIOException(e);
         }
@@ -95,17 +108,29 @@ public class MaskHandlerJSONParser {
      * @param objectMapper jackson mapper
      */
     public static void setObjectMapper(ObjectMapper objectMapper) {
-        // 初始化脱敏MaskHandler相关的json配置
+        // 初始化脱敏MaskHandler相关的json配置，类型ID只允许解析为脱敏处理器
         TypeResolverBuilder<?> builder = DefaultTypeResolverBuilder
-            .construct(DefaultTyping.NON_FINAL, LaissezFaireSubTypeValidator.instance);
+            .construct(DefaultTyping.NON_FINAL, MaskHandlerTypeValidator.INSTANCE);
         builder = builder.inclusion(JsonTypeInfo.As.PROPERTY);
         // 配置脱敏处理器短名称生成器
         builder = builder.init(JsonTypeInfo.Id.CLASS, new MaskHandlerMiniNameResolver(objectMapper.getTypeFactory()));
         objectMapper.setDefaultTyping(builder);
         // 配置非脱敏处理器类型JavaType处理器
         objectMapper.addHandler(new UnMaskHandlerTypeHandler());
+        // 包装处理器按被包装的处理器输出配置
+        objectMapper.addMixIn(IMaskHandlerWrapper.class, MaskHandlerWrapperMixIn.class);
 
         OBJ_MAPPER = objectMapper;
+        HANDLER_READER = objectMapper.readerFor(IMaskHandler.class);
+    }
+
+    /**
+     * {@link IMaskHandlerWrapper}序列化时直接输出被包装的处理器
+     */
+    abstract static class MaskHandlerWrapperMixIn {
+
+        @JsonValue
+        abstract IMaskHandler unwrap();
     }
 
     /**
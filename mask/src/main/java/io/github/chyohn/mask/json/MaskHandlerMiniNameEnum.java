@@ -26,6 +26,10 @@ import io.github.chyohn.mask.handler.MaskItemInner;
 import io.github.chyohn.mask.handler.MaskItemLetter;
 import io.github.chyohn.mask.handler.MaskItemNumber;
 import io.github.chyohn.mask.handler.MaskItemOuter;
+import io.github.chyohn.mask.handler.MaskMemoizeHandler;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * {@link IMaskHandler} 实现类的短名称配置枚举，以便在json输出类型时使用短名称描述类名，比如下面的json片段
@@ -54,7 +58,20 @@ enum MaskHandlerMiniNameEnum {
     MASK_OUTER(MaskItemOuter.class),
     MASK_LETTER(MaskItemLetter.class),
     MASK_NUMBER(MaskItemNumber.class),
-    MASK_IGNORE(MaskIgnore.class);
+    MASK_IGNORE(MaskIgnore.class),
+    MASK_MEMOIZE(MaskMemoizeHandler.class);
+
+    private static final Map<String, MaskHandlerMiniNameEnum> BY_MINI_NAME = new HashMap<>();
+    private static final Map<String, MaskHandlerMiniNameEnum> BY_CLASS_NAME = new HashMap<>();
+    private static final Map<Class<?>, MaskHandlerMiniNameEnum> BY_CLASS = new HashMap<>();
+
+    static {
+        for (MaskHandlerMiniNameEnum value : values()) {
+            BY_MINI_NAME.put(value.getMiniName(), value);
+            BY_CLASS_NAME.put(value.getMaskClassName(), value);
+            BY_CLASS.put(value.maskClass, value);
+        }
+    }
 
     private final Class<? extends IMaskHandler> maskClass;
 
@@ -71,25 +88,26 @@ enum MaskHandlerMiniNameEnum {
     }
 
     static MaskHandlerMiniNameEnum getInstance(String miniName) {
+        return BY_MINI_NAME.get(miniName);
+    }
 
-        for (MaskHandlerMiniNameEnum value : values()) {
-            if (value.getMiniName().equals(miniName)) {
-                return value;
-            }
-        }
-        return null;
+    /**
+     * 根据短名称或者类全名查找
+     *
+     * @param typeId 短名称或者类全名
+     * @return 对应的枚举，没有时返回null
+     */
+    static MaskHandlerMiniNameEnum getInstanceByTypeId(String typeId) {
+        MaskHandlerMiniNameEnum value = BY_MINI_NAME.get(typeId);
+        return value == null ? BY_CLASS_NAME.get(typeId) : value;
     }
 
     static MaskHandlerMiniNameEnum getInstance(Class<?> clazz) {
-        if (!IMaskHandler.class.isAssignableFrom(clazz)) {
-            return null;
-        }
-        for (MaskHandlerMiniNameEnum value : values()) {
-            if (value.maskClass == clazz) {
-                return value;
-            }
-        }
-        return null;
+        return BY_CLASS.get(clazz);
+    }
+
+    Class<? extends IMaskHandler> getMaskClass() {
+        return maskClass;
     }
 
 }
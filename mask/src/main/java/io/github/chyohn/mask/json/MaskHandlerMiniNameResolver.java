@@ -20,10 +20,10 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
 import com.fasterxml.jackson.databind.DatabindContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.jsontype.impl.ClassNameIdResolver;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.databind.type.SimpleType;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
 
 import java.io.IOException;
 
@@ -41,7 +41,7 @@ class MaskHandlerMiniNameResolver  extends ClassNameIdResolver {
     private final static String NONE_MASK_HANDLER_TYPE_ID = "null";
 
     public MaskHandlerMiniNameResolver(TypeFactory typeFactory) {
-        super(SimpleType.constructUnsafe(Object.class), typeFactory, LaissezFaireSubTypeValidator.instance);
+        super(SimpleType.constructUnsafe(Object.class), typeFactory, MaskHandlerTypeValidator.INSTANCE);
     }
 
     /**
@@ -52,6 +52,10 @@ class MaskHandlerMiniNameResolver  extends ClassNameIdResolver {
      */
     @Override
     public String idFromValue(Object value) {
+        while (value instanceof IMaskHandlerWrapper) {
+            // 包装处理器按被包装的处理器输出，见MaskHandlerJSONParser.MaskHandlerWrapperMixIn
+            value = ((IMaskHandlerWrapper) value).unwrap();
+        }
         String id = getTypeId(value.getClass());
         if (id != null) {
             return id;
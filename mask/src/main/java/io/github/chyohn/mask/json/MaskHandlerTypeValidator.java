@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.json;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.cfg.MapperConfig;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
+import io.github.chyohn.mask.IMaskHandler;
+
+/**
+ * <pre>
+ * 解析配置时只允许把类型ID解析为{@link IMaskHandler}的实现类及其数组，其它类型的ID（比如JSON中指定的任意类全名称）直接拒绝，
+ * 避免通过配置JSON实例化任意类。
+ * 非脱敏处理器类型的值输出的类型ID为"null"，不经过校验，见{@link MaskHandlerMiniNameResolver}
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+final class MaskHandlerTypeValidator extends PolymorphicTypeValidator.Base {
+
+    private static final long serialVersionUID = 1L;
+
+    static final MaskHandlerTypeValidator INSTANCE = new MaskHandlerTypeValidator();
+
+    private MaskHandlerTypeValidator() {
+    }
+
+    @Override
+    public Validity validateSubType(MapperConfig<?> config, JavaType baseType, JavaType subType) {
+        JavaType type = subType;
+        while (type.isArrayType()) {
+            type = type.getContentType();
+        }
+        return IMaskHandler.class.isAssignableFrom(type.getRawClass()) ? Validity.ALLOWED : Validity.DENIED;
+    }
+}
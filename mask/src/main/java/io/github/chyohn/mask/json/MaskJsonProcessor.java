@@ -0,0 +1,502 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.github.chyohn.mask.IMaskHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * <pre>
+ * 基于Jackson流式API对JSON文档做脱敏，不需要先把文档解析为树。
+ * 1. 使用JSON路径指定需要脱敏的字符串值，每个路径对应一个{@link IMaskHandler}
+ * 2. 所有路径在创建时编译为一个确定状态机，解析时每个token只做一次状态转移，不匹配的token原样复制到输出
+ * 3. 只对字符串值脱敏，数字按原始文本输出，匹配到对象、数组或其他类型的值时不做处理
+ * 4. 一个值匹配多个路径时，使用最先添加的路径对应的处理器
+ * 5. 输出为紧凑格式，不保留原文档中的空白字符
+ *
+ * 支持的路径语法：
+ * $              根节点
+ * .name          对象字段，字段名包含特殊字符时可以使用['name']
+ * [n]            数组中下标为n的元素
+ * .* 或 [*]      对象的任意字段或者数组的任意元素
+ * ..name 或 ..*  任意深度的后代节点
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskJsonProcessor processor = MaskJsonProcessor.builder()
+ *         .addHandler("$.user.phone", MaskHandlerFactory.reserveOuter(3, 4))
+ *         .addHandler("$.orders[*].cardNo", MaskHandlerFactory.reserveRight(4))
+ *         .addHandler("$..email", MaskHandlerFactory.maskLeft(3))
+ *         .build();
+ * String masked = processor.process(json);
+ * }
+ * </pre>
+ * 该类是不可变的，可以在多个线程之间共享。
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskJsonProcessor {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+        .disable(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private final State root; // 根节点的状态
+
+    private MaskJsonProcessor(State root) {
+        this.root = root;
+    }
+
+    /**
+     * @return 创建处理器的构建器
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 对JSON字符串脱敏
+     *
+     * @param json JSON字符串
+     * @return 脱敏后的JSON字符串
+     */
+    public String process(String json) {
+        StringWriter writer = new StringWriter(json.length());
+        try (JsonParser parser = JSON_FACTORY.createParser(json);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            process(parser, generator);
+        } catch (IOException e) {
+            throw new JacksonIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * 从in读取JSON，脱敏结果写入out，不会关闭in和out
+     *
+     * @param in  JSON输入
+     * @param out 脱敏结果输出
+     * @throws IOException 读写失败或者JSON格式错误
+     */
+    public void process(Reader in, Writer out) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            process(parser, generator);
+        }
+    }
+
+    /**
+     * 从in读取JSON（自动识别编码），脱敏结果以UTF-8编码写入out，不会关闭in和out
+     *
+     * @param in  JSON输入
+     * @param out 脱敏结果输出
+     * @throws IOException 读写失败或者JSON格式错误
+     */
+    public void process(InputStream in, OutputStream out) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(in);
+             JsonGenerator generator = JSON_FACTORY.createGenerator(out)) {
+            process(parser, generator);
+        }
+    }
+
+    /**
+     * 读取parser中剩余的所有token，脱敏后写入generator，不会关闭parser和generator
+     *
+     * @param parser    JSON输入
+     * @param generator 脱敏结果输出
+     * @throws IOException 读写失败或者JSON格式错误
+     */
+    public void process(JsonParser parser, JsonGenerator generator) throws IOException {
+        State[] states = new State[16]; // 每层容器的状态
+        int[] indexes = new int[16]; // 每层数组的下一个元素下标，对象为-1
+        int depth = 0;
+        State fieldState = null; // 对象中当前字段值的状态
+        for (JsonToken token = parser.nextToken(); token != null; token = parser.nextToken()) {
+            switch (token) {
+                case FIELD_NAME:
+                    fieldState = states[depth].field(parser.getCurrentName());
+                    generator.copyCurrentEvent(parser);
+                    continue;
+                case END_OBJECT:
+                case END_ARRAY:
+                    depth--;
+                    generator.copyCurrentEvent(parser);
+                    continue;
+                default:
+                    break;
+            }
+            State state;
+            if (depth == 0) {
+                state = root;
+            } else if (indexes[depth] >= 0) {
+                state = states[depth].index(indexes[depth]++);
+            } else {
+                state = fieldState;
+            }
+            switch (token) {
+                case START_OBJECT:
+                case START_ARRAY:
+                    generator.copyCurrentEvent(parser);
+                    if (++depth == states.length) {
+                        states = Arrays.copyOf(states, depth << 1);
+                        indexes = Arrays.copyOf(indexes, depth << 1);
+                    }
+                    states[depth] = state;
+                    indexes[depth] = token == JsonToken.START_ARRAY ? 0 : -1;
+                    break;
+                case VALUE_STRING:
+                    if (state.handler != null) {
+                        generator.writeString(state.handler.handle(parser.getText()));
+                    } else {
+                        generator.copyCurrentEvent(parser);
+                    }
+                    break;
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    // 按原始文本输出，避免浮点数转换改变数字的写法
+                    generator.writeRawValue(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                    break;
+                default:
+                    generator.copyCurrentEvent(parser);
+                    break;
+            }
+        }
+        generator.flush();
+    }
+
+    /**
+     * 构建{@link MaskJsonProcessor}
+     */
+    public static final class Builder {
+
+        private final List<String> paths = new ArrayList<>();
+        private final List<IMaskHandler> handlers = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * 添加需要脱敏的JSON路径，处理器会先被{@link IMaskHandler#compile() 编译}
+         *
+         * @param path    JSON路径
+         * @param handler 脱敏处理器
+         * @return 当前对象
+         */
+        public Builder addHandler(String path, IMaskHandler handler) {
+            paths.add(Objects.requireNonNull(path, "path不能为null"));
+            handlers.add(Objects.requireNonNull(handler, "handler不能为null").compile());
+            return this;
+        }
+
+        /**
+         * 把所有路径编译为状态机
+         *
+         * @return JSON脱敏处理器
+         */
+        public MaskJsonProcessor build() {
+            List<Node> nodes = new ArrayList<>();
+            Node start = newNode(nodes);
+            for (int i = 0; i < paths.size(); i++) {
+                parsePath(paths.get(i), start, nodes).handler = handlers.get(i);
+            }
+            return new MaskJsonProcessor(new StateCompiler(nodes).compile(start));
+        }
+
+        private static Node newNode(List<Node> nodes) {
+            Node node = new Node(nodes.size());
+            nodes.add(node);
+            return node;
+        }
+
+        /**
+         * 解析路径，把路径的每一段添加为非确定状态机中的一个节点，返回路径最后一段对应的节点
+         */
+        private static Node parsePath(String path, Node start, List<Node> nodes) {
+            if (!path.startsWith("$")) {
+                throw invalidPath(path);
+            }
+            Node current = start;
+            int pos = 1;
+            int length = path.length();
+            while (pos < length) {
+                char c = path.charAt(pos);
+                if (c == '.') {
+                    pos++;
+                    if (pos < length && path.charAt(pos) == '.') {
+                        // 后代节点：经过一个可以匹配任意层级的节点
+                        Node descendant = newNode(nodes);
+                        descendant.recursive = true;
+                        current.epsilons.add(descendant);
+                        current = descendant;
+                        pos++;
+                        if (pos < length && path.charAt(pos) == '[') {
+                            continue;
+                        }
+                    }
+                    int end = pos;
+                    while (end < length && path.charAt(end) != '.' && path.charAt(end) != '[') {
+                        end++;
+                    }
+                    if (end == pos) {
+                        throw invalidPath(path);
+                    }
+                    String name = path.substring(pos, end);
+                    current = addEdge(current, "*".equals(name) ? Edge.any() : Edge.field(name), nodes);
+                    pos = end;
+                } else if (c == '[') {
+                    char quote = pos + 1 < length ? path.charAt(pos + 1) : 0;
+                    int end;
+                    Edge edge;
+                    if (quote == '\'' || quote == '"') {
+                        int close = path.indexOf(quote + "]", pos + 2);
+                        if (close < 0) {
+                            throw invalidPath(path);
+                        }
+                        edge = Edge.field(path.substring(pos + 2, close));
+                        end = close + 1;
+                    } else {
+                        end = path.indexOf(']', pos);
+                        if (end < 0) {
+                            throw invalidPath(path);
+                        }
+                        String key = path.substring(pos + 1, end).trim();
+                        if ("*".equals(key)) {
+                            edge = Edge.any();
+                        } else {
+                            try {
+                                edge = Edge.index(Integer.parseInt(key));
+                            } catch (NumberFormatException e) {
+                                throw invalidPath(path);
+                            }
+                        }
+                    }
+                    current = addEdge(current, edge, nodes);
+                    pos = end + 1;
+                } else {
+                    throw invalidPath(path);
+                }
+            }
+            return current;
+        }
+
+        private static Node addEdge(Node from, Edge edge, List<Node> nodes) {
+            edge.target = newNode(nodes);
+            from.edges.add(edge);
+            return edge.target;
+        }
+
+        private static IllegalArgumentException invalidPath(String path) {
+            return new IllegalArgumentException("无效的JSON路径：" + path);
+        }
+    }
+
+    /**
+     * 非确定状态机的节点，对应路径中的一段
+     */
+    private static final class Node {
+        private final int id;
+        private final List<Edge> edges = new ArrayList<>();
+        private final List<Node> epsilons = new ArrayList<>(); // 不消耗路径段即可到达的节点
+        private boolean recursive; // 是否匹配任意字段和下标后停留在当前节点，用于后代节点
+        private IMaskHandler handler; // 路径结束节点的脱敏处理器
+
+        Node(int id) {
+            this.id = id;
+        }
+    }
+
+    /**
+     * 节点之间的转移条件
+     */
+    private static final class Edge {
+        private final String field; // 字段名，为null时不匹配字段
+        private final int index; // 数组下标，小于0时不匹配下标
+        private final boolean any; // 是否匹配任意字段和下标
+        private Node target;
+
+        private Edge(String field, int index, boolean any) {
+            this.field = field;
+            this.index = index;
+            this.any = any;
+        }
+
+        static Edge field(String field) {
+            return new Edge(field, -1, false);
+        }
+
+        static Edge index(int index) {
+            if (index < 0) {
+                throw new IllegalArgumentException("数组下标不能小于0：" + index);
+            }
+            return new Edge(null, index, false);
+        }
+
+        static Edge any() {
+            return new Edge(null, -1, true);
+        }
+    }
+
+    /**
+     * 确定状态机的状态，对应一组非确定状态机的节点
+     */
+    private static final class State {
+        private IMaskHandler handler; // 匹配到的脱敏处理器，为null时不脱敏
+        private Map<String, State> fields = Collections.emptyMap(); // 路径中明确出现的字段名
+        private State otherField; // 其他字段名
+        private Map<Integer, State> indexes = Collections.emptyMap(); // 路径中明确出现的数组下标
+        private State otherIndex; // 其他数组下标
+
+        State field(String name) {
+            State state = fields.get(name);
+            return state == null ? otherField : state;
+        }
+
+        State index(int index) {
+            State state = indexes.get(index);
+            return state == null ? otherIndex : state;
+        }
+    }
+
+    /**
+     * 使用子集构造法把非确定状态机编译为确定状态机。
+     * 每个状态只为路径中明确出现的字段名和下标生成转移，其他字段名和下标共享同一个转移，状态数是有限的
+     */
+    private static final class StateCompiler {
+
+        private final List<Node> nodes;
+        private final Map<BitSet, State> states = new HashMap<>();
+        private final Deque<BitSet> pending = new ArrayDeque<>();
+
+        StateCompiler(List<Node> nodes) {
+            this.nodes = nodes;
+        }
+
+        State compile(Node start) {
+            BitSet initial = new BitSet();
+            initial.set(start.id);
+            State root = state(closure(initial));
+            while (!pending.isEmpty()) {
+                BitSet set = pending.poll();
+                State state = states.get(set);
+                Set<String> names = new HashSet<>();
+                Set<Integer> indexes = new HashSet<>();
+                for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+                    for (Edge edge : nodes.get(i).edges) {
+                        if (edge.field != null) {
+                            names.add(edge.field);
+                        } else if (edge.index >= 0) {
+                            indexes.add(edge.index);
+                        }
+                    }
+                }
+                if (!names.isEmpty()) {
+                    state.fields = new HashMap<>();
+                    for (String name : names) {
+                        state.fields.put(name, state(step(set, name, -1)));
+                    }
+                }
+                if (!indexes.isEmpty()) {
+                    state.indexes = new HashMap<>();
+                    for (Integer index : indexes) {
+                        state.indexes.put(index, state(step(set, null, index)));
+                    }
+                }
+                State other = state(step(set, null, -1));
+                state.otherField = other;
+                state.otherIndex = other;
+            }
+            return root;
+        }
+
+        private State state(BitSet set) {
+            State state = states.get(set);
+            if (state == null) {
+                state = new State();
+                // 节点按路径添加的顺序编号，编号最小的结束节点对应最先添加的路径
+                for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+                    if (nodes.get(i).handler != null) {
+                        state.handler = nodes.get(i).handler;
+                        break;
+                    }
+                }
+                states.put(set, state);
+                pending.add(set);
+            }
+            return state;
+        }
+
+        /**
+         * 从set出发，经过字段名field或者下标index可以到达的节点，两者都不指定时表示其他字段名或下标
+         */
+        private BitSet step(BitSet set, String field, int index) {
+            BitSet next = new BitSet();
+            for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+                Node node = nodes.get(i);
+                if (node.recursive) {
+                    next.set(node.id);
+                }
+                for (Edge edge : node.edges) {
+                    if (edge.any || (field != null && field.equals(edge.field)) || (index >= 0 && index == edge.index)) {
+                        next.set(edge.target.id);
+                    }
+                }
+            }
+            return closure(next);
+        }
+
+        private BitSet closure(BitSet set) {
+            Deque<Node> queue = new ArrayDeque<>();
+            for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+                queue.add(nodes.get(i));
+            }
+            while (!queue.isEmpty()) {
+                for (Node node : queue.poll().epsilons) {
+                    if (!set.get(node.id)) {
+                        set.set(node.id);
+                        queue.add(node);
+                    }
+                }
+            }
+            return set;
+        }
+    }
+}
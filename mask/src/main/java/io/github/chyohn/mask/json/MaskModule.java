@@ -0,0 +1,295 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+import io.github.chyohn.mask.annotation.Mask;
+import io.github.chyohn.mask.annotation.MaskAnnotations;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <pre>
+ * 在Jackson序列化时对属性做脱敏的模块。
+ * 1. 标记了{@link Mask}注解（字段或者getter上）的属性，以及通过{@link #addRule}配置的属性会被脱敏
+ * 2. 支持String、String[]、元素为String的Collection和值为String的Map类型的属性，其他类型的属性不处理
+ * 3. 每个属性的脱敏处理器在构建序列化器时解析一次，序列化时直接把脱敏结果写入{@link JsonGenerator}
+ * 4. 配置的规则使用{@link IMaskHandler#toConfig()}生成的配置格式，可以保存在配置文件中
+ * 5. 规则需要在注册到ObjectMapper之前配置，注册时复制为不可变的规则，注册之后不能再添加
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * ObjectMapper mapper = new ObjectMapper().registerModule(new MaskModule()
+ *         .addRule(User.class, "idCard", MaskHandlerFactory.reserveOuter(6, 4).toConfig()));
+ * String json = mapper.writeValueAsString(user);
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public class MaskModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Class<?>, Map<String, IMaskHandler>> rules = new HashMap<>();
+    private volatile boolean registered; // 是否已经注册到ObjectMapper
+
+    public MaskModule() {
+        super(MaskModule.class.getSimpleName());
+    }
+
+    /**
+     * 注册到ObjectMapper时把规则复制为不可变的Map，序列化器修改器只读取该副本
+     */
+    @Override
+    public void setupModule(SetupContext context) {
+        synchronized (rules) {
+            registered = true;
+            Map<Class<?>, Map<String, IMaskHandler>> snapshot = new HashMap<>();
+            for (Map.Entry<Class<?>, Map<String, IMaskHandler>> entry : rules.entrySet()) {
+                snapshot.put(entry.getKey(), Collections.unmodifiableMap(new HashMap<>(entry.getValue())));
+            }
+            setSerializerModifier(new MaskSerializerModifier(Collections.unmodifiableMap(snapshot)));
+        }
+        super.setupModule(context);
+    }
+
+    /**
+     * 配置类中某个属性的脱敏处理器，优先级高于{@link Mask}注解，对子类同样有效
+     *
+     * @param type     类
+     * @param property 属性名（序列化后的名称）
+     * @param handler  脱敏处理器
+     * @return 当前对象
+     * @throws IllegalStateException 已经注册到ObjectMapper
+     */
+    public MaskModule addRule(Class<?> type, String property, IMaskHandler handler) {
+        Objects.requireNonNull(type, "type不能为null");
+        Objects.requireNonNull(property, "property不能为null");
+        IMaskHandler compiled = Objects.requireNonNull(handler, "handler不能为null").compile();
+        synchronized (rules) {
+            if (registered) {
+                // Jackson会缓存已经构建的序列化器，注册之后添加的规则不一定生效
+                throw new IllegalStateException("MaskModule已经注册到ObjectMapper，不能再添加脱敏规则");
+            }
+            rules.computeIfAbsent(type, key -> new HashMap<>()).put(property, compiled);
+        }
+        return this;
+    }
+
+    /**
+     * 配置类中某个属性的脱敏处理器，优先级高于{@link Mask}注解，对子类同样有效
+     *
+     * @param type     类
+     * @param property 属性名（序列化后的名称）
+     * @param config   {@link IMaskHandler#toConfig()}生成的配置
+     * @return 当前对象
+     * @throws IllegalStateException 已经注册到ObjectMapper
+     */
+    public MaskModule addRule(Class<?> type, String property, String config) {
+        return addRule(type, property, MaskHandlerFactory.fromConfig(config));
+    }
+
+    /**
+     * 批量配置脱敏规则
+     *
+     * @param rules key为"类全名.属性名"，比如"com.example.User.phone"，value为{@link IMaskHandler#toConfig()}生成的配置
+     * @param classLoader 加载类使用的类加载器
+     * @return 当前对象
+     * @throws IllegalArgumentException key格式错误或者类不存在
+     * @throws IllegalStateException    已经注册到ObjectMapper
+     */
+    public MaskModule addRules(Map<String, String> rules, ClassLoader classLoader) {
+        for (Map.Entry<String, String> entry : rules.entrySet()) {
+            String key = entry.getKey();
+            int dot = key.lastIndexOf('.');
+            if (dot <= 0 || dot == key.length() - 1) {
+                throw new IllegalArgumentException("脱敏规则的key格式应为\"类全名.属性名\"：" + key);
+            }
+            Class<?> type;
+            try {
+                type = Class.forName(key.substring(0, dot), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalArgumentException("脱敏规则中的类不存在：" + key, e);
+            }
+            addRule(type, key.substring(dot + 1), entry.getValue());
+        }
+        return this;
+    }
+
+    /**
+     * 构建Bean序列化器时为需要脱敏的属性替换序列化器
+     */
+    private static final class MaskSerializerModifier extends BeanSerializerModifier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<Class<?>, Map<String, IMaskHandler>> rules;
+
+        MaskSerializerModifier(Map<Class<?>, Map<String, IMaskHandler>> rules) {
+            this.rules = rules;
+        }
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                         List<BeanPropertyWriter> beanProperties) {
+            Class<?> beanClass = beanDesc.getBeanClass();
+            for (BeanPropertyWriter writer : beanProperties) {
+                IMaskHandler handler = ruleOf(beanClass, writer.getName());
+                if (handler == null) {
+                    Mask mask = writer.getAnnotation(Mask.class);
+                    if (mask != null) {
+                        handler = MaskAnnotations.handler(mask);
+                    }
+                }
+                if (handler != null && MaskPropertySerializer.supports(writer.getType().getRawClass())) {
+                    writer.assignSerializer(new MaskPropertySerializer(handler));
+                }
+            }
+            return beanProperties;
+        }
+
+        private IMaskHandler ruleOf(Class<?> beanClass, String property) {
+            if (rules.isEmpty()) {
+                return null;
+            }
+            for (Class<?> type = beanClass; type != null; type = type.getSuperclass()) {
+                Map<String, IMaskHandler> handlers = rules.get(type);
+                if (handlers != null && handlers.containsKey(property)) {
+                    return handlers.get(property);
+                }
+                for (Class<?> face : type.getInterfaces()) {
+                    handlers = rules.get(face);
+                    if (handlers != null && handlers.containsKey(property)) {
+                        return handlers.get(property);
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * 把属性值的脱敏结果直接写入{@link JsonGenerator}
+     */
+    private static final class MaskPropertySerializer extends StdSerializer<Object> {
+
+        private static final long serialVersionUID = 1L;
+        private static final int INITIAL_SIZE = 128;
+        private static final int MAX_RETAINED = 64 << 10;
+        // 每个线程复用的脱敏结果缓冲区，超过上限后不再保留，避免长期占用大块内存
+        private static final ThreadLocal<StringBuilder> BUFFERS = ThreadLocal.withInitial(
+            () -> new StringBuilder(INITIAL_SIZE));
+
+        private final transient IMaskHandler handler;
+
+        MaskPropertySerializer(IMaskHandler handler) {
+            super(Object.class);
+            this.handler = handler;
+        }
+
+        static boolean supports(Class<?> type) {
+            return CharSequence.class.isAssignableFrom(type) || type == String[].class || type == Object.class
+                || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type);
+        }
+
+        @Override
+        public void serialize(Object value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (value instanceof CharSequence) {
+                writeMasked((CharSequence) value, gen);
+            } else if (value instanceof String[]) {
+                String[] array = (String[]) value;
+                gen.writeStartArray(array, array.length);
+                for (String element : array) {
+                    writeElement(element, gen, provider);
+                }
+                gen.writeEndArray();
+            } else if (value instanceof Collection) {
+                Collection<?> collection = (Collection<?>) value;
+                gen.writeStartArray(collection, collection.size());
+                for (Object element : collection) {
+                    writeElement(element, gen, provider);
+                }
+                gen.writeEndArray();
+            } else if (value instanceof Map) {
+                gen.writeStartObject(value);
+                for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    gen.writeFieldName(String.valueOf(entry.getKey()));
+                    writeElement(entry.getValue(), gen, provider);
+                }
+                gen.writeEndObject();
+            } else {
+                provider.defaultSerializeValue(value, gen);
+            }
+        }
+
+        @Override
+        public void serializeWithType(Object value, JsonGenerator gen, SerializerProvider provider,
+                                      TypeSerializer typeSer) throws IOException {
+            if (value instanceof CharSequence) {
+                // 与Jackson的StringSerializer一致，字符串不输出类型信息
+                serialize(value, gen, provider);
+                return;
+            }
+            JsonToken shape = value instanceof Map ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+            WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, shape));
+            serialize(value, gen, provider);
+            typeSer.writeTypeSuffix(gen, typeId);
+        }
+
+        private void writeElement(Object element, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            if (element == null) {
+                gen.writeNull();
+            } else if (element instanceof CharSequence) {
+                writeMasked((CharSequence) element, gen);
+            } else {
+                provider.defaultSerializeValue(element, gen);
+            }
+        }
+
+        private void writeMasked(CharSequence value, JsonGenerator gen) throws IOException {
+            StringBuilder masked = BUFFERS.get();
+            masked.setLength(0);
+            handler.handle(value, masked);
+            gen.writeString(masked.toString());
+            if (masked.capacity() > MAX_RETAINED) {
+                BUFFERS.set(new StringBuilder(INITIAL_SIZE));
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.metrics;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.MaskByteSink;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <pre>
+ * 统计脱敏次数、输入输出字符数和耗时的处理器，由{@link MaskMetrics#instrument(String, IMaskHandler)}创建。
+ * 1. 每次脱敏都记录次数和字符数；耗时按{@link MaskMetrics#setSampleInterval(int)}抽样记录
+ * 2. 批量脱敏时整个批次只计时一次，按平均耗时记录批次中每个元素的耗时
+ * 3. 对UTF-8字节脱敏时，输入输出按字节数记录
+ * 4. {@link #toConfig()}输出被包装的处理器的配置，由配置创建的处理器不再统计
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskInstrumentedHandler implements IMaskHandlerWrapper {
+
+    private final IMaskHandler handler;
+    private final MaskRuleStats stats;
+    private final MaskMetrics metrics;
+
+    MaskInstrumentedHandler(IMaskHandler handler, MaskRuleStats stats, MaskMetrics metrics) {
+        this.handler = handler;
+        this.stats = stats;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String handle(String src) {
+        if (!metrics.sample()) {
+            String result = handler.handle(src);
+            stats.record(1, src.length(), result == null ? 0 : result.length());
+            return result;
+        }
+        long start = System.nanoTime();
+        String result = handler.handle(src);
+        stats.recordLatency(System.nanoTime() - start);
+        stats.record(1, src.length(), result == null ? 0 : result.length());
+        return result;
+    }
+
+    @Override
+    public void handle(CharSequence src, int start, int end, StringBuilder out) {
+        int outStart = out.length();
+        if (!metrics.sample()) {
+            handler.handle(src, start, end, out);
+        } else {
+            long begin = System.nanoTime();
+            handler.handle(src, start, end, out);
+            stats.recordLatency(System.nanoTime() - begin);
+        }
+        stats.record(1, end - start, out.length() - outStart);
+    }
+
+    @Override
+    public void handle(byte[] src, int off, int len, MaskByteSink out) {
+        int outStart = out.size();
+        if (!metrics.sample()) {
+            handler.handle(src, off, len, out);
+        } else {
+            long begin = System.nanoTime();
+            handler.handle(src, off, len, out);
+            stats.recordLatency(System.nanoTime() - begin);
+        }
+        stats.record(1, len, out.size() - outStart);
+    }
+
+    @Override
+    public boolean lengthPreserving() {
+        return handler.lengthPreserving();
+    }
+
+    @Override
+    public void maskInPlace(char[] buf, int off, int len) {
+        if (!metrics.sample()) {
+            handler.maskInPlace(buf, off, len);
+        } else {
+            long begin = System.nanoTime();
+            handler.maskInPlace(buf, off, len);
+            stats.recordLatency(System.nanoTime() - begin);
+        }
+        stats.record(1, len, len);
+    }
+
+    /**
+     * 原地脱敏成功时才记录，输入输出按字节数记录
+     */
+    @Override
+    public boolean maskInPlace(ByteBuffer buffer) {
+        int length = buffer.remaining();
+        boolean sample = metrics.sample();
+        long begin = sample ? System.nanoTime() : 0;
+        if (!handler.maskInPlace(buffer)) {
+            return false;
+        }
+        if (sample) {
+            stats.recordLatency(System.nanoTime() - begin);
+        }
+        stats.record(1, length, length);
+        return true;
+    }
+
+    @Override
+    public void handleAll(String[] src, String[] out, int from, int to) {
+        // 区间不合法时，下面的循环或者被包装的处理器抛出IndexOutOfBoundsException
+        boolean sample = metrics.sample();
+        long begin = sample ? System.nanoTime() : 0;
+        long inputChars = 0;
+        int calls = 0;
+        for (int i = from; i < to; i++) {
+            String value = src[i];
+            if (value != null) {
+                inputChars += value.length();
+                calls++;
+            }
+        }
+        handler.handleAll(src, out, from, to);
+        long elapsed = sample ? System.nanoTime() - begin : 0;
+        long outputChars = 0;
+        for (int i = from; i < to; i++) {
+            if (out[i] != null) {
+                outputChars += out[i].length();
+            }
+        }
+        stats.record(calls, inputChars, outputChars);
+        if (sample && calls > 0) {
+            stats.recordLatency(elapsed / calls, calls);
+        }
+    }
+
+    /**
+     * @return 编译被包装的处理器，编译结果继续记录到同一个规则的统计数据中
+     */
+    @Override
+    public IMaskHandler compile() {
+        IMaskHandler compiled = handler.compile();
+        return compiled == handler ? this : new MaskInstrumentedHandler(compiled, stats, metrics);
+    }
+
+    @Override
+    public IMaskHandler unwrap() {
+        return handler;
+    }
+
+    /**
+     * @return 当前处理器的统计数据
+     */
+    public MaskRuleStats getStats() {
+        return stats;
+    }
+}
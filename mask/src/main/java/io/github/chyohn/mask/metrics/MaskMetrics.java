@@ -0,0 +1,263 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.metrics;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.IMaskHandlerWrapper;
+import io.github.chyohn.mask.handler.MaskGroupHandler;
+import io.github.chyohn.mask.handler.MaskHandlerWithSizeSelector;
+import io.github.chyohn.mask.handler.MaskImmutableHandler;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * <pre>
+ * 按规则名称统计脱敏次数、输入输出字符数和耗时分布，并通过JMX发布。
+ * 1. {@link #instrument(String, IMaskHandler)}包装整个处理器树：{@link MaskGroupHandler}和{@link MaskHandlerWithSizeSelector}
+ *    的每个子处理器也分别统计，名称为"规则[规格][下标]"、"规则[规格]"以及"规则.default"；包括它们的子类以及被包装、编译后的处理器
+ * 2. 计数使用{@link java.util.concurrent.atomic.LongAdder}，多个线程同时脱敏时没有锁竞争
+ * 3. 耗时默认每{@value #DEFAULT_SAMPLE_INTERVAL}次脱敏随机抽样记录一次，可以通过{@link #setSampleInterval(int)}调整
+ * 4. {@link #registerMBeans()}把每个规则注册为平台MBean：{@value #JMX_DOMAIN}:type=MaskRule,name="规则"，之后新增的规则也会注册
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskMetrics metrics = MaskMetrics.getDefault().registerMBeans();
+ * IMaskHandler email = metrics.instrument("email", MaskHandlerFactory.group("@").addHandler(left, right));
+ * email.handle("qiang.shao@cc.com");
+ * System.out.println(metrics.getStats("email")); // email: calls=1, ...
+ * System.out.println(metrics.getStats("email[2][0]")); // @左边部分的处理器
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskMetrics {
+
+    /**
+     * 默认的耗时抽样间隔
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+    /**
+     * MBean的域名
+     */
+    public static final String JMX_DOMAIN = "io.github.chyohn.mask";
+
+    private static final MaskMetrics DEFAULT = new MaskMetrics();
+
+    private final ConcurrentMap<String, MaskRuleStats> stats = new ConcurrentHashMap<>();
+    private volatile int sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+    private MBeanServer mBeanServer; // 注册了MBean的服务，由当前对象的锁保护
+
+    /**
+     * @return 新建的统计对象
+     */
+    public static MaskMetrics create() {
+        return new MaskMetrics();
+    }
+
+    /**
+     * @return 全局共享的统计对象
+     */
+    public static MaskMetrics getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * <pre>
+     * 设置耗时抽样间隔，平均每interval次脱敏记录一次耗时。
+     * 1：每次都记录；0：不记录耗时。次数和字符数不受影响，每次都记录
+     * </pre>
+     *
+     * @param interval 抽样间隔
+     * @return 当前统计对象
+     */
+    public MaskMetrics setSampleInterval(int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("interval不能小于0");
+        }
+        this.sampleInterval = interval;
+        return this;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    /**
+     * 包装处理器树，统计整个处理器以及每个子处理器的脱敏数据
+     *
+     * @param rule    规则名称，相同名称的处理器统计到一起
+     * @param handler 脱敏处理器
+     * @return 包装后的处理器
+     */
+    public IMaskHandler instrument(String rule, IMaskHandler handler) {
+        Objects.requireNonNull(rule, "rule不能为null");
+        Objects.requireNonNull(handler, "handler不能为null");
+        return new MaskInstrumentedHandler(instrumentChildren(rule, handler), getOrCreate(rule), this);
+    }
+
+    /**
+     * <pre>
+     * 统计组合处理器的每个子处理器，复制结果保持原处理器的实际类型、分隔配置和编译状态。
+     * 包装处理器先取出被包装的处理器再统计其子处理器，不可变处理器统计后重新包装为不可变处理器；
+     * 已经统计过的处理器保持不变，避免子处理器被重复统计
+     * </pre>
+     */
+    private IMaskHandler instrumentChildren(String rule, IMaskHandler handler) {
+        if (handler instanceof MaskInstrumentedHandler) {
+            return handler;
+        }
+        if (handler instanceof IMaskHandlerWrapper) {
+            IMaskHandler unwrapped = ((IMaskHandlerWrapper) handler).unwrap();
+            IMaskHandler instrumented = instrumentChildren(rule, unwrapped);
+            if (instrumented == unwrapped) {
+                // 没有子处理器，保留包装处理器，比如生成的脱敏计划
+                return handler;
+            }
+            return handler instanceof MaskImmutableHandler ? MaskImmutableHandler.of(instrumented) : instrumented;
+        }
+        if (handler instanceof MaskGroupHandler) {
+            return ((MaskGroupHandler) handler).mapHandlers((path, child) -> instrument(rule + path, child));
+        }
+        if (handler instanceof MaskHandlerWithSizeSelector) {
+            return ((MaskHandlerWithSizeSelector) handler).mapHandlers((path, child) -> instrument(rule + path, child));
+        }
+        return handler;
+    }
+
+    /**
+     * @param rule 规则名称
+     * @return 规则的统计数据，规则不存在时返回null
+     */
+    public MaskRuleStats getStats(String rule) {
+        return stats.get(rule);
+    }
+
+    /**
+     * @return 所有规则的统计数据
+     */
+    public Map<String, MaskRuleStats> getAllStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * 清空所有规则的统计数据
+     */
+    public void reset() {
+        stats.values().forEach(MaskRuleStats::reset);
+    }
+
+    /**
+     * 把所有规则注册为平台MBean，之后新增的规则也会自动注册
+     *
+     * @return 当前统计对象
+     */
+    public MaskMetrics registerMBeans() {
+        return registerMBeans(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    /**
+     * 把所有规则注册到指定的MBeanServer，之后新增的规则也会自动注册
+     *
+     * @param server MBeanServer
+     * @return 当前统计对象
+     */
+    public synchronized MaskMetrics registerMBeans(MBeanServer server) {
+        Objects.requireNonNull(server, "server不能为null");
+        if (mBeanServer != null) {
+            throw new IllegalStateException("MBean已经注册");
+        }
+        mBeanServer = server;
+        for (MaskRuleStats ruleStats : stats.values()) {
+            register(server, ruleStats);
+        }
+        return this;
+    }
+
+    /**
+     * 注销所有规则的MBean
+     */
+    public synchronized void unregisterMBeans() {
+        if (mBeanServer == null) {
+            return;
+        }
+        for (MaskRuleStats ruleStats : stats.values()) {
+            try {
+                mBeanServer.unregisterMBean(objectName(ruleStats.getRule()));
+            } catch (InstanceNotFoundException e) {
+                // 已经被注销
+            } catch (JMException e) {
+                throw new IllegalStateException("注销MBean失败：" + ruleStats.getRule(), e);
+            }
+        }
+        mBeanServer = null;
+    }
+
+    /**
+     * 脱敏时调用，判断本次是否记录耗时
+     */
+    boolean sample() {
+        int interval = sampleInterval;
+        return interval == 1 || (interval > 1 && ThreadLocalRandom.current().nextInt(interval) == 0);
+    }
+
+    private MaskRuleStats getOrCreate(String rule) {
+        MaskRuleStats ruleStats = stats.get(rule);
+        if (ruleStats != null) {
+            return ruleStats;
+        }
+        synchronized (this) {
+            ruleStats = stats.get(rule);
+            if (ruleStats == null) {
+                ruleStats = new MaskRuleStats(rule);
+                stats.put(rule, ruleStats);
+                if (mBeanServer != null) {
+                    register(mBeanServer, ruleStats);
+                }
+            }
+            return ruleStats;
+        }
+    }
+
+    private static void register(MBeanServer server, MaskRuleStats ruleStats) {
+        try {
+            server.registerMBean(ruleStats, objectName(ruleStats.getRule()));
+        } catch (InstanceAlreadyExistsException e) {
+            throw new IllegalStateException("MBean已存在，可能有多个MaskMetrics使用了相同的规则名称：" + ruleStats.getRule(), e);
+        } catch (JMException e) {
+            throw new IllegalStateException("注册MBean失败：" + ruleStats.getRule(), e);
+        }
+    }
+
+    private static ObjectName objectName(String rule) throws JMException {
+        return new ObjectName(JMX_DOMAIN + ":type=MaskRule,name=" + ObjectName.quote(rule));
+    }
+}
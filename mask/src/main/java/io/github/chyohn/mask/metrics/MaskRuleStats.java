@@ -0,0 +1,145 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <pre>
+ * 单个脱敏规则的统计数据：脱敏次数、输入输出字符数以及耗时分布。
+ * 计数使用{@link LongAdder}，多个线程同时记录时没有锁竞争；读取时各项数据分别汇总，不是同一时刻的快照
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskRuleStats implements MaskRuleStatsMBean {
+
+    private final String rule;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder inputChars = new LongAdder();
+    private final LongAdder outputChars = new LongAdder();
+    private final MaskLatencyHistogram latency = new MaskLatencyHistogram();
+
+    MaskRuleStats(String rule) {
+        this.rule = rule;
+    }
+
+    void record(int calls, long inputChars, long outputChars) {
+        this.calls.add(calls);
+        this.inputChars.add(inputChars);
+        this.outputChars.add(outputChars);
+    }
+
+    void recordLatency(long nanos) {
+        latency.record(nanos, 1);
+    }
+
+    void recordLatency(long nanos, int count) {
+        latency.record(nanos, count);
+    }
+
+    @Override
+    public String getRule() {
+        return rule;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getInputChars() {
+        return inputChars.sum();
+    }
+
+    @Override
+    public long getOutputChars() {
+        return outputChars.sum();
+    }
+
+    @Override
+    public long getSampledCalls() {
+        return latency.count();
+    }
+
+    @Override
+    public long getMeanNanos() {
+        long count = latency.count();
+        return count == 0 ? 0 : latency.sum() / count;
+    }
+
+    @Override
+    public long getP50Nanos() {
+        return latency.quantile(0.5);
+    }
+
+    @Override
+    public long getP90Nanos() {
+        return latency.quantile(0.9);
+    }
+
+    @Override
+    public long getP99Nanos() {
+        return latency.quantile(0.99);
+    }
+
+    @Override
+    public long getP999Nanos() {
+        return latency.quantile(0.999);
+    }
+
+    @Override
+    public long getMaxNanos() {
+        return latency.max();
+    }
+
+    /**
+     * 计算任意百分位的耗时
+     *
+     * @param quantile 百分位，取值范围(0, 1]
+     * @return 耗时（纳秒）
+     */
+    public long getQuantileNanos(double quantile) {
+        if (quantile <= 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile的取值范围为(0, 1]");
+        }
+        return latency.quantile(quantile);
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        inputChars.reset();
+        outputChars.reset();
+        latency.reset();
+    }
+
+    @Override
+    public String toString() {
+        return rule + ": calls=" + getCalls()
+            + ", inputChars=" + getInputChars()
+            + ", outputChars=" + getOutputChars()
+            + ", sampled=" + getSampledCalls()
+            + ", mean=" + getMeanNanos() + "ns"
+            + ", p50=" + getP50Nanos() + "ns"
+            + ", p99=" + getP99Nanos() + "ns"
+            + ", max=" + getMaxNanos() + "ns";
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.metrics;
+
+/**
+ * 单个脱敏规则的统计数据，通过JMX发布，见{@link MaskMetrics#registerMBeans()}
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public interface MaskRuleStatsMBean {
+
+    /**
+     * @return 规则名称
+     */
+    String getRule();
+
+    /**
+     * @return 脱敏次数
+     */
+    long getCalls();
+
+    /**
+     * @return 输入字符总数
+     */
+    long getInputChars();
+
+    /**
+     * @return 输出字符总数
+     */
+    long getOutputChars();
+
+    /**
+     * @return 记录了耗时的脱敏次数
+     */
+    long getSampledCalls();
+
+    /**
+     * @return 平均耗时（纳秒）
+     */
+    long getMeanNanos();
+
+    /**
+     * @return 耗时的中位数（纳秒）
+     */
+    long getP50Nanos();
+
+    /**
+     * @return 耗时的90百分位（纳秒）
+     */
+    long getP90Nanos();
+
+    /**
+     * @return 耗时的99百分位（纳秒）
+     */
+    long getP99Nanos();
+
+    /**
+     * @return 耗时的99.9百分位（纳秒）
+     */
+    long getP999Nanos();
+
+    /**
+     * @return 最大耗时（纳秒）
+     */
+    long getMaxNanos();
+
+    /**
+     * 清空统计数据
+     */
+    void reset();
+}
@@ -0,0 +1,430 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.pii;
+
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <pre>
+ * 从自由文本（比如日志、备注）中识别敏感信息并脱敏，支持的类型见{@link PiiType}。
+ * 1. 对文本只扫描一次，不使用正则表达式，所有类型在同一次扫描中识别
+ * 2. 数字串前后不能紧挨ASCII字母或数字，比如"abc13755556666"中的数字不会被识别为手机号
+ * 3. 邮箱优先于数字串，邮箱中的数字不会再被识别为其他类型
+ * 4. 每种类型使用各自的脱敏处理器，处理器为null时不识别该类型
+ * </pre>
+ * 默认的脱敏处理器：
+ * <pre>
+ * 手机号：{@code MaskHandlerFactory.reserveOuter(3, 4)}
+ * 身份证号：{@code MaskHandlerFactory.reserveOuter(6, 4)}
+ * 邮箱：{@code MaskHandlerFactory.group("@").addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore())}
+ * 银行卡号：{@code MaskHandlerFactory.reserveOuter(6, 4)}
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskPiiDetector detector = MaskPiiDetector.create()
+ *         .setHandler(PiiType.BANK_CARD, MaskHandlerFactory.reserveRight(4));
+ * String masked = detector.mask("用户13755556666的邮箱是qiang@cc.com"); // 用户137****6666的邮箱是q****@cc.com
+ * }
+ * </pre>
+ * 配置完成后可以在多个线程之间共享。
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskPiiDetector {
+
+    private static final byte WORD = 1; // 可以出现在邮箱或数字串中的字符
+    private static final byte DIGIT = 2;
+    private static final byte LETTER = 4;
+    private static final byte LOCAL = 8; // 邮箱@左边可以使用的字符
+    private static final byte DOMAIN = 16; // 邮箱@右边可以使用的字符
+    private static final byte[] CHAR_TYPES = new byte[128];
+
+    private static final int[] ID_WEIGHTS = {7, 9, 10, 5, 8, 4, 2, 1, 6, 3, 7, 9, 10, 5, 8, 4, 2};
+    private static final char[] ID_CHECK_CODES = {'1', '0', 'X', '9', '8', '7', '6', '5', '4', '3', '2'};
+
+    static {
+        for (char c = '0'; c <= '9'; c++) {
+            CHAR_TYPES[c] = WORD | DIGIT | LOCAL | DOMAIN;
+        }
+        for (char c = 'a'; c <= 'z'; c++) {
+            CHAR_TYPES[c] = WORD | LETTER | LOCAL | DOMAIN;
+            CHAR_TYPES[c - 'a' + 'A'] = WORD | LETTER | LOCAL | DOMAIN;
+        }
+        CHAR_TYPES['.'] = WORD | LOCAL | DOMAIN;
+        CHAR_TYPES['-'] = WORD | LOCAL | DOMAIN;
+        CHAR_TYPES['_'] = WORD | LOCAL;
+        CHAR_TYPES['%'] = WORD | LOCAL;
+        CHAR_TYPES['+'] = WORD | LOCAL;
+        CHAR_TYPES['@'] = WORD;
+    }
+
+    private static final int BUFFER_SIZE = 8 << 10;
+    private static final ThreadLocal<char[]> BUFFER = new ThreadLocal<>();
+
+    private final IMaskHandler[] handlers = new IMaskHandler[PiiType.values().length];
+
+    private MaskPiiDetector() {
+    }
+
+    /**
+     * @return 使用默认脱敏处理器的识别器
+     */
+    public static MaskPiiDetector create() {
+        return new MaskPiiDetector()
+            .setHandler(PiiType.MOBILE, MaskHandlerFactory.reserveOuter(3, 4))
+            .setHandler(PiiType.ID_CARD, MaskHandlerFactory.reserveOuter(6, 4))
+            .setHandler(PiiType.EMAIL, MaskHandlerFactory.group("@")
+                .addHandler(MaskHandlerFactory.reserveLeft(1), MaskHandlerFactory.ignore()))
+            .setHandler(PiiType.BANK_CARD, MaskHandlerFactory.reserveOuter(6, 4));
+    }
+
+    /**
+     * 设置某种敏感信息的脱敏处理器，处理器会先被{@link IMaskHandler#compile() 编译}
+     *
+     * @param type    敏感信息类型
+     * @param handler 脱敏处理器，为null时不识别该类型
+     * @return 当前对象
+     */
+    public MaskPiiDetector setHandler(PiiType type, IMaskHandler handler) {
+        handlers[type.ordinal()] = handler == null ? null : handler.compile();
+        return this;
+    }
+
+    /**
+     * 识别文本中的敏感信息，只识别设置了脱敏处理器的类型
+     *
+     * @param text 文本
+     * @return 按位置排序的识别结果
+     */
+    public List<PiiMatch> detect(CharSequence text) {
+        List<PiiMatch> matches = new ArrayList<>();
+        char[] chars = chars(text);
+        scan(chars, 0, text.length(), (type, start, end) -> matches.add(new PiiMatch(type, start, end)));
+        release(chars);
+        return matches;
+    }
+
+    /**
+     * 对文本中识别出的敏感信息脱敏
+     *
+     * @param text 文本
+     * @return 脱敏结果，没有敏感信息时返回text本身
+     */
+    public String mask(String text) {
+        MaskSink sink = new MaskSink(text, null);
+        char[] chars = chars(text);
+        scan(chars, 0, text.length(), sink);
+        release(chars);
+        if (sink.out == null) {
+            return text;
+        }
+        sink.finish(text.length());
+        return sink.out.toString();
+    }
+
+    /**
+     * 对文本中识别出的敏感信息脱敏，并把结果追加到out中
+     *
+     * @param text 文本
+     * @param out  脱敏结果输出
+     */
+    public void mask(CharSequence text, StringBuilder out) {
+        MaskSink sink = new MaskSink(text, out);
+        char[] chars = chars(text);
+        scan(chars, 0, text.length(), sink);
+        release(chars);
+        sink.finish(text.length());
+    }
+
+    /**
+     * 把文本复制到字符数组中扫描，较短的文本使用线程内复用的数组。
+     * 扫描期间会调用脱敏处理器，数组在使用期间从线程中移除，处理器中再次调用识别器时使用新的数组
+     */
+    private static char[] chars(CharSequence text) {
+        int length = text.length();
+        char[] chars = null;
+        if (length <= BUFFER_SIZE) {
+            chars = BUFFER.get();
+            BUFFER.remove();
+        }
+        if (chars == null) {
+            chars = new char[Math.max(length, length <= BUFFER_SIZE ? BUFFER_SIZE : 0)];
+        }
+        if (text instanceof String) {
+            ((String) text).getChars(0, length, chars, 0);
+        } else if (text instanceof StringBuilder) {
+            ((StringBuilder) text).getChars(0, length, chars, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                chars[i] = text.charAt(i);
+            }
+        }
+        return chars;
+    }
+
+    private static void release(char[] chars) {
+        if (chars.length == BUFFER_SIZE) {
+            BUFFER.set(chars);
+        }
+    }
+
+    private void scan(char[] src, int start, int end, Sink sink) {
+        int i = start;
+        while (i < end) {
+            char c = src[i];
+            if (c >= 128 || CHAR_TYPES[c] == 0) {
+                i++;
+                continue;
+            }
+            int runStart = i;
+            boolean candidate = false;
+            do {
+                candidate |= c == '@' || (CHAR_TYPES[c] & DIGIT) != 0;
+                if (++i == end) {
+                    break;
+                }
+                c = src[i];
+            } while (c < 128 && CHAR_TYPES[c] != 0);
+            if (candidate) {
+                scanRun(src, runStart, i, start, end, sink);
+            }
+        }
+    }
+
+    /**
+     * 识别由邮箱和数字串字符组成的一段文本[from, to)，limitStart和limitEnd为整个文本的边界
+     */
+    private void scanRun(char[] src, int from, int to, int limitStart, int limitEnd, Sink sink) {
+        int pos = from;
+        while (pos < to) {
+            int at = indexOf(src, '@', pos, to);
+            if (at < 0) {
+                scanDigits(src, pos, to, limitStart, limitEnd, sink);
+                return;
+            }
+            int localStart = pos;
+            while (localStart < at && src[localStart] == '.') {
+                localStart++;
+            }
+            int domainEnd = handlers[PiiType.EMAIL.ordinal()] == null || localStart == at
+                ? -1 : domainEnd(src, at + 1, to);
+            if (domainEnd < 0) {
+                scanDigits(src, pos, at, limitStart, limitEnd, sink);
+                pos = at + 1;
+                continue;
+            }
+            sink.accept(PiiType.EMAIL, localStart, domainEnd);
+            pos = domainEnd;
+        }
+    }
+
+    /**
+     * @return 从start开始的合法域名的结束位置，不合法时返回-1
+     */
+    private static int domainEnd(char[] src, int start, int to) {
+        int end = start;
+        while (end < to) {
+            char c = src[end];
+            if ((CHAR_TYPES[c] & DOMAIN) == 0) {
+                break;
+            }
+            end++;
+        }
+        while (end > start && (src[end - 1] == '.' || src[end - 1] == '-')) {
+            end--;
+        }
+        // 至少两段，每段不为空，顶级域名至少2个字母
+        int labelStart = start;
+        for (int i = start; i < end; i++) {
+            if (src[i] == '.') {
+                if (i == labelStart) {
+                    return -1;
+                }
+                labelStart = i + 1;
+            }
+        }
+        if (labelStart == start || end - labelStart < 2) {
+            return -1;
+        }
+        for (int i = labelStart; i < end; i++) {
+            if ((CHAR_TYPES[src[i]] & LETTER) == 0) {
+                return -1;
+            }
+        }
+        return end;
+    }
+
+    private void scanDigits(char[] src, int from, int to, int limitStart, int limitEnd, Sink sink) {
+        int i = from;
+        while (i < to) {
+            if ((CHAR_TYPES[src[i]] & DIGIT) == 0) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < to && (CHAR_TYPES[src[i]] & DIGIT) != 0) {
+                i++;
+            }
+            int end = i;
+            if (start > limitStart && isAlnum(src[start - 1])) {
+                continue;
+            }
+            int length = end - start;
+            if (length == 17 && end < to && (src[end] == 'X' || src[end] == 'x')) {
+                if (isBoundary(src, end + 1, limitEnd) && handlers[PiiType.ID_CARD.ordinal()] != null
+                    && isIdCard(src, start)) {
+                    sink.accept(PiiType.ID_CARD, start, end + 1);
+                }
+                i = end + 1;
+                continue;
+            }
+            if (!isBoundary(src, end, limitEnd)) {
+                continue;
+            }
+            PiiType type = digitsType(src, start, length);
+            if (type != null) {
+                sink.accept(type, start, end);
+            }
+        }
+    }
+
+    private PiiType digitsType(char[] src, int start, int length) {
+        if (length == 11) {
+            char second = src[start + 1];
+            if (src[start] == '1' && second >= '3' && handlers[PiiType.MOBILE.ordinal()] != null) {
+                return PiiType.MOBILE;
+            }
+        } else if (length == 18 && handlers[PiiType.ID_CARD.ordinal()] != null && isIdCard(src, start)) {
+            return PiiType.ID_CARD;
+        }
+        if (length >= 13 && length <= 19 && handlers[PiiType.BANK_CARD.ordinal()] != null
+            && luhn(src, start, start + length)) {
+            return PiiType.BANK_CARD;
+        }
+        return null;
+    }
+
+    /**
+     * 校验18位身份证号码的出生日期和校验码，start开始的前17位已确定是数字
+     */
+    private static boolean isIdCard(char[] src, int start) {
+        int year = number(src, start + 6, 4);
+        int month = number(src, start + 10, 2);
+        int day = number(src, start + 12, 2);
+        if (year < 1800 || year > 2199 || month < 1 || month > 12 || day < 1 || day > daysOfMonth(year, month)) {
+            return false;
+        }
+        int sum = 0;
+        for (int i = 0; i < 17; i++) {
+            sum += (src[start + i] - '0') * ID_WEIGHTS[i];
+        }
+        return Character.toUpperCase(src[start + 17]) == ID_CHECK_CODES[sum % 11];
+    }
+
+    private static int daysOfMonth(int year, int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0 ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    private static boolean luhn(char[] src, int start, int end) {
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = end - 1; i >= start; i--) {
+            int digit = src[i] - '0';
+            if (doubled) {
+                digit <<= 1;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+
+    private static int number(char[] src, int start, int length) {
+        int value = 0;
+        for (int i = start; i < start + length; i++) {
+            value = value * 10 + (src[i] - '0');
+        }
+        return value;
+    }
+
+    private static boolean isAlnum(char c) {
+        return c < 128 && (CHAR_TYPES[c] & (DIGIT | LETTER)) != 0;
+    }
+
+    private static boolean isBoundary(char[] src, int index, int limitEnd) {
+        return index >= limitEnd || !isAlnum(src[index]);
+    }
+
+    private static int indexOf(char[] src, char c, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (src[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 接收识别结果
+     */
+    @FunctionalInterface
+    private interface Sink {
+        void accept(PiiType type, int start, int end);
+    }
+
+    /**
+     * 把识别结果脱敏后写入输出，识别结果之间的文本原样复制
+     */
+    private final class MaskSink implements Sink {
+
+        private final CharSequence src;
+        private StringBuilder out;
+        private int copyFrom;
+
+        MaskSink(CharSequence src, StringBuilder out) {
+            this.src = src;
+            this.out = out;
+        }
+
+        @Override
+        public void accept(PiiType type, int start, int end) {
+            if (out == null) {
+                out = new StringBuilder(src.length() + 16);
+            }
+            out.append(src, copyFrom, start);
+            handlers[type.ordinal()].handle(src, start, end, out);
+            copyFrom = end;
+        }
+
+        void finish(int end) {
+            out.append(src, copyFrom, end);
+        }
+    }
+}
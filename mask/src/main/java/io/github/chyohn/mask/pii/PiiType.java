@@ -0,0 +1,43 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.pii;
+
+/**
+ * 可以从文本中识别的敏感信息类型
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public enum PiiType {
+    /**
+     * 手机号码：11位数字，以1开头，第二位为3-9
+     */
+    MOBILE,
+    /**
+     * 18位居民身份证号码，出生日期和校验码正确，最后一位可以是X
+     */
+    ID_CARD,
+    /**
+     * 邮箱
+     */
+    EMAIL,
+    /**
+     * 银行卡号：13-19位数字，通过Luhn校验
+     */
+    BANK_CARD
+}
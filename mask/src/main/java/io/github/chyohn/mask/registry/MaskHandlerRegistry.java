@@ -0,0 +1,292 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package io.github.chyohn.mask.registry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.chyohn.mask.IMaskHandler;
+import io.github.chyohn.mask.MaskHandlerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * <pre>
+ * 按名称管理脱敏处理器，从文件或目录中加载{@link IMaskHandler#toConfig()}格式的配置，支持配置变更后热加载。
+ * 1. 配置源是文件时，文件内容为JSON对象，key为处理器名称，value为处理器配置（JSON对象或者配置JSON字符串）
+ * 2. 配置源是目录时，目录下每个"名称.json"文件保存一个处理器配置
+ * 3. 查询时读取当前快照，不加锁；重新加载时只重新创建配置有变化的处理器，全部成功后一次性替换快照，
+ *    任意一个配置有误时保留原快照不变
+ * 4. 所有处理器都已{@link IMaskHandler#compile() 编译}，可以在多个线程之间共享
+ * </pre>
+ * 示例：
+ * <pre>
+ * {@code
+ * MaskHandlerRegistry registry = MaskHandlerRegistry.load(Paths.get("/etc/app/mask-rules.json"))
+ *         .onError(e -> log.warn("reload mask rules failed", e))
+ *         .watch(10, TimeUnit.SECONDS);
+ * String masked = registry.get("phone").handle("13755556666");
+ * }
+ * </pre>
+ *
+ * @author qiang.shao
+ * @since 1.0.1
+ */
+public final class MaskHandlerRegistry implements AutoCloseable {
+
+    private static final String CONFIG_FILE_SUFFIX = ".json";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final AtomicInteger THREAD_ID = new AtomicInteger();
+
+    private final Path source;
+    private final Object reloadLock = new Object(); // 重新加载之间互斥，查询不需要获取该锁
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private String lastFileContent; // 上次读取的配置文件内容，由reloadLock保护
+    private Map<String, String> lastConfigs = Collections.emptyMap(); // 上次读取的配置，由reloadLock保护
+    private volatile Consumer<? super Exception> errorListener;
+    private ScheduledExecutorService watcher;
+
+    private MaskHandlerRegistry(Path source) {
+        this.source = Objects.requireNonNull(source, "source不能为null");
+    }
+
+    /**
+     * 从文件或目录中加载处理器
+     *
+     * @param source 配置文件或目录
+     * @return 处理器注册表
+     * @throws IOException              读取配置失败
+     * @throws IllegalArgumentException 配置有误
+     */
+    public static MaskHandlerRegistry load(Path source) throws IOException {
+        MaskHandlerRegistry registry = new MaskHandlerRegistry(source);
+        registry.reload();
+        return registry;
+    }
+
+    /**
+     * 获取指定名称的处理器
+     *
+     * @param name 处理器名称
+     * @return 编译后的处理器，不存在时返回null
+     */
+    public IMaskHandler get(String name) {
+        return snapshot.handlers.get(name);
+    }
+
+    /**
+     * 获取当前快照中所有处理器，同一个快照中的处理器来自同一次加载
+     *
+     * @return 不可修改的名称和处理器映射
+     */
+    public Map<String, IMaskHandler> getHandlers() {
+        return snapshot.handlers;
+    }
+
+    /**
+     * 获取所有处理器名称
+     *
+     * @return 不可修改的名称集合
+     */
+    public Set<String> names() {
+        return snapshot.handlers.keySet();
+    }
+
+    /**
+     * 获取快照版本号，每次配置变更后加1
+     *
+     * @return 快照版本号
+     */
+    public long getVersion() {
+        return snapshot.version;
+    }
+
+    /**
+     * 设置定时重新加载失败时的回调，手动调用{@link #reload()}时异常直接抛出
+     *
+     * @param errorListener 回调
+     * @return 当前注册表
+     */
+    public MaskHandlerRegistry onError(Consumer<? super Exception> errorListener) {
+        this.errorListener = errorListener;
+        return this;
+    }
+
+    /**
+     * 启动后台线程，按指定间隔检查配置是否有变更
+     *
+     * @param period 检查间隔
+     * @param unit   时间单位
+     * @return 当前注册表
+     */
+    public synchronized MaskHandlerRegistry watch(long period, TimeUnit unit) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period必须大于0");
+        }
+        if (watcher != null) {
+            throw new IllegalStateException("已经在检查配置变更");
+        }
+        watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "mask-registry-" + THREAD_ID.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        watcher.scheduleWithFixedDelay(this::reloadQuietly, period, period, unit);
+        return this;
+    }
+
+    /**
+     * 停止检查配置变更，已加载的处理器仍然可用
+     */
+    @Override
+    public synchronized void close() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+            watcher = null;
+        }
+    }
+
+    /**
+     * 重新加载配置，只重新创建配置有变化的处理器
+     *
+     * 配置与上次读取时相同则直接返回，因此同一个有误的配置只会抛出一次异常
+     *
+     * @return 快照是否有变化
+     * @throws IOException              读取配置失败
+     * @throws IllegalArgumentException 配置有误，此时原快照保持不变
+     */
+    public boolean reload() throws IOException {
+        synchronized (reloadLock) {
+            Map<String, String> configs = Files.isDirectory(source) ? readDirectory() : readFile();
+            if (configs == null || configs.equals(lastConfigs)) {
+                return false;
+            }
+            lastConfigs = configs;
+            Snapshot current = snapshot;
+            Map<String, IMaskHandler> handlers = new HashMap<>(configs.size() * 4 / 3 + 1);
+            for (Map.Entry<String, String> entry : configs.entrySet()) {
+                String name = entry.getKey();
+                String config = entry.getValue();
+                IMaskHandler handler = current.handlers.get(name);
+                if (handler == null || !config.equals(current.configs.get(name))) {
+                    handler = build(name, config);
+                }
+                handlers.put(name, handler);
+            }
+            snapshot = new Snapshot(current.version + 1, configs, handlers);
+            return true;
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            Consumer<? super Exception> listener = errorListener;
+            if (listener != null) {
+                listener.accept(e);
+            }
+        }
+    }
+
+    private static IMaskHandler build(String name, String config) {
+        try {
+            return MaskHandlerFactory.fromConfig(config).compile();
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("处理器[" + name + "]的配置有误: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取配置文件，文件内容与上次加载时相同返回null
+     */
+    private Map<String, String> readFile() throws IOException {
+        String content = new String(Files.readAllBytes(source), StandardCharsets.UTF_8);
+        if (content.equals(lastFileContent)) {
+            return null;
+        }
+        lastFileContent = content;
+        JsonNode root;
+        try {
+            root = OBJECT_MAPPER.readTree(content);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("配置文件格式有误: " + source, e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("配置文件内容必须是JSON对象: " + source);
+        }
+        Map<String, String> configs = new TreeMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = it.next();
+            JsonNode value = field.getValue();
+            configs.put(field.getKey(), value.isTextual() ? value.textValue() : value.toString());
+        }
+        return configs;
+    }
+
+    /**
+     * 读取目录下的所有"名称.json"文件
+     */
+    private Map<String, String> readDirectory() throws IOException {
+        Map<String, String> configs = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(source, "*" + CONFIG_FILE_SUFFIX)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (fileName.startsWith(".") || !Files.isRegularFile(file)) {
+                    continue;
+                }
+                String name = fileName.substring(0, fileName.length() - CONFIG_FILE_SUFFIX.length());
+                configs.put(name, new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim());
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * 不可变的处理器快照
+     */
+    private static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0, Collections.emptyMap(), Collections.emptyMap());
+
+        final long version;
+        final Map<String, String> configs; // 生成handlers的配置
+        final Map<String, IMaskHandler> handlers;
+
+        Snapshot(long version, Map<String, String> configs, Map<String, IMaskHandler> handlers) {
+            this.version = version;
+            this.configs = configs;
+            this.handlers = Collections.unmodifiableMap(handlers);
+        }
+    }
+}